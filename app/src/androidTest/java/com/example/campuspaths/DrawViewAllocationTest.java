@@ -0,0 +1,96 @@
+package com.example.campuspaths;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Debug;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import hw8.Coordinate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test asserting that DrawView.onDraw allocates nothing once warmed up, with and without a tiled map.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DrawViewAllocationTest {
+    private static final int WARMUP_FRAMES = 20;
+    private static final int FRAMES = 200;
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void onDraw_allocatesNothingInSteadyState() {
+        DrawView view = new DrawView(InstrumentationRegistry.getTargetContext());
+        view.setSrc(new Coordinate(1914.5103, 1709.8816));
+        view.setDst(new Coordinate(2259.7112, 1715.5273));
+        float[] pts = new float[4 * 500];
+        for (int i = 0; i < pts.length; i++) {
+            pts[i] = (i * 37) % 700;
+        }
+        view.setPts(pts);
+        Canvas canvas = new Canvas(Bitmap.createBitmap(800, 600, Bitmap.Config.ARGB_8888));
+
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            view.onDraw(canvas);
+        }
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        for (int i = 0; i < FRAMES; i++) {
+            view.onDraw(canvas);
+        }
+        Debug.stopAllocCounting();
+
+        assertEquals(0, Debug.getThreadAllocCount());
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void onDraw_tiledMap_allocatesNothingWhilePanningOverMissingTiles() throws IOException {
+        // A single-tile cache budget keeps evicting tiles, so every frame finds tiles missing and requests them.
+        Bitmap map = Bitmap.createBitmap(1024, 1024, Bitmap.Config.RGB_565);
+        map.eraseColor(Color.GRAY);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        map.compress(Bitmap.CompressFormat.PNG, 100, png);
+        byte[] bytes = png.toByteArray();
+        TiledMapRenderer tiledMap = new TiledMapRenderer(
+                BitmapRegionDecoder.newInstance(bytes, 0, bytes.length, false), 1, new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+
+        DrawView view = new DrawView(InstrumentationRegistry.getTargetContext());
+        view.setTiledMap(tiledMap);
+        view.layout(0, 0, 800, 600);
+        view.setScaleX(2.0f);
+        view.setScaleY(2.0f);
+        Canvas canvas = new Canvas(Bitmap.createBitmap(800, 600, Bitmap.Config.ARGB_8888));
+
+        try {
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                view.setPivotX(i % 2 == 0 ? 200.0f : 600.0f);
+                view.onDraw(canvas);
+            }
+            Debug.resetThreadAllocCount();
+            Debug.startAllocCounting();
+            for (int i = 0; i < FRAMES; i++) {
+                view.setPivotX(i % 2 == 0 ? 200.0f : 600.0f);
+                view.onDraw(canvas);
+            }
+            Debug.stopAllocCounting();
+        } finally {
+            tiledMap.release();
+        }
+
+        assertEquals(0, Debug.getThreadAllocCount());
+    }
+}
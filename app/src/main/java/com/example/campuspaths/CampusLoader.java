@@ -0,0 +1,510 @@
+package com.example.campuspaths;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import hw8.CampusBuilding;
+import hw8.CampusPath;
+
+/**
+ * Background loading pipeline for the campus model.
+ *
+ * Stages run on a single worker thread, and each result is posted back to the main thread as
+ * soon as it is available:
+ *  - The small buildings TSV is parsed first, so the building lists can be populated right away.
+ *  - The path graph is then memory-mapped from the CampusAssets.GRAPH asset, which the build compiles
+ *    from the TSVs, or parsed from the paths TSV if the asset is unusable. The boxed hw8.model.Campus is not built here; a caller that routes with it builds
+ *    it from the graph on first use.
+ *  - Optionally, ALT landmark distance tables are then computed for the graph.
+ *  - Optionally, a ContractionHierarchy is then loaded (from the CampusAssets.HIERARCHY asset the
+ *    build contracts, or the app files directory if possible, otherwise built and cached).
+ *  - Optionally, the all-pairs building RouteTable is then loaded (from the CampusAssets.ROUTES asset
+ *    the build computes, or the app files directory if possible, otherwise computed and cached).
+ *  - Finally, path closures and length changes listed in CLOSURES_FILE in the app files directory, a
+ *    delta TSV in the paths TSV format, are applied through a WeightOverlay. The updated graph is
+ *    delivered first, then landmarks, hierarchy and route table updated for it: the landmarks are reused
+ *    if no path got shorter, the hierarchy is rebuilt, and only the route table trees the change affects
+ *    are recomputed. checkClosures applies the file again if it has changed since.
+ *  - On request, loadProfile computes the graph and route table for a CostProfile over the current
+ *    graph, which are cached in ProfileTables so switching back to a profile costs nothing.
+ * Load failures are reported to the listener instead of terminating the process.
+ */
+public class CampusLoader {
+    private static final String CLOSURES_FILE = "campus_closures.tsv";
+
+    /**
+     * Callbacks for the loading stages. All methods are invoked on the main thread.
+     */
+    public interface Listener {
+        /**
+         * Called once the buildings have been parsed.
+         * @param buildings List of CampusBuilding in file order. */
+        void onBuildingsLoaded(List<CampusBuilding> buildings);
+
+        /**
+         * Called once the path graph is ready for routing.
+         * @param graph CampusGraph loaded from the graph asset or the TSVs. */
+        void onCampusLoaded(CampusGraph graph);
+
+        /**
+         * Called when closures have changed edge lengths. The landmarks, hierarchy and route table delivered
+         * so far are for the previous graph; updated ones follow through the callbacks below.
+         * @param change WeightOverlay.Change from the graph delivered so far to the updated graph. */
+        void onGraphUpdated(WeightOverlay.Change change);
+
+        /**
+         * Called once the landmark distance tables are ready, if a landmark count was set, and again after
+         * each graph update.
+         * @param landmarks Landmarks over the graph passed to onCampusLoaded. */
+        void onLandmarksLoaded(Landmarks landmarks);
+
+        /**
+         * Called once the ContractionHierarchy is ready, if enabled, and again after each graph update.
+         * @param hierarchy ContractionHierarchy over the graph passed to onCampusLoaded. */
+        void onContractionHierarchyLoaded(ContractionHierarchy hierarchy);
+
+        /**
+         * Called once the building RouteTable is ready, if route precomputation is enabled, and again after
+         * each graph update.
+         * @param table RouteTable over the graph passed to onCampusLoaded. */
+        void onRouteTableLoaded(RouteTable table);
+
+        /**
+         * Called once the routing state requested through loadProfile is ready.
+         * @param entry ProfileTables.Entry for the profile over the graph delivered most recently. */
+        void onProfileLoaded(ProfileTables.Entry entry);
+
+        /**
+         * Called if any stage fails. No further callbacks follow.
+         * @param e Exception that caused the failure: an IOException if a bundled file cannot be read, or a
+         *     RuntimeException if one is malformed or building the routing state fails. */
+        void onLoadFailed(Exception e);
+    }
+
+    private final Context context;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private boolean precomputeRoutes = false;
+    private int landmarkCount = 0;
+    private boolean contractionHierarchy = false;
+
+    // Only read and written on the main thread.
+    private boolean cancelled = false;
+
+    // Loaded state, only read and written on the worker thread.
+    private WeightOverlay overlay;
+    private Landmarks landmarks;
+    private ContractionHierarchy hierarchy;
+    private RouteTable table;
+    private ProfileTables profiles;
+    // Modification time of the closures file last applied, or 0 if none was.
+    private long closuresStamp = 0L;
+
+    /**
+     * Constructor.
+     * @param context Context used to open the raw resources and the app files directory.
+     * @param listener Listener notified on the main thread as stages complete.
+     * @spec.requires context and listener are not null. */
+    public CampusLoader(Context context, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.listener = listener;
+    }
+
+    /**
+     * Setter.
+     * @param precomputeRoutes boolean whether to also load the all-pairs building RouteTable.
+     * @spec.requires start has not been called yet. */
+    public void setPrecomputeRoutes(boolean precomputeRoutes) {
+        this.precomputeRoutes = precomputeRoutes;
+    }
+
+    /**
+     * Setter.
+     * @param landmarkCount int number of ALT landmarks to compute once the graph is loaded, or 0 for none.
+     * @spec.requires start has not been called yet, landmarkCount &gt;= 0. */
+    public void setLandmarkCount(int landmarkCount) {
+        this.landmarkCount = landmarkCount;
+    }
+
+    /**
+     * Setter.
+     * @param contractionHierarchy boolean whether to also load a ContractionHierarchy for the graph.
+     * @spec.requires start has not been called yet. */
+    public void setContractionHierarchy(boolean contractionHierarchy) {
+        this.contractionHierarchy = contractionHierarchy;
+    }
+
+    /**
+     * Starts loading in the background.
+     * @spec.requires start has not been called before. */
+    public void start() {
+        profiles = new ProfileTables(precomputeRoutes);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final List<CampusBuilding> buildings = loadBuildings();
+                    post(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.onBuildingsLoaded(buildings);
+                        }
+                    });
+
+                    final CampusGraph graph = loadCampusGraph();
+                    overlay = new WeightOverlay(graph);
+                    post(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.onCampusLoaded(graph);
+                        }
+                    });
+
+                    if (landmarkCount > 0) {
+                        long start = Metrics.start();
+                        landmarks = Landmarks.compute(graph, landmarkCount);
+                        Metrics.LANDMARKS.recordSince(start);
+                        postLandmarks(landmarks);
+                    }
+
+                    if (contractionHierarchy) {
+                        hierarchy = loadContractionHierarchy(graph);
+                        postHierarchy(hierarchy);
+                    }
+
+                    if (precomputeRoutes) {
+                        table = loadRouteTable(graph);
+                        postRouteTable(table);
+                    }
+
+                    applyClosures();
+                } catch (final IOException | RuntimeException e) {
+                    // Anything not caught here would be kept by the executor, and the UI would wait forever.
+                    post(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.onLoadFailed(e);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Computes, or fetches from the cache, the routing state for a cost profile over the current graph, and
+     * delivers it through onProfileLoaded.
+     * @param profile CostProfile to route by.
+     * @spec.requires start has been called, and profile is not null. */
+    public void loadProfile(final CostProfile profile) {
+        if (cancelled) {
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (overlay == null) {
+                    return;
+                }
+                final ProfileTables.Entry entry = profiles.get(profile, overlay.graph());
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onProfileLoaded(entry);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Applies the closures file again if it has been added, changed or removed since it was last applied.
+     * @spec.requires start has been called. */
+    public void checkClosures() {
+        if (cancelled) {
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                applyClosures();
+            }
+        });
+    }
+
+    /**
+     * Stops delivering results, e.g. when the activity is destroyed.
+     * @spec.effects No listener callbacks are made after this returns. */
+    public void cancel() {
+        cancelled = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Applies CLOSURES_FILE to the loaded graph, relative to the loaded path lengths, and delivers the updated
+     * graph, landmarks, hierarchy and route table. A missing file reopens everything; a malformed one is
+     * reported and ignored. Runs on the worker thread. */
+    private void applyClosures() {
+        if (overlay == null) {
+            return;
+        }
+        File file = new File(context.getFilesDir(), CLOSURES_FILE);
+        long stamp = file.exists() ? file.lastModified() : 0L;
+        if (stamp == closuresStamp) {
+            return;
+        }
+        closuresStamp = stamp;
+        overlay.reset();
+        if (file.exists()) {
+            try {
+                InputStream in = new FileInputStream(file);
+                try {
+                    int rows = overlay.load(in);
+                    System.out.printf("CampusLoader: applyClosures: \n\trows: '%d'\n", rows);
+                } finally {
+                    in.close();
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.printf("CampusLoader: applyClosures: ignoring closures: '%s'\n", e.getMessage());
+                overlay.reset();
+            }
+        }
+
+        long start = Metrics.start();
+        final WeightOverlay.Change change = overlay.commit();
+        if (change.size() == 0) {
+            return;
+        }
+        post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onGraphUpdated(change);
+            }
+        });
+        if (landmarks != null) {
+            landmarks = landmarks.update(change);
+            postLandmarks(landmarks);
+        }
+        if (hierarchy != null) {
+            hierarchy = ContractionHierarchy.build(change.graph());
+            postHierarchy(hierarchy);
+        }
+        if (table != null) {
+            table = table.update(change);
+            postRouteTable(table);
+        }
+        Metrics.GRAPH_UPDATE.recordSince(start);
+    }
+
+    private void postLandmarks(final Landmarks landmarks) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onLandmarksLoaded(landmarks);
+            }
+        });
+    }
+
+    private void postHierarchy(final ContractionHierarchy hierarchy) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onContractionHierarchyLoaded(hierarchy);
+            }
+        });
+    }
+
+    private void postRouteTable(final RouteTable table) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onRouteTableLoaded(table);
+            }
+        });
+    }
+
+    /**
+     * Posts a callback to the main thread unless the loader has been cancelled by then. */
+    private void post(final Runnable callback) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!cancelled) {
+                    callback.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Loader.
+     * @throws IOException if the bundled buildings TSV cannot be read.
+     * @return the parsed buildings. */
+    private List<CampusBuilding> loadBuildings() throws IOException {
+        InputStream buildingsInputStream = context.getResources().openRawResource(R.raw.campus_buildings_new);
+        try {
+            long start = Metrics.start();
+            List<CampusBuilding> buildings = AndroidParser.parseBuildingData(buildingsInputStream);
+            Metrics.PARSE_BUILDINGS.recordSince(start);
+            return buildings;
+        } finally {
+            buildingsInputStream.close();
+        }
+    }
+
+    /**
+     * Loader.
+     * Memory-maps the campus graph the build precompiled into the CampusAssets.GRAPH asset, falling back
+     * to parsing the bundled TSVs if the asset is missing or invalid.
+     * @throws IOException if the bundled TSVs cannot be read.
+     * @return the loaded CampusGraph. */
+    private CampusGraph loadCampusGraph() throws IOException {
+        try {
+            // The asset is stored uncompressed, so it can be mapped in place inside the APK.
+            AssetFileDescriptor asset = context.getAssets().openFd(CampusAssets.GRAPH);
+            FileInputStream in = asset.createInputStream();
+            try {
+                long start = Metrics.start();
+                CampusGraph graph = CampusGraphFile.read(in.getChannel(), asset.getStartOffset(),
+                        asset.getLength(), CampusAssets.STAMP);
+                Metrics.GRAPH_READ.recordSince(start);
+                return graph;
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            System.out.printf("CampusLoader: loadCampusGraph: falling back to TSV: '%s'\n", e.getMessage());
+        }
+
+        CampusGraph graph;
+        InputStream pathsInputStream = context.getResources().openRawResource(R.raw.campus_paths);
+        InputStream buildingsInputStream = context.getResources().openRawResource(R.raw.campus_buildings_new);
+        try {
+            List<CampusBuilding> buildings = AndroidParser.parseBuildingData(buildingsInputStream);
+            long start = Metrics.start();
+            EdgeAttributes.Builder attributes = new EdgeAttributes.Builder();
+            List<CampusPath> paths = AndroidParser.parsePathData(pathsInputStream, attributes);
+            Metrics.PARSE_PATHS.recordSince(start);
+            start = Metrics.start();
+            graph = CampusGraph.build(buildings, paths, attributes.build());
+            Metrics.GRAPH_BUILD.recordSince(start);
+        } finally {
+            pathsInputStream.close();
+            buildingsInputStream.close();
+        }
+        return graph;
+    }
+
+    /**
+     * Loader.
+     * Loads the building RouteTable from a prebuilt asset or the app files directory, falling back to
+     * computing it (and caching it in the app files directory) if neither matches the graph.
+     * @param graph CampusGraph the table must have been computed on.
+     * @return the RouteTable for graph. */
+    private RouteTable loadRouteTable(CampusGraph graph) {
+        try {
+            InputStream asset = context.getAssets().open(CampusAssets.ROUTES);
+            try {
+                return RouteTable.read(asset, graph);
+            } finally {
+                asset.close();
+            }
+        } catch (IOException e) {
+            System.out.printf("CampusLoader: loadRouteTable: no usable asset: '%s'\n", e.getMessage());
+        }
+
+        File file = new File(context.getFilesDir(), CampusAssets.ROUTES);
+        if (file.exists()) {
+            try {
+                InputStream in = new FileInputStream(file);
+                try {
+                    return RouteTable.read(in, graph);
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                System.out.printf("CampusLoader: loadRouteTable: recomputing: '%s'\n", e.getMessage());
+            }
+        }
+
+        long start = Metrics.start();
+        RouteTable table = RouteTable.compute(graph);
+        Metrics.ROUTE_TABLE_BUILD.recordSince(start);
+        try {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                table.write(out);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            System.out.printf("CampusLoader: loadRouteTable: could not cache table: '%s'\n", e.getMessage());
+            file.delete();
+        }
+        return table;
+    }
+
+    /**
+     * Loader.
+     * Loads the ContractionHierarchy from a prebuilt asset or the app files directory, falling back to
+     * building it (and caching it in the app files directory) if neither matches the graph.
+     * @param graph CampusGraph the hierarchy must have been built on.
+     * @return the ContractionHierarchy for graph. */
+    private ContractionHierarchy loadContractionHierarchy(CampusGraph graph) {
+        try {
+            InputStream asset = context.getAssets().open(CampusAssets.HIERARCHY);
+            try {
+                return ContractionHierarchy.read(asset, graph);
+            } finally {
+                asset.close();
+            }
+        } catch (IOException e) {
+            System.out.printf("CampusLoader: loadContractionHierarchy: no usable asset: '%s'\n", e.getMessage());
+        }
+
+        File file = new File(context.getFilesDir(), CampusAssets.HIERARCHY);
+        if (file.exists()) {
+            try {
+                InputStream in = new FileInputStream(file);
+                try {
+                    return ContractionHierarchy.read(in, graph);
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                System.out.printf("CampusLoader: loadContractionHierarchy: rebuilding: '%s'\n", e.getMessage());
+            }
+        }
+
+        long start = Metrics.start();
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        Metrics.HIERARCHY_BUILD.recordSince(start);
+        try {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                hierarchy.write(out);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            System.out.printf("CampusLoader: loadContractionHierarchy: could not cache hierarchy: '%s'\n",
+                    e.getMessage());
+            file.delete();
+        }
+        return hierarchy;
+    }
+}
@@ -1,39 +1,108 @@
 package com.example.campuspaths;
 
 import android.content.Context;
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Matrix;
 import android.graphics.Paint;
-import android.graphics.drawable.Drawable;
-import android.media.Image;
+import android.graphics.Path;
+import android.graphics.RectF;
 import android.support.v7.widget.AppCompatImageView;
 import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 
 import hw5.Edge;
 import hw8.Coordinate;
 
 /**
  * Custom DrawView that allows for painting on an ImageView.
+ *
+ * onDraw runs on every frame of a zoom or pan animation, so it does no logging, formatting or
+ * allocation: each role (route, source, destination) has its own preconfigured Paint, and debug
+ * tracing is compiled out unless TRACE is set. Frame times go to Metrics.FRAME while metrics are enabled.
+ *
+ * The route is held as a shared-vertex RoutePolyline. Each frame draws the variant RoutePolyline.forScale
+ * picks for the current view scale, so at low zoom long routes are drawn with their Douglas-Peucker
+ * simplification, and from RoutePolyline.FULL_FIDELITY_SCALE up with every vertex. In RenderMode.PATH
+ * (the default) that variant is built into a single android.graphics.Path only when the route or the
+ * zoom level changes, which the hardware renderer caches and replays, instead of submitting a flat
+ * segment array to drawLines on every invalidate.
+ *
+ * When a TiledMapRenderer is set, the map itself is drawn from decoded tiles of the visible region at a
+ * resolution matched to the current zoom, in place of a full-resolution drawable.
+ *
+ * Single taps on the map are reported to an OnMapTapListener in raw coordinates, so the controller can
+ * snap them to the nearest building or path node.
  */
 public class DrawView extends AppCompatImageView {
     public static final float SCALING = 0.25f;
 
-    private static Paint paint = new Paint();
+    /**
+     * How the route is submitted to the canvas.
+     */
+    public enum RenderMode {
+        /** Canvas.drawLines over the flat segment array on every frame. */
+        LINES,
+        /** Canvas.drawPath over a Path built once per route. */
+        PATH
+    }
+
+    /**
+     * Receives single taps on the map.
+     */
+    public interface OnMapTapListener {
+        /**
+         * @param x double raw-space x coordinate of the tap.
+         * @param y double raw-space y coordinate of the tap. */
+        void onMapTap(double x, double y);
+    }
+
+    // Compile-time switch for debug tracing; when false the tracing code is removed by javac.
+    static final boolean TRACE = false;
+
     private static int routeColor = Color.rgb(153, 128, 250);
     private static int srcColor = Color.rgb(85, 239, 196);
     private static int dstColor = Color.rgb(232, 67, 147);
     private static float radius = 10.0f;
     private static final int WIDTH = 3;
 
+    private final Paint routePaint = newRoutePaint();
+    private final Paint srcPaint = newPaint(srcColor);
+    private final Paint dstPaint = newPaint(dstColor);
+    private final Path routePath = new Path();
+    private RenderMode renderMode = RenderMode.PATH;
+
+    // Tiled map, and its per-frame scratch space.
+    private TiledMapRenderer tiledMap = null;
+    private final Matrix imageToView = new Matrix();
+    private final RectF visibleImage = new RectF();
+
+    // Tap handling. Touch events arrive in the view's local coordinates, i.e. already undoing its scale and pivot.
+    private OnMapTapListener onMapTapListener = null;
+    private final GestureDetector tapDetector = new GestureDetector(getContext(),
+            new GestureDetector.SimpleOnGestureListener() {
+        @Override
+        public boolean onDown(MotionEvent e) {
+            return true;
+        }
+
+        @Override
+        public boolean onSingleTapUp(MotionEvent e) {
+            onMapTapListener.onMapTap(e.getX() / SCALING, e.getY() / SCALING);
+            return performClick();
+        }
+    });
+
     // Coordinates in raw units.
     private Coordinate src = null;
     private Coordinate dst = null;
-    private float[] pts = null;
+    private RoutePolyline route = null;
+    // The variant of route that routePath (PATH) or routeSegments (LINES) was last built from.
+    private RoutePolyline drawnRoute = null;
+    private float[] routeSegments = null;
 
     public DrawView(Context context) {
         super(context);
@@ -45,102 +114,224 @@ public class DrawView extends AppCompatImageView {
         super(context, attrs, defStyleAttr);
     }
 
+    /**
+     * Factory.
+     * @param color int color of the paint.
+     * @return a new Paint with the given color and the route stroke width. */
+    private static Paint newPaint(int color) {
+        Paint paint = new Paint();
+        paint.setColor(color);
+        paint.setStrokeWidth(WIDTH);
+        return paint;
+    }
+
+    /**
+     * Factory.
+     * @return a new stroking Paint for the route, with round joins so the Path renders like the lines. */
+    private static Paint newRoutePaint() {
+        Paint paint = newPaint(routeColor);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeJoin(Paint.Join.ROUND);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+        paint.setAntiAlias(true);
+        return paint;
+    }
+
     /**
      * onDraw.
      * This is the primary entrance for controlling the drawing behavior for the base ImageView.
      * @param canvas Canvas to draw on the base ImageView. */
     @Override
     protected void onDraw(Canvas canvas) {
+        long start = Metrics.start();
         super.onDraw(canvas);
-        System.out.printf("DrawView: onDraw: " +
-                "\n\tsrc: '%s'" +
-                "\n\tdst: '%s'" +
-                "\n\tpts: '%s'\n",
-                src, dst, Arrays.toString(pts));
-
-        if (pts != null) {
-            this.drawPath(canvas, pts);
+        if (tiledMap != null) {
+            drawTiledMap(canvas);
         }
-        else {
-            System.out.println("DrawView: onDraw: pts is null!");
+        if (TRACE) {
+            System.out.printf("DrawView: onDraw: " +
+                    "\n\tsrc: '%s'" +
+                    "\n\tdst: '%s'" +
+                    "\n\troute: '%d' vertices\n",
+                    src, dst, route != null ? route.vertexCount() : 0);
         }
 
-        if (src != null) {
-            drawCircle((float) src.getX(), (float) src.getY(), srcColor, canvas);
+        if (route != null) {
+            this.drawRoute(canvas);
         }
-        else {
-            System.out.println("DrawView: onDraw: src is null!");
+        if (src != null) {
+            drawCircle((float) src.getX(), (float) src.getY(), srcPaint, canvas);
         }
-
         if (dst != null) {
-            drawCircle((float) dst.getX(), (float) dst.getY(), dstColor, canvas);
+            drawCircle((float) dst.getX(), (float) dst.getY(), dstPaint, canvas);
         }
-        else {
-            System.out.println("DrawView: onDraw: src is null!");
+        Metrics.FRAME.recordSince(start);
+    }
+
+    /**
+     * onTouchEvent.
+     * @param event MotionEvent in the view's local coordinates.
+     * @spec.effects Reports single taps to the OnMapTapListener, if one is set.
+     * @return true if the event was consumed. */
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (onMapTapListener == null) {
+            return super.onTouchEvent(event);
         }
+        return tapDetector.onTouchEvent(event) || super.onTouchEvent(event);
+    }
+
+    /**
+     * Click handling is done by onTouchEvent; overridden so accessibility services see taps as clicks.
+     * @return true if a click listener was called. */
+    @Override
+    public boolean performClick() {
+        return super.performClick();
     }
 
     /**
      * Drawer.
-     * Draws a circle on the canvas using the static Paint object.
+     * Draws a circle on the canvas.
      * @param x float x-coordinate to draw the center of the circle.
      * @param y float y-coordinate to draw the center of the circle.
-     * @param color Color to draw the circle.
+     * @param paint Paint to draw the circle with.
      * @param canvas Canvas to draw on.
-     * @spec.requires paint is not null and color is in terms of color units.
+     * @spec.requires paint is not null.
      * @spec.effects Draws a circle at the given (x, y) coordinate on the canvas using paint. */
-    private void drawCircle(float x, float y, int color, Canvas canvas) {
-        System.out.printf("DrawView: drawCircle: " +
-                "\n\tx: '%s'" +
-                "\n\ty: '%s'" +
-                "\n\tcolor: '%s'\n",
-                x, y, color);
-        paint.setColor(color);
+    private void drawCircle(float x, float y, Paint paint, Canvas canvas) {
         canvas.drawCircle(x, y, radius, paint);
     }
 
     /**
      * Drawer.
-     * Draws a set of lines on the canvas using the static Paint object.
+     * Draws the route at the detail level for the current view scale, using the route Paint.
      * @param canvas Canvas to draw on.
-     * @param pts List of (x0, y0, x1, y1, ..., xn, yn) float points
-     * @spec.requires pts must not be null and must have even length.
-     * @spec.effects Draws a circle at the given (x, y) coordinate on the canvas using paint. */
-    private void drawPath(Canvas canvas, float[] pts) {
-        System.out.printf("DrawView: drawPath:" +
-                "\n\tpts: '%s'" +
-                "\n\tsrc: '%s'" +
-                "\n\tdst: '%s'\n",
-                Arrays.toString(pts), src, dst);
-        assert(pts != null && pts.length % 2 == 0);
-        paint.setColor(routeColor);
-        paint.setStrokeWidth(WIDTH);
-        canvas.drawLines(pts, paint);
+     * @spec.requires route is not null.
+     * @spec.effects Rebuilds routePath or routeSegments if the level changed, and draws the route on the canvas. */
+    private void drawRoute(Canvas canvas) {
+        RoutePolyline visible = route.forScale(Math.max(getScaleX(), getScaleY()));
+        if (visible != drawnRoute) {
+            rebuildRoute(visible);
+        }
+        if (renderMode == RenderMode.PATH) {
+            canvas.drawPath(routePath, routePaint);
+        }
+        else {
+            canvas.drawLines(routeSegments, routePaint);
+        }
+    }
+
+    /**
+     * Drawer.
+     * Draws the tiled map centered in the view like ImageView.ScaleType.FIT_CENTER, decoding only the part that
+     * is visible once the view's own scale around its pivot is applied.
+     * @param canvas Canvas to draw on.
+     * @spec.requires tiledMap is not null.
+     * @spec.effects Draws the visible map tiles on the canvas. */
+    private void drawTiledMap(Canvas canvas) {
+        float contentWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+        float contentHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+        float fit = Math.min(contentWidth / tiledMap.getWidth(), contentHeight / tiledMap.getHeight());
+        float dx = getPaddingLeft() + (contentWidth - tiledMap.getWidth() * fit) / 2;
+        float dy = getPaddingTop() + (contentHeight - tiledMap.getHeight() * fit) / 2;
+        imageToView.setScale(fit, fit);
+        imageToView.postTranslate(dx, dy);
+
+        // The part of the view that still lands inside its bounds after scaling around the pivot.
+        float scale = Math.max(getScaleX(), getScaleY());
+        float left = getPivotX() - getPivotX() / getScaleX();
+        float top = getPivotY() - getPivotY() / getScaleY();
+        float right = getPivotX() + (getWidth() - getPivotX()) / getScaleX();
+        float bottom = getPivotY() + (getHeight() - getPivotY()) / getScaleY();
+        visibleImage.set((left - dx) / fit, (top - dy) / fit, (right - dx) / fit, (bottom - dy) / fit);
+
+        tiledMap.draw(canvas, imageToView, visibleImage, fit * scale);
     }
 
     /**
      * Setter.
-     * This sets the pts for the map to draw given a list of paths.
-     * @param path ArrayList of Edge&lt;Double, Coordinate&gt; representing the path.
-     * @spec.requires path is not null and has length divisible by 4.
-     * @spec.effects This repopulates pts, and invalidates the state to force the view to re-draw. */
-    public void setPts(ArrayList<Edge<Double, Coordinate>> path) {
-        System.out.printf("DrawView: setPts: \n\tpath: '%s'\n", Arrays.toString(new ArrayList[]{path}));
-        if (path != null) {
-            // Inv: For each path_i, pts contains [..., path_i_src_x, path_i_src_y, path_i_dst_x, path_i_dst_y].
-            pts = new float[path.size() * 4];
-            for (int i = 0; i < path.size(); i++) {
-                // 0 --> [0, 1, 2, 3]; 1 --> [4, 5, 6, 7], ..., n --> [4n, 4n+1, 4n+2, 4n+3]
-                int j = i * 4;
-                pts[j] = (float) path.get(i).getSrc().getName().getX() * SCALING;
-                pts[j+1] = (float) path.get(i).getSrc().getName().getY() * SCALING;
-                pts[j+2] = (float) path.get(i).getDst().getName().getX() * SCALING;
-                pts[j+3] = (float) path.get(i).getDst().getName().getY() * SCALING;
+     * @param tiledMap TiledMapRenderer to draw the map with, or null to only draw the ImageView drawable.
+     * @spec.effects Sets the tiled map, and invalidates the view. */
+    public void setTiledMap(TiledMapRenderer tiledMap) {
+        this.tiledMap = tiledMap;
+        this.invalidate();
+    }
+
+    /**
+     * Setter.
+     * @param onMapTapListener OnMapTapListener to report taps to, or null to ignore taps.
+     * @spec.effects Sets the tap listener. */
+    public void setOnMapTapListener(OnMapTapListener onMapTapListener) {
+        this.onMapTapListener = onMapTapListener;
+    }
+
+    /**
+     * Setter.
+     * @param renderMode RenderMode to draw the route with.
+     * @spec.requires renderMode is not null.
+     * @spec.effects Switches the route rendering mode, and invalidates the view. */
+    public void setRenderMode(RenderMode renderMode) {
+        this.renderMode = renderMode;
+        drawnRoute = null;
+        this.invalidate();
+    }
+
+    /**
+     * Helper.
+     * Rebuilds the drawable form of the given route variant for the current mode: one Path contour per part in
+     * PATH mode, or the flat segment array in LINES mode.
+     * @param visible RoutePolyline variant to draw.
+     * @spec.effects Sets drawnRoute to visible, and rebuilds routePath or routeSegments from it. */
+    private void rebuildRoute(RoutePolyline visible) {
+        drawnRoute = visible;
+        routePath.rewind();
+        routeSegments = null;
+        if (renderMode == RenderMode.LINES) {
+            routeSegments = visible.toSegments();
+            return;
+        }
+        for (int part = 0; part < visible.partCount(); part++) {
+            int start = visible.partStart(part);
+            routePath.moveTo(visible.x(start), visible.y(start));
+            for (int v = start + 1; v < visible.partEnd(part); v++) {
+                routePath.lineTo(visible.x(v), visible.y(v));
             }
         }
-        else {
-            pts = null;
+    }
+
+    /**
+     * Setter.
+     * This sets the pts for the map to draw given a list of paths.
+     * @param path ArrayList of Edge&lt;Double, Coordinate&gt; representing the path, or null to clear the route.
+     * @spec.requires path is null or has no null edges; an edge that does not start where the previous one ended starts a new part of the route.
+     * @spec.effects This replaces the route with the polyline of path, or clears it if path is null, and invalidates the state to force the view to re-draw. */
+    public void setPts(ArrayList<Edge<Double, Coordinate>> path) {
+        if (TRACE) {
+            System.out.printf("DrawView: setPts: \n\tpath: '%s'\n", path);
         }
+        setRoute(path != null ? RouteGeometry.polyline(path, SCALING) : null);
+    }
+
+    /**
+     * Setter.
+     * This sets the pts for the map to draw given a precomputed segment array.
+     * @param pts float[] built by RouteGeometry.segments with SCALING, or null to clear the route.
+     * @spec.requires pts is null or has length divisible by 4.
+     * @spec.effects This replaces the route with the polyline joining pts, and invalidates the state to force the view to re-draw. */
+    public void setPts(float[] pts) {
+        setRoute(pts != null ? RoutePolyline.fromSegments(pts) : null);
+    }
+
+    /**
+     * Setter.
+     * This sets the route for the map to draw, e.g. from a RouteCache.
+     * @param route RoutePolyline built by RouteGeometry.polyline with SCALING, or null to clear the route.
+     * @spec.effects This replaces the route, and invalidates the state to force the view to re-draw. */
+    public void setRoute(RoutePolyline route) {
+        this.route = route;
+        drawnRoute = null;
+        routePath.rewind();
+        routeSegments = null;
         this.invalidate();
     }
 
@@ -151,7 +342,9 @@ public class DrawView extends AppCompatImageView {
      * @spec.requires src Coordinate is in raw-space if not null.
      * @spec.effects This re-sets src, and invalidates the state to force the view to re-draw. */
     public void setSrc(Coordinate src) {
-        System.out.printf("DrawView: setSrc: \n\tsrc: '%s'\n", src);
+        if (TRACE) {
+            System.out.printf("DrawView: setSrc: \n\tsrc: '%s'\n", src);
+        }
         if (src != null) {
             this.src = new Coordinate(SCALING * src.getX(), SCALING * src.getY());
         }
@@ -168,7 +361,9 @@ public class DrawView extends AppCompatImageView {
      * @spec.requires dst Coordinate is not null and is in raw-space.
      * @spec.effects This re-sets dst, and invalidates the state to force the view to re-draw. */
     public void setDst(Coordinate dst) {
-        System.out.printf("DrawView: setDst: \n\tdst: '%s'\n", dst);
+        if (TRACE) {
+            System.out.printf("DrawView: setDst: \n\tdst: '%s'\n", dst);
+        }
         if (dst != null) {
             this.dst = new Coordinate(SCALING * dst.getX(), SCALING * dst.getY());
         }
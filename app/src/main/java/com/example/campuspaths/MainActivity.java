@@ -1,21 +1,32 @@
 package com.example.campuspaths;
 
 import android.support.v7.app.AppCompatActivity;
+import android.os.AsyncTask;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.EditText;
 import android.widget.ListView;
+import android.widget.TextView;
+import android.widget.Toast;
 
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 import hw5.Edge;
 import hw8.CampusBuilding;
-import hw8.CampusPath;
 import hw8.Coordinate;
 import hw8.model.Campus;
 
@@ -25,28 +36,97 @@ import hw8.model.Campus;
  * Workflow:
  *  - Initialize App
  *      - Map is loaded
- *      - List of campus buildings and paths are loaded
- *      - Dropdown menu for src/dst buildings are loaded
  *      - Find Route and Reset buttons are loaded
+ *      - In the background, the list of campus buildings is loaded, indexed for search, and the dropdown menu
+ *        for src/dst buildings is populated
+ *      - In the background, the campus paths are loaded, and Find Route is enabled once they are ready
  *
  * Actions:
  *  - User can select campus buildings to navigate between through the dropdown menu
+ *      - Typing in the search box above each menu filters and ranks it by short and long name
  *      - Selecting each campus building adds a marker to the map
  *          - This cleans drawn paths if already drawn
+ *  - User can also tap the map: the tap snaps to the nearest building within TAP_RADIUS, or else to the
+ *    nearest path node, and selects it as the source, or as the destination if only the source is set
  *      - Once the two buildings are selected, tapping the FindRouteButton draws the Path
- *      - Tapping the ResetButton clears the markers and paths and menu */
+ *      - Tapping the ResetButton clears the markers and paths and menu
+ *  - Tapping the ProfileButton cycles the route cost between shortest distance, fastest walking time and
+ *    step-free; the routing state for each profile is computed in the background on first use and kept
+ *    for switching back
+ *  - Long-pressing the ResetButton turns Metrics recording and its overlay on the map on or off; turning it off, or
+ *    leaving the app while it is on, writes the metrics to METRICS_FILE in the app files directory */
 public class MainActivity extends AppCompatActivity {
+    /**
+     * Search used for routes the RouteTable cannot answer, or for all routes until it is loaded.
+     */
+    private enum RoutingMode {
+        /**
+         * hw8.model.Campus.getShortestPath, over a Campus built from the graph on the first route request; A*
+         * once closures have changed the graph, as Campus is not rebuilt. */
+        CAMPUS,
+        /** A* with the scaled Euclidean heuristic, on the thread-safe CampusSnapshot. */
+        A_STAR,
+        /** BidirectionalAltRouter over landmarks computed at load time; A* until they are ready. */
+        BIDIRECTIONAL_ALT,
+        /** ContractionHierarchyRouter over a hierarchy loaded or built at load time; A* until it is ready. */
+        CONTRACTION_HIERARCHY
+    }
+
     private static float zoom = 2.5f;
+    private static final long ZOOM_DURATION_MS = 300;
+    // Byte budget for decoded map tiles.
+    private static final int TILE_CACHE_BYTES = 16 * 1024 * 1024;
+    // Whether to precompute every building-to-building route at load time.
+    private static final boolean PRECOMPUTE_ROUTES = true;
+    // Total number of route points kept by the route cache.
+    private static final int ROUTE_CACHE_POINTS = 16 * 1024;
+    private static final RoutingMode ROUTING_MODE = RoutingMode.CONTRACTION_HIERARCHY;
+    // Raw-space distance within which a map tap selects a building rather than a path node.
+    private static final double TAP_RADIUS = 100.0;
+    // Whether to record metrics and show their overlay from startup.
+    private static final boolean METRICS = false;
+    private static final String METRICS_FILE = "metrics.tsv";
+    private static final long METRICS_REFRESH_MS = 500;
 
     // model.
-    private Campus model;
+    private CampusLoader loader;
+    private CampusGraph graph;
+    // Router over the Campus model for RoutingMode.CAMPUS, or null in the other modes.
+    private RouteService.Router campusRouter;
+    // Whether closures have changed the graph since it was loaded.
+    private boolean graphUpdated = false;
+    private CampusSnapshot snapshot;
+    private Landmarks landmarks;
+    private ContractionHierarchy hierarchy;
+    private RouteTable routeTable;
+    private CostProfile profile = CostProfile.SHORTEST;
+    // Routing state for profile, or null while it is loading or if profile is by distance.
+    private ProfileTables.Entry profileEntry;
+    private SpatialIndex buildingIndex;
+    private SpatialIndex nodeIndex;
+    private final Map<String, CampusBuilding> buildingsByShortName = new HashMap<>();
+    private BuildingSearchIndex searchIndex;
+    private RouteService routeService;
+    private final RouteCache routeCache = new RouteCache(ROUTE_CACHE_POINTS, DrawView.SCALING);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Executor mainThreadExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            mainHandler.post(command);
+        }
+    };
 
     // view-controller;
     private DrawView mapDrawView;
+    private TiledMapRenderer tiledMap;
     private Button findRouteBtn;
     private Button resetBtn;
+    private Button profileBtn;
     private ListView buildingsSrcListView;
     private ListView buildingsDstListView;
+    private EditText srcSearchEditText;
+    private EditText dstSearchEditText;
+    private TextView metricsTextView;
 
     // controller;
     private CampusBuilding source;
@@ -57,61 +137,327 @@ public class MainActivity extends AppCompatActivity {
      * onCreate.
      * This is the primary interfacing controller class for the user to interact with, which tightly interacts with the
      * representative view and underlying model class state representation.
-     * This initializes the internal model state, and controller class.
+     * This initializes the controller class, and starts loading the internal model state in the background.
      * @param savedInstanceState Bundle Android-specific Instance State during creation time.
-     * @spec.effects Sets the primary view to the activity_main, and initializes the underlying model internal state.
-     *               Afterwards, this initializes the controller state for which the user will interact from through the
-     *               view interface, controlled by the initialized controller states. */
+     * @spec.effects Sets the primary view to the activity_main, and initializes the controller state for which the
+     *               user will interact from through the view interface. The building lists are populated and Find
+     *               Route is enabled asynchronously, as the underlying model finishes loading. */
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        // Model: Load data.
-        List<CampusBuilding> buildings = null;
-        List<CampusPath> paths = null;
-        InputStream pathsInputStream = this.getResources().openRawResource(R.raw.campus_paths);
-        InputStream buildingsInputStream = this.getResources().openRawResource(R.raw.campus_buildings_new);
-        try {
-            buildings = AndroidParser.parseBuildingData(buildingsInputStream);
-            paths = AndroidParser.parsePathData(pathsInputStream);
-            this.model = new Campus(buildings, paths);
-        } catch (IOException e) {
-            e.printStackTrace();
-            System.exit(-1);
-        }
-
         // Controller: Track UI elements.
         mapDrawView = findViewById(R.id.map_draw_view);
         findRouteBtn = findViewById(R.id.find_route_btn);
         resetBtn = findViewById(R.id.reset_btn);
+        profileBtn = findViewById(R.id.profile_btn);
         buildingsSrcListView = findViewById(R.id.src_buildings_listview);
         buildingsDstListView = findViewById(R.id.dst_buildings_listview);
+        srcSearchEditText = findViewById(R.id.src_search_edit_text);
+        dstSearchEditText = findViewById(R.id.dst_search_edit_text);
+        metricsTextView = findViewById(R.id.metrics_text_view);
 
-        // Populate menu list elements with building short names.
-        List<String> buildingShortNames = new ArrayList<>();
-        for (CampusBuilding campusBuilding: buildings) {
-            buildingShortNames.add(campusBuilding.getShortName());
-        }
-        ArrayAdapter<String> adapterSrc = new ArrayAdapter<String>(
-                getApplicationContext(),
-                R.layout.support_simple_spinner_dropdown_item,
-                new ArrayList<String>());
-        ArrayAdapter<String> adapterDst = new ArrayAdapter<String>(
-                getApplicationContext(),
-                R.layout.support_simple_spinner_dropdown_item,
-                new ArrayList<String>());
-        adapterSrc.addAll(buildingShortNames);
-        adapterDst.addAll(buildingShortNames);
-
-        buildingsSrcListView.setAdapter(adapterSrc);
-        buildingsDstListView.setAdapter(adapterDst);
+        // Draw the map from tiles decoded for the visible region, or fall back to the whole drawable.
+        try {
+            tiledMap = TiledMapRenderer.open(getResources(), R.drawable.campus_map_android, TILE_CACHE_BYTES,
+                    new Runnable() {
+                @Override
+                public void run() {
+                    mapDrawView.postInvalidateOnAnimation();
+                }
+            });
+            mapDrawView.setTiledMap(tiledMap);
+        } catch (IOException e) {
+            e.printStackTrace();
+            mapDrawView.setImageResource(R.drawable.campus_map_android);
+        }
+
+        // Find Route stays disabled until the path graph is ready.
+        findRouteBtn.setEnabled(false);
 
         // Set listeners.
         resetBtn.setOnClickListener(resetBtnClick);
+        resetBtn.setOnLongClickListener(resetBtnLongClick);
         findRouteBtn.setOnClickListener(findRouteBtnClick);
+        profileBtn.setOnClickListener(profileBtnClick);
         buildingsSrcListView.setOnItemClickListener(listViewItemClick);
         buildingsDstListView.setOnItemClickListener(listViewItemClick);
+        mapDrawView.setOnMapTapListener(mapTap);
+        srcSearchEditText.addTextChangedListener(newSearchWatcher(buildingsSrcListView));
+        dstSearchEditText.addTextChangedListener(newSearchWatcher(buildingsDstListView));
+
+        // Model: Load data off the main thread.
+        loader = new CampusLoader(this, campusLoaderListener);
+        loader.setPrecomputeRoutes(PRECOMPUTE_ROUTES);
+        loader.setLandmarkCount(ROUTING_MODE == RoutingMode.BIDIRECTIONAL_ALT ? Landmarks.DEFAULT_COUNT : 0);
+        loader.setContractionHierarchy(ROUTING_MODE == RoutingMode.CONTRACTION_HIERARCHY);
+        loader.start();
+
+        if (METRICS) {
+            setMetricsEnabled(true);
+        }
+    }
+
+    /**
+     * onResume.
+     * @spec.effects Applies the closures file again if it has changed while the app was in the background. */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        loader.checkClosures();
+    }
+
+    /**
+     * onPause.
+     * @spec.effects Writes the metrics recorded so far to METRICS_FILE if metrics are enabled. */
+    @Override
+    protected void onPause() {
+        if (Metrics.isEnabled()) {
+            exportMetrics();
+        }
+        super.onPause();
+    }
+
+    /**
+     * onDestroy.
+     * @spec.effects Stops any pending model loading or route search from calling back into this activity. */
+    @Override
+    protected void onDestroy() {
+        loader.cancel();
+        if (routeService != null) {
+            routeService.shutdown();
+        }
+        if (tiledMap != null) {
+            tiledMap.release();
+        }
+        mainHandler.removeCallbacks(metricsRefresh);
+        super.onDestroy();
+    }
+
+    /**
+     * CampusLoader.Listener.
+     * This receives the model as it is loaded in the background, on the main thread. */
+    private CampusLoader.Listener campusLoaderListener = new CampusLoader.Listener() {
+        /**
+         * onBuildingsLoaded.
+         * @param buildings List of CampusBuilding in file order.
+         * @spec.effects Indexes the buildings for search, and populates the menu list elements with building short
+         *               names, filtered by any search text already typed. */
+        @Override
+        public void onBuildingsLoaded(List<CampusBuilding> buildings) {
+            searchIndex = BuildingSearchIndex.build(buildings);
+            List<String> buildingShortNames = new ArrayList<>(buildings.size());
+            for (CampusBuilding campusBuilding: buildings) {
+                buildingShortNames.add(campusBuilding.getShortName());
+                buildingsByShortName.put(campusBuilding.getShortName(), campusBuilding);
+            }
+            ArrayAdapter<String> adapterSrc = new ArrayAdapter<String>(
+                    getApplicationContext(),
+                    R.layout.support_simple_spinner_dropdown_item,
+                    new ArrayList<String>());
+            ArrayAdapter<String> adapterDst = new ArrayAdapter<String>(
+                    getApplicationContext(),
+                    R.layout.support_simple_spinner_dropdown_item,
+                    new ArrayList<String>());
+            adapterSrc.addAll(buildingShortNames);
+            adapterDst.addAll(buildingShortNames);
+
+            buildingsSrcListView.setAdapter(adapterSrc);
+            buildingsDstListView.setAdapter(adapterDst);
+            filter(buildingsSrcListView, srcSearchEditText.getText());
+            filter(buildingsDstListView, dstSearchEditText.getText());
+        }
+
+        /**
+         * onCampusLoaded.
+         * @param campusGraph CampusGraph loaded in the background.
+         * @spec.effects Sets the graph, indexes it for map taps, starts the route service over it and enables
+         *               Find Route. */
+        @Override
+        public void onCampusLoaded(CampusGraph campusGraph) {
+            graph = campusGraph;
+            snapshot = new CampusSnapshot(graph);
+            if (ROUTING_MODE == RoutingMode.CAMPUS) {
+                campusRouter = newCampusRouter(graph);
+            }
+            buildingIndex = SpatialIndex.forBuildings(graph);
+            nodeIndex = SpatialIndex.forNodes(graph);
+            routeService = new RouteService(newRouter(), mainThreadExecutor);
+            findRouteBtn.setEnabled(true);
+            profileBtn.setEnabled(true);
+        }
+
+        /**
+         * onGraphUpdated.
+         * @param change WeightOverlay.Change from the current graph to the updated one.
+         * @spec.effects Routes on the updated graph with A* until the landmarks, hierarchy and route table updated
+         *               for it arrive, drops the cached routes the change may have made stale, and supersedes any
+         *               route being computed on the old graph. */
+        @Override
+        public void onGraphUpdated(WeightOverlay.Change change) {
+            graph = change.graph();
+            graphUpdated = true;
+            snapshot = new CampusSnapshot(graph);
+            landmarks = null;
+            hierarchy = null;
+            routeTable = null;
+            int removed = routeCache.invalidate(change);
+            System.out.printf("MainActivity: onGraphUpdated: \n\tedges: '%d'\n\tcached routes removed: '%d'\n",
+                    change.size(), removed);
+            if (!profile.isDistance()) {
+                profileEntry = null;
+                findRouteBtn.setEnabled(false);
+                loader.loadProfile(profile);
+            }
+            routeService.cancel();
+            routeService.setRouter(newRouter());
+        }
+
+        /**
+         * onLandmarksLoaded.
+         * @param loaded Landmarks over the loaded graph.
+         * @spec.effects Switches the route service to the landmark-guided search. */
+        @Override
+        public void onLandmarksLoaded(Landmarks loaded) {
+            landmarks = loaded;
+            routeService.setRouter(newRouter());
+        }
+
+        /**
+         * onContractionHierarchyLoaded.
+         * @param loaded ContractionHierarchy over the loaded graph.
+         * @spec.effects Switches the route service to the contraction hierarchy search. */
+        @Override
+        public void onContractionHierarchyLoaded(ContractionHierarchy loaded) {
+            hierarchy = loaded;
+            routeService.setRouter(newRouter());
+        }
+
+        /**
+         * onRouteTableLoaded.
+         * @param table RouteTable over the loaded graph.
+         * @spec.effects Makes the route service answer building pairs from the table. */
+        @Override
+        public void onRouteTableLoaded(RouteTable table) {
+            routeTable = table;
+            routeService.setRouter(newRouter());
+        }
+
+        /**
+         * onProfileLoaded.
+         * @param entry ProfileTables.Entry for a requested profile.
+         * @spec.effects Routes by the profile and enables Find Route, unless another profile has been selected or
+         *               the graph has been updated since it was requested. */
+        @Override
+        public void onProfileLoaded(ProfileTables.Entry entry) {
+            if (entry.profile() != profile || entry.base() != graph) {
+                return;
+            }
+            profileEntry = entry;
+            routeService.setRouter(newRouter());
+            findRouteBtn.setEnabled(true);
+        }
+
+        /**
+         * onLoadFailed.
+         * @param e Exception that caused the failure.
+         * @spec.effects Reports the failure to the user; Find Route stays disabled. */
+        @Override
+        public void onLoadFailed(Exception e) {
+            e.printStackTrace();
+            Toast.makeText(getApplicationContext(), R.string.load_failed, Toast.LENGTH_LONG).show();
+        }
+    };
+
+    /**
+     * Factory.
+     * @spec.requires graph is loaded.
+     * @return a Router for ROUTING_MODE over what has been loaded so far, answering building pairs from the
+     *         RouteTable once it is loaded; or, if a profile other than distance is selected, the Router of its
+     *         ProfileTables.Entry, or A* by distance while that is loading. */
+    private RouteService.Router newRouter() {
+        if (!profile.isDistance()) {
+            return profileEntry != null ? profileEntry.router() : snapshot;
+        }
+        RouteService.Router router;
+        switch (ROUTING_MODE) {
+            case CAMPUS:
+                router = graphUpdated ? snapshot : campusRouter;
+                break;
+            case BIDIRECTIONAL_ALT:
+                router = landmarks != null ? new BidirectionalAltRouter(graph, landmarks) : snapshot;
+                break;
+            case CONTRACTION_HIERARCHY:
+                router = hierarchy != null ? new ContractionHierarchyRouter(hierarchy) : snapshot;
+                break;
+            default:
+                router = snapshot;
+                break;
+        }
+        return routeTable != null ? routeTable.asRouter(router) : router;
+    }
+
+    /**
+     * Factory.
+     * @param campusGraph CampusGraph to build the Campus model from.
+     * @return a Router over a hw8.model.Campus built from campusGraph by the first route request, on the route
+     *         service thread, so the other routing modes never box the graph into it. */
+    private static RouteService.Router newCampusRouter(final CampusGraph campusGraph) {
+        return new RouteService.Router() {
+            private Campus campus;
+
+            @Override
+            public synchronized ArrayList<Edge<Double, Coordinate>> getShortestPath(Coordinate src, Coordinate dst) {
+                if (campus == null) {
+                    campus = new Campus(campusGraph.toBuildings(), campusGraph.toPaths());
+                }
+                return campus.getShortestPath(src, dst);
+            }
+        };
+    }
+
+    /**
+     * Factory.
+     * @param listView ListView of building short names to filter.
+     * @return a TextWatcher that filters listView by the text as it is typed. */
+    private TextWatcher newSearchWatcher(final ListView listView) {
+        return new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                filter(listView, s);
+            }
+        };
+    }
+
+    /**
+     * Setter.
+     * This replaces the contents of a building menu with the search results for a query.
+     * @param listView ListView of building short names to filter.
+     * @param query CharSequence typed so far.
+     * @spec.effects Lists the short names of the buildings matching query, best match first, or every building if
+     *               the query is blank. Does nothing until the buildings are loaded. */
+    private void filter(ListView listView, CharSequence query) {
+        if (searchIndex == null) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        ArrayAdapter<String> adapter = (ArrayAdapter<String>) listView.getAdapter();
+        int[] results = searchIndex.search(query.toString(), searchIndex.size());
+        adapter.setNotifyOnChange(false);
+        adapter.clear();
+        for (int b : results) {
+            adapter.add(searchIndex.shortName(b));
+        }
+        adapter.notifyDataSetChanged();
     }
 
     /**
@@ -145,44 +491,106 @@ public class MainActivity extends AppCompatActivity {
             // Query building from shortName.
             int parentId = parent.getId();
             String shortName = (String) parent.getItemAtPosition(position);
-            CampusBuilding building = model.getBuildingByShortName(shortName);
-            Coordinate buildingLoc = building.getLocation();
-            String longName = building.getLongName();
-
-            // Clean up previously drawn route if a different building is chosen.
-            if (routeDrawn
-                    && (!building.equals(source) || !building.equals(destination))) {
-                System.out.printf("\t\tonItemClick: clean up pts!" +
-                        "\n\tsource: '%s'" +
-                        "\n\tdestination: '%s'" +
-                        "\n\tbuilding: '%s'\n",
-                        source, destination, building);
-                resetPath();
-                resetZoom();
-            }
-
-            System.out.printf("\tsrcBuilding: " +
-                    "\n\t\tname: '%s' -- '%s'" +
-                    "\n\t\tcoord: '%s'\n",
-                    shortName, longName, buildingLoc);
-            System.out.printf("\tListView: onItemClick: \n\t\tDebug: srcBuildingId: '%s'\n", R.id.src_buildings_listview);
-            System.out.printf("ListView: onItemClick: \n\t\tDebug: dstBuildingId: '%s'\n", R.id.dst_buildings_listview);
-
-            // Draw building location.
             assert(parentId == R.id.src_buildings_listview || parentId == R.id.dst_buildings_listview);
-            if (parentId == R.id.src_buildings_listview) {
-                // Add the src marker.
-                mapDrawView.setSrc(buildingLoc);
-                source = building;
+            select(buildingsByShortName.get(shortName), parentId == R.id.src_buildings_listview);
+        }
+    };
+
+    /**
+     * OnMapTapListener.
+     * This is the map tap listener for when the user taps a point on the map. */
+    private DrawView.OnMapTapListener mapTap = new DrawView.OnMapTapListener() {
+        /**
+         * onMapTap.
+         * @param x double raw-space x coordinate of the tap.
+         * @param y double raw-space y coordinate of the tap.
+         * @spec.effects Selects the nearest building within TAP_RADIUS, or else the nearest path node, as the
+         *               source if none is set or both are set (clearing the destination), and otherwise as the
+         *               destination. Taps before the graph is loaded are ignored. */
+        @Override
+        public void onMapTap(double x, double y) {
+            if (graph == null) {
+                return;
+            }
+            CampusBuilding building;
+            int b = buildingIndex.nearest(x, y, TAP_RADIUS);
+            if (b >= 0) {
+                building = buildingsByShortName.get(graph.shortName(b));
             }
             else {
-                // Add the dst marker.
-                mapDrawView.setDst(buildingLoc);
-                destination = building;
+                building = pathPoint(nodeIndex.nearest(x, y));
+            }
+            if (source != null && destination != null) {
+                destination = null;
+                mapDrawView.setDst(null);
+                select(building, true);
+            }
+            else {
+                select(building, source == null);
             }
         }
     };
 
+    /**
+     * Factory.
+     * @param node int path graph node id.
+     * @return a CampusBuilding standing in for the path node, named by its coordinate so it has its own route
+     *         cache entries. */
+    private CampusBuilding pathPoint(int node) {
+        CampusBuilding point = new CampusBuilding();
+        point.setShortName(String.format("(%s, %s)", graph.x(node), graph.y(node)));
+        point.setLongName(point.getShortName());
+        point.setLocation(graph.coordinate(node));
+        return point;
+    }
+
+    /**
+     * Setter.
+     * This selects a new source or destination building.
+     * @param building CampusBuilding to select.
+     * @param asSource boolean true to select it as the source, false as the destination.
+     * @spec.requires building is not null.
+     * @spec.effects This cleans up a previously drawn route if a new building is chosen, and draws the new
+     *               source or destination building. */
+    private void select(CampusBuilding building, boolean asSource) {
+        // A new selection supersedes any route still being computed.
+        if (routeService != null) {
+            routeService.cancel();
+        }
+
+        Coordinate buildingLoc = building.getLocation();
+        String longName = building.getLongName();
+
+        // Clean up previously drawn route if a different building is chosen.
+        if (routeDrawn
+                && (!building.equals(source) || !building.equals(destination))) {
+            System.out.printf("\t\tselect: clean up pts!" +
+                    "\n\tsource: '%s'" +
+                    "\n\tdestination: '%s'" +
+                    "\n\tbuilding: '%s'\n",
+                    source, destination, building);
+            resetPath();
+            resetZoom();
+        }
+
+        System.out.printf("\tsrcBuilding: " +
+                "\n\t\tname: '%s' -- '%s'" +
+                "\n\t\tcoord: '%s'\n",
+                building.getShortName(), longName, buildingLoc);
+
+        // Draw building location.
+        if (asSource) {
+            // Add the src marker.
+            mapDrawView.setSrc(buildingLoc);
+            source = building;
+        }
+        else {
+            // Add the dst marker.
+            mapDrawView.setDst(buildingLoc);
+            destination = building;
+        }
+    }
+
     /**
      * OnClickListener.
      * This is the primary Button click listener for when the user clicks on a button to find a route.
@@ -195,8 +603,10 @@ public class MainActivity extends AppCompatActivity {
          * This finds and draws the route between the source and destination CampusBuildings if they are pre-selected.
          * @param view View for which the onClick was called from.
          * @spec.requires There must exist a path between the two CampusBuilding locations.
-         * @spec.effects Sets the pts for the mapDrawView using the computed shortestPath between the source and
-         *               destination buildings.  */
+         * @spec.effects Sets the pts for the mapDrawView from the route cache if the pair was routed recently.
+         *               Otherwise requests the shortestPath between the source and destination buildings in the
+         *               background, and sets the pts for the mapDrawView once it is computed, unless a new building
+         *               has been selected since.  */
         @Override
         public void onClick(View view) {
             System.out.printf("Button onClick: " +
@@ -204,37 +614,62 @@ public class MainActivity extends AppCompatActivity {
                     view.getId());
 
             if (mapDrawView.getSrc() != null && mapDrawView.getDst() != null) {
-                // Both sources are available: find the path and draw it.
-                ArrayList<Edge<Double, Coordinate>> path = model.getShortestPath(source.getLocation(), destination.getLocation());
-                assert (path != null);
-                mapDrawView.setPts(path);
-                routeDrawn = true;
-
-                // Zoom.
-                float midX = (float) (Math.abs(source.getLocation().getX() + destination.getLocation().getX()) / 2);
-                float midY = (float) (Math.abs(source.getLocation().getY() + destination.getLocation().getY()) / 2);
-
-                float distX = (float) Math.pow(source.getLocation().getX() * DrawView.SCALING
-                        - destination.getLocation().getX() * DrawView.SCALING
-                        , 2);
-                float distY = (float) Math.pow(source.getLocation().getY() * DrawView.SCALING
-                        - destination.getLocation().getY() * DrawView.SCALING
-                        , 2);
-//                float dist = (float) (Math.sqrt(distX + distY) + zoom) * DrawView.SCALING;
-//                float zoom_tmp = Math.min(Math.max(2.5f, dist), 3.5f);
-//                System.out.printf("\tMainActivity: findRoutBtnClick:" +
-//                        "\n\t\tdist: '%s'\n" +
-//                        "\n\t\tzoom_tmp: '%s'\n",
-//                        dist, zoom_tmp);
-
-                mapDrawView.setPivotX(midX * DrawView.SCALING);
-                mapDrawView.setPivotY(midY * DrawView.SCALING);
-                mapDrawView.setScaleX(zoom);
-                mapDrawView.setScaleY(zoom);
+                // Both sources are available: draw the cached route, or find the path in the background.
+                final CampusBuilding routeSource = source;
+                final CampusBuilding routeDestination = destination;
+                final CostProfile routeProfile = profile;
+                RouteCache.Route cached = routeCache.get(routeProfile, routeSource.getShortName(),
+                        routeDestination.getShortName());
+                if (cached != null) {
+                    showRoute(cached, routeSource, routeDestination);
+                    return;
+                }
+                routeService.request(routeSource.getLocation(), routeDestination.getLocation(),
+                        new RouteService.Callback() {
+                    @Override
+                    public void onRouteFound(ArrayList<Edge<Double, Coordinate>> path, long latencyNanos) {
+                        if (path == null) {
+                            return;
+                        }
+                        RouteCache.Route route = routeCache.put(routeProfile,
+                                routeSource.getShortName(), routeDestination.getShortName(), path);
+                        showRoute(route, routeSource, routeDestination);
+                    }
+                });
             }
         }
     };
 
+    /**
+     * Setter.
+     * This draws a computed route and zooms the map image view onto it.
+     * @param route RouteCache.Route holding the route and its polyline.
+     * @param source CampusBuilding the route starts from.
+     * @param destination CampusBuilding the route ends at.
+     * @spec.requires mapDrawView, route, source and destination are not null.
+     * @spec.effects Sets the pts for the mapDrawView, and zooms in on the midpoint of the route. */
+    private void showRoute(RouteCache.Route route, CampusBuilding source, CampusBuilding destination) {
+        mapDrawView.setRoute(route.polyline);
+        routeDrawn = true;
+
+        // Zoom.
+        float midX = (float) (Math.abs(source.getLocation().getX() + destination.getLocation().getX()) / 2);
+        float midY = (float) (Math.abs(source.getLocation().getY() + destination.getLocation().getY()) / 2);
+
+        // The zoom animates on a hardware layer, so each frame composites the already-rendered map and route
+        // instead of re-rasterizing the route.
+        mapDrawView.setPivotX(midX * DrawView.SCALING);
+        mapDrawView.setPivotY(midY * DrawView.SCALING);
+        // Once zoomed, redraw so the visible map tiles are decoded at the new resolution.
+        mapDrawView.animate().scaleX(zoom).scaleY(zoom).setDuration(ZOOM_DURATION_MS).withLayer()
+                .withEndAction(new Runnable() {
+                    @Override
+                    public void run() {
+                        mapDrawView.invalidate();
+                    }
+                });
+    }
+
     /**
      * OnClickListener.
      * This is the primary Button click listener for when the user clicks on a button to reset the state and view. */
@@ -249,6 +684,9 @@ public class MainActivity extends AppCompatActivity {
         public void onClick(View view) {
             System.out.printf("Button onClick:" +
                     "\n\tview: '%s'", view.getId());
+            if (routeService != null) {
+                routeService.cancel();
+            }
             source = null;
             destination = null;
 
@@ -260,13 +698,136 @@ public class MainActivity extends AppCompatActivity {
         }
     };
 
+    /**
+     * OnClickListener.
+     * This is the Profile button click listener, which selects the next CostProfile. */
+    private View.OnClickListener profileBtnClick = new View.OnClickListener() {
+        /**
+         * onClick.
+         * @param view View for which the onClick was called from.
+         * @spec.requires the campus graph is loaded.
+         * @spec.effects Selects the CostProfile after the current one and clears the drawn route, which was by the
+         *               previous profile. Cached routes are kept per profile. Find Route is disabled until the
+         *               routing state for the profile is ready. */
+        @Override
+        public void onClick(View view) {
+            CostProfile[] profiles = CostProfile.values();
+            int next = 0;
+            while (profiles[next] != profile) {
+                next++;
+            }
+            profile = profiles[(next + 1) % profiles.length];
+            profileBtn.setText(profileLabel(profile));
+
+            routeService.cancel();
+            resetPath();
+            profileEntry = null;
+            if (profile.isDistance()) {
+                findRouteBtn.setEnabled(true);
+            }
+            else {
+                findRouteBtn.setEnabled(false);
+                loader.loadProfile(profile);
+            }
+            routeService.setRouter(newRouter());
+        }
+    };
+
+    /**
+     * Getter.
+     * @param profile CostProfile to name.
+     * @return the string resource naming profile on the Profile button. */
+    private static int profileLabel(CostProfile profile) {
+        if (profile == CostProfile.FASTEST) {
+            return R.string.profile_fastest;
+        }
+        if (profile == CostProfile.STEP_FREE) {
+            return R.string.profile_step_free;
+        }
+        return R.string.profile_shortest;
+    }
+
+    /**
+     * OnLongClickListener.
+     * This is the Reset button long-click listener, which turns the metrics overlay on or off. */
+    private View.OnLongClickListener resetBtnLongClick = new View.OnLongClickListener() {
+        /**
+         * onLongClick.
+         * @param view View for which the onLongClick was called from.
+         * @spec.effects Toggles metrics recording and the overlay, writing the metrics to METRICS_FILE when
+         *               turning them off.
+         * @return true, as the long click is always consumed. */
+        @Override
+        public boolean onLongClick(View view) {
+            boolean enable = !Metrics.isEnabled();
+            setMetricsEnabled(enable);
+            if (enable) {
+                Toast.makeText(getApplicationContext(), R.string.metrics_on, Toast.LENGTH_SHORT).show();
+            }
+            else {
+                File file = exportMetrics();
+                Toast.makeText(getApplicationContext(), getString(R.string.metrics_off, file.getPath()),
+                        Toast.LENGTH_LONG).show();
+            }
+            return true;
+        }
+    };
+
+    /**
+     * Refreshes the metrics overlay every METRICS_REFRESH_MS while metrics are enabled. */
+    private final Runnable metricsRefresh = new Runnable() {
+        @Override
+        public void run() {
+            metricsTextView.setText(TextUtils.join("\n", Metrics.summary()));
+            mainHandler.postDelayed(this, METRICS_REFRESH_MS);
+        }
+    };
+
+    /**
+     * Setter.
+     * This turns metrics recording and the overlay showing them on or off.
+     * @param enabled boolean whether to record and show metrics.
+     * @spec.effects Enables or disables Metrics, and shows and starts refreshing the overlay, or hides it. */
+    private void setMetricsEnabled(boolean enabled) {
+        Metrics.setEnabled(enabled);
+        mainHandler.removeCallbacks(metricsRefresh);
+        if (enabled) {
+            metricsTextView.setVisibility(View.VISIBLE);
+            metricsRefresh.run();
+        }
+        else {
+            metricsTextView.setVisibility(View.GONE);
+        }
+    }
+
+    /**
+     * Writer.
+     * Writes the metrics recorded so far to METRICS_FILE in the app files directory, in the background.
+     * @return the File being written. */
+    private File exportMetrics() {
+        final File file = new File(getFilesDir(), METRICS_FILE);
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Metrics.writeTo(file);
+                    System.out.printf("MainActivity: exportMetrics: \n\tfile: '%s'\n", file);
+                } catch (IOException e) {
+                    System.out.printf("MainActivity: exportMetrics: could not write metrics: '%s'\n",
+                            e.getMessage());
+                }
+            }
+        });
+        return file;
+    }
+
     /**
      * Setter.
      * This resets the path of the map image view.
      * @spec.requires mapDrawView is not null.
      * @spec.effects This resets the path of the map image view. */
     private void resetPath() {
-        mapDrawView.setPts(null);
+        mapDrawView.setRoute(null);
         routeDrawn = false;
     }
 
@@ -276,9 +837,11 @@ public class MainActivity extends AppCompatActivity {
      * @spec.requires mapDrawView is not null.
      * @spec.effects This resets the zoom of the map image view. */
     private void resetZoom() {
+        mapDrawView.animate().cancel();
         mapDrawView.setPivotX(0.0f);
         mapDrawView.setPivotY(0.0f);
         mapDrawView.setScaleX(1.0f);
         mapDrawView.setScaleY(1.0f);
+        mapDrawView.invalidate();
     }
 }
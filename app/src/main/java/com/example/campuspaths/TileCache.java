@@ -0,0 +1,153 @@
+package com.example.campuspaths;
+
+import android.graphics.Bitmap;
+import android.util.LongSparseArray;
+
+/**
+ * LRU cache of decoded map tiles, bounded by the total byte size of the tile bitmaps.
+ *
+ * Tiles are keyed by (level, column, row), packed into a single long by {@link #key}. Lookups
+ * work on primitive keys so drawing cached tiles allocates nothing. All methods are thread-safe.
+ */
+public class TileCache {
+
+    private static final class Entry {
+        final long key;
+        final Bitmap tile;
+        Entry prev;
+        Entry next;
+
+        Entry(long key, Bitmap tile) {
+            this.key = key;
+            this.tile = tile;
+        }
+    }
+
+    private final int maxBytes;
+    private final LongSparseArray<Entry> entries = new LongSparseArray<>();
+    // Sentinel of the recency list: head.next is the most recently used entry, head.prev the least.
+    private final Entry head = new Entry(-1, null);
+    private int bytes = 0;
+
+    // Abstraction Function:
+    //  The cache maps entries.keyAt(i) to entries.valueAt(i).tile, in the recency order of the
+    //  circular list threaded through head.
+    //
+    // Representation Invariant:
+    //  Every value in entries is on the list exactly once and vice versa.
+    //  bytes is the sum of getByteCount() over the cached tiles, and bytes <= maxBytes unless a single
+    //  tile is larger than maxBytes.
+
+    /**
+     * Constructor.
+     * @param maxBytes int maximum total bitmap bytes to keep.
+     * @spec.requires maxBytes &gt; 0. */
+    public TileCache(int maxBytes) {
+        this.maxBytes = maxBytes;
+        head.prev = head;
+        head.next = head;
+    }
+
+    /**
+     * Packs a tile address into a cache key.
+     * @param level int pyramid level, where level L is decoded with inSampleSize 2^L.
+     * @param column int tile column at that level.
+     * @param row int tile row at that level.
+     * @spec.requires 0 &lt;= level &lt; 128, and 0 &lt;= column, row &lt; 2^28.
+     * @return the key for the tile. */
+    public static long key(int level, int column, int row) {
+        return ((long) level << 56) | ((long) column << 28) | row;
+    }
+
+    /**
+     * @param key long tile key.
+     * @return the pyramid level of the tile. */
+    public static int level(long key) {
+        return (int) (key >>> 56);
+    }
+
+    /**
+     * @param key long tile key.
+     * @return the column of the tile. */
+    public static int column(long key) {
+        return (int) ((key >>> 28) & 0xFFFFFFF);
+    }
+
+    /**
+     * @param key long tile key.
+     * @return the row of the tile. */
+    public static int row(long key) {
+        return (int) (key & 0xFFFFFFF);
+    }
+
+    /**
+     * @param key long tile key.
+     * @spec.effects Marks the tile most recently used.
+     * @return the cached tile, or null. */
+    public synchronized Bitmap get(long key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        unlink(entry);
+        linkFirst(entry);
+        return entry.tile;
+    }
+
+    /**
+     * @param key long tile key.
+     * @return true if the tile is cached. Does not affect recency. */
+    public synchronized boolean contains(long key) {
+        return entries.get(key) != null;
+    }
+
+    /**
+     * @param key long tile key.
+     * @param tile Bitmap decoded for the tile.
+     * @spec.effects Caches the tile, evicting least recently used tiles to stay within the byte budget. */
+    public synchronized void put(long key, Bitmap tile) {
+        Entry previous = entries.get(key);
+        if (previous != null) {
+            unlink(previous);
+            bytes -= previous.tile.getByteCount();
+        }
+        Entry entry = new Entry(key, tile);
+        entries.put(key, entry);
+        linkFirst(entry);
+        bytes += tile.getByteCount();
+
+        while (bytes > maxBytes && head.prev != entry) {
+            Entry eldest = head.prev;
+            unlink(eldest);
+            entries.remove(eldest.key);
+            bytes -= eldest.tile.getByteCount();
+        }
+    }
+
+    /**
+     * @spec.effects Drops every cached tile. */
+    public synchronized void clear() {
+        entries.clear();
+        head.prev = head;
+        head.next = head;
+        bytes = 0;
+    }
+
+    /**
+     * @return the total bytes of the cached tiles. */
+    public synchronized int bytes() {
+        return bytes;
+    }
+
+    private void unlink(Entry entry) {
+        entry.prev.next = entry.next;
+        entry.next.prev = entry.prev;
+    }
+
+    private void linkFirst(Entry entry) {
+        entry.next = head.next;
+        entry.prev = head;
+        head.next.prev = entry;
+        head.next = entry;
+    }
+}
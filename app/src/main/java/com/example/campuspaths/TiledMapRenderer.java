@@ -0,0 +1,335 @@
+package com.example.campuspaths;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.LongSparseArray;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Level-of-detail tiled renderer for the campus map image.
+ *
+ * Instead of decoding the whole map into one bitmap, the image is cut into TILE_SIZE tiles on a
+ * pyramid of levels, where level L is decoded with inSampleSize 2^L. Each frame draws only the
+ * tiles that intersect the visible part of the map, at the coarsest level that still has at least
+ * one decoded pixel per screen pixel. Missing tiles are decoded with BitmapRegionDecoder on a
+ * background thread (visible tiles first, then the ring of neighbours for panning) into a
+ * byte-bounded TileCache; until they arrive, a small whole-map base image is drawn underneath.
+ */
+public class TiledMapRenderer {
+    public static final int TILE_SIZE = 256;
+    // The base image is decoded at the first level where the whole map fits in this many pixels.
+    private static final int BASE_MAX_DIMENSION = 512;
+
+    private final BitmapRegionDecoder decoder;
+    private final TileCache cache;
+    private final Runnable onTileDecoded;
+    private final int width;
+    private final int height;
+    private final int maxLevel;
+    private final Thread worker;
+
+    // Guarded by this. Both hold primitive keys, so requesting tiles from draw allocates nothing once they have
+    // grown to the working set.
+    private final LongDeque queue = new LongDeque();
+    private final LongSparseArray<Boolean> pending = new LongSparseArray<>();
+    private int wantedLevel = 0;
+    private boolean released = false;
+
+    // Written by the worker, read by draw.
+    private volatile Bitmap base = null;
+
+    // Drawing scratch space, reused across frames.
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RectF dst = new RectF();
+    // Tile range last requested from draw, to re-request (and prefetch around) only when it changes.
+    private final Rect requestedRange = new Rect();
+    private int requestedLevel = -1;
+
+    /**
+     * Constructor.
+     * @param decoder BitmapRegionDecoder over the map image. The renderer takes ownership of it.
+     * @param cacheBytes int byte budget for decoded tiles.
+     * @param onTileDecoded Runnable invoked on the decoder thread whenever a tile becomes available,
+     *     e.g. View.postInvalidateOnAnimation.
+     * @spec.requires decoder and onTileDecoded are not null, cacheBytes &gt; 0. */
+    public TiledMapRenderer(BitmapRegionDecoder decoder, int cacheBytes, Runnable onTileDecoded) {
+        this.decoder = decoder;
+        this.cache = new TileCache(cacheBytes);
+        this.onTileDecoded = onTileDecoded;
+        this.width = decoder.getWidth();
+        this.height = decoder.getHeight();
+        int level = 0;
+        while (Math.max(width, height) >> level > BASE_MAX_DIMENSION) {
+            level++;
+        }
+        this.maxLevel = level;
+        this.worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                decodeLoop();
+            }
+        }, "TiledMapRenderer");
+        this.worker.setPriority(Thread.NORM_PRIORITY - 1);
+        this.worker.start();
+    }
+
+    /**
+     * Factory.
+     * @param resources Resources holding the map image.
+     * @param resId int resource id of the map image (e.g. R.drawable.campus_map_android).
+     * @param cacheBytes int byte budget for decoded tiles.
+     * @param onTileDecoded Runnable invoked on the decoder thread whenever a tile becomes available.
+     * @throws IOException if the image cannot be opened for region decoding.
+     * @return a TiledMapRenderer over the image. */
+    public static TiledMapRenderer open(Resources resources, int resId, int cacheBytes, Runnable onTileDecoded)
+            throws IOException {
+        InputStream in = resources.openRawResource(resId);
+        try {
+            return new TiledMapRenderer(BitmapRegionDecoder.newInstance(in, false), cacheBytes, onTileDecoded);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return the width of the full-resolution map image, in image pixels. */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of the full-resolution map image, in image pixels. */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Drawer.
+     * Draws the visible part of the map.
+     * @param canvas Canvas to draw on.
+     * @param imageToCanvas Matrix from image pixels to canvas coordinates.
+     * @param visible RectF visible region, in image pixels.
+     * @param screenPixelsPerImagePixel float on-screen magnification of the image, including any view scale.
+     * @spec.effects Draws the base image and every cached tile intersecting visible, and queues decodes
+     *               for the missing visible tiles and their neighbours. */
+    public void draw(Canvas canvas, Matrix imageToCanvas, RectF visible, float screenPixelsPerImagePixel) {
+        int level = levelFor(screenPixelsPerImagePixel);
+        int span = TILE_SIZE << level;
+        int firstColumn = Math.max(0, (int) Math.floor(visible.left / span));
+        int firstRow = Math.max(0, (int) Math.floor(visible.top / span));
+        int lastColumn = Math.min((width - 1) / span, (int) Math.floor(visible.right / span));
+        int lastRow = Math.min((height - 1) / span, (int) Math.floor(visible.bottom / span));
+
+        canvas.save();
+        canvas.concat(imageToCanvas);
+        Bitmap baseImage = base;
+        if (baseImage != null) {
+            dst.set(0, 0, width, height);
+            canvas.drawBitmap(baseImage, null, dst, paint);
+        }
+        boolean missing = false;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                Bitmap tile = level == maxLevel ? null : cache.get(TileCache.key(level, column, row));
+                if (tile != null) {
+                    dst.set(column * span, row * span,
+                            Math.min(width, (column + 1) * span), Math.min(height, (row + 1) * span));
+                    canvas.drawBitmap(tile, null, dst, paint);
+                }
+                else if (level != maxLevel) {
+                    missing = true;
+                }
+            }
+        }
+        canvas.restore();
+
+        boolean moved = level != requestedLevel
+                || firstColumn != requestedRange.left || firstRow != requestedRange.top
+                || lastColumn != requestedRange.right || lastRow != requestedRange.bottom;
+        if (level != maxLevel && (missing || moved)) {
+            requestedLevel = level;
+            requestedRange.set(firstColumn, firstRow, lastColumn, lastRow);
+            requestTiles(level, firstColumn, firstRow, lastColumn, lastRow);
+        }
+    }
+
+    /**
+     * Stops the decoder thread and frees the decoded tiles.
+     * @spec.effects No more tiles are decoded; draw must not be called afterwards. */
+    public void release() {
+        synchronized (this) {
+            released = true;
+            queue.clear();
+            pending.clear();
+            notifyAll();
+        }
+        worker.interrupt();
+        cache.clear();
+    }
+
+    /**
+     * Helper.
+     * @param screenPixelsPerImagePixel float on-screen magnification of the image.
+     * @return the coarsest level whose decoded tiles still cover every screen pixel, clamped to the pyramid. */
+    private int levelFor(float screenPixelsPerImagePixel) {
+        int level = 0;
+        while (level < maxLevel && screenPixelsPerImagePixel * (2 << level) <= 1.0f) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Queues decodes for the visible tile range (at the front) and its one-tile ring (at the back).
+     * Tiles already cached or queued are skipped. */
+    private synchronized void requestTiles(int level, int firstColumn, int firstRow, int lastColumn, int lastRow) {
+        if (released) {
+            return;
+        }
+        if (level != wantedLevel) {
+            // Tiles of other levels are no longer needed for this frame.
+            queue.clear();
+            pending.clear();
+            wantedLevel = level;
+        }
+        int span = TILE_SIZE << level;
+        int columns = (width - 1) / span;
+        int rows = (height - 1) / span;
+        for (int row = firstRow - 1; row <= lastRow + 1; row++) {
+            for (int column = firstColumn - 1; column <= lastColumn + 1; column++) {
+                if (row < 0 || column < 0 || row > rows || column > columns) {
+                    continue;
+                }
+                long key = TileCache.key(level, column, row);
+                if (cache.contains(key) || pending.indexOfKey(key) >= 0) {
+                    continue;
+                }
+                pending.put(key, Boolean.TRUE);
+                boolean visibleTile = row >= firstRow && row <= lastRow && column >= firstColumn && column <= lastColumn;
+                if (visibleTile) {
+                    queue.addFirst(key);
+                }
+                else {
+                    queue.addLast(key);
+                }
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Decoder thread body: decodes the base image, then queued tiles until released. */
+    private void decodeLoop() {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        Rect region = new Rect();
+
+        options.inSampleSize = 1 << maxLevel;
+        region.set(0, 0, width, height);
+        base = decoder.decodeRegion(region, options);
+        onTileDecoded.run();
+
+        while (true) {
+            long key;
+            synchronized (this) {
+                while (queue.isEmpty() && !released) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // Re-check released.
+                    }
+                }
+                if (released) {
+                    break;
+                }
+                key = queue.pollFirst();
+            }
+
+            int level = TileCache.level(key);
+            int span = TILE_SIZE << level;
+            int left = TileCache.column(key) * span;
+            int top = TileCache.row(key) * span;
+            region.set(left, top, Math.min(width, left + span), Math.min(height, top + span));
+            options.inSampleSize = 1 << level;
+            Bitmap tile = decoder.decodeRegion(region, options);
+
+            synchronized (this) {
+                pending.remove(key);
+                if (released) {
+                    break;
+                }
+            }
+            if (tile != null) {
+                cache.put(key, tile);
+                onTileDecoded.run();
+            }
+        }
+        decoder.recycle();
+    }
+
+    /**
+     * Double-ended queue of primitive longs on a growable ring buffer.
+     */
+    private static final class LongDeque {
+        private long[] elements = new long[64];
+        private int head = 0;
+        private int size = 0;
+
+        // Representation Invariant:
+        //  elements.length is a power of two, 0 <= size <= elements.length, and the queue is
+        //  elements[head], elements[(head + 1) % length], ..., size elements long.
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void addFirst(long value) {
+            grow();
+            head = (head - 1) & (elements.length - 1);
+            elements[head] = value;
+            size++;
+        }
+
+        void addLast(long value) {
+            grow();
+            elements[(head + size) & (elements.length - 1)] = value;
+            size++;
+        }
+
+        /**
+         * @spec.requires the queue is not empty.
+         * @return the first element, which is removed. */
+        long pollFirst() {
+            long value = elements[head];
+            head = (head + 1) & (elements.length - 1);
+            size--;
+            return value;
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        private void grow() {
+            if (size < elements.length) {
+                return;
+            }
+            long[] grown = new long[elements.length * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = elements[(head + i) & (elements.length - 1)];
+            }
+            elements = grown;
+            head = 0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.campuspaths;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads the bundled TSVs from the benchmark classpath.
+ */
+final class BenchmarkData {
+    static final String BUILDINGS = "campus_buildings_new.tsv";
+    static final String PATHS = "campus_paths.tsv";
+
+    // Not an ADT
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Reader.
+     * @param name String file name of a bundled TSV.
+     * @throws IOException if the file is missing or cannot be read.
+     * @return the contents of the file. */
+    static byte[] read(String name) throws IOException {
+        InputStream in = BenchmarkData.class.getClassLoader().getResourceAsStream(name);
+        if (in == null) {
+            throw new IOException("Missing benchmark resource: " + name);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.campuspaths;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead over the bundled buildings: one BuildingSearchIndex search per keystroke of a long
+ * building name, as the search box issues them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BuildingSearchBenchmark {
+    private static final String TYPED = "Paul G. Allen Center for Computer Science";
+
+    private BuildingSearchIndex index;
+    private String[] prefixes;
+
+    @Setup
+    public void setUp() throws IOException {
+        index = BuildingSearchIndex.build(AndroidParser.parseBuildingData(
+                new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.BUILDINGS))));
+        prefixes = new String[TYPED.length()];
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = TYPED.substring(0, i + 1);
+        }
+    }
+
+    @Benchmark
+    public void typeAhead(Blackhole blackhole) {
+        for (String prefix : prefixes) {
+            blackhole.consume(index.search(prefix, 100));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.campuspaths;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import hw8.CampusBuilding;
+import hw8.CampusPath;
+import hw8.model.Campus;
+
+/**
+ * Building the routing models from parsed data: the hw8 Campus graph, and the CampusGraph the
+ * primitive routers search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CampusBenchmark {
+    private List<CampusBuilding> buildings;
+    private List<CampusPath> paths;
+
+    @Setup
+    public void setUp() throws IOException {
+        buildings = AndroidParser.parseBuildingData(
+                new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.BUILDINGS)));
+        paths = AndroidParser.parsePathData(new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.PATHS)));
+    }
+
+    @Benchmark
+    public Campus newCampus() {
+        return new Campus(buildings, paths);
+    }
+
+    @Benchmark
+    public CampusGraph buildCampusGraph() {
+        return CampusGraph.build(buildings, paths);
+    }
+}
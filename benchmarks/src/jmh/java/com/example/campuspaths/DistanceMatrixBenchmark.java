@@ -0,0 +1,59 @@
+package com.example.campuspaths;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import hw8.CampusBuilding;
+
+/**
+ * Every building to every building on the bundled campus: a DistanceMatrix with and without paths,
+ * against one CampusSnapshot search per pair as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DistanceMatrixBenchmark {
+    private CampusGraph graph;
+    private List<CampusBuilding> buildings;
+    private CampusSnapshot snapshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        graph = CampusGraph.build(
+                AndroidParser.parseBuildingData(new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.BUILDINGS))),
+                AndroidParser.parsePathData(new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.PATHS))));
+        buildings = graph.toBuildings();
+        snapshot = new CampusSnapshot(graph);
+    }
+
+    @Benchmark
+    public DistanceMatrix matrix() {
+        return DistanceMatrix.compute(graph, buildings, buildings, false);
+    }
+
+    @Benchmark
+    public DistanceMatrix matrixWithPaths() {
+        return DistanceMatrix.compute(graph, buildings, buildings, true);
+    }
+
+    @Benchmark
+    public double searchPerPair() {
+        double total = 0.0;
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                total += snapshot.findRoute(graph.buildingNode(a), graph.buildingNode(b)).distance();
+            }
+        }
+        return total;
+    }
+}
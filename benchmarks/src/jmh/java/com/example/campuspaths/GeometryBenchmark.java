@@ -0,0 +1,72 @@
+package com.example.campuspaths;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import hw5.Edge;
+import hw8.CampusBuilding;
+import hw8.Coordinate;
+
+/**
+ * Route geometry for the longest building-to-building route on campus: the float[] segment array,
+ * the shared-vertex RoutePolyline DrawView draws, and its simplification for a zoomed-out view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GeometryBenchmark {
+    // DrawView.SCALING; DrawView itself needs the Android framework.
+    private static final float SCALING = 0.25f;
+
+    private ArrayList<Edge<Double, Coordinate>> path;
+    private RoutePolyline polyline;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<CampusBuilding> buildings = AndroidParser.parseBuildingData(
+                new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.BUILDINGS)));
+        CampusGraph graph = CampusGraph.build(buildings, AndroidParser.parsePathData(
+                new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.PATHS))));
+        RouteTable table = RouteTable.compute(graph);
+        int longestSource = 0;
+        int longestDestination = 0;
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                double d = table.distance(a, b);
+                if (d != Double.POSITIVE_INFINITY && d > table.distance(longestSource, longestDestination)) {
+                    longestSource = a;
+                    longestDestination = b;
+                }
+            }
+        }
+        path = table.edges(longestSource, longestDestination);
+        polyline = RouteGeometry.polyline(path, SCALING);
+    }
+
+    @Benchmark
+    public float[] segments() {
+        return RouteGeometry.segments(path, SCALING);
+    }
+
+    @Benchmark
+    public RoutePolyline polyline() {
+        return RouteGeometry.polyline(path, SCALING);
+    }
+
+    @Benchmark
+    public RoutePolyline simplify() {
+        // Close to the tolerance forScale uses around scale 1, bypassing its per-level cache.
+        return polyline.simplify(RoutePolyline.TOLERANCE_PX);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.campuspaths;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What one Metrics.start() and recordSince() pair costs, with metrics disabled, as in release builds,
+ * and enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsBenchmark {
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    @Setup
+    public void setUp() {
+        Metrics.reset();
+        Metrics.setEnabled(enabled);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Benchmark
+    public void startAndRecord() {
+        Metrics.FRAME.recordSince(Metrics.start());
+    }
+}
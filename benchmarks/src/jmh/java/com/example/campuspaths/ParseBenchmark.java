@@ -0,0 +1,98 @@
+package com.example.campuspaths;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import hw8.CampusBuilding;
+import hw8.CampusPath;
+import hw8.Coordinate;
+
+/**
+ * AndroidParser on in-memory copies of the bundled TSVs, so only parsing is measured, against the
+ * original Scanner/String.split parser as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParseBenchmark {
+    private byte[] buildings;
+    private byte[] paths;
+
+    @Setup
+    public void setUp() throws IOException {
+        buildings = BenchmarkData.read(BenchmarkData.BUILDINGS);
+        paths = BenchmarkData.read(BenchmarkData.PATHS);
+    }
+
+    @Benchmark
+    public List<CampusBuilding> parseBuildingData() throws IOException {
+        return AndroidParser.parseBuildingData(new ByteArrayInputStream(buildings));
+    }
+
+    @Benchmark
+    public List<CampusPath> parsePathData() throws IOException {
+        return AndroidParser.parsePathData(new ByteArrayInputStream(paths));
+    }
+
+    @Benchmark
+    public List<CampusBuilding> scannerParseBuildingData() {
+        return scannerParseBuildingData(new ByteArrayInputStream(buildings));
+    }
+
+    @Benchmark
+    public List<CampusPath> scannerParsePathData() {
+        return scannerParsePathData(new ByteArrayInputStream(paths));
+    }
+
+    // The original Scanner-based parsers, kept here as the baseline.
+
+    private static List<CampusBuilding> scannerParseBuildingData(InputStream blgsStream) {
+        Scanner scanner = new Scanner(new InputStreamReader(blgsStream));
+        scanner.nextLine();     // Skipping header line
+        List<CampusBuilding> buildings = new LinkedList<>();
+        while(scanner.hasNextLine()) {
+            String[] bits = scanner.nextLine().split("\t");
+            Coordinate location = new Coordinate(Double.parseDouble(bits[2].split(",")[0]),
+                    Double.parseDouble(bits[2].split(",")[1]));
+            CampusBuilding building = new CampusBuilding();
+            building.setShortName(bits[0]);
+            building.setLongName(bits[1]);
+            building.setLocation(location);
+            buildings.add(building);
+        }
+        return buildings;
+    }
+
+    private static List<CampusPath> scannerParsePathData(InputStream pathsStream) {
+        Scanner scanner = new Scanner(new InputStreamReader(pathsStream));
+        scanner.nextLine();     // Skipping header line
+        List<CampusPath> paths = new LinkedList<>();
+        while(scanner.hasNextLine()) {
+            String[] bits = scanner.nextLine().split("\t");
+            Coordinate origin = new Coordinate(Double.parseDouble(bits[0].split(",")[0]),
+                    Double.parseDouble(bits[0].split(",")[1]));
+            Coordinate destination = new Coordinate(Double.parseDouble(bits[1].split(",")[0]),
+                    Double.parseDouble(bits[1].split(",")[1]));
+            CampusPath path = new CampusPath();
+            path.setDestination(destination);
+            path.setDistance(Double.parseDouble(bits[2]));
+            path.setOrigin(origin);
+            paths.add(path);
+        }
+        return paths;
+    }
+}
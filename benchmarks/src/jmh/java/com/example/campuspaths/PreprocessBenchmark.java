@@ -0,0 +1,75 @@
+package com.example.campuspaths;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Precomputing routing state over the bundled campus once its CampusGraph is built: the ALT landmarks,
+ * the contraction hierarchy and the RouteTable, and updating the RouteTable through a WeightOverlay
+ * change that closes the first edge of the longest route, against computing it again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PreprocessBenchmark {
+    private CampusGraph graph;
+    private RouteTable table;
+    private WeightOverlay.Change closure;
+
+    @Setup
+    public void setUp() throws IOException {
+        graph = CampusGraph.build(
+                AndroidParser.parseBuildingData(new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.BUILDINGS))),
+                AndroidParser.parsePathData(new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.PATHS))));
+        table = RouteTable.compute(graph);
+
+        int longestSource = 0;
+        int longestDestination = 0;
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                if (table.distance(a, b) > table.distance(longestSource, longestDestination)) {
+                    longestSource = a;
+                    longestDestination = b;
+                }
+            }
+        }
+        int[] longest = table.path(longestSource, longestDestination);
+        WeightOverlay overlay = new WeightOverlay(graph);
+        overlay.disable(graph.coordinate(longest[0]), graph.coordinate(longest[1]));
+        closure = overlay.commit();
+    }
+
+    @Benchmark
+    public Landmarks landmarks() {
+        return Landmarks.compute(graph, Landmarks.DEFAULT_COUNT);
+    }
+
+    @Benchmark
+    public ContractionHierarchy hierarchy() {
+        return ContractionHierarchy.build(graph);
+    }
+
+    @Benchmark
+    public RouteTable routeTable() {
+        return RouteTable.compute(graph);
+    }
+
+    @Benchmark
+    public RouteTable routeTableUpdate() {
+        return table.update(closure);
+    }
+
+    @Benchmark
+    public RouteTable routeTableRecompute() {
+        return RouteTable.compute(closure.graph());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.campuspaths;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import hw5.Edge;
+import hw8.CampusBuilding;
+import hw8.CampusPath;
+import hw8.Coordinate;
+import hw8.model.Campus;
+
+/**
+ * getShortestPath between buildings, for each routing engine, over a fixed sequence of random building
+ * pairs and over the pair with the longest shortest path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RouteBenchmark {
+    private static final int RANDOM_PAIRS = 1024;
+
+    @Param({"CAMPUS", "A_STAR", "BIDIRECTIONAL_ALT", "CONTRACTION_HIERARCHY"})
+    public String router;
+
+    private RouteService.Router engine;
+    private Coordinate[] randomSources;
+    private Coordinate[] randomDestinations;
+    private int next = 0;
+    private Coordinate worstSource;
+    private Coordinate worstDestination;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<CampusBuilding> buildings = AndroidParser.parseBuildingData(
+                new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.BUILDINGS)));
+        List<CampusPath> paths = AndroidParser.parsePathData(
+                new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.PATHS)));
+        CampusGraph graph = CampusGraph.build(buildings, paths);
+        engine = router(router, buildings, paths, graph);
+
+        Random random = new Random(17);
+        randomSources = new Coordinate[RANDOM_PAIRS];
+        randomDestinations = new Coordinate[RANDOM_PAIRS];
+        for (int i = 0; i < RANDOM_PAIRS; i++) {
+            randomSources[i] = buildings.get(random.nextInt(buildings.size())).getLocation();
+            randomDestinations[i] = buildings.get(random.nextInt(buildings.size())).getLocation();
+        }
+
+        DistanceMatrix matrix = DistanceMatrix.compute(graph, buildings, buildings, false);
+        double longest = -1.0;
+        for (int a = 0; a < buildings.size(); a++) {
+            for (int b = 0; b < buildings.size(); b++) {
+                double d = matrix.distance(a, b);
+                if (d != Double.POSITIVE_INFINITY && d > longest) {
+                    longest = d;
+                    worstSource = buildings.get(a).getLocation();
+                    worstDestination = buildings.get(b).getLocation();
+                }
+            }
+        }
+    }
+
+    /**
+     * Factory.
+     * @return the Router named by mode, as MainActivity would build it once loading has finished. */
+    private static RouteService.Router router(String mode, List<CampusBuilding> buildings, List<CampusPath> paths,
+                                              CampusGraph graph) {
+        switch (mode) {
+            case "CAMPUS":
+                final Campus campus = new Campus(buildings, paths);
+                return new RouteService.Router() {
+                    @Override
+                    public ArrayList<Edge<Double, Coordinate>> getShortestPath(Coordinate src, Coordinate dst) {
+                        return campus.getShortestPath(src, dst);
+                    }
+                };
+            case "BIDIRECTIONAL_ALT":
+                return new BidirectionalAltRouter(graph, Landmarks.compute(graph, Landmarks.DEFAULT_COUNT));
+            case "CONTRACTION_HIERARCHY":
+                return new ContractionHierarchyRouter(ContractionHierarchy.build(graph));
+            default:
+                return new CampusSnapshot(graph);
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Edge<Double, Coordinate>> randomPair() {
+        int i = next;
+        next = (i + 1) & (RANDOM_PAIRS - 1);
+        return engine.getShortestPath(randomSources[i], randomDestinations[i]);
+    }
+
+    @Benchmark
+    public ArrayList<Edge<Double, Coordinate>> worstCasePair() {
+        return engine.getShortestPath(worstSource, worstDestination);
+    }
+}
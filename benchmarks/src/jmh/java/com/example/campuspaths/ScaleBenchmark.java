@@ -0,0 +1,92 @@
+package com.example.campuspaths;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import hw8.CampusBuilding;
+import hw8.CampusPath;
+
+/**
+ * Loading and querying a planar CampusGenerator campus as it grows: parsing its TSVs, building the
+ * CampusGraph from the parsed lists, and A* on a CampusSnapshot between random buildings. The gc
+ * profiler reports the heap each load step allocates per node count.
+ *
+ * Larger campuses can be added on the command line, e.g. -p nodes=10000,100000,1000000,10000000 with a
+ * large enough -jvmArgs -Xmx.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScaleBenchmark {
+    private static final int RANDOM_PAIRS = 1024;
+
+    @Param({"10000", "100000"})
+    public int nodes;
+
+    private byte[] buildingsTsv;
+    private byte[] pathsTsv;
+    private List<CampusBuilding> buildings;
+    private List<CampusPath> paths;
+    private CampusSnapshot snapshot;
+    private int[] sources;
+    private int[] destinations;
+    private int next = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        CampusGenerator generator = new CampusGenerator(nodes, nodes);
+        generator.setBuildingDensity(0.01);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.writeBuildings(out);
+        buildingsTsv = out.toByteArray();
+        out = new ByteArrayOutputStream();
+        generator.writePaths(out);
+        pathsTsv = out.toByteArray();
+
+        buildings = AndroidParser.parseBuildingData(new ByteArrayInputStream(buildingsTsv));
+        paths = AndroidParser.parsePathData(new ByteArrayInputStream(pathsTsv));
+        CampusGraph graph = CampusGraph.build(buildings, paths);
+        snapshot = new CampusSnapshot(graph);
+
+        Random random = new Random(nodes);
+        sources = new int[RANDOM_PAIRS];
+        destinations = new int[RANDOM_PAIRS];
+        for (int i = 0; i < RANDOM_PAIRS; i++) {
+            sources[i] = graph.buildingNode(random.nextInt(graph.buildingCount()));
+            destinations[i] = graph.buildingNode(random.nextInt(graph.buildingCount()));
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws IOException {
+        blackhole.consume(AndroidParser.parseBuildingData(new ByteArrayInputStream(buildingsTsv)));
+        blackhole.consume(AndroidParser.parsePathData(new ByteArrayInputStream(pathsTsv)));
+    }
+
+    @Benchmark
+    public CampusGraph build() {
+        return CampusGraph.build(buildings, paths);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public CampusSnapshot.Route query() {
+        int i = next;
+        next = (i + 1) & (RANDOM_PAIRS - 1);
+        return snapshot.findRoute(sources[i], destinations[i]);
+    }
+}
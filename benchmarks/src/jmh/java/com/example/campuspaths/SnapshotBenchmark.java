@@ -0,0 +1,101 @@
+package com.example.campuspaths;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building pair query throughput of one CampusSnapshot shared by every benchmark thread, against one
+ * AStarRouter shared behind a lock, on a single thread and on as many threads as there are cores. The
+ * snapshot should scale with the thread count, where the locked router stays at its one-thread rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SnapshotBenchmark {
+    private static final int RANDOM_PAIRS = 1024;
+
+    private CampusGraph graph;
+    private CampusSnapshot snapshot;
+    private AStarRouter shared;
+    private int[] sources;
+    private int[] destinations;
+
+    /**
+     * Position of one benchmark thread in the shared sequence of building pairs.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup
+        public void setUp() {
+            next = new Random().nextInt(RANDOM_PAIRS);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        graph = CampusGraph.build(
+                AndroidParser.parseBuildingData(new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.BUILDINGS))),
+                AndroidParser.parsePathData(new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.PATHS))));
+        snapshot = new CampusSnapshot(graph);
+        shared = new AStarRouter(graph);
+
+        Random random = new Random(17);
+        sources = new int[RANDOM_PAIRS];
+        destinations = new int[RANDOM_PAIRS];
+        for (int i = 0; i < RANDOM_PAIRS; i++) {
+            sources[i] = graph.buildingNode(random.nextInt(graph.buildingCount()));
+            destinations[i] = graph.buildingNode(random.nextInt(graph.buildingCount()));
+        }
+    }
+
+    private CampusSnapshot.Route snapshotQuery(Cursor cursor) {
+        int i = cursor.next;
+        cursor.next = (i + 1) & (RANDOM_PAIRS - 1);
+        return snapshot.findRoute(sources[i], destinations[i]);
+    }
+
+    private int[] lockedQuery(Cursor cursor) {
+        int i = cursor.next;
+        cursor.next = (i + 1) & (RANDOM_PAIRS - 1);
+        synchronized (shared) {
+            return shared.findPath(sources[i], destinations[i]);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CampusSnapshot.Route snapshotOneThread(Cursor cursor) {
+        return snapshotQuery(cursor);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public CampusSnapshot.Route snapshotAllCores(Cursor cursor) {
+        return snapshotQuery(cursor);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int[] lockedRouterOneThread(Cursor cursor) {
+        return lockedQuery(cursor);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int[] lockedRouterAllCores(Cursor cursor) {
+        return lockedQuery(cursor);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.campuspaths;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest path node to random points over the bundled campus, with the SpatialIndex grid and with a
+ * linear scan over every node as the baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpatialIndexBenchmark {
+    private static final int RANDOM_POINTS = 1024;
+
+    private CampusGraph graph;
+    private SpatialIndex index;
+    private double[] xs;
+    private double[] ys;
+    private int next = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        graph = CampusGraph.build(
+                AndroidParser.parseBuildingData(new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.BUILDINGS))),
+                AndroidParser.parsePathData(new ByteArrayInputStream(BenchmarkData.read(BenchmarkData.PATHS))));
+        index = SpatialIndex.forNodes(graph);
+
+        // Points over the graph's bounding box, padded by a tenth on each side.
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < graph.nodeCount(); i++) {
+            minX = Math.min(minX, graph.x(i));
+            minY = Math.min(minY, graph.y(i));
+            maxX = Math.max(maxX, graph.x(i));
+            maxY = Math.max(maxY, graph.y(i));
+        }
+        double padX = (maxX - minX) / 10;
+        double padY = (maxY - minY) / 10;
+        Random random = new Random(333);
+        xs = new double[RANDOM_POINTS];
+        ys = new double[RANDOM_POINTS];
+        for (int i = 0; i < RANDOM_POINTS; i++) {
+            xs[i] = minX - padX + random.nextDouble() * (maxX - minX + 2 * padX);
+            ys[i] = minY - padY + random.nextDouble() * (maxY - minY + 2 * padY);
+        }
+    }
+
+    @Benchmark
+    public int grid() {
+        int i = next;
+        next = (i + 1) & (RANDOM_POINTS - 1);
+        return index.nearest(xs[i], ys[i]);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int i = next;
+        next = (i + 1) & (RANDOM_POINTS - 1);
+        double x = xs[i];
+        double y = ys[i];
+        int best = -1;
+        double bestSq = Double.POSITIVE_INFINITY;
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            double dx = graph.x(node) - x;
+            double dy = graph.y(node) - y;
+            double dSq = dx * dx + dy * dy;
+            if (dSq < bestSq) {
+                bestSq = dSq;
+                best = node;
+            }
+        }
+        return best;
+    }
+}
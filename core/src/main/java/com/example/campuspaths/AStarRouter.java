@@ -0,0 +1,189 @@
+package com.example.campuspaths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+/**
+ * A* shortest path search over a CampusGraph, on primitive node ids.
+ *
+ * Distances, parents and the priority queue are flat arrays sized to the graph and reused across
+ * queries, so a search does no boxing or hashing per relaxation. The heuristic is the Euclidean
+ * distance to the target scaled by the smallest weight-to-length ratio of any edge, which keeps
+ * it admissible and consistent whatever units the path distances are in. Only the final path is
+ * converted to Edge&lt;Double, Coordinate&gt; objects.
+ *
+ * Instances are not thread-safe; use one per thread.
+ */
+public class AStarRouter implements RouteService.Router {
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+    // How many settled nodes between checks for interruption.
+    private static final int INTERRUPT_CHECK_MASK = 0xFF;
+
+    private final CampusGraph graph;
+    private final double heuristicScale;
+
+    // Per-search state, reused across queries.
+    private final double[] dist;
+    private final int[] parentEdge;
+    private final int[] parent;
+    private final boolean[] settled;
+    private final IndexedMinHeap queue;
+
+    private double lastDistance = INFINITY;
+    private int lastSettled = 0;
+
+    /**
+     * Constructor.
+     * @param graph CampusGraph to search.
+     * @spec.requires graph is not null and has no negative edge weights. */
+    public AStarRouter(CampusGraph graph) {
+        this.graph = graph;
+        this.heuristicScale = heuristicScale(graph);
+        int n = graph.nodeCount();
+        this.dist = new double[n];
+        this.parentEdge = new int[n];
+        this.parent = new int[n];
+        this.settled = new boolean[n];
+        this.queue = new IndexedMinHeap(n);
+    }
+
+    /**
+     * Computes the largest factor by which the Euclidean distance between two nodes can be scaled
+     * while never exceeding the weight of the edge between them.
+     * @param graph CampusGraph to inspect.
+     * @return a scale s such that s * |uv| &lt;= weight(u, v) for every edge. */
+    static double heuristicScale(CampusGraph graph) {
+        double scale = INFINITY;
+        for (int u = 0; u < graph.nodeCount(); u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                int v = graph.targets[e];
+                double dx = graph.xs[u] - graph.xs[v];
+                double dy = graph.ys[u] - graph.ys[v];
+                double length = Math.sqrt(dx * dx + dy * dy);
+                if (length > 0) {
+                    scale = Math.min(scale, graph.weights[e] / length);
+                }
+            }
+        }
+        if (scale == INFINITY) {
+            return 0.0;
+        }
+        // Leave headroom for rounding so the heuristic stays consistent.
+        return Math.max(0.0, scale * (1 - 1e-9));
+    }
+
+    /**
+     * Router.
+     * @param src Coordinate to start from.
+     * @param dst Coordinate to end at.
+     * @return the shortest path from src to dst, or null if either is not a graph node, there is no
+     *     path, or the calling thread was interrupted. */
+    @Override
+    public ArrayList<Edge<Double, Coordinate>> getShortestPath(Coordinate src, Coordinate dst) {
+        int s = graph.nodeAt(src);
+        int t = graph.nodeAt(dst);
+        if (s < 0 || t < 0) {
+            return null;
+        }
+        int[] nodes = findPath(s, t);
+        Metrics.ROUTE_SETTLED.record(lastSettled);
+        if (nodes == null) {
+            return null;
+        }
+        return RouteEdges.toEdges(graph, nodes, pathWeights(nodes));
+    }
+
+    /**
+     * Searches for the shortest path between two nodes.
+     * @param src int node id to start from.
+     * @param dst int node id to end at.
+     * @return the node ids of the shortest path from src to dst inclusive, or null if there is no
+     *     path or the calling thread was interrupted. */
+    public int[] findPath(int src, int dst) {
+        Arrays.fill(dist, INFINITY);
+        Arrays.fill(settled, false);
+        queue.clear();
+        lastSettled = 0;
+        lastDistance = INFINITY;
+
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final double[] weights = graph.weights;
+
+        dist[src] = 0.0;
+        parent[src] = -1;
+        parentEdge[src] = -1;
+        queue.offer(src, heuristic(src, dst));
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            settled[u] = true;
+            lastSettled++;
+            if (u == dst) {
+                break;
+            }
+            if ((lastSettled & INTERRUPT_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            double du = dist[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                double dv = du + weights[e];
+                if (!settled[v] && dv < dist[v]) {
+                    dist[v] = dv;
+                    parent[v] = u;
+                    parentEdge[v] = e;
+                    queue.offer(v, dv + heuristic(v, dst));
+                }
+            }
+        }
+
+        if (!settled[dst]) {
+            return null;
+        }
+        lastDistance = dist[dst];
+        int length = 1;
+        for (int v = dst; v != src; v = parent[v]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        for (int v = dst, i = length - 1; i >= 0; v = parent[v], i--) {
+            nodes[i] = v;
+        }
+        return nodes;
+    }
+
+    /**
+     * Getter.
+     * @return the length of the path found by the last successful findPath, or infinity. */
+    public double lastDistance() {
+        return lastDistance;
+    }
+
+    /**
+     * Getter.
+     * @return the number of nodes settled by the last findPath. */
+    public int lastSettled() {
+        return lastSettled;
+    }
+
+    /**
+     * Helper.
+     * @param nodes int[] path returned by the last findPath.
+     * @return the length of each edge along the path. */
+    private double[] pathWeights(int[] nodes) {
+        double[] lengths = new double[Math.max(0, nodes.length - 1)];
+        for (int i = 1; i < nodes.length; i++) {
+            lengths[i - 1] = graph.weights[parentEdge[nodes[i]]];
+        }
+        return lengths;
+    }
+
+    private double heuristic(int node, int dst) {
+        double dx = graph.xs[node] - graph.xs[dst];
+        double dy = graph.ys[node] - graph.ys[dst];
+        return heuristicScale * Math.sqrt(dx * dx + dy * dy);
+    }
+}
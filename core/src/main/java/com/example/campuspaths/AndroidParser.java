@@ -0,0 +1,187 @@
+package com.example.campuspaths;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import hw8.CampusBuilding;
+import hw8.CampusPath;
+import hw8.Coordinate;
+
+
+/**
+ * Methods to parse the campus data files using methods available on Android
+ * (which does not support OpenCSV).
+ *
+ * Both files are read with a streaming byte-level tokenizer: coordinates and distances are parsed
+ * straight out of the read buffer, and the results are collected into presized ArrayLists.
+ */
+public class AndroidParser {
+
+    // Not an ADT
+
+    // Approximate bytes per row, used to presize the result lists from InputStream.available().
+    private static final int BUILDING_ROW_BYTES = 52;
+    private static final int PATH_ROW_BYTES = 56;
+
+    // Columns of the paths TSV before any attribute columns: origin, destination, distance.
+    private static final int PATH_COLUMNS = 3;
+    // Kinds of attribute column.
+    private static final int OTHER_COLUMN = 0;
+    private static final int SECONDS_COLUMN = 1;
+    private static final int SLOPE_COLUMN = 2;
+    private static final int STAIRS_COLUMN = 3;
+
+    /**
+     * Returns the rows from the given file, each of which should match the
+     * shape defined by CampusBuilding.
+     * @param blgsStream Stream containing the TSV file to read. (This should
+     *    be a relative path from the root directory.)
+     * @throws IOException if any I/O error occurs reading the file
+     * @return List of CampusPath objects, one describing each row.
+     */
+    public static List<CampusBuilding> parseBuildingData(InputStream blgsStream)
+            throws IOException {
+        TsvTokenizer tokenizer = new TsvTokenizer(blgsStream);
+        List<CampusBuilding> buildings = new ArrayList<>(estimateRows(blgsStream, BUILDING_ROW_BYTES));
+        if (!tokenizer.hasNextRow()) {
+            return buildings;
+        }
+        tokenizer.skipRow();    // Skipping header line
+        while (tokenizer.hasNextRow()) {
+            String shortName = tokenizer.readString();
+            String longName = tokenizer.readString();
+            double x = tokenizer.readDouble();
+            double y = tokenizer.readDouble();
+            tokenizer.skipRow();
+            CampusBuilding building = new CampusBuilding();
+            building.setShortName(shortName);
+            building.setLongName(longName);
+            building.setLocation(new Coordinate(x, y));
+            buildings.add(building);
+        }
+
+        return buildings;
+    }
+
+    /**
+     * Returns the rows from the given file, each of which should match the
+     * shape defined by CampusPath.
+     * @param pathsStream Path to the TSV file to read. (This should be a
+     *    relative path from the root directory.)
+     * @throws IOException if any I/O error occurs reading the file
+     * @return List of CampusPath objects, one describing each row.
+     */
+    public static List<CampusPath> parsePathData(InputStream pathsStream)
+            throws IOException {
+        return parsePathData(pathsStream, null);
+    }
+
+    /**
+     * Returns the rows from the given file, each of which should match the
+     * shape defined by CampusPath, and collects the optional attribute columns
+     * described in EdgeAttributes, if the header names any.
+     * @param pathsStream Path to the TSV file to read. (This should be a
+     *    relative path from the root directory.)
+     * @param attributes EdgeAttributes.Builder to add each row's attributes to, in
+     *    file order, or null to ignore any attribute columns. Nothing is added if the
+     *    file has no attribute columns.
+     * @throws IOException if any I/O error occurs reading the file
+     * @throws IllegalArgumentException if an attribute value is out of range
+     * @return List of CampusPath objects, one describing each row.
+     */
+    public static List<CampusPath> parsePathData(InputStream pathsStream, EdgeAttributes.Builder attributes)
+            throws IOException {
+        TsvTokenizer tokenizer = new TsvTokenizer(pathsStream);
+        List<CampusPath> paths = new ArrayList<>(estimateRows(pathsStream, PATH_ROW_BYTES));
+        if (!tokenizer.hasNextRow()) {
+            return paths;
+        }
+        int[] columns = attributes != null ? readAttributeColumns(tokenizer) : null;
+        tokenizer.skipRow();    // Skipping (the rest of the) header line
+        while (tokenizer.hasNextRow()) {
+            Coordinate origin = new Coordinate(tokenizer.readDouble(), tokenizer.readDouble());
+            Coordinate destination = new Coordinate(tokenizer.readDouble(), tokenizer.readDouble());
+            double distance = tokenizer.readDouble();
+            if (columns != null) {
+                double seconds = Double.NaN;
+                double slope = 0.0;
+                boolean stairs = false;
+                for (int i = 0; i < columns.length && tokenizer.hasNextField(); i++) {
+                    switch (columns[i]) {
+                        case SECONDS_COLUMN:
+                            seconds = tokenizer.readDouble(Double.NaN);
+                            break;
+                        case SLOPE_COLUMN:
+                            slope = tokenizer.readDouble(0.0);
+                            break;
+                        case STAIRS_COLUMN:
+                            stairs = tokenizer.readDouble(0.0) != 0.0;
+                            break;
+                        default:
+                            tokenizer.readString();
+                            break;
+                    }
+                }
+                attributes.add(seconds, slope, stairs);
+            }
+            tokenizer.skipRow();
+            CampusPath path = new CampusPath();
+            path.setDestination(destination);
+            path.setDistance(distance);
+            path.setOrigin(origin);
+            paths.add(path);
+        }
+
+        return paths;
+    }
+
+    /**
+     * Helper.
+     * Reads the paths TSV header row.
+     * @param tokenizer TsvTokenizer at the start of the header row.
+     * @throws IOException if any I/O error occurs reading the file
+     * @return the kind of each column after distance (one of the *_COLUMN constants), or null if none is
+     *     an attribute column. */
+    private static int[] readAttributeColumns(TsvTokenizer tokenizer) throws IOException {
+        List<String> names = new ArrayList<>();
+        while (tokenizer.hasNextField()) {
+            names.add(tokenizer.readString().trim());
+        }
+        boolean any = false;
+        int[] columns = new int[Math.max(0, names.size() - PATH_COLUMNS)];
+        for (int i = 0; i < columns.length; i++) {
+            String name = names.get(PATH_COLUMNS + i);
+            if (name.equalsIgnoreCase(EdgeAttributes.SECONDS)) {
+                columns[i] = SECONDS_COLUMN;
+            }
+            else if (name.equalsIgnoreCase(EdgeAttributes.SLOPE)) {
+                columns[i] = SLOPE_COLUMN;
+            }
+            else if (name.equalsIgnoreCase(EdgeAttributes.STAIRS)) {
+                columns[i] = STAIRS_COLUMN;
+            }
+            else {
+                columns[i] = OTHER_COLUMN;
+            }
+            any |= columns[i] != OTHER_COLUMN;
+        }
+        return any ? columns : null;
+    }
+
+    /**
+     * Helper.
+     * Estimates the number of rows left in the stream, so the result list is allocated once.
+     * @param stream InputStream about to be parsed.
+     * @param bytesPerRow int approximate encoded size of a row.
+     * @return an initial capacity for the result list. */
+    private static int estimateRows(InputStream stream, int bytesPerRow) {
+        try {
+            return Math.max(16, stream.available() / bytesPerRow + 1);
+        } catch (IOException e) {
+            return 16;
+        }
+    }
+
+}
@@ -0,0 +1,263 @@
+package com.example.campuspaths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+/**
+ * Bidirectional ALT shortest path search over a CampusGraph.
+ *
+ * A forward search from the source over the graph and a backward search from the destination over its
+ * transpose run in alternation, always advancing the side with the smaller queue. Both are guided by
+ * the average landmark potential p(v) = (lb(v, t) - lb(s, v)) / 2, where lb is the Landmarks lower
+ * bound: the forward search orders nodes by d(s, v) + p(v) and the backward search by d(v, t) - p(v).
+ * Both then see the same non-negative reduced edge costs, so the search can stop as soon as the two
+ * smallest keys sum to at least the best s-t distance seen where the searches meet. Without landmarks
+ * the potential is zero and this is plain bidirectional Dijkstra.
+ *
+ * Instances are not thread-safe; use one per thread.
+ */
+public class BidirectionalAltRouter implements RouteService.Router {
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+    // How many settled nodes between checks for interruption.
+    private static final int INTERRUPT_CHECK_MASK = 0xFF;
+
+    private final CampusGraph graph;
+    private final CampusGraph reversed;
+    private final Landmarks landmarks;
+
+    // Per-search state, reused across queries. The backward arrays refer to edges of reversed.
+    private final double[] distForward;
+    private final double[] distBackward;
+    private final int[] parentEdgeForward;
+    private final int[] parentEdgeBackward;
+    private final int[] parentForward;
+    private final int[] parentBackward;
+    private final boolean[] settledForward;
+    private final boolean[] settledBackward;
+    // Forward potential of each node, computed on first use in a search (NaN until then).
+    private final double[] potential;
+    private final IndexedMinHeap queueForward;
+    private final IndexedMinHeap queueBackward;
+
+    private int src;
+    private int dst;
+    private double lastDistance = INFINITY;
+    private int lastSettled = 0;
+    // Index of the meeting node in the last path: edges before it are forward tree edges, edges after it backward.
+    private int lastMeetIndex = 0;
+
+    /**
+     * Constructor.
+     * @param graph CampusGraph to search.
+     * @param landmarks Landmarks computed on graph, or null for bidirectional Dijkstra.
+     * @spec.requires graph is not null and has no negative edge weights. */
+    public BidirectionalAltRouter(CampusGraph graph, Landmarks landmarks) {
+        this.graph = graph;
+        this.reversed = graph.reversed();
+        this.landmarks = landmarks;
+        int n = graph.nodeCount();
+        this.distForward = new double[n];
+        this.distBackward = new double[n];
+        this.parentEdgeForward = new int[n];
+        this.parentEdgeBackward = new int[n];
+        this.parentForward = new int[n];
+        this.parentBackward = new int[n];
+        this.settledForward = new boolean[n];
+        this.settledBackward = new boolean[n];
+        this.potential = new double[n];
+        this.queueForward = new IndexedMinHeap(n);
+        this.queueBackward = new IndexedMinHeap(n);
+    }
+
+    /**
+     * Router.
+     * @param src Coordinate to start from.
+     * @param dst Coordinate to end at.
+     * @return the shortest path from src to dst, or null if either is not a graph node, there is no
+     *     path, or the calling thread was interrupted. */
+    @Override
+    public ArrayList<Edge<Double, Coordinate>> getShortestPath(Coordinate src, Coordinate dst) {
+        int s = graph.nodeAt(src);
+        int t = graph.nodeAt(dst);
+        if (s < 0 || t < 0) {
+            return null;
+        }
+        int[] nodes = findPath(s, t);
+        Metrics.ROUTE_SETTLED.record(lastSettled);
+        if (nodes == null) {
+            return null;
+        }
+        return RouteEdges.toEdges(graph, nodes, pathWeights(nodes));
+    }
+
+    /**
+     * Searches for the shortest path between two nodes.
+     * @param src int node id to start from.
+     * @param dst int node id to end at.
+     * @return the node ids of the shortest path from src to dst inclusive, or null if there is no
+     *     path or the calling thread was interrupted. */
+    public int[] findPath(int src, int dst) {
+        this.src = src;
+        this.dst = dst;
+        Arrays.fill(distForward, INFINITY);
+        Arrays.fill(distBackward, INFINITY);
+        Arrays.fill(settledForward, false);
+        Arrays.fill(settledBackward, false);
+        Arrays.fill(potential, Double.NaN);
+        queueForward.clear();
+        queueBackward.clear();
+        lastSettled = 0;
+        lastDistance = INFINITY;
+
+        distForward[src] = 0.0;
+        parentForward[src] = -1;
+        parentEdgeForward[src] = -1;
+        distBackward[dst] = 0.0;
+        parentBackward[dst] = -1;
+        parentEdgeBackward[dst] = -1;
+        double best = src == dst ? 0.0 : INFINITY;
+        int meet = src == dst ? src : -1;
+        double ps = potential(src);
+        double pt = potential(dst);
+        if (ps == INFINITY || pt == INFINITY) {
+            return null;
+        }
+        queueForward.offer(src, ps);
+        queueBackward.offer(dst, -pt);
+
+        while (!queueForward.isEmpty() && !queueBackward.isEmpty()) {
+            if (queueForward.peekKey() + queueBackward.peekKey() >= best) {
+                break;
+            }
+            if ((lastSettled & INTERRUPT_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            lastSettled++;
+            if (queueForward.size() <= queueBackward.size()) {
+                int u = queueForward.poll();
+                settledForward[u] = true;
+                double du = distForward[u];
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    int v = graph.targets[e];
+                    double dv = du + graph.weights[e];
+                    if (settledForward[v] || dv >= distForward[v]) {
+                        continue;
+                    }
+                    double pv = potential(v);
+                    if (pv == INFINITY) {
+                        continue;
+                    }
+                    distForward[v] = dv;
+                    parentForward[v] = u;
+                    parentEdgeForward[v] = e;
+                    queueForward.offer(v, dv + pv);
+                    if (dv + distBackward[v] < best) {
+                        best = dv + distBackward[v];
+                        meet = v;
+                    }
+                }
+            }
+            else {
+                int u = queueBackward.poll();
+                settledBackward[u] = true;
+                double du = distBackward[u];
+                for (int e = reversed.offsets[u]; e < reversed.offsets[u + 1]; e++) {
+                    int v = reversed.targets[e];
+                    double dv = du + reversed.weights[e];
+                    if (settledBackward[v] || dv >= distBackward[v]) {
+                        continue;
+                    }
+                    double pv = potential(v);
+                    if (pv == INFINITY) {
+                        continue;
+                    }
+                    distBackward[v] = dv;
+                    parentBackward[v] = u;
+                    parentEdgeBackward[v] = e;
+                    queueBackward.offer(v, dv - pv);
+                    if (dv + distForward[v] < best) {
+                        best = dv + distForward[v];
+                        meet = v;
+                    }
+                }
+            }
+        }
+
+        if (meet < 0) {
+            return null;
+        }
+        lastDistance = best;
+        int forwardLength = 0;
+        for (int v = meet; v != src; v = parentForward[v]) {
+            forwardLength++;
+        }
+        int backwardLength = 0;
+        for (int v = meet; v != dst; v = parentBackward[v]) {
+            backwardLength++;
+        }
+        lastMeetIndex = forwardLength;
+        int[] nodes = new int[forwardLength + backwardLength + 1];
+        for (int v = meet, i = forwardLength; i >= 0; v = parentForward[v], i--) {
+            nodes[i] = v;
+        }
+        for (int v = meet, i = forwardLength; i < nodes.length - 1; i++) {
+            v = parentBackward[v];
+            nodes[i + 1] = v;
+        }
+        return nodes;
+    }
+
+    /**
+     * Getter.
+     * @return the length of the path found by the last successful findPath, or infinity. */
+    public double lastDistance() {
+        return lastDistance;
+    }
+
+    /**
+     * Getter.
+     * @return the number of nodes settled by the last findPath, in both directions. */
+    public int lastSettled() {
+        return lastSettled;
+    }
+
+    /**
+     * Helper.
+     * @param nodes int[] path returned by the last findPath.
+     * @return the length of each edge along the path, from the search tree it came from. */
+    private double[] pathWeights(int[] nodes) {
+        double[] lengths = new double[Math.max(0, nodes.length - 1)];
+        for (int i = 1; i < nodes.length; i++) {
+            if (i <= lastMeetIndex) {
+                lengths[i - 1] = graph.weights[parentEdgeForward[nodes[i]]];
+            }
+            else {
+                lengths[i - 1] = reversed.weights[parentEdgeBackward[nodes[i - 1]]];
+            }
+        }
+        return lengths;
+    }
+
+    /**
+     * Helper.
+     * @return the forward potential (lb(v, dst) - lb(src, v)) / 2 of v for the current search, or infinity if
+     *     v cannot be on a path from src to dst. */
+    private double potential(int v) {
+        double p = potential[v];
+        if (p != p) {
+            if (landmarks == null) {
+                p = 0.0;
+            }
+            else {
+                double toDst = landmarks.lowerBound(v, dst);
+                double fromSrc = landmarks.lowerBound(src, v);
+                p = toDst == INFINITY || fromSrc == INFINITY ? INFINITY : (toDst - fromSrc) / 2;
+            }
+            potential[v] = p;
+        }
+        return p;
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.campuspaths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+import hw8.CampusBuilding;
+
+/**
+ * Ranked prefix and typo-tolerant search over building short and long names.
+ *
+ * Every name is split into lowercase words, and the distinct words form a sorted dictionary with a
+ * posting list of (building, field, word position) per word. A query word matches a dictionary word
+ * it is a prefix of, found by binary search over the sorted dictionary, or, if it is at least
+ * MIN_FUZZY_LENGTH long, a word whose prefix is within one or two edits of it. Fuzzy candidates come
+ * from a padded-bigram index over the dictionary, so neither kind of match rescans the building names.
+ *
+ * A building matches a query if every query word matches one of its words. Matches rank by the sum of
+ * the best score of each query word (exact word over prefix over fuzzy, short name over long name, and
+ * earlier words over later ones), with a bonus for a query equal to the short name; ties keep file order.
+ * The index is immutable and thread-safe.
+ */
+public final class BuildingSearchIndex {
+    static final int MIN_FUZZY_LENGTH = 3;
+    // Query words at least this long may be two edits away rather than one.
+    static final int TWO_EDIT_LENGTH = 6;
+
+    private static final int EXACT_SCORE = 40;
+    private static final int PREFIX_SCORE = 30;
+    private static final int FUZZY_SCORE = 15;
+    private static final int EDIT_PENALTY = 5;
+    private static final int SHORT_NAME_BONUS = 10;
+    private static final int POSITION_BONUS = 4;
+    private static final int SHORT_NAME_EQUAL_BONUS = 1000;
+
+    private static final int FIELD_SHORT = 1;
+    private static final int FIELD_LONG = 0;
+
+    private final String[] shortNames;
+    private final String[] normalizedShortNames;
+    private final String[] terms;
+    private final int[] postingStart;
+    private final int[] postings;
+    private final long[] bigrams;
+    private final int[] bigramStart;
+    private final int[] bigramTerms;
+
+    // Abstraction Function:
+    //  Building b is named shortNames[b]. The words of its names are the terms t with a posting
+    //  (b << 8 | field << 7 | position) in postings[postingStart[t] .. postingStart[t + 1]), where field is
+    //  FIELD_SHORT or FIELD_LONG and position is the index of the word in that name, capped at 127.
+    //  bigramTerms[bigramStart[g] .. bigramStart[g + 1]) are the ids of the terms containing bigram
+    //  bigrams[g], where each term is padded with a leading '^'.
+    //
+    // Representation Invariant:
+    //  terms is sorted and distinct, and bigrams is sorted and distinct.
+    //  Posting and bigram term lists are in increasing order.
+
+    private BuildingSearchIndex(String[] shortNames, String[] longNames) {
+        int b = shortNames.length;
+        this.shortNames = shortNames;
+        this.normalizedShortNames = new String[b];
+
+        // Build-time only: word -> encoded postings, in building order.
+        TreeMap<String, List<Integer>> dictionary = new TreeMap<>();
+        for (int i = 0; i < b; i++) {
+            normalizedShortNames[i] = normalize(shortNames[i]);
+            addWords(dictionary, tokenize(shortNames[i]), i, FIELD_SHORT);
+            addWords(dictionary, tokenize(longNames[i]), i, FIELD_LONG);
+        }
+
+        int n = dictionary.size();
+        this.terms = dictionary.keySet().toArray(new String[n]);
+        this.postingStart = new int[n + 1];
+        int count = 0;
+        for (int t = 0; t < n; t++) {
+            count += dictionary.get(terms[t]).size();
+            postingStart[t + 1] = count;
+        }
+        this.postings = new int[count];
+        for (int t = 0; t < n; t++) {
+            int k = postingStart[t];
+            for (int posting : dictionary.get(terms[t])) {
+                postings[k++] = posting;
+            }
+        }
+
+        // Bigram index: gather (bigram, term) pairs, sort, and compress into CSR form.
+        int pairs = 0;
+        for (String term : terms) {
+            pairs += term.length();
+        }
+        long[] keyed = new long[pairs];
+        int p = 0;
+        for (int t = 0; t < n; t++) {
+            char previous = '^';
+            for (int j = 0; j < terms[t].length(); j++) {
+                char c = terms[t].charAt(j);
+                keyed[p++] = bigram(previous, c) << 32 | t;
+                previous = c;
+            }
+        }
+        Arrays.sort(keyed);
+        int distinctPairs = 0;
+        int distinctGrams = 0;
+        for (int i = 0; i < pairs; i++) {
+            if (i == 0 || keyed[i] != keyed[i - 1]) {
+                keyed[distinctPairs++] = keyed[i];
+                if (distinctPairs == 1 || (keyed[distinctPairs - 1] >>> 32) != (keyed[distinctPairs - 2] >>> 32)) {
+                    distinctGrams++;
+                }
+            }
+        }
+        this.bigrams = new long[distinctGrams];
+        this.bigramStart = new int[distinctGrams + 1];
+        this.bigramTerms = new int[distinctPairs];
+        int g = -1;
+        for (int i = 0; i < distinctPairs; i++) {
+            long gram = keyed[i] >>> 32;
+            if (g < 0 || bigrams[g] != gram) {
+                bigrams[++g] = gram;
+                bigramStart[g] = i;
+            }
+            bigramTerms[i] = (int) keyed[i];
+        }
+        bigramStart[distinctGrams] = distinctPairs;
+    }
+
+    /**
+     * Factory.
+     * @param buildings List of CampusBuilding to index, in the order results are numbered by.
+     * @spec.requires buildings is not null and has fewer than 2^23 elements.
+     * @return a search index over the short and long names of buildings. */
+    public static BuildingSearchIndex build(List<CampusBuilding> buildings) {
+        String[] shortNames = new String[buildings.size()];
+        String[] longNames = new String[buildings.size()];
+        for (int i = 0; i < shortNames.length; i++) {
+            shortNames[i] = buildings.get(i).getShortName();
+            longNames[i] = buildings.get(i).getLongName();
+        }
+        return new BuildingSearchIndex(shortNames, longNames);
+    }
+
+    /**
+     * @return the number of indexed buildings. */
+    public int size() {
+        return shortNames.length;
+    }
+
+    /**
+     * Getter.
+     * @param building int building index.
+     * @return the short name of the building. */
+    public String shortName(int building) {
+        return shortNames[building];
+    }
+
+    /**
+     * Query.
+     * @param query String typed so far; case and punctuation are ignored.
+     * @param limit int maximum number of results.
+     * @spec.requires query is not null, limit &gt;= 0.
+     * @return the indices of the best matching buildings, best first. A query with no words matches every
+     *         building, in file order. */
+    public int[] search(String query, int limit) {
+        List<String> words = tokenize(query);
+        int b = shortNames.length;
+        if (words.isEmpty()) {
+            int[] all = new int[Math.min(limit, b)];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] total = new int[b];
+        int[] matchedWords = new int[b];
+        int[] wordScore = new int[b];
+        int[] touched = new int[b];
+        int[] sharedBigrams = new int[terms.length];
+        for (String word : words) {
+            int touchedCount = 0;
+            int first = lowerBound(word);
+            int last = lowerBound(word + Character.MAX_VALUE);
+            for (int t = first; t < last; t++) {
+                int score = terms[t].length() == word.length() ? EXACT_SCORE : PREFIX_SCORE;
+                touchedCount = score(t, score, wordScore, touched, touchedCount);
+            }
+            if (word.length() >= MIN_FUZZY_LENGTH) {
+                int maxEdits = word.length() >= TWO_EDIT_LENGTH ? 2 : 1;
+                for (int t : fuzzyCandidates(word, maxEdits, sharedBigrams)) {
+                    if (t >= first && t < last) {
+                        continue;
+                    }
+                    int edits = prefixEditDistance(word, terms[t], maxEdits);
+                    if (edits <= maxEdits) {
+                        touchedCount = score(t, FUZZY_SCORE - EDIT_PENALTY * edits, wordScore, touched, touchedCount);
+                    }
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                int building = touched[i];
+                total[building] += wordScore[building];
+                matchedWords[building]++;
+                wordScore[building] = 0;
+            }
+        }
+
+        String normalized = normalize(query);
+        long[] ranked = new long[b];
+        int results = 0;
+        for (int i = 0; i < b; i++) {
+            if (matchedWords[i] == words.size()) {
+                int score = total[i] + (normalizedShortNames[i].equals(normalized) ? SHORT_NAME_EQUAL_BONUS : 0);
+                // Higher scores first, then lower indices.
+                ranked[results++] = (long) (Integer.MAX_VALUE - score) << 32 | i;
+            }
+        }
+        Arrays.sort(ranked, 0, results);
+        int[] ids = new int[Math.min(limit, results)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (int) ranked[i];
+        }
+        return ids;
+    }
+
+    /**
+     * Helper.
+     * Raises wordScore of every building with term t to the given base score plus field and position bonuses.
+     * @return the new number of entries in touched, which lists each building with a non-zero wordScore once. */
+    private int score(int t, int base, int[] wordScore, int[] touched, int touchedCount) {
+        for (int k = postingStart[t]; k < postingStart[t + 1]; k++) {
+            int posting = postings[k];
+            int building = posting >>> 8;
+            int field = (posting >>> 7) & 1;
+            int position = posting & 0x7F;
+            int score = base
+                    + (field == FIELD_SHORT ? SHORT_NAME_BONUS : 0)
+                    + Math.max(0, POSITION_BONUS - position);
+            if (wordScore[building] == 0) {
+                touched[touchedCount++] = building;
+            }
+            wordScore[building] = Math.max(wordScore[building], score);
+        }
+        return touchedCount;
+    }
+
+    /**
+     * Helper.
+     * @param word String normalized query word.
+     * @param maxEdits int edits allowed.
+     * @param sharedBigrams int[] scratch space of terms.length zeros, left zeroed on return.
+     * @return the ids of terms sharing enough bigrams with word to possibly be within maxEdits of it. Each edit
+     *         changes at most two of the word's padded bigrams. */
+    private List<Integer> fuzzyCandidates(String word, int maxEdits, int[] sharedBigrams) {
+        List<Integer> touchedTerms = new ArrayList<>();
+        char previous = '^';
+        for (int j = 0; j < word.length(); j++) {
+            char c = word.charAt(j);
+            int g = Arrays.binarySearch(bigrams, bigram(previous, c));
+            previous = c;
+            if (g < 0) {
+                continue;
+            }
+            for (int k = bigramStart[g]; k < bigramStart[g + 1]; k++) {
+                if (sharedBigrams[bigramTerms[k]]++ == 0) {
+                    touchedTerms.add(bigramTerms[k]);
+                }
+            }
+        }
+        int needed = Math.max(1, word.length() - 2 * maxEdits);
+        List<Integer> candidates = new ArrayList<>();
+        for (int t : touchedTerms) {
+            if (sharedBigrams[t] >= needed) {
+                candidates.add(t);
+            }
+            sharedBigrams[t] = 0;
+        }
+        return candidates;
+    }
+
+    /**
+     * Helper.
+     * @return the smallest edit distance between word and any prefix of term, or maxEdits + 1 if it exceeds maxEdits. */
+    static int prefixEditDistance(String word, String term, int maxEdits) {
+        int n = term.length();
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        // Row 0: the empty word against each prefix of the term.
+        for (int j = 0; j <= n; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= word.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= n; j++) {
+                int substitution = previous[j - 1] + (word.charAt(i - 1) == term.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        int best = maxEdits + 1;
+        for (int j = 0; j <= n; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    /**
+     * Helper.
+     * @return the index of the first term not less than key. */
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static long bigram(char first, char second) {
+        return (long) first << 16 | second;
+    }
+
+    private static void addWords(TreeMap<String, List<Integer>> dictionary, List<String> words, int building, int field) {
+        for (int position = 0; position < words.size(); position++) {
+            List<Integer> list = dictionary.get(words.get(position));
+            if (list == null) {
+                list = new ArrayList<>();
+                dictionary.put(words.get(position), list);
+            }
+            int posting = building << 8 | field << 7 | Math.min(position, 0x7F);
+            // Keep only the first occurrence of a word per building and field.
+            int last = list.isEmpty() ? -1 : list.get(list.size() - 1);
+            if ((last >>> 7) != (posting >>> 7)) {
+                list.add(posting);
+            }
+        }
+    }
+
+    /**
+     * Helper.
+     * @return the lowercase letter-or-digit runs of text. */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            }
+            else if (!wordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Helper.
+     * @return the words of text joined by single spaces. */
+    private static String normalize(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (String word : tokenize(text)) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(word);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.campuspaths;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Build-time precompiler for the app's campus assets.
+ *
+ * Run by the :core:campusAssets Gradle task, which the app build depends on, so the APK ships the
+ * campus graph already compiled to the CampusGraphFile format, and the building RouteTable and the
+ * ContractionHierarchy already computed over it. The device never parses the paths TSV, searches every
+ * building pair or contracts the graph unless an asset is unusable:
+ * <pre>java com.example.campuspaths.CampusAssets buildings.tsv paths.tsv outDir</pre>
+ */
+public final class CampusAssets {
+
+    // Not an ADT
+
+    /** Asset name of the compiled CampusGraphFile. */
+    public static final String GRAPH = "campus_graph.bin";
+    /** Asset name of the serialized RouteTable over the graph. */
+    public static final String ROUTES = "campus_routes.bin";
+    /** Asset name of the serialized ContractionHierarchy over the graph. */
+    public static final String HIERARCHY = "campus_ch.bin";
+    /**
+     * Stamp the graph asset is written with. The asset is built from the same TSVs as the APK it ships
+     * in, so unlike a graph cached on the device it can never be stale. */
+    public static final long STAMP = 0L;
+
+    private CampusAssets() {
+    }
+
+    /**
+     * Writes the assets into a directory.
+     * @param args buildings TSV, paths TSV and the output directory, which is created if needed.
+     * @throws IOException if a TSV cannot be read or an asset cannot be written. */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: CampusAssets <buildings.tsv> <paths.tsv> <outDir>");
+            System.exit(2);
+        }
+        File dir = new File(args[2]);
+        CampusGraph graph = write(args[0], args[1], dir);
+        System.out.printf("CampusAssets: wrote '%s'" +
+                "\n\tnodes: '%s'" +
+                "\n\tedges: '%s'" +
+                "\n\tbuildings: '%s'\n",
+                dir, graph.nodeCount(), graph.edgeCount(), graph.buildingCount());
+    }
+
+    /**
+     * Writer.
+     * Compiles every asset of the TSVs into dir.
+     * @throws IOException if a TSV cannot be read or an asset cannot be written.
+     * @return the CampusGraph the assets were compiled from. */
+    static CampusGraph write(String buildingsTsv, String pathsTsv, File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("CampusAssets: could not create " + dir);
+        }
+        CampusGraph graph = load(buildingsTsv, pathsTsv);
+        CampusGraphFile.write(graph, new File(dir, GRAPH), STAMP);
+        OutputStream routes = new FileOutputStream(new File(dir, ROUTES));
+        try {
+            RouteTable.compute(graph).write(routes);
+        } finally {
+            routes.close();
+        }
+        OutputStream hierarchy = new FileOutputStream(new File(dir, HIERARCHY));
+        try {
+            ContractionHierarchy.build(graph).write(hierarchy);
+        } finally {
+            hierarchy.close();
+        }
+        return graph;
+    }
+
+    /**
+     * Loader.
+     * @return the CampusGraph of the TSVs, with path attributes, as CampusLoader builds it on the device. */
+    private static CampusGraph load(String buildingsTsv, String pathsTsv) throws IOException {
+        InputStream buildings = new FileInputStream(buildingsTsv);
+        InputStream paths = new FileInputStream(pathsTsv);
+        try {
+            EdgeAttributes.Builder attributes = new EdgeAttributes.Builder();
+            return CampusGraph.build(AndroidParser.parseBuildingData(buildings),
+                    AndroidParser.parsePathData(paths, attributes), attributes.build());
+        } finally {
+            buildings.close();
+            paths.close();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.campuspaths;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generates synthetic campus maps of any size, as TSVs in the format AndroidParser reads, for scale
+ * testing.
+ *
+ * Nodes are laid out row by row on a grid of roughly square shape. In the GRID topology every node is
+ * joined to its right and lower neighbours and paths are exactly as long as the straight line. In the
+ * PLANAR topology node positions are jittered, each grid cell also gets one of its two diagonals, and
+ * paths are up to 25% longer than the straight line, which gives irregular but still planar and
+ * connected maps. A buildingDensity fraction of the nodes are building entrances.
+ *
+ * Everything about node i is derived from a hash of (seed, i), so output is reproducible and written
+ * in one streaming pass without holding the graph in memory, even for millions of nodes.
+ */
+public final class CampusGenerator {
+    // Coordinates start this far beyond the largest jitter, so they stay positive at any spacing.
+    private static final double ORIGIN = 100.0;
+    private static final int COORDINATE_DECIMALS = 4;
+    private static final int DISTANCE_DECIMALS = 6;
+    private static final double MAX_JITTER = 0.35;
+    private static final double MAX_DETOUR = 0.25;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    // Salts separating the independent random streams derived from one seed.
+    private static final long SALT_JITTER_X = 1;
+    private static final long SALT_JITTER_Y = 2;
+    private static final long SALT_DIAGONAL = 3;
+    private static final long SALT_DETOUR = 4;
+    private static final long SALT_BUILDING = 5;
+
+    /**
+     * How nodes are joined.
+     */
+    public enum Topology {
+        /** Axis-aligned grid, edges to the right and lower neighbours, straight-line lengths. */
+        GRID,
+        /** Jittered grid with one diagonal per cell and lengths up to MAX_DETOUR over the straight line. */
+        PLANAR
+    }
+
+    private final int nodeCount;
+    private final long seed;
+    private final int columns;
+    private Topology topology = Topology.PLANAR;
+    private double buildingDensity = 0.01;
+    private double spacing = 40.0;
+
+    // Abstraction Function:
+    //  A map of nodeCount nodes, where node i is at column i % columns, row i / columns of a grid with
+    //  cells spacing wide, moved by jitter(i) in the PLANAR topology, and hosts a building if
+    //  unit(hash(i, SALT_BUILDING)) < buildingDensity.
+    //
+    // Representation Invariant:
+    //  nodeCount >= 1, columns == ceil(sqrt(nodeCount)), 0 <= buildingDensity <= 1, spacing > 0
+
+    /**
+     * Constructor.
+     * @param nodeCount int number of path nodes to generate.
+     * @param seed long seed all positions, lengths and buildings are derived from.
+     * @spec.requires nodeCount &gt;= 1. */
+    public CampusGenerator(int nodeCount, long seed) {
+        this.nodeCount = nodeCount;
+        this.seed = seed;
+        this.columns = (int) Math.ceil(Math.sqrt(nodeCount));
+    }
+
+    /**
+     * Setter.
+     * @param topology Topology of the generated paths. PLANAR by default.
+     * @spec.requires topology is not null. */
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * Setter.
+     * @param buildingDensity double fraction of nodes that are building entrances. 0.01 by default.
+     * @spec.requires 0 &lt;= buildingDensity &lt;= 1. */
+    public void setBuildingDensity(double buildingDensity) {
+        this.buildingDensity = buildingDensity;
+    }
+
+    /**
+     * Setter.
+     * @param spacing double distance between neighbouring grid nodes, in map units. 40 by default.
+     * @spec.requires spacing &gt; 0. */
+    public void setSpacing(double spacing) {
+        this.spacing = spacing;
+    }
+
+    /**
+     * Getter.
+     * @return the number of path nodes generated. */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Writer.
+     * Writes the paths TSV (origin, destination, distance), with every path in both directions.
+     * @param out OutputStream to write to. It is flushed but not closed.
+     * @throws IOException if writing fails.
+     * @return the number of rows written, not counting the header. */
+    public long writePaths(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(new BufferedOutputStream(out, WRITE_BUFFER_BYTES),
+                StandardCharsets.UTF_8);
+        writer.write("origin\tdestination\tdistance\n");
+        StringBuilder line = new StringBuilder(96);
+        long rows = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            int column = i % columns;
+            boolean hasRight = column + 1 < columns && i + 1 < nodeCount;
+            if (hasRight) {
+                rows += writePath(writer, line, i, i + 1, 0);
+            }
+            if (i + columns < nodeCount) {
+                rows += writePath(writer, line, i, i + columns, 1);
+            }
+            if (topology == Topology.PLANAR && hasRight && i + columns + 1 < nodeCount) {
+                if (unit(i, SALT_DIAGONAL) < 0.5) {
+                    rows += writePath(writer, line, i, i + columns + 1, 2);
+                }
+                else {
+                    rows += writePath(writer, line, i + 1, i + columns, 2);
+                }
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Writer.
+     * Writes the buildings TSV (shortName, longName, location) for the nodes that host a building.
+     * @param out OutputStream to write to. It is flushed but not closed.
+     * @throws IOException if writing fails.
+     * @return the number of buildings written. */
+    public int writeBuildings(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(new BufferedOutputStream(out, WRITE_BUFFER_BYTES),
+                StandardCharsets.UTF_8);
+        writer.write("shortName\tlongName\tlocation\n");
+        StringBuilder line = new StringBuilder(96);
+        int buildings = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            if (unit(i, SALT_BUILDING) >= buildingDensity) {
+                continue;
+            }
+            line.setLength(0);
+            line.append('B').append(buildings).append('\t')
+                    .append("Synthetic Building ").append(buildings).append('\t');
+            appendCoordinate(line, i);
+            line.append('\n');
+            writer.append(line);
+            buildings++;
+        }
+        writer.flush();
+        return buildings;
+    }
+
+    /**
+     * Writes a paths TSV and a buildings TSV to files.
+     * Usage: CampusGenerator nodeCount pathsFile buildingsFile [GRID|PLANAR] [buildingDensity] [seed]
+     * @param args String[] as above.
+     * @throws IOException if either file cannot be written. */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: CampusGenerator nodeCount pathsFile buildingsFile" +
+                    " [GRID|PLANAR] [buildingDensity] [seed]");
+            System.exit(2);
+        }
+        CampusGenerator generator = new CampusGenerator(Integer.parseInt(args[0]),
+                args.length > 5 ? Long.parseLong(args[5]) : 0L);
+        if (args.length > 3) {
+            generator.setTopology(Topology.valueOf(args[3]));
+        }
+        if (args.length > 4) {
+            generator.setBuildingDensity(Double.parseDouble(args[4]));
+        }
+        OutputStream paths = new FileOutputStream(args[1]);
+        try {
+            long rows = generator.writePaths(paths);
+            System.out.printf("CampusGenerator: main: \n\tpaths: '%d'\n", rows);
+        } finally {
+            paths.close();
+        }
+        OutputStream buildings = new FileOutputStream(args[2]);
+        try {
+            int count = generator.writeBuildings(buildings);
+            System.out.printf("CampusGenerator: main: \n\tbuildings: '%d'\n", count);
+        } finally {
+            buildings.close();
+        }
+    }
+
+    /**
+     * Helper.
+     * Writes the path between nodes u and v in both directions.
+     * @param slot int which of the up to three paths leaving u in writePaths this is.
+     * @return the number of rows written. */
+    private int writePath(Writer writer, StringBuilder line, int u, int v, int slot) throws IOException {
+        double dx = x(u) - x(v);
+        double dy = y(u) - y(v);
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        if (topology == Topology.PLANAR) {
+            distance *= 1 + MAX_DETOUR * unit(3L * u + slot, SALT_DETOUR);
+        }
+        for (int direction = 0; direction < 2; direction++) {
+            line.setLength(0);
+            appendCoordinate(line, direction == 0 ? u : v);
+            line.append('\t');
+            appendCoordinate(line, direction == 0 ? v : u);
+            line.append('\t');
+            appendFixed(line, distance, DISTANCE_DECIMALS);
+            line.append('\n');
+            writer.append(line);
+        }
+        return 2;
+    }
+
+    private double x(int node) {
+        double x = origin() + (node % columns) * spacing;
+        if (topology == Topology.PLANAR) {
+            x += (unit(node, SALT_JITTER_X) * 2 - 1) * MAX_JITTER * spacing;
+        }
+        return round(x);
+    }
+
+    private double y(int node) {
+        double y = origin() + (node / columns) * spacing;
+        if (topology == Topology.PLANAR) {
+            y += (unit(node, SALT_JITTER_Y) * 2 - 1) * MAX_JITTER * spacing;
+        }
+        return round(y);
+    }
+
+    /**
+     * Helper.
+     * @return the position of the first grid row and column, far enough in that no jitter moves a node below 0. */
+    private double origin() {
+        return ORIGIN + MAX_JITTER * spacing;
+    }
+
+    private void appendCoordinate(StringBuilder line, int node) {
+        appendFixed(line, x(node), COORDINATE_DECIMALS);
+        line.append(',');
+        appendFixed(line, y(node), COORDINATE_DECIMALS);
+    }
+
+    /**
+     * Helper.
+     * @return value rounded to the number of decimals coordinates are written with, so the distances
+     *     are computed from the same positions the parser will read. */
+    private static double round(double value) {
+        return Math.round(value * 1e4) / 1e4;
+    }
+
+    /**
+     * Helper.
+     * Appends a value in plain decimal notation with the given number of decimals. */
+    static void appendFixed(StringBuilder line, double value, int decimals) {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) {
+            scale *= 10;
+        }
+        long scaled = Math.round(value * scale);
+        if (scaled < 0) {
+            line.append('-');
+            scaled = -scaled;
+        }
+        line.append(scaled / scale).append('.');
+        String fraction = Long.toString(scaled % scale);
+        for (int i = fraction.length(); i < decimals; i++) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+
+    /**
+     * Helper.
+     * @return a uniform double in [0, 1) determined by seed, key and salt (SplitMix64 finalizer). */
+    private double unit(long key, long salt) {
+        long z = seed + key * 0x9E3779B97F4A7C15L + salt * 0xD1B54A32D192ED03L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,456 @@
+package com.example.campuspaths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hw8.CampusBuilding;
+import hw8.CampusPath;
+import hw8.Coordinate;
+
+/**
+ * Immutable, int-indexed representation of the campus path graph.
+ *
+ * Every distinct Coordinate (path endpoints and building locations) is assigned a node id in
+ * [0, nodeCount). Outgoing edges are stored in compressed sparse row form: the edges leaving node
+ * u are the indices [offsets[u], offsets[u + 1]) of targets and weights. Buildings are indexed in
+ * [0, buildingCount) in file order. If the paths TSV had attribute columns, EdgeAttributes holds them
+ * by the same edge indices.
+ */
+public final class CampusGraph {
+    // Node table.
+    final double[] xs;
+    final double[] ys;
+
+    // CSR adjacency.
+    final int[] offsets;
+    final int[] targets;
+    final double[] weights;
+
+    // Building table.
+    final String[] shortNames;
+    final String[] longNames;
+    final int[] buildingNodes;
+
+    // Per-edge attributes, or null if there are none.
+    final EdgeAttributes attributes;
+
+    // Open-addressing hash of coordinate -> node id + 1 (0 marks an empty slot).
+    private final int[] coordinateTable;
+    private final Map<String, Integer> buildingsByShortName;
+
+    // Abstraction Function:
+    //  A directed weighted graph where node i sits at (xs[i], ys[i]), and for each u, e in
+    //  [offsets[u], offsets[u + 1]) is an edge u -> targets[e] of length weights[e].
+    //  Building b is named shortNames[b] / longNames[b] and located at node buildingNodes[b].
+    //
+    // Representation Invariant:
+    //  xs.length == ys.length == offsets.length - 1
+    //  offsets is non-decreasing, offsets[0] == 0, offsets[nodeCount] == targets.length == weights.length
+    //  0 <= targets[e] < nodeCount for all e
+    //  shortNames, longNames and buildingNodes have equal length, and 0 <= buildingNodes[b] < nodeCount
+    //  attributes is null or attributes.size() == targets.length
+
+    /**
+     * Constructor.
+     * Takes ownership of the given arrays.
+     * @spec.requires the arrays satisfy the representation invariant. */
+    CampusGraph(double[] xs, double[] ys, int[] offsets, int[] targets, double[] weights,
+                String[] shortNames, String[] longNames, int[] buildingNodes, EdgeAttributes attributes) {
+        this.xs = xs;
+        this.ys = ys;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.shortNames = shortNames;
+        this.longNames = longNames;
+        this.buildingNodes = buildingNodes;
+        this.attributes = attributes;
+
+        this.coordinateTable = new int[tableSize(xs.length)];
+        for (int i = 0; i < xs.length; i++) {
+            insert(coordinateTable, xs, ys, i);
+        }
+        this.buildingsByShortName = new HashMap<>(shortNames.length * 2);
+        for (int b = 0; b < shortNames.length; b++) {
+            buildingsByShortName.put(shortNames[b], b);
+        }
+    }
+
+    /**
+     * Constructor.
+     * Shares everything but the weights with base, so no node or building is re-indexed.
+     * @spec.requires weights.length == base.edgeCount(). */
+    private CampusGraph(CampusGraph base, double[] weights) {
+        this.xs = base.xs;
+        this.ys = base.ys;
+        this.offsets = base.offsets;
+        this.targets = base.targets;
+        this.weights = weights;
+        this.shortNames = base.shortNames;
+        this.longNames = base.longNames;
+        this.buildingNodes = base.buildingNodes;
+        this.attributes = base.attributes;
+        this.coordinateTable = base.coordinateTable;
+        this.buildingsByShortName = base.buildingsByShortName;
+    }
+
+    /**
+     * Factory.
+     * Builds the graph from the parsed campus data.
+     * @param buildings List of CampusBuilding parsed from the buildings TSV.
+     * @param paths List of CampusPath parsed from the paths TSV.
+     * @spec.requires buildings and paths are not null.
+     * @return the CampusGraph over every path endpoint and building location. */
+    public static CampusGraph build(List<CampusBuilding> buildings, List<CampusPath> paths) {
+        return build(buildings, paths, null);
+    }
+
+    /**
+     * Factory.
+     * Builds the graph from the parsed campus data, with the attribute columns of the paths TSV.
+     * @param buildings List of CampusBuilding parsed from the buildings TSV.
+     * @param paths List of CampusPath parsed from the paths TSV.
+     * @param attributes EdgeAttributes of each path, in the order of paths, or null if there are none.
+     * @spec.requires buildings and paths are not null.
+     * @throws IllegalArgumentException if attributes does not describe exactly one edge per path.
+     * @return the CampusGraph over every path endpoint and building location. */
+    public static CampusGraph build(List<CampusBuilding> buildings, List<CampusPath> paths,
+                                    EdgeAttributes attributes) {
+        if (attributes != null && attributes.size() != paths.size()) {
+            throw new IllegalArgumentException("CampusGraph: " + attributes.size() + " attribute rows for "
+                    + paths.size() + " paths");
+        }
+        int edgeCount = paths.size();
+        int capacity = edgeCount * 2 + buildings.size();
+        double[] xs = new double[capacity];
+        double[] ys = new double[capacity];
+        int[] table = new int[tableSize(capacity)];
+        int nodeCount = 0;
+
+        int[] sources = new int[edgeCount];
+        int[] dests = new int[edgeCount];
+        double[] lengths = new double[edgeCount];
+        int e = 0;
+        for (CampusPath path : paths) {
+            Coordinate origin = path.getOrigin();
+            Coordinate destination = path.getDestination();
+
+            int u = find(table, xs, ys, origin.getX(), origin.getY());
+            if (u < 0) {
+                u = nodeCount++;
+                xs[u] = origin.getX();
+                ys[u] = origin.getY();
+                insert(table, xs, ys, u);
+            }
+            int v = find(table, xs, ys, destination.getX(), destination.getY());
+            if (v < 0) {
+                v = nodeCount++;
+                xs[v] = destination.getX();
+                ys[v] = destination.getY();
+                insert(table, xs, ys, v);
+            }
+            sources[e] = u;
+            dests[e] = v;
+            lengths[e] = path.getDistance();
+            e++;
+        }
+
+        String[] shortNames = new String[buildings.size()];
+        String[] longNames = new String[buildings.size()];
+        int[] buildingNodes = new int[buildings.size()];
+        int b = 0;
+        for (CampusBuilding building : buildings) {
+            Coordinate location = building.getLocation();
+            int u = find(table, xs, ys, location.getX(), location.getY());
+            if (u < 0) {
+                u = nodeCount++;
+                xs[u] = location.getX();
+                ys[u] = location.getY();
+                insert(table, xs, ys, u);
+            }
+            shortNames[b] = building.getShortName();
+            longNames[b] = building.getLongName();
+            buildingNodes[b] = u;
+            b++;
+        }
+
+        // Counting sort of the edges by source keeps the file order within each node.
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[sources[i] + 1]++;
+        }
+        for (int u = 0; u < nodeCount; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+        // Reuses sources to hold the slot each path was sorted into.
+        int[] slots = sources;
+        for (int i = 0; i < edgeCount; i++) {
+            int slot = next[sources[i]]++;
+            targets[slot] = dests[i];
+            weights[slot] = lengths[i];
+            slots[i] = slot;
+        }
+
+        return new CampusGraph(Arrays.copyOf(xs, nodeCount), Arrays.copyOf(ys, nodeCount),
+                offsets, targets, weights, shortNames, longNames, buildingNodes,
+                attributes != null ? attributes.permuted(slots) : null);
+    }
+
+    /**
+     * Factory.
+     * Builds the transpose of this graph, for searches that run backwards from a destination.
+     * @return a CampusGraph with the same nodes and buildings, and an edge v -&gt; u of length w, and with
+     *     the same attributes, for every edge u -&gt; v of length w in this graph. */
+    public CampusGraph reversed() {
+        int n = nodeCount();
+        int m = edgeCount();
+        int[] reverseOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            reverseOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+        int[] next = Arrays.copyOf(reverseOffsets, n);
+        int[] reverseTargets = new int[m];
+        double[] reverseWeights = new double[m];
+        int[] slots = new int[m];
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int slot = next[targets[e]]++;
+                reverseTargets[slot] = u;
+                reverseWeights[slot] = weights[e];
+                slots[e] = slot;
+            }
+        }
+        return new CampusGraph(xs, ys, reverseOffsets, reverseTargets, reverseWeights,
+                shortNames, longNames, buildingNodes, attributes != null ? attributes.permuted(slots) : null);
+    }
+
+    /**
+     * Factory.
+     * @param weights double[] of the new length of every edge, by edge index, which the graph takes ownership
+     *     of. An infinite length closes the edge.
+     * @spec.requires weights.length == edgeCount(), and no weight is negative.
+     * @return a graph with the same nodes, edges, attributes and buildings as this one, and the given edge
+     *     lengths. */
+    CampusGraph withWeights(double[] weights) {
+        return new CampusGraph(this, weights);
+    }
+
+    /**
+     * Getter.
+     * @return the number of nodes in the graph. */
+    public int nodeCount() {
+        return xs.length;
+    }
+
+    /**
+     * Getter.
+     * @return the number of directed edges in the graph. */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Getter.
+     * @return the number of buildings in the graph. */
+    public int buildingCount() {
+        return shortNames.length;
+    }
+
+    /**
+     * Getter.
+     * @param node int node id.
+     * @return the x coordinate of node in raw units. */
+    public double x(int node) {
+        return xs[node];
+    }
+
+    /**
+     * Getter.
+     * @param node int node id.
+     * @return the y coordinate of node in raw units. */
+    public double y(int node) {
+        return ys[node];
+    }
+
+    /**
+     * Getter.
+     * @param node int node id.
+     * @return the index of the first edge leaving node. */
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * Getter.
+     * @param node int node id.
+     * @return one past the index of the last edge leaving node. */
+    public int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    /**
+     * Getter.
+     * @param edge int edge index.
+     * @return the node id the edge points to. */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Getter.
+     * @param edge int edge index.
+     * @return the length of the edge. */
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Getter.
+     * @return the attributes of every edge, by edge index, or null if the paths TSV had no attribute columns. */
+    public EdgeAttributes attributes() {
+        return attributes;
+    }
+
+    /**
+     * Getter.
+     * @param building int building index.
+     * @return the short name of the building. */
+    public String shortName(int building) {
+        return shortNames[building];
+    }
+
+    /**
+     * Getter.
+     * @param building int building index.
+     * @return the long name of the building. */
+    public String longName(int building) {
+        return longNames[building];
+    }
+
+    /**
+     * Getter.
+     * @param building int building index.
+     * @return the node id of the building location. */
+    public int buildingNode(int building) {
+        return buildingNodes[building];
+    }
+
+    /**
+     * Query.
+     * @param shortName String short name of a building.
+     * @return the building index, or -1 if there is no such building. */
+    public int buildingIndex(String shortName) {
+        Integer b = buildingsByShortName.get(shortName);
+        return b == null ? -1 : b;
+    }
+
+    /**
+     * Query.
+     * @param x double x coordinate in raw units.
+     * @param y double y coordinate in raw units.
+     * @return the id of the node at exactly (x, y), or -1 if there is none. */
+    public int nodeAt(double x, double y) {
+        return find(coordinateTable, xs, ys, x, y);
+    }
+
+    /**
+     * Query.
+     * @param coordinate Coordinate in raw units.
+     * @spec.requires coordinate is not null.
+     * @return the id of the node at exactly coordinate, or -1 if there is none. */
+    public int nodeAt(Coordinate coordinate) {
+        return nodeAt(coordinate.getX(), coordinate.getY());
+    }
+
+    /**
+     * Converter.
+     * @param node int node id.
+     * @return a new Coordinate for the node. */
+    public Coordinate coordinate(int node) {
+        return new Coordinate(xs[node], ys[node]);
+    }
+
+    /**
+     * Converter.
+     * Rebuilds the building list in the shape produced by AndroidParser.parseBuildingData.
+     * @return a new List of CampusBuilding, one per building. */
+    public List<CampusBuilding> toBuildings() {
+        List<CampusBuilding> buildings = new ArrayList<>(shortNames.length);
+        for (int b = 0; b < shortNames.length; b++) {
+            CampusBuilding building = new CampusBuilding();
+            building.setShortName(shortNames[b]);
+            building.setLongName(longNames[b]);
+            building.setLocation(coordinate(buildingNodes[b]));
+            buildings.add(building);
+        }
+        return buildings;
+    }
+
+    /**
+     * Converter.
+     * Rebuilds the path list in the shape produced by AndroidParser.parsePathData, sharing one
+     * Coordinate instance per node.
+     * @return a new List of CampusPath, one per edge, grouped by origin. */
+    public List<CampusPath> toPaths() {
+        Coordinate[] coordinates = new Coordinate[xs.length];
+        for (int u = 0; u < xs.length; u++) {
+            coordinates[u] = coordinate(u);
+        }
+        List<CampusPath> paths = new ArrayList<>(targets.length);
+        for (int u = 0; u < xs.length; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                CampusPath path = new CampusPath();
+                path.setOrigin(coordinates[u]);
+                path.setDestination(coordinates[targets[e]]);
+                path.setDistance(weights[e]);
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    // Coordinate hashing helpers.
+
+    private static int tableSize(int entries) {
+        int size = 16;
+        while (size < entries * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static int hash(double x, double y) {
+        long bits = Double.doubleToLongBits(x) * 31 + Double.doubleToLongBits(y);
+        int h = (int) (bits ^ (bits >>> 32));
+        return h ^ (h >>> 16);
+    }
+
+    private static int find(int[] table, double[] xs, double[] ys, double x, double y) {
+        int mask = table.length - 1;
+        for (int slot = hash(x, y) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int node = table[slot] - 1;
+            if (xs[node] == x && ys[node] == y) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    private static void insert(int[] table, double[] xs, double[] ys, int node) {
+        int mask = table.length - 1;
+        int slot = hash(xs[node], ys[node]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = node + 1;
+    }
+}
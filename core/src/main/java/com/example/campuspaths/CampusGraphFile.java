@@ -0,0 +1,282 @@
+package com.example.campuspaths;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+
+/**
+ * Reader and writer for the precompiled binary campus graph format.
+ *
+ * Layout (little-endian):
+ * <pre>
+ *   header   magic "CGRF", int version, int nodeCount, int edgeCount, int buildingCount,
+ *            int flags, long stamp, long crc32 of everything after the header
+ *   double[nodeCount] xs, double[nodeCount] ys, double[edgeCount] weights,
+ *   int[nodeCount + 1] offsets, int[edgeCount] targets, int[buildingCount] buildingNodes,
+ *   if flags has FLAG_ATTRIBUTES: float[edgeCount] seconds, float[edgeCount] slopes, byte[edgeCount] flags,
+ *   buildingCount x (int length, UTF-8 short name, int length, UTF-8 long name)
+ * </pre>
+ * The arrays are ordered by element size so every array is naturally aligned in the mapping.
+ * The stamp is chosen by the writer so a reader can reject a file compiled from older TSVs. The app
+ * ships its graph compiled at build time by CampusAssets, and maps it straight out of the APK.
+ *
+ * Can also be run offline to convert the TSVs:
+ * <pre>java com.example.campuspaths.CampusGraphFile buildings.tsv paths.tsv out.bin</pre>
+ */
+public class CampusGraphFile {
+
+    // Not an ADT
+
+    static final int MAGIC = 0x46524743;    // "CGRF" in little-endian order.
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 40;
+    // Bits of the header flags.
+    static final int FLAG_ATTRIBUTES = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Writer.
+     * Serializes the graph to the given file, replacing it atomically.
+     * @param graph CampusGraph to serialize.
+     * @param file File to write.
+     * @param stamp long caller-defined stamp stored in the header.
+     * @throws IOException if any I/O error occurs writing the file. */
+    public static void write(CampusGraph graph, File file, long stamp) throws IOException {
+        ByteBuffer buffer = encode(graph, stamp);
+        File tmp = new File(file.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(tmp);
+        try {
+            FileChannel channel = out.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("CampusGraphFile: could not replace " + file);
+        }
+    }
+
+    /**
+     * Reader.
+     * Memory-maps the whole file and loads the graph from it.
+     * @param file File previously produced by write.
+     * @param stamp long stamp the file must have been written with.
+     * @throws IOException if the file cannot be read, or has the wrong version, stamp or checksum.
+     * @return the CampusGraph stored in the file. */
+    public static CampusGraph read(File file, long stamp) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            return read(in.getChannel(), 0, in.getChannel().size(), stamp);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reader.
+     * Memory-maps a region of the channel (e.g. an uncompressed asset) and loads the graph from it.
+     * @param channel FileChannel to map.
+     * @param offset long byte offset of the graph in the channel.
+     * @param length long byte length of the graph.
+     * @param stamp long stamp the file must have been written with.
+     * @throws IOException if the region cannot be mapped, or has the wrong version, stamp or checksum.
+     * @return the CampusGraph stored in the region. */
+    public static CampusGraph read(FileChannel channel, long offset, long length, long stamp)
+            throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        return decode(mapped, stamp);
+    }
+
+    /**
+     * Encoder.
+     * @param graph CampusGraph to serialize.
+     * @param stamp long caller-defined stamp stored in the header.
+     * @return a buffer positioned at 0 holding the serialized graph. */
+    static ByteBuffer encode(CampusGraph graph, long stamp) {
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        int b = graph.buildingCount();
+        byte[][] names = new byte[b * 2][];
+        int namesBytes = 0;
+        for (int i = 0; i < b; i++) {
+            names[2 * i] = graph.shortNames[i].getBytes(UTF_8);
+            names[2 * i + 1] = graph.longNames[i].getBytes(UTF_8);
+            namesBytes += 8 + names[2 * i].length + names[2 * i + 1].length;
+        }
+        EdgeAttributes attributes = graph.attributes;
+        int attributesBytes = attributes != null ? 9 * m : 0;
+        int size = HEADER_BYTES + 8 * (2 * n + m) + 4 * (n + 1 + m + b) + attributesBytes + namesBytes;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(HEADER_BYTES);
+        buffer.asDoubleBuffer().put(graph.xs).put(graph.ys).put(graph.weights);
+        buffer.position(buffer.position() + 8 * (2 * n + m));
+        buffer.asIntBuffer().put(graph.offsets).put(graph.targets).put(graph.buildingNodes);
+        buffer.position(buffer.position() + 4 * (n + 1 + m + b));
+        if (attributes != null) {
+            buffer.asFloatBuffer().put(attributes.seconds).put(attributes.slopes);
+            buffer.position(buffer.position() + 8 * m);
+            buffer.put(attributes.flags);
+        }
+        for (byte[] name : names) {
+            buffer.putInt(name.length);
+            buffer.put(name);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, size - HEADER_BYTES);
+        buffer.position(0);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m).putInt(b)
+                .putInt(attributes != null ? FLAG_ATTRIBUTES : 0)
+                .putLong(stamp).putLong(crc.getValue());
+        buffer.position(0);
+        return buffer;
+    }
+
+    /**
+     * Decoder.
+     * @param buffer ByteBuffer positioned at the start of a serialized graph.
+     * @param stamp long stamp the graph must have been written with.
+     * @throws IOException if the buffer has the wrong magic, version, stamp, sizes or checksum.
+     * @return the CampusGraph stored in the buffer. */
+    static CampusGraph decode(ByteBuffer buffer, long stamp) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int start = buffer.position();
+        int limit = buffer.limit();
+        if (limit - start < HEADER_BYTES) {
+            throw new IOException("CampusGraphFile: truncated header");
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("CampusGraphFile: not a campus graph file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("CampusGraphFile: unsupported version " + version);
+        }
+        int n = buffer.getInt();
+        int m = buffer.getInt();
+        int b = buffer.getInt();
+        int flags = buffer.getInt();
+        if (buffer.getLong() != stamp) {
+            throw new IOException("CampusGraphFile: stale file");
+        }
+        long expectedCrc = buffer.getLong();
+        long arraysBytes = 8L * (2L * n + m) + 4L * (n + 1L + m + b)
+                + ((flags & FLAG_ATTRIBUTES) != 0 ? 9L * m : 0L);
+        if (n < 0 || m < 0 || b < 0 || arraysBytes > limit - start - HEADER_BYTES) {
+            throw new IOException("CampusGraphFile: truncated body");
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        crc.update(body);
+        if (crc.getValue() != expectedCrc) {
+            throw new IOException("CampusGraphFile: checksum mismatch");
+        }
+
+        // The arrays are bulk-copied out of the mapping rather than wrapped: the routers index them in their
+        // inner loops and WeightOverlay swaps in new weights, and the checksum has already paged in every byte.
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        double[] weights = new double[m];
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[m];
+        int[] buildingNodes = new int[b];
+        buffer.asDoubleBuffer().get(xs).get(ys).get(weights);
+        buffer.position(buffer.position() + 8 * (2 * n + m));
+        buffer.asIntBuffer().get(offsets).get(targets).get(buildingNodes);
+        buffer.position(buffer.position() + 4 * (n + 1 + m + b));
+        EdgeAttributes attributes = null;
+        if ((flags & FLAG_ATTRIBUTES) != 0) {
+            float[] seconds = new float[m];
+            float[] slopes = new float[m];
+            byte[] edgeFlags = new byte[m];
+            buffer.asFloatBuffer().get(seconds).get(slopes);
+            buffer.position(buffer.position() + 8 * m);
+            buffer.get(edgeFlags);
+            attributes = new EdgeAttributes(seconds, slopes, edgeFlags);
+        }
+
+        String[] shortNames = new String[b];
+        String[] longNames = new String[b];
+        for (int i = 0; i < b; i++) {
+            shortNames[i] = getString(buffer);
+            longNames[i] = getString(buffer);
+        }
+        checkInvariant(offsets, targets, buildingNodes, n);
+        return new CampusGraph(xs, ys, offsets, targets, weights, shortNames, longNames, buildingNodes,
+                attributes);
+    }
+
+    private static String getString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("CampusGraphFile: truncated name table");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void checkInvariant(int[] offsets, int[] targets, int[] buildingNodes, int n)
+            throws IOException {
+        if (offsets[0] != 0 || offsets[n] != targets.length) {
+            throw new IOException("CampusGraphFile: bad edge offsets");
+        }
+        for (int u = 0; u < n; u++) {
+            if (offsets[u] > offsets[u + 1]) {
+                throw new IOException("CampusGraphFile: bad edge offsets");
+            }
+        }
+        for (int target : targets) {
+            if (target < 0 || target >= n) {
+                throw new IOException("CampusGraphFile: bad edge target");
+            }
+        }
+        for (int node : buildingNodes) {
+            if (node < 0 || node >= n) {
+                throw new IOException("CampusGraphFile: bad building node");
+            }
+        }
+    }
+
+    /**
+     * Offline converter.
+     * @param args buildings TSV, paths TSV, output file, and optionally the stamp (default 0). */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: CampusGraphFile <buildings.tsv> <paths.tsv> <out.bin> [stamp]");
+            System.exit(2);
+        }
+        InputStream buildings = new FileInputStream(args[0]);
+        InputStream paths = new FileInputStream(args[1]);
+        try {
+            EdgeAttributes.Builder attributes = new EdgeAttributes.Builder();
+            CampusGraph graph = CampusGraph.build(AndroidParser.parseBuildingData(buildings),
+                    AndroidParser.parsePathData(paths, attributes), attributes.build());
+            long stamp = args.length > 3 ? Long.parseLong(args[3]) : 0L;
+            write(graph, new File(args[2]), stamp);
+            System.out.printf("CampusGraphFile: wrote '%s'" +
+                    "\n\tnodes: '%s'" +
+                    "\n\tedges: '%s'" +
+                    "\n\tbuildings: '%s'\n",
+                    args[2], graph.nodeCount(), graph.edgeCount(), graph.buildingCount());
+        } finally {
+            buildings.close();
+            paths.close();
+        }
+    }
+}
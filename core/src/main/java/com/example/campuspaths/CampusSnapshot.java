@@ -0,0 +1,296 @@
+package com.example.campuspaths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+/**
+ * Thread-safe shortest path queries over an immutable CampusGraph.
+ *
+ * The snapshot itself holds only the graph and the A* heuristic scale, both of which are fixed at
+ * construction, so any number of threads may query one snapshot at the same time without locking.
+ * The mutable search state (distances, parents, the priority queue) lives in a SearchState that a query
+ * borrows from a small shared pool and returns when it is done. The pool is an array of slots, one per
+ * core, that queries take from and put back into with compare-and-set, so it never locks either. About
+ * as many searches run at once as there are cores, and the pool stays that size however many threads
+ * query, including a virtual thread per request, which a ThreadLocal would give a new graph-sized
+ * state every time.
+ *
+ * Instead of clearing its arrays before every search, a SearchState bumps an epoch counter: a node's
+ * distance is only meaningful if its stamp equals the current epoch, so a query costs time
+ * proportional to the nodes it touches rather than to the size of the graph.
+ *
+ * Results are returned as immutable Route values, so nothing a query returns is shared with
+ * another thread's search state.
+ */
+public final class CampusSnapshot implements RouteService.Router {
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+    // How many settled nodes between checks for interruption.
+    private static final int INTERRUPT_CHECK_MASK = 0xFF;
+
+    private final CampusGraph graph;
+    private final double heuristicScale;
+    private final AtomicReferenceArray<SearchState> states =
+            new AtomicReferenceArray<>(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The result of one query. Immutable.
+     */
+    public static final class Route {
+        private final int[] nodes;
+        private final double[] weights;
+        private final double distance;
+        private final int settled;
+
+        private Route(int[] nodes, double[] weights, double distance, int settled) {
+            this.nodes = nodes;
+            this.weights = weights;
+            this.distance = distance;
+            this.settled = settled;
+        }
+
+        /**
+         * Getter.
+         * @return a copy of the node ids of the path from the source to the destination inclusive. */
+        public int[] nodes() {
+            return nodes.clone();
+        }
+
+        /**
+         * Getter.
+         * @return the number of nodes on the path, counting both ends. */
+        public int nodeCount() {
+            return nodes.length;
+        }
+
+        /**
+         * Getter.
+         * @param i int index along the path.
+         * @spec.requires 0 &lt;= i &lt; nodeCount().
+         * @return the i-th node id of the path. */
+        public int node(int i) {
+            return nodes[i];
+        }
+
+        /**
+         * Getter.
+         * @return the length of the path. */
+        public double distance() {
+            return distance;
+        }
+
+        /**
+         * Getter.
+         * @return the number of nodes the search settled to find the path. */
+        public int settled() {
+            return settled;
+        }
+    }
+
+    /**
+     * Search state used by one query at a time. Distances and parents of node v are valid only while
+     * stamps[v] == epoch; v is settled if settledStamps[v] == epoch.
+     */
+    private static final class SearchState {
+        final double[] dist;
+        final int[] parent;
+        final int[] parentEdge;
+        final int[] stamps;
+        final int[] settledStamps;
+        final IndexedMinHeap queue;
+        int epoch = 0;
+
+        SearchState(int n) {
+            dist = new double[n];
+            parent = new int[n];
+            parentEdge = new int[n];
+            stamps = new int[n];
+            settledStamps = new int[n];
+            queue = new IndexedMinHeap(n);
+        }
+
+        /**
+         * Starts a new search.
+         * @spec.effects Invalidates every distance and settled mark from earlier searches. */
+        void reset() {
+            queue.clear();
+            epoch++;
+            if (epoch == Integer.MAX_VALUE) {
+                // Only after ~2^31 queries on one state: fall back to a full clear once.
+                Arrays.fill(stamps, 0);
+                Arrays.fill(settledStamps, 0);
+                epoch = 1;
+            }
+        }
+    }
+
+    // Abstraction Function:
+    //  A read-only view of graph that answers shortest path queries; the non-null slots of states hold
+    //  idle scratch space for searches, none of which is part of the abstract value.
+    //
+    // Representation Invariant:
+    //  graph is not null, heuristicScale == AStarRouter.heuristicScale(graph).
+    //  A SearchState is used by at most one query at a time, and is in no slot of states while in use.
+    //  No SearchState is in more than one slot.
+
+    /**
+     * Constructor.
+     * @param graph CampusGraph to search. CampusGraph is immutable, so it is shared rather than copied.
+     * @spec.requires graph is not null and has no negative edge weights. */
+    public CampusSnapshot(CampusGraph graph) {
+        this.graph = graph;
+        this.heuristicScale = AStarRouter.heuristicScale(graph);
+    }
+
+    /**
+     * Getter.
+     * @return the graph this snapshot searches. */
+    public CampusGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Router.
+     * Safe to call from any number of threads at once.
+     * @param src Coordinate to start from.
+     * @param dst Coordinate to end at.
+     * @return the shortest path from src to dst, or null if either is not a graph node, there is no
+     *     path, or the calling thread was interrupted. */
+    @Override
+    public ArrayList<Edge<Double, Coordinate>> getShortestPath(Coordinate src, Coordinate dst) {
+        int s = graph.nodeAt(src);
+        int t = graph.nodeAt(dst);
+        if (s < 0 || t < 0) {
+            return null;
+        }
+        Route route = findRoute(s, t);
+        if (route == null) {
+            return null;
+        }
+        Metrics.ROUTE_SETTLED.record(route.settled);
+        return RouteEdges.toEdges(graph, route.nodes, route.weights);
+    }
+
+    /**
+     * Searches for the shortest path between two nodes with A*, in a search state borrowed from the pool.
+     * Safe to call from any number of threads at once.
+     * @param src int node id to start from.
+     * @param dst int node id to end at.
+     * @return the shortest Route from src to dst, or null if there is no path or the calling thread was
+     *     interrupted. */
+    public Route findRoute(int src, int dst) {
+        SearchState state = borrow();
+        try {
+            return search(state, src, dst);
+        } finally {
+            release(state);
+        }
+    }
+
+    /**
+     * Helper.
+     * Takes an idle SearchState out of the pool without locking.
+     * @return an idle state from the pool, or a new one if every slot is empty. */
+    private SearchState borrow() {
+        for (int i = 0; i < states.length(); i++) {
+            if (states.get(i) != null) {
+                SearchState state = states.getAndSet(i, null);
+                if (state != null) {
+                    return state;
+                }
+            }
+        }
+        return new SearchState(graph.nodeCount());
+    }
+
+    /**
+     * Helper.
+     * Puts state back into the first empty slot of the pool without locking.
+     * @spec.requires state is not in use and in no slot of states.
+     * @spec.effects state is in the pool, or dropped if every slot is already full. */
+    private void release(SearchState state) {
+        for (int i = 0; i < states.length(); i++) {
+            if (states.get(i) == null && states.compareAndSet(i, null, state)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper.
+     * Runs A* from src to dst in state.
+     * @return the shortest Route from src to dst, or null if there is no path or the calling thread was
+     *     interrupted. */
+    private Route search(SearchState state, int src, int dst) {
+        state.reset();
+        final int epoch = state.epoch;
+        final double[] dist = state.dist;
+        final int[] parent = state.parent;
+        final int[] parentEdge = state.parentEdge;
+        final int[] stamps = state.stamps;
+        final int[] settledStamps = state.settledStamps;
+        final IndexedMinHeap queue = state.queue;
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final double[] weights = graph.weights;
+
+        stamps[src] = epoch;
+        dist[src] = 0.0;
+        parent[src] = -1;
+        parentEdge[src] = -1;
+        queue.offer(src, heuristic(src, dst));
+        int settled = 0;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            settledStamps[u] = epoch;
+            settled++;
+            if (u == dst) {
+                break;
+            }
+            if ((settled & INTERRUPT_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            double du = dist[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if (settledStamps[v] == epoch) {
+                    continue;
+                }
+                double dv = du + weights[e];
+                if (stamps[v] != epoch || dv < dist[v]) {
+                    stamps[v] = epoch;
+                    dist[v] = dv;
+                    parent[v] = u;
+                    parentEdge[v] = e;
+                    queue.offer(v, dv + heuristic(v, dst));
+                }
+            }
+        }
+
+        if (settledStamps[dst] != epoch) {
+            return null;
+        }
+        int length = 1;
+        for (int v = dst; v != src; v = parent[v]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        double[] lengths = new double[length - 1];
+        for (int v = dst, i = length - 1; i >= 0; v = parent[v], i--) {
+            nodes[i] = v;
+            if (i > 0) {
+                lengths[i - 1] = weights[parentEdge[v]];
+            }
+        }
+        return new Route(nodes, lengths, dist[dst], settled);
+    }
+
+    private double heuristic(int node, int dst) {
+        double dx = graph.xs[node] - graph.xs[dst];
+        double dy = graph.ys[node] - graph.ys[dst];
+        return heuristicScale * Math.sqrt(dx * dx + dy * dy);
+    }
+}
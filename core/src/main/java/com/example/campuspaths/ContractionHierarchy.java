@@ -0,0 +1,499 @@
+package com.example.campuspaths;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Contraction hierarchy over a CampusGraph, for exact shortest path queries that settle only a few
+ * dozen nodes.
+ *
+ * Preprocessing contracts the nodes one at a time in order of importance (edge difference plus
+ * contracted neighbours, updated lazily). Contracting v removes it from the remaining graph, adding a
+ * shortcut u -&gt; w through v for every pair of remaining neighbours whose shortest path runs through v,
+ * as checked by a bounded witness search. The contraction order is the node rank, and every original or
+ * shortcut edge is stored once: in the upward graph of its lower endpoint if it leads up in rank, and
+ * otherwise in the downward graph of its lower endpoint, as the edge a backward search climbs. A query
+ * then searches only upward from both ends (see ContractionHierarchyRouter), and shortcuts are unpacked
+ * through their middle nodes back to original edges.
+ *
+ * Instances are immutable and thread-safe, and can be serialized so the hierarchy ships prebuilt.
+ */
+public final class ContractionHierarchy {
+    static final int MAGIC = 0x43434842;    // "CCHB", written big-endian by DataOutputStream.
+    static final int VERSION = 1;
+
+    // Witness searches give up after settling this many nodes, adding a possibly redundant shortcut.
+    private static final int WITNESS_SETTLED_LIMIT = 500;
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    private final CampusGraph graph;
+    final int[] rank;
+    // Upward graph: edges u -> upTargets[e] for e in [upOffsets[u], upOffsets[u + 1]), to higher ranks.
+    final int[] upOffsets;
+    final int[] upTargets;
+    final double[] upWeights;
+    final int[] upMiddles;
+    // Downward graph: edges downTargets[e] -> v for e in [downOffsets[v], downOffsets[v + 1]), from higher ranks.
+    final int[] downOffsets;
+    final int[] downTargets;
+    final double[] downWeights;
+    final int[] downMiddles;
+
+    // Abstraction Function:
+    //  The hierarchy holds the original edges of graph (the shortest of any parallel edges) plus
+    //  shortcuts. An edge with middle node m &gt;= 0 is a shortcut standing for its edge into m followed by
+    //  m's edge out to its other endpoint; an edge with middle -1 is an original edge.
+    //
+    // Representation Invariant:
+    //  rank is a permutation of [0, nodeCount).
+    //  rank[upTargets[e]] &gt; rank[u] for upward edges of u, rank[downTargets[e]] &gt; rank[v] for downward
+    //  edges of v, and a shortcut's middle node ranks below both its endpoints.
+    //  There is at most one edge per ordered pair of endpoints.
+
+    private ContractionHierarchy(CampusGraph graph, int[] rank,
+                                 int[] upOffsets, int[] upTargets, double[] upWeights, int[] upMiddles,
+                                 int[] downOffsets, int[] downTargets, double[] downWeights, int[] downMiddles) {
+        this.graph = graph;
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddles = upMiddles;
+        this.downOffsets = downOffsets;
+        this.downTargets = downTargets;
+        this.downWeights = downWeights;
+        this.downMiddles = downMiddles;
+    }
+
+    /**
+     * Growable edge list of one node, used only while contracting.
+     */
+    private static final class EdgeList {
+        int[] nodes = new int[4];
+        double[] weights = new double[4];
+        int[] middles = new int[4];
+        int size = 0;
+
+        int indexOf(int node) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void add(int node, double weight, int middle) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                middles = Arrays.copyOf(middles, size * 2);
+            }
+            nodes[size] = node;
+            weights[size] = weight;
+            middles[size] = middle;
+            size++;
+        }
+    }
+
+    /**
+     * Preprocessing state: the graph being contracted, and witness search scratch space.
+     */
+    private static final class Builder {
+        final int n;
+        final EdgeList[] out;
+        final EdgeList[] in;
+        final boolean[] contracted;
+        final int[] contractedNeighbours;
+        final double[] dist;
+        final int[] touched;
+        int touchedCount = 0;
+        final IndexedMinHeap queue;
+
+        Builder(CampusGraph graph) {
+            n = graph.nodeCount();
+            out = new EdgeList[n];
+            in = new EdgeList[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new EdgeList();
+                in[v] = new EdgeList();
+            }
+            contracted = new boolean[n];
+            contractedNeighbours = new int[n];
+            dist = new double[n];
+            Arrays.fill(dist, INFINITY);
+            touched = new int[n];
+            queue = new IndexedMinHeap(n);
+            for (int u = 0; u < n; u++) {
+                for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                    // Closed (infinitely long) edges are left out rather than contracted.
+                    if (graph.targets[e] != u && graph.weights[e] != INFINITY) {
+                        addOrLower(u, graph.targets[e], graph.weights[e], -1);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds the edge u -&gt; w, or lowers the existing one if the new weight is smaller. */
+        void addOrLower(int u, int w, double weight, int middle) {
+            int i = out[u].indexOf(w);
+            if (i < 0) {
+                out[u].add(w, weight, middle);
+                in[w].add(u, weight, middle);
+            }
+            else if (weight < out[u].weights[i]) {
+                out[u].weights[i] = weight;
+                out[u].middles[i] = middle;
+                int j = in[w].indexOf(u);
+                in[w].weights[j] = weight;
+                in[w].middles[j] = middle;
+            }
+        }
+
+        /**
+         * Bounded Dijkstra from src over the uncontracted nodes other than skip, leaving distances in dist.
+         * Stops once every remaining node is farther than maxDistance, or after WITNESS_SETTLED_LIMIT nodes. */
+        void witnessSearch(int src, int skip, double maxDistance) {
+            for (int i = 0; i < touchedCount; i++) {
+                dist[touched[i]] = INFINITY;
+            }
+            touchedCount = 0;
+            queue.clear();
+            dist[src] = 0.0;
+            touched[touchedCount++] = src;
+            queue.offer(src, 0.0);
+            int settled = 0;
+            while (!queue.isEmpty() && queue.peekKey() <= maxDistance && settled < WITNESS_SETTLED_LIMIT) {
+                int u = queue.poll();
+                settled++;
+                EdgeList edges = out[u];
+                for (int i = 0; i < edges.size; i++) {
+                    int v = edges.nodes[i];
+                    if (v == skip || contracted[v]) {
+                        continue;
+                    }
+                    double dv = dist[u] + edges.weights[i];
+                    if (dv < dist[v]) {
+                        if (dist[v] == INFINITY) {
+                            touched[touchedCount++] = v;
+                        }
+                        dist[v] = dv;
+                        queue.offer(v, dv);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Counts, or adds, the shortcuts needed to contract v.
+         * @return the number of shortcuts contracting v needs. */
+        int shortcuts(int v, boolean add) {
+            int needed = 0;
+            EdgeList ins = in[v];
+            EdgeList outs = out[v];
+            double maxOut = 0.0;
+            for (int j = 0; j < outs.size; j++) {
+                if (!contracted[outs.nodes[j]]) {
+                    maxOut = Math.max(maxOut, outs.weights[j]);
+                }
+            }
+            for (int i = 0; i < ins.size; i++) {
+                int u = ins.nodes[i];
+                if (contracted[u]) {
+                    continue;
+                }
+                witnessSearch(u, v, ins.weights[i] + maxOut);
+                for (int j = 0; j < outs.size; j++) {
+                    int w = outs.nodes[j];
+                    if (w == u || contracted[w]) {
+                        continue;
+                    }
+                    double via = ins.weights[i] + outs.weights[j];
+                    if (dist[w] > via) {
+                        needed++;
+                        if (add) {
+                            addOrLower(u, w, via, v);
+                        }
+                    }
+                }
+            }
+            return needed;
+        }
+
+        /**
+         * @return the contraction priority of v: lower is contracted earlier. */
+        int priority(int v) {
+            int degree = 0;
+            for (int i = 0; i < in[v].size; i++) {
+                degree += contracted[in[v].nodes[i]] ? 0 : 1;
+            }
+            for (int j = 0; j < out[v].size; j++) {
+                degree += contracted[out[v].nodes[j]] ? 0 : 1;
+            }
+            return shortcuts(v, false) - degree + contractedNeighbours[v];
+        }
+
+        void contract(int v) {
+            shortcuts(v, true);
+            contracted[v] = true;
+            for (int i = 0; i < in[v].size; i++) {
+                contractedNeighbours[in[v].nodes[i]]++;
+            }
+            for (int j = 0; j < out[v].size; j++) {
+                contractedNeighbours[out[v].nodes[j]]++;
+            }
+        }
+    }
+
+    /**
+     * Factory.
+     * Contracts every node of the graph.
+     * @param graph CampusGraph to preprocess.
+     * @spec.requires graph is not null and has no negative edge weights.
+     * @return the ContractionHierarchy of graph. */
+    public static ContractionHierarchy build(CampusGraph graph) {
+        Builder builder = new Builder(graph);
+        int n = builder.n;
+        IndexedMinHeap order = new IndexedMinHeap(n);
+        for (int v = 0; v < n; v++) {
+            order.offer(v, builder.priority(v));
+        }
+        int[] rank = new int[n];
+        int next = 0;
+        while (!order.isEmpty()) {
+            int v = order.poll();
+            // Lazy update: the priority may have grown since v was queued.
+            int priority = builder.priority(v);
+            if (!order.isEmpty() && priority > order.peekKey()) {
+                order.offer(v, priority);
+                continue;
+            }
+            builder.contract(v);
+            rank[v] = next++;
+        }
+
+        int[] upOffsets = new int[n + 1];
+        int[] downOffsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            EdgeList edges = builder.out[u];
+            for (int i = 0; i < edges.size; i++) {
+                int w = edges.nodes[i];
+                if (rank[w] > rank[u]) {
+                    upOffsets[u + 1]++;
+                }
+                else {
+                    downOffsets[w + 1]++;
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+        int[] upTargets = new int[upOffsets[n]];
+        double[] upWeights = new double[upOffsets[n]];
+        int[] upMiddles = new int[upOffsets[n]];
+        int[] downTargets = new int[downOffsets[n]];
+        double[] downWeights = new double[downOffsets[n]];
+        int[] downMiddles = new int[downOffsets[n]];
+        int[] upNext = Arrays.copyOf(upOffsets, n);
+        int[] downNext = Arrays.copyOf(downOffsets, n);
+        for (int u = 0; u < n; u++) {
+            EdgeList edges = builder.out[u];
+            for (int i = 0; i < edges.size; i++) {
+                int w = edges.nodes[i];
+                if (rank[w] > rank[u]) {
+                    int slot = upNext[u]++;
+                    upTargets[slot] = w;
+                    upWeights[slot] = edges.weights[i];
+                    upMiddles[slot] = edges.middles[i];
+                }
+                else {
+                    int slot = downNext[w]++;
+                    downTargets[slot] = u;
+                    downWeights[slot] = edges.weights[i];
+                    downMiddles[slot] = edges.middles[i];
+                }
+            }
+        }
+        return new ContractionHierarchy(graph, rank, upOffsets, upTargets, upWeights, upMiddles,
+                downOffsets, downTargets, downWeights, downMiddles);
+    }
+
+    /**
+     * Getter.
+     * @return the graph the hierarchy was built on. */
+    public CampusGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Getter.
+     * @return the number of edges in the hierarchy, original and shortcut. */
+    public int edgeCount() {
+        return upTargets.length + downTargets.length;
+    }
+
+    /**
+     * Getter.
+     * @return the number of shortcut edges in the hierarchy. */
+    public int shortcutCount() {
+        int shortcuts = 0;
+        for (int middle : upMiddles) {
+            shortcuts += middle >= 0 ? 1 : 0;
+        }
+        for (int middle : downMiddles) {
+            shortcuts += middle >= 0 ? 1 : 0;
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Appends the original edges that the hierarchy edge u -&gt; v stands for.
+     * @param u int source node.
+     * @param v int target node.
+     * @param weight double weight of the hierarchy edge.
+     * @param middle int middle node of the edge, or -1 for an original edge.
+     * @param nodes int[] receiving the nodes after u along the unpacked path, starting at nodes[count].
+     * @param weights double[] receiving the original edge weights, parallel to nodes.
+     * @param count int number of entries already in nodes and weights.
+     * @return the new number of entries. */
+    int unpack(int u, int v, double weight, int middle, int[] nodes, double[] weights, int count) {
+        if (middle < 0) {
+            nodes[count] = v;
+            weights[count] = weight;
+            return count + 1;
+        }
+        // u -> middle leads down in rank, so it is a downward edge of middle; middle -> v is an upward one.
+        int in = find(downOffsets, downTargets, middle, u);
+        count = unpack(u, middle, downWeights[in], downMiddles[in], nodes, weights, count);
+        int out = find(upOffsets, upTargets, middle, v);
+        return unpack(middle, v, upWeights[out], upMiddles[out], nodes, weights, count);
+    }
+
+    private static int find(int[] offsets, int[] targets, int node, int target) {
+        for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+            if (targets[e] == target) {
+                return e;
+            }
+        }
+        throw new IllegalStateException("ContractionHierarchy: missing edge " + node + " -> " + target);
+    }
+
+    /**
+     * Writer.
+     * Serializes the hierarchy. The stream is flushed but not closed.
+     * @param out OutputStream to write to.
+     * @throws IOException if any I/O error occurs writing the stream. */
+    public void write(OutputStream out) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(out), new CRC32());
+        DataOutputStream data = new DataOutputStream(checked);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeLong(RouteTable.fingerprint(graph));
+        data.writeInt(graph.nodeCount());
+        data.writeInt(upTargets.length);
+        data.writeInt(downTargets.length);
+        for (int v = 0; v < rank.length; v++) {
+            data.writeInt(rank[v]);
+        }
+        writeEdges(data, upOffsets, upTargets, upWeights, upMiddles);
+        writeEdges(data, downOffsets, downTargets, downWeights, downMiddles);
+        data.flush();
+        data.writeLong(checked.getChecksum().getValue());
+        data.flush();
+    }
+
+    private static void writeEdges(DataOutputStream data, int[] offsets, int[] targets, double[] weights,
+                                   int[] middles) throws IOException {
+        for (int offset : offsets) {
+            data.writeInt(offset);
+        }
+        for (int e = 0; e < targets.length; e++) {
+            data.writeInt(targets[e]);
+            data.writeDouble(weights[e]);
+            data.writeInt(middles[e]);
+        }
+    }
+
+    /**
+     * Reader.
+     * @param in InputStream previously produced by write. It is not closed.
+     * @param graph CampusGraph the hierarchy was built on.
+     * @throws IOException if the stream cannot be read, is corrupt, or was built on a different graph.
+     * @return the deserialized ContractionHierarchy. */
+    public static ContractionHierarchy read(InputStream in, CampusGraph graph) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(in), new CRC32());
+        DataInputStream data = new DataInputStream(checked);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("ContractionHierarchy: not a contraction hierarchy");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("ContractionHierarchy: unsupported version " + version);
+        }
+        if (data.readLong() != RouteTable.fingerprint(graph) || data.readInt() != graph.nodeCount()) {
+            throw new IOException("ContractionHierarchy: built on a different graph");
+        }
+        int n = graph.nodeCount();
+        int up = data.readInt();
+        int down = data.readInt();
+        if (up < 0 || down < 0) {
+            throw new IOException("ContractionHierarchy: bad edge count");
+        }
+        int[] rank = new int[n];
+        for (int v = 0; v < n; v++) {
+            rank[v] = data.readInt();
+            if (rank[v] < 0 || rank[v] >= n) {
+                throw new IOException("ContractionHierarchy: bad rank");
+            }
+        }
+        int[] upOffsets = new int[n + 1];
+        int[] upTargets = new int[up];
+        double[] upWeights = new double[up];
+        int[] upMiddles = new int[up];
+        readEdges(data, n, upOffsets, upTargets, upWeights, upMiddles);
+        int[] downOffsets = new int[n + 1];
+        int[] downTargets = new int[down];
+        double[] downWeights = new double[down];
+        int[] downMiddles = new int[down];
+        readEdges(data, n, downOffsets, downTargets, downWeights, downMiddles);
+        long expected = checked.getChecksum().getValue();
+        if (data.readLong() != expected) {
+            throw new IOException("ContractionHierarchy: checksum mismatch");
+        }
+        return new ContractionHierarchy(graph, rank, upOffsets, upTargets, upWeights, upMiddles,
+                downOffsets, downTargets, downWeights, downMiddles);
+    }
+
+    private static void readEdges(DataInputStream data, int n, int[] offsets, int[] targets, double[] weights,
+                                  int[] middles) throws IOException {
+        for (int v = 0; v <= n; v++) {
+            offsets[v] = data.readInt();
+            if (offsets[v] < (v == 0 ? 0 : offsets[v - 1]) || offsets[v] > targets.length) {
+                throw new IOException("ContractionHierarchy: bad offsets");
+            }
+        }
+        if (offsets[n] != targets.length) {
+            throw new IOException("ContractionHierarchy: bad offsets");
+        }
+        for (int e = 0; e < targets.length; e++) {
+            targets[e] = data.readInt();
+            weights[e] = data.readDouble();
+            middles[e] = data.readInt();
+            if (targets[e] < 0 || targets[e] >= n || middles[e] < -1 || middles[e] >= n) {
+                throw new IOException("ContractionHierarchy: bad edge");
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.campuspaths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+/**
+ * Shortest path queries on a ContractionHierarchy.
+ *
+ * A forward search from the source over the upward graph and a backward search from the destination
+ * over the downward graph run in alternation; each stops once its smallest key is no better than the
+ * best distance found where the two meet. The hierarchy edges on the way up from both ends are then
+ * unpacked into original edges, and the reported distance is their sum in path order, the same sum a
+ * Dijkstra search accumulates along that path.
+ *
+ * Search state is reset only for the nodes a query touched. Instances are not thread-safe; use one
+ * per thread over a shared hierarchy.
+ */
+public class ContractionHierarchyRouter implements RouteService.Router {
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    private final ContractionHierarchy hierarchy;
+    private final CampusGraph graph;
+
+    // Per-search state, reused across queries. parentEdge indexes the up (forward) or down (backward) arrays.
+    private final double[] distForward;
+    private final double[] distBackward;
+    private final int[] parentForward;
+    private final int[] parentBackward;
+    private final int[] parentEdgeForward;
+    private final int[] parentEdgeBackward;
+    private final int[] touched;
+    private int touchedCount = 0;
+    private final IndexedMinHeap queueForward;
+    private final IndexedMinHeap queueBackward;
+    // Unpacking scratch space: an unpacked shortest path visits each node at most once.
+    private final int[] pathNodes;
+    private final double[] pathWeights;
+
+    private double lastDistance = INFINITY;
+    private int lastSettled = 0;
+    private double[] lastWeights = new double[0];
+
+    /**
+     * Constructor.
+     * @param hierarchy ContractionHierarchy to query.
+     * @spec.requires hierarchy is not null. */
+    public ContractionHierarchyRouter(ContractionHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        this.graph = hierarchy.graph();
+        int n = graph.nodeCount();
+        this.distForward = new double[n];
+        this.distBackward = new double[n];
+        Arrays.fill(distForward, INFINITY);
+        Arrays.fill(distBackward, INFINITY);
+        this.parentForward = new int[n];
+        this.parentBackward = new int[n];
+        this.parentEdgeForward = new int[n];
+        this.parentEdgeBackward = new int[n];
+        this.touched = new int[n];
+        this.queueForward = new IndexedMinHeap(n);
+        this.queueBackward = new IndexedMinHeap(n);
+        this.pathNodes = new int[n];
+        this.pathWeights = new double[n];
+    }
+
+    /**
+     * Router.
+     * @param src Coordinate to start from.
+     * @param dst Coordinate to end at.
+     * @return the shortest path from src to dst, or null if either is not a graph node or there is no path. */
+    @Override
+    public ArrayList<Edge<Double, Coordinate>> getShortestPath(Coordinate src, Coordinate dst) {
+        int s = graph.nodeAt(src);
+        int t = graph.nodeAt(dst);
+        if (s < 0 || t < 0) {
+            return null;
+        }
+        int[] nodes = findPath(s, t);
+        Metrics.ROUTE_SETTLED.record(lastSettled);
+        if (nodes == null) {
+            return null;
+        }
+        return RouteEdges.toEdges(graph, nodes, lastWeights);
+    }
+
+    /**
+     * Searches for the shortest path between two nodes.
+     * @param src int node id to start from.
+     * @param dst int node id to end at.
+     * @return the node ids of the shortest path from src to dst inclusive, or null if there is no path. */
+    public int[] findPath(int src, int dst) {
+        for (int i = 0; i < touchedCount; i++) {
+            distForward[touched[i]] = INFINITY;
+            distBackward[touched[i]] = INFINITY;
+        }
+        touchedCount = 0;
+        queueForward.clear();
+        queueBackward.clear();
+        lastSettled = 0;
+        lastDistance = INFINITY;
+
+        label(src);
+        distForward[src] = 0.0;
+        parentForward[src] = -1;
+        queueForward.offer(src, 0.0);
+        label(dst);
+        distBackward[dst] = 0.0;
+        parentBackward[dst] = -1;
+        queueBackward.offer(dst, 0.0);
+
+        final int[] upOffsets = hierarchy.upOffsets;
+        final int[] upTargets = hierarchy.upTargets;
+        final double[] upWeights = hierarchy.upWeights;
+        final int[] downOffsets = hierarchy.downOffsets;
+        final int[] downTargets = hierarchy.downTargets;
+        final double[] downWeights = hierarchy.downWeights;
+
+        double best = INFINITY;
+        int meet = -1;
+        boolean forward = true;
+        while (true) {
+            boolean forwardDone = queueForward.isEmpty() || queueForward.peekKey() >= best;
+            boolean backwardDone = queueBackward.isEmpty() || queueBackward.peekKey() >= best;
+            if (forwardDone && backwardDone) {
+                break;
+            }
+            forward = backwardDone || (!forwardDone && !forward);
+            lastSettled++;
+            if (forward) {
+                int u = queueForward.poll();
+                double du = distForward[u];
+                if (du + distBackward[u] < best) {
+                    best = du + distBackward[u];
+                    meet = u;
+                }
+                for (int e = upOffsets[u]; e < upOffsets[u + 1]; e++) {
+                    int v = upTargets[e];
+                    double dv = du + upWeights[e];
+                    if (dv < distForward[v]) {
+                        label(v);
+                        distForward[v] = dv;
+                        parentForward[v] = u;
+                        parentEdgeForward[v] = e;
+                        queueForward.offer(v, dv);
+                    }
+                }
+            }
+            else {
+                int u = queueBackward.poll();
+                double du = distBackward[u];
+                if (du + distForward[u] < best) {
+                    best = du + distForward[u];
+                    meet = u;
+                }
+                for (int e = downOffsets[u]; e < downOffsets[u + 1]; e++) {
+                    int v = downTargets[e];
+                    double dv = du + downWeights[e];
+                    if (dv < distBackward[v]) {
+                        label(v);
+                        distBackward[v] = dv;
+                        parentBackward[v] = u;
+                        parentEdgeBackward[v] = e;
+                        queueBackward.offer(v, dv);
+                    }
+                }
+            }
+        }
+        if (meet < 0) {
+            return null;
+        }
+        return unpackPath(src, meet);
+    }
+
+    /**
+     * Getter.
+     * @return the length of the path found by the last successful findPath, summed over its original edges in
+     *     path order, or infinity. */
+    public double lastDistance() {
+        return lastDistance;
+    }
+
+    /**
+     * Getter.
+     * @return the number of nodes settled by the last findPath, in both directions. */
+    public int lastSettled() {
+        return lastSettled;
+    }
+
+    /**
+     * Helper.
+     * Unpacks the hierarchy path src -&gt; ... -&gt; meet -&gt; ... -&gt; dst into original nodes, and sets lastWeights
+     * and lastDistance.
+     * @return the original node ids of the path. */
+    private int[] unpackPath(int src, int meet) {
+        int[] nodes = pathNodes;
+        double[] weights = pathWeights;
+        nodes[0] = src;
+        int count = 1;
+
+        // The forward half is found from meet back to src; replay it from src.
+        int hops = 0;
+        for (int v = meet; v != src; v = parentForward[v]) {
+            hops++;
+        }
+        int[] chain = new int[hops];
+        for (int v = meet, i = hops - 1; i >= 0; v = parentForward[v], i--) {
+            chain[i] = v;
+        }
+        for (int v : chain) {
+            int e = parentEdgeForward[v];
+            count = hierarchy.unpack(parentForward[v], v, hierarchy.upWeights[e], hierarchy.upMiddles[e],
+                    nodes, weights, count);
+        }
+        // The backward half runs from meet down to dst along the backward search tree.
+        for (int v = meet; parentBackward[v] >= 0; v = parentBackward[v]) {
+            int e = parentEdgeBackward[v];
+            count = hierarchy.unpack(v, parentBackward[v], hierarchy.downWeights[e], hierarchy.downMiddles[e],
+                    nodes, weights, count);
+        }
+
+        // weights[i] is the edge into nodes[i]; shift to the edge out of nodes[i - 1] for RouteEdges.
+        lastWeights = Arrays.copyOfRange(weights, 1, count);
+        double distance = 0.0;
+        for (double weight : lastWeights) {
+            distance += weight;
+        }
+        lastDistance = distance;
+        return Arrays.copyOf(nodes, count);
+    }
+
+    private void label(int v) {
+        if (distForward[v] == INFINITY && distBackward[v] == INFINITY) {
+            touched[touchedCount++] = v;
+        }
+    }
+}
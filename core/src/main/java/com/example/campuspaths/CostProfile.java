@@ -0,0 +1,157 @@
+package com.example.campuspaths;
+
+/**
+ * A weighted cost function over path length and the EdgeAttributes, for routing by something other than
+ * distance, e.g. walking time or avoiding steps.
+ *
+ * The cost of an edge is
+ * <pre>
+ *   perDistance * length + perSecond * seconds + perClimb * length * max(0, slope) + (stairs ? perStairs : 0)
+ * </pre>
+ * and an edge is closed if it is steeper than maxSlope either way, if it has stairs and perStairs is
+ * infinite, or if it is closed in the graph. Where the time of an edge is unknown, it is estimated from
+ * its length and slope with Tobler's hiking function.
+ *
+ * apply evaluates the function once per edge into a plain weights array and returns a graph sharing
+ * everything else with the given one, so every router runs unchanged on profile costs and nothing is
+ * computed, or boxed, per relaxation. The routes found have profile costs as edge labels.
+ */
+public final class CostProfile {
+    /** Flat walking speed for estimating times, in map units (feet) per second. */
+    public static final double WALKING_SPEED = 4.6;
+    /** Steepest grade of an accessible ramp, 1:12. */
+    public static final double RAMP_SLOPE = 1.0 / 12.0;
+
+    /** Shortest distance: the graph as loaded. */
+    public static final CostProfile SHORTEST = new CostProfile("shortest", 1.0, 0.0, 0.0, 0.0,
+            Double.POSITIVE_INFINITY);
+    /** Shortest walking time. */
+    public static final CostProfile FASTEST = new CostProfile("fastest", 0.0, 1.0, 0.0, 0.0,
+            Double.POSITIVE_INFINITY);
+    /** Shortest distance without steps or grades steeper than a ramp, with every foot climbed counting as 10. */
+    public static final CostProfile STEP_FREE = new CostProfile("step-free", 1.0, 0.0, 10.0,
+            Double.POSITIVE_INFINITY, RAMP_SLOPE);
+
+    private static final CostProfile[] VALUES = {SHORTEST, FASTEST, STEP_FREE};
+
+    private final String name;
+    private final double perDistance;
+    private final double perSecond;
+    private final double perClimb;
+    private final double perStairs;
+    private final double maxSlope;
+
+    // Abstraction Function:
+    //  The cost function in the class comment, named name.
+    //
+    // Representation Invariant:
+    //  perDistance, perSecond, perClimb, perStairs and maxSlope are non-negative and not NaN.
+
+    /**
+     * Constructor.
+     * @param name String to report the profile under.
+     * @param perDistance double cost per unit of length.
+     * @param perSecond double cost per second of walking time.
+     * @param perClimb double cost per unit of height climbed.
+     * @param perStairs double cost of each edge with steps, or infinity to avoid them.
+     * @param maxSlope double steepest grade allowed either way, or infinity for any.
+     * @throws IllegalArgumentException if a weight is negative or NaN.
+     * @spec.requires name is not null. */
+    public CostProfile(String name, double perDistance, double perSecond, double perClimb, double perStairs,
+                       double maxSlope) {
+        if (!(perDistance >= 0 && perSecond >= 0 && perClimb >= 0 && perStairs >= 0 && maxSlope >= 0)) {
+            throw new IllegalArgumentException("CostProfile: bad weights for " + name);
+        }
+        this.name = name;
+        this.perDistance = perDistance;
+        this.perSecond = perSecond;
+        this.perClimb = perClimb;
+        this.perStairs = perStairs;
+        this.maxSlope = maxSlope;
+    }
+
+    /**
+     * Getter.
+     * @return SHORTEST, FASTEST and STEP_FREE, in that order. */
+    public static CostProfile[] values() {
+        return VALUES.clone();
+    }
+
+    /**
+     * Getter.
+     * @return the name the profile is reported under. */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Query.
+     * @return whether the cost of every edge is its length. */
+    public boolean isDistance() {
+        return perDistance == 1.0 && perSecond == 0.0 && perClimb == 0.0 && perStairs == 0.0
+                && maxSlope == Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Factory.
+     * @param graph CampusGraph whose lengths and attributes to weigh. Edges without attributes are taken to be
+     *     flat, without steps and of unknown time.
+     * @spec.requires graph is not null.
+     * @return graph itself if isDistance(), otherwise a graph sharing everything with graph but with each edge
+     *     as long as its cost. */
+    public CampusGraph apply(CampusGraph graph) {
+        return isDistance() ? graph : graph.withWeights(weights(graph));
+    }
+
+    /**
+     * Converter.
+     * @param graph CampusGraph whose lengths and attributes to weigh.
+     * @spec.requires graph is not null.
+     * @return a new array of the cost of every edge of graph, by edge index. */
+    public double[] weights(CampusGraph graph) {
+        double[] lengths = graph.weights;
+        EdgeAttributes attributes = graph.attributes;
+        double[] costs = new double[lengths.length];
+        for (int e = 0; e < lengths.length; e++) {
+            double length = lengths[e];
+            double seconds = Double.NaN;
+            double slope = 0.0;
+            boolean stairs = false;
+            if (attributes != null) {
+                seconds = attributes.seconds[e];
+                slope = attributes.slopes[e];
+                stairs = (attributes.flags[e] & EdgeAttributes.FLAG_STAIRS) != 0;
+            }
+            if (length == WeightOverlay.CLOSED || Math.abs(slope) > maxSlope
+                    || (stairs && perStairs == Double.POSITIVE_INFINITY)) {
+                costs[e] = WeightOverlay.CLOSED;
+                continue;
+            }
+            double cost = perDistance * length;
+            if (perSecond != 0.0) {
+                cost += perSecond * (Double.isNaN(seconds) ? walkingSeconds(length, slope) : seconds);
+            }
+            if (slope > 0.0) {
+                cost += perClimb * length * slope;
+            }
+            if (stairs) {
+                cost += perStairs;
+            }
+            costs[e] = cost;
+        }
+        return costs;
+    }
+
+    /**
+     * Helper.
+     * @return the time to walk length at a grade of slope, by Tobler's hiking function scaled so that flat
+     *     ground is walked at WALKING_SPEED. */
+    static double walkingSeconds(double length, double slope) {
+        return length / WALKING_SPEED * Math.exp(3.5 * (Math.abs(slope + 0.05) - 0.05));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
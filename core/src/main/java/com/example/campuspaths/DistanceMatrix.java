@@ -0,0 +1,342 @@
+package com.example.campuspaths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import hw5.Edge;
+import hw8.CampusBuilding;
+import hw8.Coordinate;
+
+/**
+ * Shortest path distances, and optionally paths, from a list of source buildings to a list of
+ * destination buildings.
+ *
+ * Each source is answered by one one-to-many Dijkstra search that stops as soon as every destination
+ * has been settled, instead of one search per pair. Sources are searched in parallel with fork-join.
+ * Distances are stored in a flat row-major double[], one row per source. For batches too large to
+ * hold, stream delivers each row to a RowConsumer as soon as it is computed, without storing any.
+ */
+public final class DistanceMatrix {
+    // Sources per fork-join leaf task.
+    private static final int LEAF_SOURCES = 4;
+
+    private final CampusGraph graph;
+    private final int[] sourceNodes;
+    private final int[] destinationNodes;
+    // distances[i * destinationCount + j] is the length of the shortest path from source i to destination j.
+    private final double[] distances;
+    // parentEdges[i][v] is the search tree edge into v from source i, or null if paths were not kept.
+    private final int[][] parentEdges;
+    private final int[] edgeSources;
+
+    // Abstraction Function:
+    //  A sourceNodes.length by destinationNodes.length matrix whose (i, j) entry is
+    //  distances[i * destinationNodes.length + j]. If parentEdges is not null, the path for (i, j) is
+    //  the reverse of destinationNodes[j], edgeSources[parentEdges[i][destinationNodes[j]]], ..., up to
+    //  sourceNodes[i].
+    //
+    // Representation Invariant:
+    //  distances.length == sourceNodes.length * destinationNodes.length
+    //  parentEdges is null, or parentEdges.length == sourceNodes.length and every row has length nodeCount
+
+    /**
+     * Receives the rows of a streamed matrix.
+     */
+    public interface RowConsumer {
+        /**
+         * Called once per source, from fork-join worker threads and possibly concurrently, in no
+         * particular order.
+         * @param source int index of the source in the source list.
+         * @param distances double[] of the distance to each destination, in destination list order. It is
+         *     reused after this returns, so copy it to keep it. */
+        void onRow(int source, double[] distances);
+    }
+
+    private DistanceMatrix(CampusGraph graph, int[] sourceNodes, int[] destinationNodes, double[] distances,
+                           int[][] parentEdges) {
+        this.graph = graph;
+        this.sourceNodes = sourceNodes;
+        this.destinationNodes = destinationNodes;
+        this.distances = distances;
+        this.parentEdges = parentEdges;
+        this.edgeSources = parentEdges != null ? RouteTable.edgeSources(graph) : null;
+    }
+
+    /**
+     * Factory.
+     * Computes the matrix on the common fork-join pool.
+     * @param graph CampusGraph to compute routes on.
+     * @param sources List of CampusBuilding to start from.
+     * @param destinations List of CampusBuilding to end at.
+     * @param keepPaths boolean whether to also keep the shortest paths, not just their lengths.
+     * @throws IllegalArgumentException if a building is not in graph.
+     * @return the DistanceMatrix from every source to every destination. */
+    public static DistanceMatrix compute(CampusGraph graph, List<CampusBuilding> sources,
+                                         List<CampusBuilding> destinations, boolean keepPaths) {
+        return compute(graph, sources, destinations, keepPaths, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Factory.
+     * @param graph CampusGraph to compute routes on.
+     * @param sources List of CampusBuilding to start from.
+     * @param destinations List of CampusBuilding to end at.
+     * @param keepPaths boolean whether to also keep the shortest paths, not just their lengths.
+     * @param pool ForkJoinPool to run the per-source searches on.
+     * @throws IllegalArgumentException if a building is not in graph.
+     * @return the DistanceMatrix from every source to every destination. */
+    public static DistanceMatrix compute(CampusGraph graph, List<CampusBuilding> sources,
+                                         List<CampusBuilding> destinations, boolean keepPaths,
+                                         ForkJoinPool pool) {
+        final int[] sourceNodes = nodes(graph, sources);
+        final int[] destinationNodes = nodes(graph, destinations);
+        final int columns = destinationNodes.length;
+        final double[] distances = new double[sourceNodes.length * columns];
+        final int[][] parentEdges = keepPaths ? new int[sourceNodes.length][] : null;
+        pool.invoke(new SearchTask(graph, sourceNodes, destinationNodes, parentEdges, 0, sourceNodes.length,
+                new RowConsumer() {
+                    @Override
+                    public void onRow(int source, double[] row) {
+                        System.arraycopy(row, 0, distances, source * columns, columns);
+                    }
+                }));
+        return new DistanceMatrix(graph, sourceNodes, destinationNodes, distances, parentEdges);
+    }
+
+    /**
+     * Computes the matrix row by row on the given pool without storing it.
+     * @param graph CampusGraph to compute routes on.
+     * @param sources List of CampusBuilding to start from.
+     * @param destinations List of CampusBuilding to end at.
+     * @param pool ForkJoinPool to run the per-source searches on.
+     * @param consumer RowConsumer given the distances from each source as they are computed.
+     * @throws IllegalArgumentException if a building is not in graph.
+     * @spec.effects Calls consumer.onRow exactly once per source before returning. */
+    public static void stream(CampusGraph graph, List<CampusBuilding> sources, List<CampusBuilding> destinations,
+                              ForkJoinPool pool, RowConsumer consumer) {
+        int[] sourceNodes = nodes(graph, sources);
+        int[] destinationNodes = nodes(graph, destinations);
+        pool.invoke(new SearchTask(graph, sourceNodes, destinationNodes, null, 0, sourceNodes.length, consumer));
+    }
+
+    /**
+     * Helper.
+     * @throws IllegalArgumentException if a building is neither named nor located in graph.
+     * @return the node id of each building, by short name, or by location if the name is unknown. */
+    private static int[] nodes(CampusGraph graph, List<CampusBuilding> buildings) {
+        int[] nodes = new int[buildings.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            CampusBuilding building = buildings.get(i);
+            int b = graph.buildingIndex(building.getShortName());
+            int node = b >= 0 ? graph.buildingNode(b) : graph.nodeAt(building.getLocation());
+            if (node < 0) {
+                throw new IllegalArgumentException("Unknown building: " + building.getShortName());
+            }
+            nodes[i] = node;
+        }
+        return nodes;
+    }
+
+    /**
+     * Fork-join task searching from sources [from, to).
+     */
+    private static final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CampusGraph graph;
+        private final int[] sourceNodes;
+        private final int[] destinationNodes;
+        private final int[][] parentEdges;
+        private final int from;
+        private final int to;
+        private final RowConsumer consumer;
+
+        SearchTask(CampusGraph graph, int[] sourceNodes, int[] destinationNodes, int[][] parentEdges,
+                   int from, int to, RowConsumer consumer) {
+            this.graph = graph;
+            this.sourceNodes = sourceNodes;
+            this.destinationNodes = destinationNodes;
+            this.parentEdges = parentEdges;
+            this.from = from;
+            this.to = to;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SOURCES) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SearchTask(graph, sourceNodes, destinationNodes, parentEdges, from, mid, consumer),
+                        new SearchTask(graph, sourceNodes, destinationNodes, parentEdges, mid, to, consumer));
+                return;
+            }
+            int n = graph.nodeCount();
+            double[] dist = new double[n];
+            int[] parentEdge = parentEdges != null ? null : new int[n];
+            IndexedMinHeap queue = new IndexedMinHeap(n);
+            boolean[] isDestination = new boolean[n];
+            int distinct = 0;
+            for (int node : destinationNodes) {
+                if (!isDestination[node]) {
+                    isDestination[node] = true;
+                    distinct++;
+                }
+            }
+            double[] row = new double[destinationNodes.length];
+            for (int i = from; i < to; i++) {
+                if (parentEdges != null) {
+                    parentEdge = new int[n];
+                    parentEdges[i] = parentEdge;
+                }
+                oneToMany(graph, sourceNodes[i], isDestination, distinct, dist, parentEdge, queue);
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = dist[destinationNodes[j]];
+                }
+                consumer.onRow(i, row);
+            }
+        }
+    }
+
+    /**
+     * Dijkstra from src that stops once every destination is settled.
+     * @param graph CampusGraph to search.
+     * @param src int node id to start from.
+     * @param isDestination boolean[] marking the destination nodes.
+     * @param destinations int number of nodes marked in isDestination.
+     * @param dist double[] filled with the final distance to every destination (infinity if unreachable).
+     * @param parentEdge int[] filled with the tree edge into every settled node (-1 for src).
+     * @param queue IndexedMinHeap sized to the graph, used as scratch space. */
+    private static void oneToMany(CampusGraph graph, int src, boolean[] isDestination, int destinations,
+                                  double[] dist, int[] parentEdge, IndexedMinHeap queue) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        queue.clear();
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final double[] weights = graph.weights;
+
+        if (destinations == 0) {
+            return;
+        }
+        int remaining = destinations;
+        dist[src] = 0.0;
+        parentEdge[src] = -1;
+        queue.offer(src, 0.0);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            if (isDestination[u] && --remaining == 0) {
+                return;
+            }
+            double du = dist[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                double dv = du + weights[e];
+                if (dv < dist[v]) {
+                    dist[v] = dv;
+                    parentEdge[v] = e;
+                    queue.offer(v, dv);
+                }
+            }
+        }
+    }
+
+    /**
+     * Getter.
+     * @return the number of sources, i.e. rows. */
+    public int sourceCount() {
+        return sourceNodes.length;
+    }
+
+    /**
+     * Getter.
+     * @return the number of destinations, i.e. columns. */
+    public int destinationCount() {
+        return destinationNodes.length;
+    }
+
+    /**
+     * Query.
+     * @param source int index into the source list.
+     * @param destination int index into the destination list.
+     * @return the length of the shortest path from source to destination, or infinity if there is none. */
+    public double distance(int source, int destination) {
+        return distances[source * destinationNodes.length + destination];
+    }
+
+    /**
+     * Getter.
+     * @return a copy of the distances as a flat row-major array, sourceCount() rows of destinationCount(). */
+    public double[] toFlatArray() {
+        return distances.clone();
+    }
+
+    /**
+     * Getter.
+     * @return a copy of the distances, indexed [source][destination]. */
+    public double[][] toArray() {
+        int columns = destinationNodes.length;
+        double[][] rows = new double[sourceNodes.length][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = Arrays.copyOfRange(distances, i * columns, (i + 1) * columns);
+        }
+        return rows;
+    }
+
+    /**
+     * Getter.
+     * @return whether paths were kept, i.e. whether path and edges may be called. */
+    public boolean hasPaths() {
+        return parentEdges != null;
+    }
+
+    /**
+     * Query.
+     * @param source int index into the source list.
+     * @param destination int index into the destination list.
+     * @throws IllegalStateException if the matrix was computed without paths.
+     * @return the node ids of the shortest path from source to destination inclusive, or null if there is none. */
+    public int[] path(int source, int destination) {
+        if (parentEdges == null) {
+            throw new IllegalStateException("DistanceMatrix was computed without paths");
+        }
+        if (distance(source, destination) == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        int[] parentEdge = parentEdges[source];
+        int root = sourceNodes[source];
+        int target = destinationNodes[destination];
+        int length = 1;
+        for (int v = target; v != root; v = edgeSources[parentEdge[v]]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        for (int v = target, i = length - 1; i >= 0; i--) {
+            nodes[i] = v;
+            if (i > 0) {
+                v = edgeSources[parentEdge[v]];
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Query.
+     * @param source int index into the source list.
+     * @param destination int index into the destination list.
+     * @throws IllegalStateException if the matrix was computed without paths.
+     * @return the shortest path from source to destination as edges, or null if there is none. */
+    public ArrayList<Edge<Double, Coordinate>> edges(int source, int destination) {
+        int[] nodes = path(source, destination);
+        if (nodes == null) {
+            return null;
+        }
+        int[] parentEdge = parentEdges[source];
+        double[] lengths = new double[Math.max(0, nodes.length - 1)];
+        for (int i = 1; i < nodes.length; i++) {
+            lengths[i - 1] = graph.weights[parentEdge[nodes[i]]];
+        }
+        return RouteEdges.toEdges(graph, nodes, lengths);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.campuspaths;
+
+import java.util.Arrays;
+
+/**
+ * Optional per-edge attributes read from extra columns of the paths TSV, stored alongside the
+ * CampusGraph as packed primitive arrays indexed like its edges.
+ *
+ * Columns are matched by header name, in any order after distance:
+ * <pre>
+ *   seconds   walking time along the path, in seconds; empty if unknown
+ *   slope     grade in the direction of the path, rise over run (0.05 is 5% uphill); empty for flat
+ *   stairs    1 if the path has steps, 0 or empty if not
+ * </pre>
+ * Values are stored as floats, which is precise enough for cost weighting and halves the footprint.
+ */
+public final class EdgeAttributes {
+    /** Header name of the walking time column. */
+    public static final String SECONDS = "seconds";
+    /** Header name of the grade column. */
+    public static final String SLOPE = "slope";
+    /** Header name of the steps column. */
+    public static final String STAIRS = "stairs";
+
+    // Bits of flags.
+    static final byte FLAG_STAIRS = 1;
+
+    final float[] seconds;
+    final float[] slopes;
+    final byte[] flags;
+
+    // Abstraction Function:
+    //  Edge e takes seconds[e] seconds to walk (NaN if unknown), has grade slopes[e], and has steps iff
+    //  flags[e] has FLAG_STAIRS set.
+    //
+    // Representation Invariant:
+    //  seconds.length == slopes.length == flags.length
+    //  No entry of seconds is negative, and no entry of slopes is NaN.
+
+    /**
+     * Constructor.
+     * Takes ownership of the given arrays.
+     * @spec.requires the arrays satisfy the representation invariant. */
+    EdgeAttributes(float[] seconds, float[] slopes, byte[] flags) {
+        this.seconds = seconds;
+        this.slopes = slopes;
+        this.flags = flags;
+    }
+
+    /**
+     * Collects attributes row by row, in file order, for AndroidParser.parsePathData.
+     */
+    public static final class Builder {
+        private float[] seconds = new float[16];
+        private float[] slopes = new float[16];
+        private byte[] flags = new byte[16];
+        private int size = 0;
+
+        /**
+         * Appends the attributes of the next row.
+         * @param seconds double walking time in seconds, or NaN if unknown.
+         * @param slope double grade in the direction of the path.
+         * @param stairs boolean whether the path has steps.
+         * @throws IllegalArgumentException if seconds is negative or slope is NaN. */
+        public void add(double seconds, double slope, boolean stairs) {
+            if (seconds < 0 || Double.isNaN(slope)) {
+                throw new IllegalArgumentException("EdgeAttributes: bad row " + size + ": seconds " + seconds
+                        + ", slope " + slope);
+            }
+            if (size == this.seconds.length) {
+                this.seconds = Arrays.copyOf(this.seconds, size * 2);
+                this.slopes = Arrays.copyOf(this.slopes, size * 2);
+                this.flags = Arrays.copyOf(this.flags, size * 2);
+            }
+            this.seconds[size] = (float) seconds;
+            this.slopes[size] = (float) slope;
+            this.flags[size] = stairs ? FLAG_STAIRS : 0;
+            size++;
+        }
+
+        /**
+         * Getter.
+         * @return the number of rows added. */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Factory.
+         * @return the attributes of the rows added so far, in the order they were added, or null if none were. */
+        public EdgeAttributes build() {
+            if (size == 0) {
+                return null;
+            }
+            return new EdgeAttributes(Arrays.copyOf(seconds, size), Arrays.copyOf(slopes, size),
+                    Arrays.copyOf(flags, size));
+        }
+    }
+
+    /**
+     * Getter.
+     * @return the number of edges described. */
+    public int size() {
+        return flags.length;
+    }
+
+    /**
+     * Getter.
+     * @param edge int edge index.
+     * @return the walking time along the edge in seconds, or NaN if unknown. */
+    public double seconds(int edge) {
+        return seconds[edge];
+    }
+
+    /**
+     * Getter.
+     * @param edge int edge index.
+     * @return the grade of the edge in its direction, rise over run. */
+    public double slope(int edge) {
+        return slopes[edge];
+    }
+
+    /**
+     * Getter.
+     * @param edge int edge index.
+     * @return whether the edge has steps. */
+    public boolean hasStairs(int edge) {
+        return (flags[edge] & FLAG_STAIRS) != 0;
+    }
+
+    /**
+     * Factory.
+     * @param slots int[] giving the new index of each edge.
+     * @spec.requires slots is a permutation of [0, size()).
+     * @return the same attributes with edge i moved to index slots[i]. */
+    EdgeAttributes permuted(int[] slots) {
+        float[] newSeconds = new float[seconds.length];
+        float[] newSlopes = new float[slopes.length];
+        byte[] newFlags = new byte[flags.length];
+        for (int i = 0; i < slots.length; i++) {
+            newSeconds[slots[i]] = seconds[i];
+            newSlopes[slots[i]] = slopes[i];
+            newFlags[slots[i]] = flags[i];
+        }
+        return new EdgeAttributes(newSeconds, newSlopes, newFlags);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.campuspaths;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe histogram of non-negative long values, e.g. latencies in nanoseconds, with log-linear
+ * buckets in the style of HdrHistogram.
+ *
+ * Values below 2 * SUB_BUCKETS are counted exactly. Above that, every power of two [2^e, 2^(e+1)) is
+ * split into SUB_BUCKETS equal buckets, so any recorded value is reported to within 1 / SUB_BUCKETS
+ * (about 3%) of itself, over the whole long range, in a fixed 15 KB of counts. Recording is a few
+ * atomic adds and never allocates.
+ */
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    // Abstraction Function:
+    //  The multiset of recorded values, where counts[i] values fall in [lowestEquivalent(i),
+    //  lowestEquivalent(i) + bucketWidth(i)), and count, sum, min and max summarize them exactly.
+    //
+    // Representation Invariant:
+    //  count is the sum of counts; min == Long.MAX_VALUE and max == Long.MIN_VALUE if count == 0.
+    //  Between concurrent record calls these may briefly disagree.
+
+    /**
+     * Records a value.
+     * @param value long value to record. Negative values are recorded as 0.
+     * @spec.effects Adds value to the histogram. */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current = min.get();
+        while (value < current && !min.compareAndSet(current, value)) {
+            current = min.get();
+        }
+        current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Clears the histogram.
+     * @spec.effects Removes every recorded value. Values recorded concurrently may or may not survive. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    /**
+     * Getter.
+     * @return the number of values recorded. */
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * Getter.
+     * @return the smallest value recorded, or 0 if there are none. */
+    public long min() {
+        return count.get() > 0 ? min.get() : 0;
+    }
+
+    /**
+     * Getter.
+     * @return the largest value recorded, or 0 if there are none. */
+    public long max() {
+        return count.get() > 0 ? max.get() : 0;
+    }
+
+    /**
+     * Getter.
+     * @return the exact mean of the values recorded, or 0 if there are none. */
+    public double mean() {
+        long n = count.get();
+        return n > 0 ? (double) sum.get() / n : 0.0;
+    }
+
+    /**
+     * Query.
+     * @param percentile double between 0 and 100.
+     * @return the smallest value that at least percentile percent of the recorded values are no larger
+     *     than, to within the bucket resolution and never above max(), or 0 if there are none. */
+    public long valueAtPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(lowestEquivalent(i) + bucketWidth(i) - 1, max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Helper.
+     * @return the bucket value falls in. */
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Helper.
+     * @return the smallest value in bucket i. */
+    static long lowestEquivalent(int i) {
+        if (i < 2 * SUB_BUCKETS) {
+            return i;
+        }
+        int shift = i / SUB_BUCKETS - 1;
+        return (long) (i % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * Helper.
+     * @return the number of distinct values in bucket i. */
+    static long bucketWidth(int i) {
+        return i < 2 * SUB_BUCKETS ? 1 : 1L << (i / SUB_BUCKETS - 1);
+    }
+}
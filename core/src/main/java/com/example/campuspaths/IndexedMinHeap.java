@@ -0,0 +1,138 @@
+package com.example.campuspaths;
+
+/**
+ * Indexed binary min-heap over int ids in [0, capacity) with double priorities.
+ *
+ * Each id is in the heap at most once; offering an id that is already queued with a lower
+ * priority decreases its key in place. No boxing or per-operation allocation takes place.
+ */
+final class IndexedMinHeap {
+    private final int[] heap;
+    private final double[] keys;
+    private final int[] positions;
+    private int size = 0;
+
+    // Abstraction Function:
+    //  The queue holds heap[0..size), where id heap[i] has priority keys[heap[i]].
+    //
+    // Representation Invariant:
+    //  For 0 < i < size, keys[heap[(i - 1) / 2]] <= keys[heap[i]].
+    //  positions[heap[i]] == i for 0 <= i < size, and positions[id] == -1 for ids not queued.
+
+    /**
+     * Constructor.
+     * @param capacity int number of distinct ids. */
+    IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new double[capacity];
+        positions = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            positions[i] = -1;
+        }
+    }
+
+    /**
+     * @return true if nothing is queued. */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of queued ids. */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Empties the queue in time proportional to its size.
+     * @spec.effects Removes every queued id. */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Inserts id, or lowers its priority if it is already queued with a higher one.
+     * @param id int id in [0, capacity).
+     * @param key double priority.
+     * @return true if id was inserted or its priority was lowered. */
+    boolean offer(int id, double key) {
+        int i = positions[id];
+        if (i < 0) {
+            i = size++;
+            heap[i] = id;
+            positions[id] = i;
+        }
+        else if (keys[id] <= key) {
+            return false;
+        }
+        keys[id] = key;
+        siftUp(i);
+        return true;
+    }
+
+    /**
+     * @spec.requires the queue is not empty.
+     * @return the priority of the minimum id, without removing it. */
+    double peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Removes the minimum id.
+     * @spec.requires the queue is not empty.
+     * @return the id with the lowest priority. */
+    int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int parentId = heap[parent];
+            if (keys[parentId] <= key) {
+                break;
+            }
+            heap[i] = parentId;
+            positions[parentId] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        positions[id] = i;
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            int childId = heap[child];
+            if (key <= keys[childId]) {
+                break;
+            }
+            heap[i] = childId;
+            positions[childId] = i;
+            i = child;
+        }
+        heap[i] = id;
+        positions[id] = i;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.campuspaths;
+
+import java.util.Arrays;
+
+/**
+ * Landmark distance tables for ALT (A*, landmarks and the triangle inequality) searches.
+ *
+ * For each landmark L, the exact distances d(L, v) and d(v, L) to and from every node are
+ * precomputed with one forward and one backward Dijkstra. By the triangle inequality,
+ * d(v, t) &gt;= d(L, t) - d(L, v) and d(v, t) &gt;= d(v, L) - d(t, L), so the largest of these over all
+ * landmarks is an admissible, consistent lower bound on d(v, t). Landmarks are chosen by farthest-point
+ * selection, which places them around the edge of the campus where they give the tightest bounds for
+ * cross-campus routes.
+ *
+ * Instances are immutable and thread-safe.
+ */
+public final class Landmarks {
+    public static final int DEFAULT_COUNT = 8;
+
+    private final CampusGraph graph;
+    private final int[] nodes;
+    // fromLandmark[k * n + v] = d(nodes[k], v); toLandmark[k * n + v] = d(v, nodes[k]).
+    private final double[] fromLandmark;
+    private final double[] toLandmark;
+
+    // Abstraction Function:
+    //  Landmark k is node nodes[k], with exact distances fromLandmark[k * n + v] from it to every node v
+    //  and toLandmark[k * n + v] from every node v to it (infinity where unreachable).
+    //
+    // Representation Invariant:
+    //  fromLandmark.length == toLandmark.length == nodes.length * graph.nodeCount()
+
+    private Landmarks(CampusGraph graph, int[] nodes, double[] fromLandmark, double[] toLandmark) {
+        this.graph = graph;
+        this.nodes = nodes;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    /**
+     * Factory.
+     * Chooses count landmarks by farthest-point selection and computes their distance tables.
+     * @param graph CampusGraph to compute landmarks for.
+     * @param count int number of landmarks.
+     * @spec.requires graph is not null and has no negative edge weights, count &gt;= 0.
+     * @return the landmarks; fewer than count if the graph has fewer nodes. */
+    public static Landmarks compute(CampusGraph graph, int count) {
+        int n = graph.nodeCount();
+        count = Math.min(count, n);
+        CampusGraph reversed = graph.reversed();
+        int[] nodes = new int[count];
+        double[] fromLandmark = new double[count * n];
+        double[] toLandmark = new double[count * n];
+
+        double[] dist = new double[n];
+        int[] parentEdge = new int[n];
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+        // Smallest distance from any chosen landmark to each node; the next landmark maximizes it.
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        // Start from the node farthest from node 0, rather than node 0 itself which may be central.
+        int next = 0;
+        if (n > 0) {
+            RouteTable.shortestPathTree(graph, 0, dist, parentEdge, queue);
+            next = farthest(dist);
+        }
+        for (int k = 0; k < count; k++) {
+            nodes[k] = next;
+            RouteTable.shortestPathTree(graph, next, dist, parentEdge, queue);
+            System.arraycopy(dist, 0, fromLandmark, k * n, n);
+            RouteTable.shortestPathTree(reversed, next, dist, parentEdge, queue);
+            System.arraycopy(dist, 0, toLandmark, k * n, n);
+            for (int v = 0; v < n; v++) {
+                nearest[v] = Math.min(nearest[v], fromLandmark[k * n + v]);
+            }
+            next = farthest(nearest);
+        }
+        return new Landmarks(graph, nodes, fromLandmark, toLandmark);
+    }
+
+    /**
+     * Factory.
+     * Carries the landmarks over to a graph with changed edge lengths. If no edge got shorter, no distance
+     * got shorter, so d(L, t) - d(L, v) &lt;= d'(v, t) and d(v, L) - d(t, L) &lt;= d'(v, t) still hold with the old
+     * tables, and the bounds stay consistent since every edge is at least as long as before. The tables are
+     * then reused as they are; otherwise they are recomputed.
+     * @param change WeightOverlay.Change from graph() to the graph to update for.
+     * @spec.requires change.previous() == graph().
+     * @return landmarks whose lower bounds are admissible on change.graph(). */
+    public Landmarks update(WeightOverlay.Change change) {
+        if (change.increasesOnly()) {
+            return new Landmarks(change.graph(), nodes, fromLandmark, toLandmark);
+        }
+        return compute(change.graph(), nodes.length);
+    }
+
+    /**
+     * Helper.
+     * @return the node with the largest finite dist, or 0 if there is none. */
+    private static int farthest(double[] dist) {
+        int best = 0;
+        double bestDist = -1;
+        for (int v = 0; v < dist.length; v++) {
+            if (dist[v] != Double.POSITIVE_INFINITY && dist[v] > bestDist) {
+                bestDist = dist[v];
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Getter.
+     * @return the graph the landmarks were computed on. */
+    public CampusGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Getter.
+     * @return the number of landmarks. */
+    public int count() {
+        return nodes.length;
+    }
+
+    /**
+     * Getter.
+     * @param k int landmark index.
+     * @return the node id of landmark k. */
+    public int node(int k) {
+        return nodes[k];
+    }
+
+    /**
+     * Query.
+     * @param v int node id.
+     * @param t int node id.
+     * @return a lower bound on the distance from v to t, or infinity if the landmarks prove t is unreachable
+     *     from v. */
+    public double lowerBound(int v, int t) {
+        final int n = graph.nodeCount();
+        double bound = 0.0;
+        for (int k = 0, base = 0; k < nodes.length; k++, base += n) {
+            double fromV = fromLandmark[base + v];
+            double fromT = fromLandmark[base + t];
+            // d(L, t) - d(L, v); if L reaches t but not v, nothing is known.
+            if (fromV != Double.POSITIVE_INFINITY && fromT - fromV > bound) {
+                bound = fromT - fromV;
+            }
+            double toV = toLandmark[base + v];
+            double toT = toLandmark[base + t];
+            // d(v, L) - d(t, L); if t cannot reach L, nothing is known.
+            if (toT != Double.POSITIVE_INFINITY && toV - toT > bound) {
+                bound = toV - toT;
+            }
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.campuspaths;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide counters and value recorders for loading, routing and drawing, with a text summary for
+ * the debug overlay and a TSV exporter.
+ *
+ * Metrics are off by default. While off, every record call is one volatile read and a branch, and
+ * start() does not even read the clock, so the instrumentation can stay in the hot paths. Timing
+ * follows one pattern everywhere:
+ *
+ *     long start = Metrics.start();
+ *     ...
+ *     Metrics.ROUTE.recordSince(start);
+ */
+public final class Metrics {
+    /** What a Recorder's values measure, which decides how they are printed. */
+    public enum Unit {
+        /** Durations in nanoseconds, printed in milliseconds. */
+        NANOSECONDS,
+        /** Plain counts, e.g. nodes settled. */
+        COUNT
+    }
+
+    // Returned by start() while disabled, so a timer started then is never recorded.
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private static volatile boolean enabled = false;
+    private static final List<Recorder> recorders = new CopyOnWriteArrayList<>();
+    private static final List<Counter> counters = new CopyOnWriteArrayList<>();
+
+    /** Parsing the buildings TSV. */
+    public static final Recorder PARSE_BUILDINGS = recorder("parse.buildings", Unit.NANOSECONDS);
+    /** Parsing the paths TSV. */
+    public static final Recorder PARSE_PATHS = recorder("parse.paths", Unit.NANOSECONDS);
+    /** Building the CampusGraph from the parsed TSVs. */
+    public static final Recorder GRAPH_BUILD = recorder("graph.build", Unit.NANOSECONDS);
+    /** Reading the precompiled CampusGraphFile instead. */
+    public static final Recorder GRAPH_READ = recorder("graph.read", Unit.NANOSECONDS);
+    /** Computing the Landmarks of a freshly loaded graph. */
+    public static final Recorder LANDMARKS = recorder("landmarks", Unit.NANOSECONDS);
+    /** Computing the RouteTable when no usable precompiled one exists. */
+    public static final Recorder ROUTE_TABLE_BUILD = recorder("route.table.build", Unit.NANOSECONDS);
+    /** Building the ContractionHierarchy when no usable precompiled one exists. */
+    public static final Recorder HIERARCHY_BUILD = recorder("hierarchy.build", Unit.NANOSECONDS);
+    /** Applying closures: committing the new weights and updating landmarks, hierarchy and route table. */
+    public static final Recorder GRAPH_UPDATE = recorder("graph.update", Unit.NANOSECONDS);
+    /** ProfileTables computing or updating the weights and route table of one CostProfile. */
+    public static final Recorder PROFILE = recorder("profile", Unit.NANOSECONDS);
+    /** RouteService computing one route, by whichever Router is current. */
+    public static final Recorder ROUTE = recorder("route", Unit.NANOSECONDS);
+    /** Nodes settled by one search, across all routers. */
+    public static final Recorder ROUTE_SETTLED = recorder("route.settled", Unit.COUNT);
+    /** Shortest path trees one RouteTable.update recomputed rather than shared. */
+    public static final Recorder ROUTE_TABLE_RECOMPUTED = recorder("route.table.recomputed", Unit.COUNT);
+    /** Building the drawable polyline of a route. */
+    public static final Recorder GEOMETRY = recorder("geometry", Unit.NANOSECONDS);
+    /** Simplifying a polyline for one zoom level. */
+    public static final Recorder SIMPLIFY = recorder("geometry.simplify", Unit.NANOSECONDS);
+    /** DrawView.onDraw. */
+    public static final Recorder FRAME = recorder("draw.frame", Unit.NANOSECONDS);
+
+    /** Routes answered from the RouteTable without a search. */
+    public static final Counter ROUTE_TABLE_HITS = counter("route.table.hits");
+    /** Routes drawn from the RouteCache without a request. */
+    public static final Counter ROUTE_CACHE_HITS = counter("route.cache.hits");
+    /** Routes that missed the RouteCache. */
+    public static final Counter ROUTE_CACHE_MISSES = counter("route.cache.misses");
+
+    // Not an ADT
+
+    private Metrics() {
+    }
+
+    /**
+     * A histogram of the values of one measurement, recorded only while metrics are enabled.
+     */
+    public static final class Recorder {
+        private final String name;
+        private final Unit unit;
+        private final Histogram histogram = new Histogram();
+
+        private Recorder(String name, Unit unit) {
+            this.name = name;
+            this.unit = unit;
+        }
+
+        /**
+         * Records a value, if metrics are enabled.
+         * @param value long value in this recorder's unit. */
+        public void record(long value) {
+            if (enabled) {
+                histogram.record(value);
+            }
+        }
+
+        /**
+         * Records the time since a timer was started, if metrics are enabled.
+         * @param start long value returned by Metrics.start(). */
+        public void recordSince(long start) {
+            if (enabled && start != NOT_STARTED) {
+                histogram.record(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Getter.
+         * @return the name this recorder is reported under. */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Getter.
+         * @return the unit of the recorded values. */
+        public Unit unit() {
+            return unit;
+        }
+
+        /**
+         * Getter.
+         * @return the histogram of the recorded values. */
+        public Histogram histogram() {
+            return histogram;
+        }
+    }
+
+    /**
+     * A count of events, incremented only while metrics are enabled.
+     */
+    public static final class Counter {
+        private final String name;
+        private final AtomicLong value = new AtomicLong();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Counts one event, if metrics are enabled. */
+        public void increment() {
+            if (enabled) {
+                value.incrementAndGet();
+            }
+        }
+
+        /**
+         * Getter.
+         * @return the name this counter is reported under. */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Getter.
+         * @return the number of events counted. */
+        public long get() {
+            return value.get();
+        }
+    }
+
+    /**
+     * Factory.
+     * Registers a recorder, so it is included in the summary and export.
+     * @param name String name to report it under.
+     * @param unit Unit of the values it records.
+     * @return the new Recorder. */
+    public static Recorder recorder(String name, Unit unit) {
+        Recorder recorder = new Recorder(name, unit);
+        recorders.add(recorder);
+        return recorder;
+    }
+
+    /**
+     * Factory.
+     * Registers a counter, so it is included in the summary and export.
+     * @param name String name to report it under.
+     * @return the new Counter. */
+    public static Counter counter(String name) {
+        Counter counter = new Counter(name);
+        counters.add(counter);
+        return counter;
+    }
+
+    /**
+     * Getter.
+     * @return whether metrics are being recorded. */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Setter.
+     * @param enabled boolean whether to record metrics from now on. Values already recorded are kept. */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Clears every recorder and counter.
+     * @spec.effects Removes all values recorded so far. */
+    public static void reset() {
+        for (Recorder recorder : recorders) {
+            recorder.histogram.reset();
+        }
+        for (Counter counter : counters) {
+            counter.value.set(0);
+        }
+    }
+
+    /**
+     * Starts a timer for Recorder.recordSince.
+     * @return the current System.nanoTime(), or a marker that is never recorded if metrics are disabled. */
+    public static long start() {
+        return enabled ? System.nanoTime() : NOT_STARTED;
+    }
+
+    /**
+     * Getter.
+     * @return the registered recorders, in registration order. */
+    public static List<Recorder> recorders() {
+        return Collections.unmodifiableList(recorders);
+    }
+
+    /**
+     * Getter.
+     * @return the registered counters, in registration order. */
+    public static List<Counter> counters() {
+        return Collections.unmodifiableList(counters);
+    }
+
+    /**
+     * Converter.
+     * @return one line per recorder with values (count, p50, p99 and max) and per non-zero counter, for the
+     *     debug overlay. */
+    public static List<String> summary() {
+        List<String> lines = new ArrayList<>();
+        for (Recorder recorder : recorders) {
+            Histogram histogram = recorder.histogram;
+            if (histogram.count() == 0) {
+                continue;
+            }
+            lines.add(String.format("%-17s n=%-5d p50=%s p99=%s max=%s", recorder.name, histogram.count(),
+                    format(recorder.unit, histogram.valueAtPercentile(50)),
+                    format(recorder.unit, histogram.valueAtPercentile(99)),
+                    format(recorder.unit, histogram.max())));
+        }
+        for (Counter counter : counters) {
+            if (counter.get() != 0) {
+                lines.add(String.format("%-17s %d", counter.name, counter.get()));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Writer.
+     * Writes every recorder as a TSV row (name, unit, count, mean, min, p50, p90, p99, p99.9, max), then
+     * every counter as a row with just its name and count. Durations are written in nanoseconds.
+     * @param out Writer to write to. It is flushed but not closed.
+     * @throws IOException if writing fails. */
+    public static void write(Writer out) throws IOException {
+        out.write("name\tunit\tcount\tmean\tmin\tp50\tp90\tp99\tp99.9\tmax\n");
+        for (Recorder recorder : recorders) {
+            Histogram histogram = recorder.histogram;
+            out.write(String.format("%s\t%s\t%d\t%.1f\t%d\t%d\t%d\t%d\t%d\t%d\n",
+                    recorder.name, recorder.unit.name().toLowerCase(), histogram.count(), histogram.mean(),
+                    histogram.min(), histogram.valueAtPercentile(50), histogram.valueAtPercentile(90),
+                    histogram.valueAtPercentile(99), histogram.valueAtPercentile(99.9), histogram.max()));
+        }
+        for (Counter counter : counters) {
+            out.write(String.format("%s\tcount\t%d\n", counter.name, counter.get()));
+        }
+        out.flush();
+    }
+
+    /**
+     * Writer.
+     * Writes the metrics TSV to a file, replacing it.
+     * @param file File to write to.
+     * @throws IOException if the file cannot be written. */
+    public static void writeTo(File file) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+        try {
+            write(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Helper.
+     * @return value formatted for the overlay: milliseconds for durations, as is for counts. */
+    private static String format(Unit unit, long value) {
+        return unit == Unit.NANOSECONDS ? String.format("%.2fms", value / 1e6) : Long.toString(value);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.campuspaths;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-CostProfile routing state over one loaded CampusGraph, computed on first use and cached, so
+ * switching profiles back and forth does not rebuild anything.
+ *
+ * For each profile an Entry holds the graph weighted by the profile, an A* snapshot over it, and, if
+ * enabled, the all-pairs building RouteTable for it. When the loaded graph is updated (e.g. by closures)
+ * an entry is brought up to date on its next use: the profile weights are recomputed, which is one pass
+ * over the edges, and only the table rows the changed costs affect are recomputed, as in RouteTable.update.
+ * All methods are thread-safe.
+ */
+public final class ProfileTables {
+    private final boolean computeTables;
+    private final Map<CostProfile, Entry> entries = new HashMap<>();
+
+    // Abstraction Function:
+    //  entries.get(p) is the routing state for profile p over entries.get(p).base().
+    //
+    // Representation Invariant:
+    //  For each entry, graph() has p's costs for the edges of base(), and table() is null iff
+    //  !computeTables, or is over graph().
+
+    /**
+     * The routing state for one profile. Immutable.
+     */
+    public static final class Entry {
+        private final CostProfile profile;
+        private final CampusGraph base;
+        private final CampusGraph graph;
+        private final CampusSnapshot snapshot;
+        private final RouteTable table;
+
+        private Entry(CostProfile profile, CampusGraph base, CampusGraph graph, RouteTable table) {
+            this.profile = profile;
+            this.base = base;
+            this.graph = graph;
+            this.snapshot = new CampusSnapshot(graph);
+            this.table = table;
+        }
+
+        /**
+         * Getter.
+         * @return the profile this state is for. */
+        public CostProfile profile() {
+            return profile;
+        }
+
+        /**
+         * Getter.
+         * @return the loaded graph the profile was applied to. */
+        public CampusGraph base() {
+            return base;
+        }
+
+        /**
+         * Getter.
+         * @return the graph weighted by the profile. */
+        public CampusGraph graph() {
+            return graph;
+        }
+
+        /**
+         * Getter.
+         * @return the building RouteTable over graph(), or null if tables are not computed. */
+        public RouteTable table() {
+            return table;
+        }
+
+        /**
+         * Factory.
+         * @return a Router over graph() answering building pairs from table(), if any, and anything else by A*. */
+        public RouteService.Router router() {
+            return table != null ? table.asRouter(snapshot) : snapshot;
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param computeTables boolean whether entries include a building RouteTable. */
+    public ProfileTables(boolean computeTables) {
+        this.computeTables = computeTables;
+    }
+
+    /**
+     * Query.
+     * @param profile CostProfile to route by.
+     * @param base CampusGraph as currently loaded.
+     * @spec.requires profile and base are not null, and base has the same edges as every graph passed before.
+     * @return the cached Entry for profile over base, or null if there is none yet. */
+    public synchronized Entry cached(CostProfile profile, CampusGraph base) {
+        Entry entry = entries.get(profile);
+        return entry != null && entry.base == base ? entry : null;
+    }
+
+    /**
+     * Loader.
+     * @param profile CostProfile to route by.
+     * @param base CampusGraph as currently loaded.
+     * @spec.requires profile and base are not null, and base has the same edges as every graph passed before.
+     * @spec.effects Caches the entry returned.
+     * @return the Entry for profile over base, computing or updating it if it is not cached. */
+    public synchronized Entry get(CostProfile profile, CampusGraph base) {
+        Entry entry = entries.get(profile);
+        if (entry != null && entry.base == base) {
+            return entry;
+        }
+        long start = Metrics.start();
+        double[] costs = profile.weights(base);
+        if (entry == null) {
+            CampusGraph graph = base.withWeights(costs);
+            entry = new Entry(profile, base, graph, computeTables ? RouteTable.compute(graph) : null);
+        }
+        else {
+            WeightOverlay.Change change = WeightOverlay.change(entry.graph, costs);
+            entry = new Entry(profile, base, change.graph(), entry.table != null ? entry.table.update(change) : null);
+        }
+        entries.put(profile, entry);
+        Metrics.PROFILE.recordSince(start);
+        return entry;
+    }
+
+    /**
+     * Drops every cached entry.
+     * @spec.effects The next get for each profile computes it from scratch. */
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
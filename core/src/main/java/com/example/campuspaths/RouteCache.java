@@ -0,0 +1,279 @@
+package com.example.campuspaths;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+/**
+ * Bounded LRU cache of routes keyed by the CostProfile they were found by and the (source, destination)
+ * building short names, so switching profiles keeps the routes of every profile.
+ *
+ * Each entry holds both the edge list and its ready-to-draw RoutePolyline, so a repeated route
+ * skips both the search and the geometry build, and keeps the simplified variants already made
+ * for the zoom levels it was drawn at. Memory is capped by the total number of cached
+ * points rather than the number of entries, since one long route can outweigh many short ones.
+ * The cache counts its own hits, misses and evictions, and also reports hits and misses to
+ * Metrics.ROUTE_CACHE_HITS and ROUTE_CACHE_MISSES while metrics are enabled.
+ * All methods are thread-safe.
+ */
+public class RouteCache {
+
+    /**
+     * A cached route.
+     */
+    public static final class Route {
+        /** Edges from the source to the destination building. */
+        public final ArrayList<Edge<Double, Coordinate>> path;
+        /** Shared-vertex polyline to draw, as built by RouteGeometry.polyline. */
+        public final RoutePolyline polyline;
+
+        Route(ArrayList<Edge<Double, Coordinate>> path, RoutePolyline polyline) {
+            this.path = path;
+            this.polyline = polyline;
+        }
+
+        /**
+         * @return the number of (x, y) points in the full-fidelity polyline. */
+        public int points() {
+            return polyline.vertexCount();
+        }
+    }
+
+    private static final class Key {
+        private final CostProfile profile;
+        private final String src;
+        private final String dst;
+
+        Key(CostProfile profile, String src, String dst) {
+            this.profile = profile;
+            this.src = src;
+            this.dst = dst;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return profile == other.profile && src.equals(other.src) && dst.equals(other.dst);
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(profile) * 31 + src.hashCode()) * 31 + dst.hashCode();
+        }
+    }
+
+    private final int maxPoints;
+    private final float scaling;
+    // Iterates from least to most recently used.
+    private final LinkedHashMap<Key, Route> routes = new LinkedHashMap<>(16, 0.75f, true);
+    private int points = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    // Abstraction Function:
+    //  The cache maps each (profile, src, dst) key in routes to its Route, in least-recently-used order.
+    //
+    // Representation Invariant:
+    //  points is the sum of Route.points() over routes, and points <= maxPoints.
+
+    /**
+     * Constructor.
+     * @param maxPoints int maximum total number of points across all cached routes.
+     * @param scaling float factor from raw units to image-space units for the cached polylines.
+     * @spec.requires maxPoints &gt;= 0. */
+    public RouteCache(int maxPoints, float scaling) {
+        this.maxPoints = maxPoints;
+        this.scaling = scaling;
+    }
+
+    /**
+     * Query.
+     * @param profile CostProfile the route was found by.
+     * @param src String short name of the source building.
+     * @param dst String short name of the destination building.
+     * @spec.effects Marks the route as most recently used, and counts a hit or miss, also in Metrics.
+     * @return the cached Route, or null if there is none. */
+    public synchronized Route get(CostProfile profile, String src, String dst) {
+        Route route = routes.get(new Key(profile, src, dst));
+        if (route == null) {
+            misses++;
+            Metrics.ROUTE_CACHE_MISSES.increment();
+        }
+        else {
+            hits++;
+            Metrics.ROUTE_CACHE_HITS.increment();
+        }
+        return route;
+    }
+
+    /**
+     * Inserts a route, evicting least recently used routes until it fits.
+     * @param profile CostProfile the route was found by.
+     * @param src String short name of the source building.
+     * @param dst String short name of the destination building.
+     * @param path ArrayList of Edge&lt;Double, Coordinate&gt; from src to dst.
+     * @spec.requires profile and path are not null.
+     * @spec.effects Replaces any route cached for the same key; if the new route alone exceeds the point
+     *     budget, it is not cached and the old one is removed.
+     * @return the Route for path, which is not cached if it alone exceeds the point budget. */
+    public synchronized Route put(CostProfile profile, String src, String dst,
+                                  ArrayList<Edge<Double, Coordinate>> path) {
+        Key key = new Key(profile, src, dst);
+        Route route = new Route(path, RouteGeometry.polyline(path, scaling));
+        if (route.points() > maxPoints) {
+            // The older route for the same key is stale now, so it goes too.
+            Route previous = routes.remove(key);
+            if (previous != null) {
+                points -= previous.points();
+            }
+            return route;
+        }
+        Route previous = routes.put(key, route);
+        if (previous != null) {
+            points -= previous.points();
+        }
+        points += route.points();
+
+        Iterator<Map.Entry<Key, Route>> eldest = routes.entrySet().iterator();
+        while (points > maxPoints) {
+            Route evicted = eldest.next().getValue();
+            eldest.remove();
+            points -= evicted.points();
+            evictions++;
+        }
+        return route;
+    }
+
+    /**
+     * Removes the routes that may no longer be shortest after edge lengths change.
+     *
+     * A route that got no longer is still shortest unless some changed edge u -&gt; v got shorter and
+     * lb(src, u) + w(u, v) + lb(v, dst) is less than its length, where lb is the Euclidean lower bound on
+     * the new graph. A route that uses an edge that got longer or closed is removed outright, and so is
+     * every route found by a profile other than distance, whose costs the change says nothing about. Every
+     * other route is kept.
+     * @param change WeightOverlay.Change to invalidate for, from the graph the cached routes were found on.
+     * @spec.effects Removes the affected routes. Counters are kept.
+     * @return the number of routes removed. */
+    public synchronized int invalidate(WeightOverlay.Change change) {
+        if (change.size() == 0) {
+            return 0;
+        }
+        CampusGraph previous = change.previous();
+        int[] edgeSources = RouteTable.edgeSources(previous);
+        double scale = AStarRouter.heuristicScale(change.graph());
+        int removed = 0;
+        Iterator<Map.Entry<Key, Route>> cached = routes.entrySet().iterator();
+        while (cached.hasNext()) {
+            Map.Entry<Key, Route> entry = cached.next();
+            Route route = entry.getValue();
+            if (!entry.getKey().profile.isDistance() || isStale(route, change, edgeSources, scale)) {
+                cached.remove();
+                points -= route.points();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Helper.
+     * @return whether route may no longer be shortest after change. */
+    private static boolean isStale(Route route, WeightOverlay.Change change, int[] edgeSources, double scale) {
+        if (route.path.isEmpty()) {
+            return false;
+        }
+        CampusGraph graph = change.previous();
+        int edges = route.path.size();
+        int[] nodes = new int[edges + 1];
+        double length = 0.0;
+        for (int i = 0; i < edges; i++) {
+            int u = graph.nodeAt(route.path.get(i).getSrc().getName());
+            int v = graph.nodeAt(route.path.get(i).getDst().getName());
+            if (u < 0 || v < 0) {
+                return true;
+            }
+            double shortest = Double.POSITIVE_INFINITY;
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                if (graph.target(e) == v) {
+                    shortest = Math.min(shortest, graph.weight(e));
+                }
+            }
+            nodes[i] = u;
+            nodes[i + 1] = v;
+            length += shortest;
+        }
+
+        int src = nodes[0];
+        int dst = nodes[edges];
+        for (int i = 0; i < change.size(); i++) {
+            int e = change.edge(i);
+            int u = edgeSources[e];
+            int v = graph.target(e);
+            if (change.newWeight(i) > change.oldWeight(i)) {
+                for (int k = 0; k < edges; k++) {
+                    if (nodes[k] == u && nodes[k + 1] == v) {
+                        return true;
+                    }
+                }
+            }
+            else if (scale * euclidean(graph, src, u) + change.newWeight(i) + scale * euclidean(graph, v, dst)
+                    < length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double euclidean(CampusGraph graph, int u, int v) {
+        double dx = graph.x(u) - graph.x(v);
+        double dy = graph.y(u) - graph.y(v);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Empties the cache. Counters are kept.
+     * @spec.effects Removes every cached route. */
+    public synchronized void clear() {
+        routes.clear();
+        points = 0;
+    }
+
+    /**
+     * @return the number of cached routes. */
+    public synchronized int size() {
+        return routes.size();
+    }
+
+    /**
+     * @return the total number of points across all cached routes. */
+    public synchronized int points() {
+        return points;
+    }
+
+    /**
+     * @return the number of gets that found a route. */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of gets that found no route. */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of routes evicted to stay within the point budget. */
+    public synchronized long evictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.campuspaths;
+
+import java.util.ArrayList;
+
+import hw5.Edge;
+import hw5.Node;
+import hw8.Coordinate;
+
+/**
+ * Converts int node paths from the primitive routing engines into the
+ * ArrayList&lt;Edge&lt;Double, Coordinate&gt;&gt; shape that Campus.getShortestPath returns and
+ * DrawView.setPts draws.
+ */
+public class RouteEdges {
+
+    // Not an ADT
+
+    /**
+     * Converter.
+     * @param graph CampusGraph the path was computed on.
+     * @param nodes int[] node ids from the source to the destination.
+     * @param weights double[] where weights[i] is the length of the edge nodes[i] -> nodes[i + 1].
+     * @spec.requires nodes.length &gt;= 1 and weights.length &gt;= nodes.length - 1.
+     * @return one Edge per consecutive pair of nodes, labelled with its length. */
+    public static ArrayList<Edge<Double, Coordinate>> toEdges(CampusGraph graph, int[] nodes, double[] weights) {
+        ArrayList<Edge<Double, Coordinate>> edges = new ArrayList<>(Math.max(0, nodes.length - 1));
+        if (nodes.length == 0) {
+            return edges;
+        }
+        Node<Coordinate> src = new Node<>(graph.coordinate(nodes[0]));
+        for (int i = 1; i < nodes.length; i++) {
+            Node<Coordinate> dst = new Node<>(graph.coordinate(nodes[i]));
+            edges.add(new Edge<>(src, dst, weights[i - 1]));
+            src = dst;
+        }
+        return edges;
+    }
+}
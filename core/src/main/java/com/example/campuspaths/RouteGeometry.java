@@ -0,0 +1,77 @@
+package com.example.campuspaths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+/**
+ * Builds the drawable geometry of a route, in image-space units: either a flat segment list, or a
+ * shared-vertex RoutePolyline.
+ */
+public class RouteGeometry {
+
+    // Not an ADT
+
+    /**
+     * Converter.
+     * Expands a path into the (x0, y0, x1, y1) segment list that Canvas.drawLines expects.
+     * @param path ArrayList of Edge&lt;Double, Coordinate&gt; representing the path, in raw units.
+     * @param scaling float factor from raw units to image-space units.
+     * @spec.requires path is not null.
+     * @return pts where for each path_i, pts contains [..., path_i_src_x, path_i_src_y, path_i_dst_x, path_i_dst_y]. */
+    public static float[] segments(ArrayList<Edge<Double, Coordinate>> path, float scaling) {
+        float[] pts = new float[path.size() * 4];
+        for (int i = 0; i < path.size(); i++) {
+            // 0 --> [0, 1, 2, 3]; 1 --> [4, 5, 6, 7], ..., n --> [4n, 4n+1, 4n+2, 4n+3]
+            Edge<Double, Coordinate> edge = path.get(i);
+            Coordinate src = edge.getSrc().getName();
+            Coordinate dst = edge.getDst().getName();
+            int j = i * 4;
+            pts[j] = (float) src.getX() * scaling;
+            pts[j+1] = (float) src.getY() * scaling;
+            pts[j+2] = (float) dst.getX() * scaling;
+            pts[j+3] = (float) dst.getY() * scaling;
+        }
+        return pts;
+    }
+
+    /**
+     * Converter.
+     * Builds the shared-vertex polyline of a path: each edge adds only its destination, unless it does not
+     * start where the previous edge ended, in which case it starts a new part.
+     * @param path ArrayList of Edge&lt;Double, Coordinate&gt; representing the path, in raw units.
+     * @param scaling float factor from raw units to image-space units.
+     * @spec.requires path is not null.
+     * @return the RoutePolyline through the path, in image-space units. */
+    public static RoutePolyline polyline(ArrayList<Edge<Double, Coordinate>> path, float scaling) {
+        long start = Metrics.start();
+        float[] points = new float[path.isEmpty() ? 0 : (path.size() + 1) * 2];
+        int[] partStarts = new int[path.isEmpty() ? 0 : 1];
+        int vertices = 0;
+        Coordinate previous = null;
+        for (int i = 0; i < path.size(); i++) {
+            Edge<Double, Coordinate> edge = path.get(i);
+            Coordinate src = edge.getSrc().getName();
+            if (previous == null || !previous.equals(src)) {
+                if (previous != null) {
+                    // A break in the path: grow both arrays for the extra vertex and part.
+                    points = Arrays.copyOf(points, points.length + 2);
+                    partStarts = Arrays.copyOf(partStarts, partStarts.length + 1);
+                    partStarts[partStarts.length - 1] = vertices;
+                }
+                points[2 * vertices] = (float) src.getX() * scaling;
+                points[2 * vertices + 1] = (float) src.getY() * scaling;
+                vertices++;
+            }
+            previous = edge.getDst().getName();
+            points[2 * vertices] = (float) previous.getX() * scaling;
+            points[2 * vertices + 1] = (float) previous.getY() * scaling;
+            vertices++;
+        }
+        RoutePolyline polyline = RoutePolyline.of(points, partStarts);
+        Metrics.GEOMETRY.recordSince(start);
+        return polyline;
+    }
+}
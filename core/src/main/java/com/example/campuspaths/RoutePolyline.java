@@ -0,0 +1,263 @@
+package com.example.campuspaths;
+
+import java.util.Arrays;
+
+/**
+ * The drawable geometry of a route as a shared-vertex polyline, in image-space units.
+ *
+ * Each vertex is stored once as (x, y) in points, so a route of n contiguous edges takes n + 1
+ * vertices rather than the 2n of a segment list. A route whose edges do not all join up is split
+ * into parts, each drawn as its own contour.
+ *
+ * For drawing at a given view scale, forScale returns a copy simplified with Douglas-Peucker to a
+ * tolerance of TOLERANCE_PX screen pixels. Scales are bucketed into levels a factor of LEVEL_STEP
+ * apart, each simplified once and cached; from FULL_FIDELITY_SCALE up the polyline itself is used.
+ */
+public final class RoutePolyline {
+    /** View scale at and above which routes are drawn with every vertex. */
+    public static final float FULL_FIDELITY_SCALE = 2.5f;
+    /** Largest distance, in screen pixels, a simplified route may stray from the original. */
+    public static final float TOLERANCE_PX = 0.75f;
+    private static final float LEVEL_STEP = 1.25f;
+    // Levels reaching down from FULL_FIDELITY_SCALE to about 0.6; smaller scales share the last one.
+    private static final int LEVELS = 7;
+
+    private final float[] points;
+    private final int[] partStarts;
+    // Simplified variants by level, computed on first use.
+    private final RoutePolyline[] levels;
+
+    // Abstraction Function:
+    //  Vertex i is (points[2i], points[2i + 1]). Part k is the contour through vertices
+    //  partStarts[k] .. partStarts[k + 1] - 1, or through the last vertex for the last part.
+    //
+    // Representation Invariant:
+    //  points.length is even; partStarts is strictly increasing, starts with 0 if there are any
+    //  vertices, and every entry is less than vertexCount().
+    //  levels is null for a simplified variant, and has LEVELS entries otherwise.
+
+    private RoutePolyline(float[] points, int[] partStarts, boolean simplified) {
+        this.points = points;
+        this.partStarts = partStarts;
+        this.levels = simplified ? null : new RoutePolyline[LEVELS];
+    }
+
+    /**
+     * Factory.
+     * @param points float[] of (x, y) vertices along the route, which the polyline takes ownership of.
+     * @param partStarts int[] of the vertex indices where a new contour starts, which the polyline takes
+     *     ownership of.
+     * @spec.requires the arrays satisfy the representation invariant.
+     * @return the polyline through points. */
+    static RoutePolyline of(float[] points, int[] partStarts) {
+        return new RoutePolyline(points, partStarts, false);
+    }
+
+    /**
+     * Factory.
+     * Joins a segment list, as built by RouteGeometry.segments, back into a polyline. A segment that
+     * starts where the previous one ended shares its vertex; any other starts a new part.
+     * @param segments float[] of (x0, y0, x1, y1) segments.
+     * @spec.requires segments.length is divisible by 4.
+     * @return the polyline through the segments. */
+    public static RoutePolyline fromSegments(float[] segments) {
+        float[] points = new float[segments.length];
+        int[] partStarts = new int[segments.length / 4];
+        int vertices = 0;
+        int parts = 0;
+        for (int j = 0; j + 3 < segments.length; j += 4) {
+            if (j == 0 || segments[j] != segments[j - 2] || segments[j + 1] != segments[j - 1]) {
+                partStarts[parts++] = vertices;
+                points[2 * vertices] = segments[j];
+                points[2 * vertices + 1] = segments[j + 1];
+                vertices++;
+            }
+            points[2 * vertices] = segments[j + 2];
+            points[2 * vertices + 1] = segments[j + 3];
+            vertices++;
+        }
+        return of(Arrays.copyOf(points, 2 * vertices), Arrays.copyOf(partStarts, parts));
+    }
+
+    /**
+     * Getter.
+     * @return the number of vertices. */
+    public int vertexCount() {
+        return points.length / 2;
+    }
+
+    /**
+     * Getter.
+     * @return the number of contours. */
+    public int partCount() {
+        return partStarts.length;
+    }
+
+    /**
+     * Getter.
+     * @param part int contour index.
+     * @spec.requires 0 &lt;= part &lt; partCount().
+     * @return the index of the first vertex of the contour. */
+    public int partStart(int part) {
+        return partStarts[part];
+    }
+
+    /**
+     * Getter.
+     * @param part int contour index.
+     * @spec.requires 0 &lt;= part &lt; partCount().
+     * @return one past the index of the last vertex of the contour. */
+    public int partEnd(int part) {
+        return part + 1 < partStarts.length ? partStarts[part + 1] : vertexCount();
+    }
+
+    /**
+     * Getter.
+     * @param vertex int vertex index.
+     * @return the x coordinate of the vertex. */
+    public float x(int vertex) {
+        return points[2 * vertex];
+    }
+
+    /**
+     * Getter.
+     * @param vertex int vertex index.
+     * @return the y coordinate of the vertex. */
+    public float y(int vertex) {
+        return points[2 * vertex + 1];
+    }
+
+    /**
+     * Converter.
+     * @return the (x0, y0, x1, y1) segment list Canvas.drawLines expects, with one segment per pair of
+     *     consecutive vertices in the same contour. */
+    public float[] toSegments() {
+        int segments = vertexCount() - partStarts.length;
+        float[] pts = new float[Math.max(0, segments) * 4];
+        int j = 0;
+        for (int part = 0; part < partStarts.length; part++) {
+            for (int v = partStarts[part] + 1; v < partEnd(part); v++) {
+                pts[j++] = points[2 * v - 2];
+                pts[j++] = points[2 * v - 1];
+                pts[j++] = points[2 * v];
+                pts[j++] = points[2 * v + 1];
+            }
+        }
+        return pts;
+    }
+
+    /**
+     * Query.
+     * Returns the variant to draw when one image-space unit covers scale screen pixels. Levels are
+     * simplified on first use and cached, so repeated calls at a similar scale allocate nothing.
+     * @param scale float current view scale.
+     * @return this polyline at or above FULL_FIDELITY_SCALE, otherwise a simplified copy that is within
+     *     TOLERANCE_PX screen pixels of it at any scale in the same level. */
+    public synchronized RoutePolyline forScale(float scale) {
+        if (levels == null || scale >= FULL_FIDELITY_SCALE) {
+            return this;
+        }
+        // Level k covers scales in (FULL_FIDELITY_SCALE / LEVEL_STEP^(k + 1), FULL_FIDELITY_SCALE / LEVEL_STEP^k],
+        // and is simplified for the largest of them, where an image-space error shows the most.
+        int level = (int) (Math.log(FULL_FIDELITY_SCALE / scale) / Math.log(LEVEL_STEP));
+        level = Math.min(level, LEVELS - 1);
+        RoutePolyline simplified = levels[level];
+        if (simplified == null) {
+            float highestScale = (float) (FULL_FIDELITY_SCALE / Math.pow(LEVEL_STEP, level));
+            long start = Metrics.start();
+            simplified = simplify(TOLERANCE_PX / highestScale);
+            Metrics.SIMPLIFY.recordSince(start);
+            levels[level] = simplified;
+        }
+        return simplified;
+    }
+
+    /**
+     * Query.
+     * Simplifies every contour with Douglas-Peucker, keeping both of its ends.
+     * @param tolerance float largest distance, in image-space units, a removed vertex may lie from the
+     *     simplified contour.
+     * @return a simplified copy, or this if no vertex can be removed. */
+    public RoutePolyline simplify(float tolerance) {
+        int n = vertexCount();
+        boolean[] keep = new boolean[n];
+        int[] stack = new int[2 * Math.max(1, n)];
+        float tolerance2 = tolerance * tolerance;
+        int kept = 0;
+        for (int part = 0; part < partStarts.length; part++) {
+            int first = partStarts[part];
+            int last = partEnd(part) - 1;
+            keep[first] = true;
+            keep[last] = true;
+            int top = 0;
+            if (last - first > 1) {
+                stack[top++] = first;
+                stack[top++] = last;
+            }
+            while (top > 0) {
+                int b = stack[--top];
+                int a = stack[--top];
+                int farthest = -1;
+                float farthest2 = tolerance2;
+                for (int v = a + 1; v < b; v++) {
+                    float d2 = segmentDistance2(v, a, b);
+                    if (d2 > farthest2) {
+                        farthest2 = d2;
+                        farthest = v;
+                    }
+                }
+                if (farthest >= 0) {
+                    keep[farthest] = true;
+                    if (farthest - a > 1) {
+                        stack[top++] = a;
+                        stack[top++] = farthest;
+                    }
+                    if (b - farthest > 1) {
+                        stack[top++] = farthest;
+                        stack[top++] = b;
+                    }
+                }
+            }
+        }
+        for (boolean k : keep) {
+            if (k) {
+                kept++;
+            }
+        }
+        if (kept == n) {
+            return this;
+        }
+
+        float[] simplePoints = new float[2 * kept];
+        int[] simpleStarts = new int[partStarts.length];
+        int out = 0;
+        for (int part = 0; part < partStarts.length; part++) {
+            simpleStarts[part] = out;
+            for (int v = partStarts[part]; v < partEnd(part); v++) {
+                if (keep[v]) {
+                    simplePoints[2 * out] = points[2 * v];
+                    simplePoints[2 * out + 1] = points[2 * v + 1];
+                    out++;
+                }
+            }
+        }
+        return new RoutePolyline(simplePoints, simpleStarts, true);
+    }
+
+    /**
+     * Helper.
+     * @return the squared distance from vertex v to the segment between vertices a and b. */
+    private float segmentDistance2(int v, int a, int b) {
+        float ax = points[2 * a];
+        float ay = points[2 * a + 1];
+        float dx = points[2 * b] - ax;
+        float dy = points[2 * b + 1] - ay;
+        float px = points[2 * v] - ax;
+        float py = points[2 * v + 1] - ay;
+        float length2 = dx * dx + dy * dy;
+        float t = length2 > 0 ? Math.max(0f, Math.min(1f, (px * dx + py * dy) / length2)) : 0f;
+        float ex = px - t * dx;
+        float ey = py - t * dy;
+        return ex * ex + ey * ey;
+    }
+}
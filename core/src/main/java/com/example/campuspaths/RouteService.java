@@ -0,0 +1,145 @@
+package com.example.campuspaths;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+/**
+ * Asynchronous, single-flight route computation.
+ *
+ * Searches run one at a time on a dedicated worker thread. Each new request (or an explicit
+ * cancel) supersedes the previous one: the in-flight search is interrupted, and its result is
+ * dropped even if it has already finished, so only the latest request is ever delivered.
+ */
+public class RouteService {
+
+    /**
+     * Anything that can compute a shortest path between two coordinates, e.g. hw8.model.Campus.
+     */
+    public interface Router {
+        /**
+         * @param src Coordinate to start from.
+         * @param dst Coordinate to end at.
+         * @return the edges of the shortest path from src to dst. */
+        ArrayList<Edge<Double, Coordinate>> getShortestPath(Coordinate src, Coordinate dst);
+    }
+
+    /**
+     * Receives the result of the latest request on the callback executor.
+     */
+    public interface Callback {
+        /**
+         * @param path ArrayList of Edge&lt;Double, Coordinate&gt; from the source to the destination, or
+         *     null if there is none or the Router failed.
+         * @param latencyNanos long time spent computing the path, in nanoseconds. */
+        void onRouteFound(ArrayList<Edge<Double, Coordinate>> path, long latencyNanos);
+    }
+
+    private volatile Router router;
+    private final Executor callbackExecutor;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicLong generation = new AtomicLong();
+    private Future<?> inFlight = null;
+
+    // Abstraction Function:
+    //  The latest request is the one tagged with the current value of generation; results tagged
+    //  with any older generation are superseded and never delivered.
+    //
+    // Representation Invariant:
+    //  inFlight is the Future of the latest submitted search, or null if none has been submitted.
+
+    /**
+     * Constructor.
+     * @param router Router used to compute paths. It is only ever called from the worker thread.
+     * @param callbackExecutor Executor callbacks are delivered on (e.g. the main thread).
+     * @spec.requires router and callbackExecutor are not null. */
+    public RouteService(Router router, Executor callbackExecutor) {
+        this.router = router;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Setter.
+     * Swaps the Router used by subsequent requests; a search already running finishes on the old one.
+     * @param router Router used to compute paths.
+     * @spec.requires router is not null. */
+    public void setRouter(Router router) {
+        this.router = router;
+    }
+
+    /**
+     * Requests a route, superseding any earlier request.
+     * @param src Coordinate to start from.
+     * @param dst Coordinate to end at.
+     * @param callback Callback invoked with the result, unless a later request or cancel supersedes it.
+     * @spec.requires src, dst and callback are not null. */
+    public synchronized void request(final Coordinate src, final Coordinate dst, final Callback callback) {
+        final long tag = supersede();
+        inFlight = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (generation.get() != tag) {
+                    return;
+                }
+                long start = System.nanoTime();
+                ArrayList<Edge<Double, Coordinate>> found;
+                try {
+                    found = router.getShortestPath(src, dst);
+                } catch (RuntimeException e) {
+                    // Delivered as no path rather than lost in the discarded Future.
+                    System.out.printf("RouteService: request: search failed: '%s'\n", e);
+                    found = null;
+                }
+                final ArrayList<Edge<Double, Coordinate>> path = found;
+                final long latencyNanos = System.nanoTime() - start;
+                Metrics.ROUTE.record(latencyNanos);
+                if (generation.get() != tag) {
+                    return;
+                }
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Re-check on the callback thread, since cancel may have run in between.
+                        if (generation.get() == tag) {
+                            callback.onRouteFound(path, latencyNanos);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Cancels the in-flight request, if any.
+     * @spec.effects No callback is delivered for any request made before this call. */
+    public synchronized void cancel() {
+        supersede();
+    }
+
+    /**
+     * Shuts the worker thread down.
+     * @spec.effects Cancels the in-flight request; no further requests may be made. */
+    public synchronized void shutdown() {
+        supersede();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Helper.
+     * Invalidates the in-flight request and interrupts it if it is running.
+     * @return the tag for the next request. */
+    private long supersede() {
+        long tag = generation.incrementAndGet();
+        if (inFlight != null) {
+            inFlight.cancel(true);
+            inFlight = null;
+        }
+        return tag;
+    }
+}
@@ -0,0 +1,465 @@
+package com.example.campuspaths;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+/**
+ * Precomputed shortest paths between every pair of buildings.
+ *
+ * Holds one shortest path tree per building, computed by a single-source Dijkstra search from the
+ * building's node, so the route between any two buildings is a walk up the tree of the source
+ * building. The trees are computed in parallel with fork-join, and the table can be serialized so
+ * it ships prebuilt instead of being computed on the device.
+ */
+public final class RouteTable {
+    static final int MAGIC = 0x43525442;    // "CRTB", written big-endian by DataOutputStream.
+    static final int VERSION = 1;
+
+    // Buildings per fork-join leaf task.
+    private static final int LEAF_BUILDINGS = 2;
+
+    private final CampusGraph graph;
+    // parentEdges[b][v] is the tree edge into v on the shortest path tree of building b, or -1.
+    private final int[][] parentEdges;
+    // distances[a][b] is the length of the shortest path from building a to building b.
+    private final double[][] distances;
+    // edgeSources[e] is the node edge e leaves.
+    private final int[] edgeSources;
+    // buildingsByNode[v] is the first building located at node v, or -1.
+    private final int[] buildingsByNode;
+
+    // Abstraction Function:
+    //  The shortest path from building a to node v is the reverse of v, edgeSources[parentEdges[a][v]],
+    //  ..., up to graph.buildingNode(a). It is infinite (no path) where parentEdges[a][v] == -1
+    //  and v is not the building node.
+    //
+    // Representation Invariant:
+    //  parentEdges.length == distances.length == graph.buildingCount()
+    //  parentEdges[a].length == graph.nodeCount(), distances[a].length == graph.buildingCount()
+
+    private RouteTable(CampusGraph graph, int[][] parentEdges, double[][] distances) {
+        this.graph = graph;
+        this.parentEdges = parentEdges;
+        this.distances = distances;
+        this.edgeSources = edgeSources(graph);
+        this.buildingsByNode = new int[graph.nodeCount()];
+        Arrays.fill(buildingsByNode, -1);
+        for (int b = graph.buildingCount() - 1; b >= 0; b--) {
+            buildingsByNode[graph.buildingNode(b)] = b;
+        }
+    }
+
+    /**
+     * Factory.
+     * Computes the table on the common fork-join pool.
+     * @param graph CampusGraph to compute routes on.
+     * @return the RouteTable for every pair of buildings in graph. */
+    public static RouteTable compute(CampusGraph graph) {
+        return compute(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Factory.
+     * @param graph CampusGraph to compute routes on.
+     * @param pool ForkJoinPool to run the per-building searches on.
+     * @return the RouteTable for every pair of buildings in graph. */
+    public static RouteTable compute(CampusGraph graph, ForkJoinPool pool) {
+        int b = graph.buildingCount();
+        int[][] parentEdges = new int[b][];
+        double[][] distances = new double[b][];
+        pool.invoke(new TreeTask(graph, parentEdges, distances, 0, b));
+        return new RouteTable(graph, parentEdges, distances);
+    }
+
+    /**
+     * Fork-join task computing the trees of buildings [from, to).
+     */
+    private static final class TreeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CampusGraph graph;
+        private final int[][] parentEdges;
+        private final double[][] distances;
+        private final int from;
+        private final int to;
+
+        TreeTask(CampusGraph graph, int[][] parentEdges, double[][] distances, int from, int to) {
+            this.graph = graph;
+            this.parentEdges = parentEdges;
+            this.distances = distances;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_BUILDINGS) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new TreeTask(graph, parentEdges, distances, from, mid),
+                        new TreeTask(graph, parentEdges, distances, mid, to));
+                return;
+            }
+            double[] dist = new double[graph.nodeCount()];
+            IndexedMinHeap queue = new IndexedMinHeap(graph.nodeCount());
+            for (int b = from; b < to; b++) {
+                int[] parentEdge = new int[graph.nodeCount()];
+                shortestPathTree(graph, graph.buildingNode(b), dist, parentEdge, queue);
+                double[] row = new double[graph.buildingCount()];
+                for (int c = 0; c < row.length; c++) {
+                    row[c] = dist[graph.buildingNode(c)];
+                }
+                parentEdges[b] = parentEdge;
+                distances[b] = row;
+            }
+        }
+    }
+
+    /**
+     * Factory.
+     * Updates the table for changed edge lengths, recomputing only the trees the change can affect: those
+     * containing an edge that got longer, and those in which an edge that got shorter now gives a shorter
+     * path to its target. Every other tree is shared with this table.
+     * @param change WeightOverlay.Change from graph() to the graph to update for.
+     * @spec.requires change.previous() == graph().
+     * @return the RouteTable for change.graph(). */
+    public RouteTable update(WeightOverlay.Change change) {
+        CampusGraph updated = change.graph();
+        int b = graph.buildingCount();
+        int[][] updatedParentEdges = parentEdges.clone();
+        double[][] updatedDistances = distances.clone();
+        double[] dist = new double[graph.nodeCount()];
+        IndexedMinHeap queue = new IndexedMinHeap(graph.nodeCount());
+        int recomputed = 0;
+        for (int a = 0; a < b; a++) {
+            if (!affected(a, change, dist)) {
+                continue;
+            }
+            int[] parentEdge = new int[updated.nodeCount()];
+            shortestPathTree(updated, updated.buildingNode(a), dist, parentEdge, queue);
+            double[] row = new double[b];
+            for (int c = 0; c < b; c++) {
+                row[c] = dist[updated.buildingNode(c)];
+            }
+            updatedParentEdges[a] = parentEdge;
+            updatedDistances[a] = row;
+            recomputed++;
+        }
+        Metrics.ROUTE_TABLE_RECOMPUTED.record(recomputed);
+        return new RouteTable(updated, updatedParentEdges, updatedDistances);
+    }
+
+    /**
+     * Helper.
+     * @param a int building index.
+     * @param change WeightOverlay.Change from graph().
+     * @param dist double[] sized to the graph, used as scratch space.
+     * @return whether the shortest path tree of building a may differ after change. */
+    private boolean affected(int a, WeightOverlay.Change change, double[] dist) {
+        int[] parentEdge = parentEdges[a];
+        boolean distancesKnown = false;
+        for (int i = 0; i < change.size(); i++) {
+            int e = change.edge(i);
+            int v = graph.targets[e];
+            if (change.newWeight(i) > change.oldWeight(i)) {
+                if (parentEdge[v] == e) {
+                    return true;
+                }
+            }
+            else {
+                if (!distancesKnown) {
+                    treeDistances(a, dist);
+                    distancesKnown = true;
+                }
+                if (dist[edgeSources[e]] + change.newWeight(i) < dist[v]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Helper.
+     * Recovers the distance from building a to every node from its tree.
+     * @param dist double[] filled with the distance to every node (infinity if unreachable). */
+    private void treeDistances(int a, double[] dist) {
+        int[] parentEdge = parentEdges[a];
+        int root = graph.buildingNode(a);
+        Arrays.fill(dist, Double.NaN);
+        dist[root] = 0.0;
+        int[] stack = new int[graph.nodeCount()];
+        for (int v = 0; v < dist.length; v++) {
+            // Walk up to the nearest node with a known distance, then fill the distances back down.
+            int top = 0;
+            int u = v;
+            while (Double.isNaN(dist[u])) {
+                if (parentEdge[u] < 0) {
+                    dist[u] = Double.POSITIVE_INFINITY;
+                    break;
+                }
+                stack[top++] = u;
+                u = edgeSources[parentEdge[u]];
+            }
+            while (top > 0) {
+                int w = stack[--top];
+                dist[w] = dist[edgeSources[parentEdge[w]]] + graph.weights[parentEdge[w]];
+            }
+        }
+    }
+
+    /**
+     * Single-source Dijkstra over the whole graph.
+     * @param graph CampusGraph to search.
+     * @param src int node id to start from.
+     * @param dist double[] filled with the distance to every node (infinity if unreachable).
+     * @param parentEdge int[] filled with the tree edge into every node (-1 for src and unreachable nodes).
+     * @param queue IndexedMinHeap sized to the graph, used as scratch space. */
+    static void shortestPathTree(CampusGraph graph, int src, double[] dist, int[] parentEdge,
+                                 IndexedMinHeap queue) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parentEdge, -1);
+        queue.clear();
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final double[] weights = graph.weights;
+
+        dist[src] = 0.0;
+        queue.offer(src, 0.0);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            double du = dist[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                double dv = du + weights[e];
+                if (dv < dist[v]) {
+                    dist[v] = dv;
+                    parentEdge[v] = e;
+                    queue.offer(v, dv);
+                }
+            }
+        }
+    }
+
+    /**
+     * Getter.
+     * @return the graph this table was computed on. */
+    public CampusGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Getter.
+     * @param building int building index.
+     * @return the tree edge into every node on the shortest path tree of building, for tests. */
+    int[] tree(int building) {
+        return parentEdges[building];
+    }
+
+    /**
+     * Query.
+     * @param src int building index to start from.
+     * @param dst int building index to end at.
+     * @return the length of the shortest path from src to dst, or infinity if there is none. */
+    public double distance(int src, int dst) {
+        return distances[src][dst];
+    }
+
+    /**
+     * Query.
+     * @param src int building index to start from.
+     * @param dst int building index to end at.
+     * @return the node ids of the shortest path from src to dst inclusive, or null if there is none. */
+    public int[] path(int src, int dst) {
+        int[] parentEdge = parentEdges[src];
+        int root = graph.buildingNode(src);
+        int target = graph.buildingNode(dst);
+        if (target != root && parentEdge[target] < 0) {
+            return null;
+        }
+        int length = 1;
+        for (int v = target; v != root; v = edgeSources[parentEdge[v]]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        for (int v = target, i = length - 1; i >= 0; i--) {
+            nodes[i] = v;
+            if (i > 0) {
+                v = edgeSources[parentEdge[v]];
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Query.
+     * @param src int building index to start from.
+     * @param dst int building index to end at.
+     * @return the shortest path from src to dst as edges, or null if there is none. */
+    public ArrayList<Edge<Double, Coordinate>> edges(int src, int dst) {
+        int[] nodes = path(src, dst);
+        if (nodes == null) {
+            return null;
+        }
+        int[] parentEdge = parentEdges[src];
+        double[] lengths = new double[Math.max(0, nodes.length - 1)];
+        for (int i = 1; i < nodes.length; i++) {
+            lengths[i - 1] = graph.weights[parentEdge[nodes[i]]];
+        }
+        return RouteEdges.toEdges(graph, nodes, lengths);
+    }
+
+    /**
+     * Query.
+     * @param location Coordinate of a building.
+     * @return the index of the building at location, or -1 if there is none. */
+    public int buildingAt(Coordinate location) {
+        int node = graph.nodeAt(location);
+        return node < 0 ? -1 : buildingsByNode[node];
+    }
+
+    /**
+     * Adapter.
+     * Returns a Router answering building-to-building queries from this table, and every other
+     * query from fallback.
+     * @param fallback Router for coordinates that are not buildings.
+     * @return the table-backed Router. */
+    public RouteService.Router asRouter(final RouteService.Router fallback) {
+        return new RouteService.Router() {
+            @Override
+            public ArrayList<Edge<Double, Coordinate>> getShortestPath(Coordinate src, Coordinate dst) {
+                int a = buildingAt(src);
+                int b = buildingAt(dst);
+                if (a < 0 || b < 0) {
+                    return fallback.getShortestPath(src, dst);
+                }
+                Metrics.ROUTE_TABLE_HITS.increment();
+                return edges(a, b);
+            }
+        };
+    }
+
+    /**
+     * Writer.
+     * Serializes the table. The stream is flushed but not closed.
+     * @param out OutputStream to write to.
+     * @throws IOException if any I/O error occurs writing the stream. */
+    public void write(OutputStream out) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(out), new CRC32());
+        DataOutputStream data = new DataOutputStream(checked);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeLong(fingerprint(graph));
+        data.writeInt(graph.nodeCount());
+        data.writeInt(graph.buildingCount());
+        for (int a = 0; a < parentEdges.length; a++) {
+            for (int edge : parentEdges[a]) {
+                data.writeInt(edge);
+            }
+            for (double distance : distances[a]) {
+                data.writeDouble(distance);
+            }
+        }
+        data.flush();
+        data.writeLong(checked.getChecksum().getValue());
+        data.flush();
+    }
+
+    /**
+     * Reader.
+     * @param in InputStream previously produced by write. It is not closed.
+     * @param graph CampusGraph the table was computed on.
+     * @throws IOException if the stream cannot be read, is corrupt, or was computed on a different graph.
+     * @return the deserialized RouteTable. */
+    public static RouteTable read(InputStream in, CampusGraph graph) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(in), new CRC32());
+        DataInputStream data = new DataInputStream(checked);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("RouteTable: not a route table");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("RouteTable: unsupported version " + version);
+        }
+        if (data.readLong() != fingerprint(graph)
+                || data.readInt() != graph.nodeCount()
+                || data.readInt() != graph.buildingCount()) {
+            throw new IOException("RouteTable: computed on a different graph");
+        }
+        int b = graph.buildingCount();
+        int[][] parentEdges = new int[b][graph.nodeCount()];
+        double[][] distances = new double[b][b];
+        for (int a = 0; a < b; a++) {
+            int[] parentEdge = parentEdges[a];
+            for (int v = 0; v < parentEdge.length; v++) {
+                parentEdge[v] = data.readInt();
+                if (parentEdge[v] < -1 || parentEdge[v] >= graph.edgeCount()) {
+                    throw new IOException("RouteTable: bad tree edge");
+                }
+            }
+            for (int c = 0; c < b; c++) {
+                distances[a][c] = data.readDouble();
+            }
+        }
+        long expected = checked.getChecksum().getValue();
+        if (data.readLong() != expected) {
+            throw new IOException("RouteTable: checksum mismatch");
+        }
+        return new RouteTable(graph, parentEdges, distances);
+    }
+
+    /**
+     * Helper.
+     * @param graph CampusGraph to fingerprint.
+     * @return a checksum of the graph topology and weights. */
+    static long fingerprint(CampusGraph graph) {
+        CRC32 crc = new CRC32();
+        byte[] bytes = new byte[8];
+        for (int u = 0; u <= graph.nodeCount(); u++) {
+            update(crc, bytes, graph.offsets[u]);
+        }
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            update(crc, bytes, graph.targets[e]);
+            update(crc, bytes, Double.doubleToLongBits(graph.weights[e]));
+        }
+        for (int b = 0; b < graph.buildingCount(); b++) {
+            update(crc, bytes, graph.buildingNodes[b]);
+        }
+        return crc.getValue();
+    }
+
+    private static void update(CRC32 crc, byte[] bytes, long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (value >>> (8 * i));
+        }
+        crc.update(bytes, 0, 8);
+    }
+
+    /**
+     * Helper.
+     * @param graph CampusGraph to index.
+     * @return the source node of every edge. */
+    static int[] edgeSources(CampusGraph graph) {
+        int[] sources = new int[graph.edgeCount()];
+        for (int u = 0; u < graph.nodeCount(); u++) {
+            for (int e = graph.offsets[u]; e < graph.offsets[u + 1]; e++) {
+                sources[e] = u;
+            }
+        }
+        return sources;
+    }
+}
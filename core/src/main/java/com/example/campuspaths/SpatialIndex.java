@@ -0,0 +1,253 @@
+package com.example.campuspaths;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid index over a fixed set of 2D points, for nearest and nearest-k queries.
+ *
+ * Points are bucketed into square cells sized for about four points per cell, stored in CSR form
+ * (cellStart / cellItems). A query scans rings of cells outward from the query cell and stops as
+ * soon as the next ring cannot hold anything closer than the current k-th best.
+ */
+public final class SpatialIndex {
+    private static final double POINTS_PER_CELL = 4.0;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double minX;
+    private final double minY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStart;
+    private final int[] cellItems;
+
+    // Abstraction Function:
+    //  Point i is at (xs[i], ys[i]). Cell (c, r) covers [minX + c * cellSize, minX + (c + 1) * cellSize)
+    //  x [minY + r * cellSize, ...) and holds the ids cellItems[cellStart[r * columns + c] ..
+    //  cellStart[r * columns + c + 1]).
+    //
+    // Representation Invariant:
+    //  Every point id appears in exactly one cell, the one containing it (clamped to the grid).
+
+    /**
+     * Constructor.
+     * @param xs double[] x coordinates of the points. The index keeps a reference to it.
+     * @param ys double[] y coordinates of the points. The index keeps a reference to it.
+     * @spec.requires xs.length == ys.length, and the arrays are not modified afterwards. */
+    public SpatialIndex(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+        int n = xs.length;
+        double loX = Double.POSITIVE_INFINITY, loY = Double.POSITIVE_INFINITY;
+        double hiX = Double.NEGATIVE_INFINITY, hiY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            loX = Math.min(loX, xs[i]);
+            loY = Math.min(loY, ys[i]);
+            hiX = Math.max(hiX, xs[i]);
+            hiY = Math.max(hiY, ys[i]);
+        }
+        if (n == 0) {
+            loX = loY = hiX = hiY = 0;
+        }
+        double width = Math.max(hiX - loX, 1e-9);
+        double height = Math.max(hiY - loY, 1e-9);
+        double size = Math.sqrt(width * height * POINTS_PER_CELL / Math.max(1, n));
+        this.minX = loX;
+        this.minY = loY;
+        this.cellSize = Math.max(size, 1e-9);
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+
+        int cells = columns * rows;
+        this.cellStart = new int[cells + 1];
+        int[] cellOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            cellOf[i] = cell(column(xs[i]), row(ys[i]));
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] next = Arrays.copyOf(cellStart, cells);
+        this.cellItems = new int[n];
+        for (int i = 0; i < n; i++) {
+            cellItems[next[cellOf[i]]++] = i;
+        }
+    }
+
+    /**
+     * Factory.
+     * @param graph CampusGraph to index.
+     * @return an index whose point ids are the graph node ids. */
+    public static SpatialIndex forNodes(CampusGraph graph) {
+        return new SpatialIndex(graph.xs, graph.ys);
+    }
+
+    /**
+     * Factory.
+     * @param graph CampusGraph to index.
+     * @return an index whose point ids are the graph building indices. */
+    public static SpatialIndex forBuildings(CampusGraph graph) {
+        int b = graph.buildingCount();
+        double[] xs = new double[b];
+        double[] ys = new double[b];
+        for (int i = 0; i < b; i++) {
+            xs[i] = graph.x(graph.buildingNode(i));
+            ys[i] = graph.y(graph.buildingNode(i));
+        }
+        return new SpatialIndex(xs, ys);
+    }
+
+    /**
+     * @return the number of indexed points. */
+    public int size() {
+        return xs.length;
+    }
+
+    /**
+     * Query.
+     * @param x double query x coordinate.
+     * @param y double query y coordinate.
+     * @return the id of the point closest to (x, y), or -1 if the index is empty. */
+    public int nearest(double x, double y) {
+        return nearest(x, y, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Query.
+     * @param x double query x coordinate.
+     * @param y double query y coordinate.
+     * @param maxDistance double largest distance to consider.
+     * @return the id of the point closest to (x, y) within maxDistance, or -1 if there is none. */
+    public int nearest(double x, double y, double maxDistance) {
+        int best = -1;
+        double bestSq = maxDistance == Double.POSITIVE_INFINITY ? maxDistance : maxDistance * maxDistance;
+        int cx = column(x);
+        int cy = row(y);
+        int maxRing = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (ring > 0) {
+                double gap = ringGap(x, y, cx, cy, ring);
+                if (gap * gap > bestSq) {
+                    break;
+                }
+            }
+            for (int r = cy - ring; r <= cy + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                boolean edgeRow = r == cy - ring || r == cy + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int c = cx - ring; c <= cx + ring; c += Math.max(1, step)) {
+                    if (c < 0 || c >= columns) {
+                        continue;
+                    }
+                    int cell = cell(c, r);
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int i = cellItems[k];
+                        double dx = xs[i] - x;
+                        double dy = ys[i] - y;
+                        double dSq = dx * dx + dy * dy;
+                        if (dSq < bestSq || (dSq == bestSq && i < best)) {
+                            bestSq = dSq;
+                            best = i;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Query.
+     * @param x double query x coordinate.
+     * @param y double query y coordinate.
+     * @param k int number of points to return.
+     * @spec.requires k &gt;= 0.
+     * @return the ids of the min(k, size()) points closest to (x, y), nearest first. */
+    public int[] nearestK(double x, double y, int k) {
+        k = Math.min(k, xs.length);
+        int[] ids = new int[k];
+        double[] distSq = new double[k];
+        int found = 0;
+        int cx = column(x);
+        int cy = row(y);
+        int maxRing = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing && k > 0; ring++) {
+            if (ring > 0 && found == k) {
+                double gap = ringGap(x, y, cx, cy, ring);
+                if (gap * gap > distSq[k - 1]) {
+                    break;
+                }
+            }
+            for (int r = cy - ring; r <= cy + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                boolean edgeRow = r == cy - ring || r == cy + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int c = cx - ring; c <= cx + ring; c += Math.max(1, step)) {
+                    if (c < 0 || c >= columns) {
+                        continue;
+                    }
+                    int cell = cell(c, r);
+                    for (int m = cellStart[cell]; m < cellStart[cell + 1]; m++) {
+                        int i = cellItems[m];
+                        double dx = xs[i] - x;
+                        double dy = ys[i] - y;
+                        double dSq = dx * dx + dy * dy;
+                        if (found == k && dSq >= distSq[k - 1]) {
+                            continue;
+                        }
+                        // Insertion into the sorted candidate list.
+                        int j = found < k ? found++ : k - 1;
+                        while (j > 0 && distSq[j - 1] > dSq) {
+                            distSq[j] = distSq[j - 1];
+                            ids[j] = ids[j - 1];
+                            j--;
+                        }
+                        distSq[j] = dSq;
+                        ids[j] = i;
+                    }
+                }
+            }
+        }
+        return found == k ? ids : Arrays.copyOf(ids, found);
+    }
+
+    /**
+     * Helper.
+     * @return a lower bound on the distance from (x, y) to any cell in the given ring around (cx, cy). */
+    private double ringGap(double x, double y, int cx, int cy, int ring) {
+        // Distance from the query to the inner boundary of each side of the ring. Sides that fall off the
+        // grid hold no cells, so they do not bound anything; once every side is off the grid, nothing is left.
+        double gap = Double.POSITIVE_INFINITY;
+        if (cx - ring >= 0) {
+            gap = Math.min(gap, x - (minX + (cx - ring + 1) * cellSize));
+        }
+        if (cx + ring < columns) {
+            gap = Math.min(gap, (minX + (cx + ring) * cellSize) - x);
+        }
+        if (cy - ring >= 0) {
+            gap = Math.min(gap, y - (minY + (cy - ring + 1) * cellSize));
+        }
+        if (cy + ring < rows) {
+            gap = Math.min(gap, (minY + (cy + ring) * cellSize) - y);
+        }
+        return Math.max(0.0, gap);
+    }
+
+    private int column(double x) {
+        return Math.min(columns - 1, Math.max(0, (int) ((x - minX) / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.min(rows - 1, Math.max(0, (int) ((y - minY) / cellSize)));
+    }
+
+    private int cell(int column, int row) {
+        return row * columns + column;
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.campuspaths;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Streaming byte-level tokenizer for the campus TSV files.
+ *
+ * Reads fields straight out of a fixed byte buffer instead of materializing a String per line
+ * and per split, so numeric columns are parsed without any intermediate allocation.
+ * Fields are separated by '\t', coordinate components by ',', and rows by '\n' (optionally
+ * preceded by '\r').
+ */
+final class TsvTokenizer {
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Largest mantissa that is exactly representable as a double (2^53).
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    // Powers of ten that are exactly representable as a double.
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** Delimiter returned by {@link #lastDelimiter()} once the end of the input is reached. */
+    static final int EOF = -1;
+
+    private final InputStream in;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos = 0;
+    private int limit = 0;
+
+    // Scratch space for string fields and for numbers that miss the fast path.
+    private byte[] scratch = new byte[64];
+    private int lastDelimiter = '\n';
+
+    // Abstraction Function:
+    //  The unread input is buf[pos..limit) followed by the remaining bytes of in.
+    //  lastDelimiter is the byte that terminated the most recently read field, or EOF.
+    //
+    // Representation Invariant:
+    //  0 <= pos <= limit <= buf.length
+
+    /**
+     * Constructor.
+     * @param in InputStream to tokenize. The tokenizer does its own buffering.
+     * @spec.requires in is not null. */
+    TsvTokenizer(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns true if there is another non-empty row to read, skipping blank lines.
+     * @throws IOException if any I/O error occurs reading the stream.
+     * @return true if another row is available. */
+    boolean hasNextRow() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                return false;
+            }
+            byte b = buf[pos];
+            if (b != '\n' && b != '\r') {
+                // A fresh row always has at least one field to read.
+                lastDelimiter = '\t';
+                return true;
+            }
+            pos++;
+        }
+    }
+
+    /**
+     * Skips the rest of the current row, including its line terminator.
+     * @throws IOException if any I/O error occurs reading the stream. */
+    void skipRow() throws IOException {
+        if (!hasNextField()) {
+            return;
+        }
+        int b;
+        while ((b = read()) != EOF && b != '\n') {
+            // Skip.
+        }
+        lastDelimiter = b;
+    }
+
+    /**
+     * Returns true if the current row has another field to read.
+     * @return true if the row was just started or the last field read was terminated by a tab
+     *     or comma. */
+    boolean hasNextField() {
+        return lastDelimiter == '\t' || lastDelimiter == ',';
+    }
+
+    /**
+     * Returns the byte that terminated the most recently read field.
+     * @return '\t', ',', '\n' or {@link #EOF}. */
+    int lastDelimiter() {
+        return lastDelimiter;
+    }
+
+    /**
+     * Reads a text field terminated by a tab or the end of the row.
+     * @throws IOException if any I/O error occurs reading the stream.
+     * @return the decoded UTF-8 field. */
+    String readString() throws IOException {
+        int len = 0;
+        int b;
+        while ((b = read()) != EOF && b != '\t' && b != '\n') {
+            if (b == '\r') {
+                continue;
+            }
+            if (len == scratch.length) {
+                byte[] grown = new byte[scratch.length * 2];
+                System.arraycopy(scratch, 0, grown, 0, len);
+                scratch = grown;
+            }
+            scratch[len++] = (byte) b;
+        }
+        lastDelimiter = b;
+        return new String(scratch, 0, len, UTF_8);
+    }
+
+    /**
+     * Reads a decimal field terminated by a comma, a tab or the end of the row.
+     * Values with at most 2^53 significant mantissa and at most 22 fractional digits are parsed
+     * exactly by a single correctly-rounded division; anything else falls back to
+     * {@link Double#parseDouble(String)}, so the result always matches it.
+     * @throws IOException if any I/O error occurs reading the stream.
+     * @throws NumberFormatException if the field is not a valid decimal number.
+     * @return the parsed double. */
+    double readDouble() throws IOException {
+        return readDouble(false, 0.0);
+    }
+
+    /**
+     * Reads an optional decimal field, like {@link #readDouble()}, except that an empty field is allowed.
+     * @param missing double value to return for an empty field.
+     * @throws IOException if any I/O error occurs reading the stream.
+     * @throws NumberFormatException if the field is neither empty nor a valid decimal number.
+     * @return the parsed double, or missing. */
+    double readDouble(double missing) throws IOException {
+        return readDouble(true, missing);
+    }
+
+    private double readDouble(boolean optional, double missing) throws IOException {
+        int len = 0;
+        long mantissa = 0;
+        int scale = 0;
+        boolean negative = false;
+        boolean fraction = false;
+        boolean fast = true;
+        boolean digits = false;
+
+        int b;
+        while ((b = read()) != EOF && b != ',' && b != '\t' && b != '\n') {
+            if (b == '\r' || b == ' ') {
+                continue;
+            }
+            if (len == scratch.length) {
+                byte[] grown = new byte[scratch.length * 2];
+                System.arraycopy(scratch, 0, grown, 0, len);
+                scratch = grown;
+            }
+            scratch[len++] = (byte) b;
+
+            if (b >= '0' && b <= '9') {
+                digits = true;
+                if (fast) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (fraction) {
+                        scale++;
+                    }
+                    if (mantissa > MAX_EXACT_MANTISSA || scale >= POW10.length) {
+                        fast = false;
+                    }
+                }
+            }
+            else if (b == '.' && !fraction) {
+                fraction = true;
+            }
+            else if (b == '-' && len == 1) {
+                negative = true;
+            }
+            else {
+                // Exponents, '+', infinities and malformed input go through the JDK parser.
+                fast = false;
+            }
+        }
+        lastDelimiter = b;
+
+        if (optional && len == 0) {
+            return missing;
+        }
+        if (fast && digits) {
+            double value = mantissa / POW10[scale];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(new String(scratch, 0, len, UTF_8));
+    }
+
+    /**
+     * Reads a single byte, refilling the buffer as needed.
+     * @return the next byte, or EOF at the end of the stream. */
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return EOF;
+        }
+        return buf[pos++] & 0xFF;
+    }
+
+    /**
+     * Refills the buffer from the underlying stream.
+     * @return false if the stream is exhausted. */
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        while (n == 0) {
+            n = in.read(buf, 0, buf.length);
+        }
+        if (n < 0) {
+            pos = limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+}
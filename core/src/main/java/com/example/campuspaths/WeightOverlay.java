@@ -0,0 +1,265 @@
+package com.example.campuspaths;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import hw8.CampusPath;
+import hw8.Coordinate;
+
+/**
+ * Live edge closures and length changes on top of a loaded CampusGraph.
+ *
+ * Edges are identified by their origin and destination Coordinates, as in the paths TSV, and each
+ * direction is a separate edge. Changes are staged with disable, enable and reweight, then commit
+ * publishes them as a new CampusGraph that shares the node table, adjacency and indexes of the loaded
+ * one and only has its own weights array, so nothing is re-parsed or re-indexed. A closed edge is
+ * infinitely long, which every search already treats as absent.
+ *
+ * Each commit also returns the Change it made, which RouteTable, Landmarks and RouteCache use to
+ * invalidate only what the changed edges can affect. All methods are thread-safe.
+ */
+public final class WeightOverlay {
+    /** Length of a closed edge. */
+    public static final double CLOSED = Double.POSITIVE_INFINITY;
+
+    private final CampusGraph base;
+    private CampusGraph current;
+    // Lengths to publish on the next commit, by edge index.
+    private final double[] staged;
+
+    // Abstraction Function:
+    //  The live graph is current. Edge e has length base.weight(e) in the loaded data, current.weight(e)
+    //  now, and will have staged[e] after the next commit.
+    //
+    // Representation Invariant:
+    //  current has the same nodes, edges and buildings as base, and staged.length == base.edgeCount().
+    //  No entry of staged is negative.
+
+    /**
+     * A committed set of edge length changes.
+     */
+    public static final class Change {
+        private final CampusGraph previous;
+        private final CampusGraph graph;
+        private final int[] edges;
+        private final double[] oldWeights;
+        private final double[] newWeights;
+
+        private Change(CampusGraph previous, CampusGraph graph, int[] edges, double[] oldWeights,
+                       double[] newWeights) {
+            this.previous = previous;
+            this.graph = graph;
+            this.edges = edges;
+            this.oldWeights = oldWeights;
+            this.newWeights = newWeights;
+        }
+
+        /**
+         * Getter.
+         * @return the graph before the change. */
+        public CampusGraph previous() {
+            return previous;
+        }
+
+        /**
+         * Getter.
+         * @return the graph after the change. */
+        public CampusGraph graph() {
+            return graph;
+        }
+
+        /**
+         * Getter.
+         * @return the number of edges whose length changed. */
+        public int size() {
+            return edges.length;
+        }
+
+        /**
+         * Getter.
+         * @param i int index of a changed edge, in [0, size()).
+         * @return the edge index, in both graphs. */
+        public int edge(int i) {
+            return edges[i];
+        }
+
+        /**
+         * Getter.
+         * @param i int index of a changed edge, in [0, size()).
+         * @return the length of the edge in previous(). */
+        public double oldWeight(int i) {
+            return oldWeights[i];
+        }
+
+        /**
+         * Getter.
+         * @param i int index of a changed edge, in [0, size()).
+         * @return the length of the edge in graph(). */
+        public double newWeight(int i) {
+            return newWeights[i];
+        }
+
+        /**
+         * Query.
+         * @return whether no edge got shorter or reopened, in which case no distance got shorter either and
+         *     lower bounds computed on previous() still hold on graph(). */
+        public boolean increasesOnly() {
+            for (int i = 0; i < edges.length; i++) {
+                if (newWeights[i] < oldWeights[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param base CampusGraph as loaded, whose lengths enable restores.
+     * @spec.requires base is not null. */
+    public WeightOverlay(CampusGraph base) {
+        this.base = base;
+        this.current = base;
+        this.staged = base.weights.clone();
+    }
+
+    /**
+     * Getter.
+     * @return the graph as of the last commit. */
+    public synchronized CampusGraph graph() {
+        return current;
+    }
+
+    /**
+     * Closes the edges from origin to destination on the next commit.
+     * @param origin Coordinate the edge leaves.
+     * @param destination Coordinate the edge enters.
+     * @throws IllegalArgumentException if there is no edge from origin to destination.
+     * @return the number of parallel edges closed. */
+    public synchronized int disable(Coordinate origin, Coordinate destination) {
+        return stage(origin, destination, CLOSED, false);
+    }
+
+    /**
+     * Reopens the edges from origin to destination at their loaded lengths on the next commit.
+     * @param origin Coordinate the edge leaves.
+     * @param destination Coordinate the edge enters.
+     * @throws IllegalArgumentException if there is no edge from origin to destination.
+     * @return the number of parallel edges reopened. */
+    public synchronized int enable(Coordinate origin, Coordinate destination) {
+        return stage(origin, destination, 0.0, true);
+    }
+
+    /**
+     * Sets the length of the edges from origin to destination on the next commit.
+     * @param origin Coordinate the edge leaves.
+     * @param destination Coordinate the edge enters.
+     * @param weight double new length, or CLOSED.
+     * @throws IllegalArgumentException if there is no edge from origin to destination, or weight is negative
+     *     or NaN.
+     * @return the number of parallel edges changed. */
+    public synchronized int reweight(Coordinate origin, Coordinate destination, double weight) {
+        if (!(weight >= 0)) {
+            throw new IllegalArgumentException("WeightOverlay: bad length " + weight);
+        }
+        return stage(origin, destination, weight, false);
+    }
+
+    /**
+     * Reopens every edge at its loaded length on the next commit.
+     * @spec.effects Discards every staged and committed change from the next commit on. */
+    public synchronized void reset() {
+        System.arraycopy(base.weights, 0, staged, 0, staged.length);
+    }
+
+    /**
+     * Loader.
+     * Stages the rows of a delta TSV in the paths TSV format (origin, destination, distance). A row with a
+     * non-negative distance sets the edge to that length; a row with a negative distance closes it.
+     * @param deltaStream InputStream of the delta TSV, with a header row. It is not closed.
+     * @throws IOException if the stream cannot be read.
+     * @throws IllegalArgumentException if a row names an edge that is not in the graph, in which case no row
+     *     is staged.
+     * @return the number of rows staged. */
+    public synchronized int load(InputStream deltaStream) throws IOException {
+        List<CampusPath> rows = AndroidParser.parsePathData(deltaStream);
+        double[] before = staged.clone();
+        try {
+            for (CampusPath row : rows) {
+                double distance = row.getDistance();
+                stage(row.getOrigin(), row.getDestination(), distance < 0 ? CLOSED : distance, false);
+            }
+        } catch (IllegalArgumentException e) {
+            System.arraycopy(before, 0, staged, 0, staged.length);
+            throw e;
+        }
+        return rows.size();
+    }
+
+    /**
+     * Publishes the staged lengths.
+     * @spec.effects graph() becomes a new graph with the staged lengths, unless nothing changed.
+     * @return the Change from the previous graph, which is empty if nothing changed. */
+    public synchronized Change commit() {
+        Change change = change(current, Arrays.copyOf(staged, staged.length));
+        current = change.graph();
+        return change;
+    }
+
+    /**
+     * Factory.
+     * @param previous CampusGraph to change.
+     * @param weights double[] of the new length of every edge of previous, which the changed graph takes
+     *     ownership of.
+     * @spec.requires weights.length == previous.edgeCount(), and no weight is negative or NaN.
+     * @return the Change from previous to a graph with the given lengths, whose graph() is previous itself if
+     *     no length changed. */
+    static Change change(CampusGraph previous, double[] weights) {
+        double[] oldWeights = previous.weights;
+        int count = 0;
+        for (int e = 0; e < weights.length; e++) {
+            if (Double.compare(weights[e], oldWeights[e]) != 0) {
+                count++;
+            }
+        }
+        int[] edges = new int[count];
+        double[] before = new double[count];
+        double[] after = new double[count];
+        for (int e = 0, i = 0; e < weights.length; e++) {
+            if (Double.compare(weights[e], oldWeights[e]) != 0) {
+                edges[i] = e;
+                before[i] = oldWeights[e];
+                after[i] = weights[e];
+                i++;
+            }
+        }
+        CampusGraph graph = count > 0 ? previous.withWeights(weights) : previous;
+        return new Change(previous, graph, edges, before, after);
+    }
+
+    /**
+     * Helper.
+     * Stages a length for every edge from origin to destination.
+     * @param restore boolean whether to stage the loaded length instead of weight.
+     * @throws IllegalArgumentException if there is no such edge.
+     * @return the number of edges staged. */
+    private int stage(Coordinate origin, Coordinate destination, double weight, boolean restore) {
+        int u = base.nodeAt(origin);
+        int v = base.nodeAt(destination);
+        int staged = 0;
+        if (u >= 0 && v >= 0) {
+            for (int e = base.firstEdge(u); e < base.endEdge(u); e++) {
+                if (base.target(e) == v) {
+                    this.staged[e] = restore ? base.weight(e) : weight;
+                    staged++;
+                }
+            }
+        }
+        if (staged == 0) {
+            throw new IllegalArgumentException("WeightOverlay: no edge " + origin + " -> " + destination);
+        }
+        return staged;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks AStarRouter against a plain Dijkstra search for every pair of buildings on the bundled data.
+ */
+public class AStarRouterTest {
+
+    /**
+     * Reference single-source Dijkstra distances, with an O(n) scan for the minimum.
+     */
+    static double[] dijkstra(CampusGraph graph, int src) {
+        int n = graph.nodeCount();
+        double[] dist = new double[n];
+        boolean[] done = new boolean[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[src] = 0.0;
+        for (int round = 0; round < n; round++) {
+            int u = -1;
+            for (int v = 0; v < n; v++) {
+                if (!done[v] && (u < 0 || dist[v] < dist[u])) {
+                    u = v;
+                }
+            }
+            if (u < 0 || dist[u] == Double.POSITIVE_INFINITY) {
+                break;
+            }
+            done[u] = true;
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                dist[graph.target(e)] = Math.min(dist[graph.target(e)], dist[u] + graph.weight(e));
+            }
+        }
+        return dist;
+    }
+
+    @Test
+    public void findPath_matchesDijkstraForAllBuildingPairs() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        AStarRouter router = new AStarRouter(graph);
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            int src = graph.buildingNode(a);
+            double[] expected = dijkstra(graph, src);
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                int dst = graph.buildingNode(b);
+                int[] nodes = router.findPath(src, dst);
+                assertNotNull(nodes);
+                assertEquals(src, nodes[0]);
+                assertEquals(dst, nodes[nodes.length - 1]);
+                assertEquals(expected[dst], router.lastDistance(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void getShortestPath_returnsContiguousEdges() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        AStarRouter router = new AStarRouter(graph);
+        Coordinate src = graph.coordinate(graph.buildingNode(graph.buildingIndex("CSE")));
+        Coordinate dst = graph.coordinate(graph.buildingNode(graph.buildingIndex("BAG")));
+
+        ArrayList<Edge<Double, Coordinate>> path = router.getShortestPath(src, dst);
+        assertNotNull(path);
+        assertEquals(src, path.get(0).getSrc().getName());
+        assertEquals(dst, path.get(path.size() - 1).getDst().getName());
+        for (int i = 1; i < path.size(); i++) {
+            assertEquals(path.get(i - 1).getDst().getName(), path.get(i).getSrc().getName());
+        }
+        assertTrue(router.lastSettled() < graph.nodeCount());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Scanner;
+
+import hw8.CampusBuilding;
+import hw8.CampusPath;
+import hw8.Coordinate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the streaming AndroidParser against the original Scanner/String.split parser on the bundled
+ * TSV files. ParseBenchmark in the benchmarks module compares their speed.
+ */
+public class AndroidParserTest {
+    // The bundled TSVs, from the shared campus data directory on the test classpath.
+    private static final String RAW_DIR = "raw/";
+
+    @Test
+    public void parseBuildingData_matchesScannerParser() throws IOException {
+        byte[] data = read("campus_buildings_new.tsv");
+        List<CampusBuilding> expected = scannerParseBuildingData(new ByteArrayInputStream(data));
+        List<CampusBuilding> actual = AndroidParser.parseBuildingData(new ByteArrayInputStream(data));
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getShortName(), actual.get(i).getShortName());
+            assertEquals(expected.get(i).getLongName(), actual.get(i).getLongName());
+            assertEquals(expected.get(i).getLocation(), actual.get(i).getLocation());
+        }
+    }
+
+    @Test
+    public void parsePathData_matchesScannerParser() throws IOException {
+        byte[] data = read("campus_paths.tsv");
+        List<CampusPath> expected = scannerParsePathData(new ByteArrayInputStream(data));
+        List<CampusPath> actual = AndroidParser.parsePathData(new ByteArrayInputStream(data));
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getOrigin(), actual.get(i).getOrigin());
+            assertEquals(expected.get(i).getDestination(), actual.get(i).getDestination());
+            assertEquals(expected.get(i).getDistance(), actual.get(i).getDistance(), 0.0);
+        }
+    }
+
+    static byte[] read(String name) throws IOException {
+        InputStream in = AndroidParserTest.class.getClassLoader().getResourceAsStream(RAW_DIR + name);
+        if (in == null) {
+            throw new IOException("Missing test resource: " + RAW_DIR + name);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    // The original Scanner-based parsers, kept here as the baseline.
+
+    private static List<CampusBuilding> scannerParseBuildingData(InputStream blgsStream) {
+        Scanner scanner = new Scanner(new InputStreamReader(blgsStream));
+        scanner.nextLine();     // Skipping header line
+        List<CampusBuilding> buildings = new LinkedList<>();
+        while(scanner.hasNextLine()) {
+            String[] bits = scanner.nextLine().split("\t");
+            Coordinate location = new Coordinate(Double.parseDouble(bits[2].split(",")[0]),
+                    Double.parseDouble(bits[2].split(",")[1]));
+            CampusBuilding building = new CampusBuilding();
+            building.setShortName(bits[0]);
+            building.setLongName(bits[1]);
+            building.setLocation(location);
+            buildings.add(building);
+        }
+        return buildings;
+    }
+
+    private static List<CampusPath> scannerParsePathData(InputStream pathsStream) {
+        Scanner scanner = new Scanner(new InputStreamReader(pathsStream));
+        scanner.nextLine();     // Skipping header line
+        List<CampusPath> paths = new LinkedList<>();
+        while(scanner.hasNextLine()) {
+            String[] bits = scanner.nextLine().split("\t");
+            Coordinate origin = new Coordinate(Double.parseDouble(bits[0].split(",")[0]),
+                    Double.parseDouble(bits[0].split(",")[1]));
+            Coordinate destination = new Coordinate(Double.parseDouble(bits[1].split(",")[0]),
+                    Double.parseDouble(bits[1].split(",")[1]));
+            CampusPath path = new CampusPath();
+            path.setDestination(destination);
+            path.setDistance(Double.parseDouble(bits[2]));
+            path.setOrigin(origin);
+            paths.add(path);
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks BidirectionalAltRouter, with and without landmarks, against Dijkstra on the bundled data,
+ * and compares the nodes settled per query with AStarRouter.
+ */
+public class BidirectionalAltRouterTest {
+
+    @Test
+    public void lowerBound_neverExceedsDistance() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        Landmarks landmarks = Landmarks.compute(graph, Landmarks.DEFAULT_COUNT);
+        assertEquals(Landmarks.DEFAULT_COUNT, landmarks.count());
+        for (int a = 0; a < graph.buildingCount(); a += 5) {
+            int src = graph.buildingNode(a);
+            double[] expected = AStarRouterTest.dijkstra(graph, src);
+            for (int v = 0; v < graph.nodeCount(); v++) {
+                assertTrue(landmarks.lowerBound(src, v) <= expected[v] + 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void findPath_matchesDijkstraForAllBuildingPairs() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        BidirectionalAltRouter alt = new BidirectionalAltRouter(graph, Landmarks.compute(graph, Landmarks.DEFAULT_COUNT));
+        BidirectionalAltRouter bidirectional = new BidirectionalAltRouter(graph, null);
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            int src = graph.buildingNode(a);
+            double[] expected = AStarRouterTest.dijkstra(graph, src);
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                int dst = graph.buildingNode(b);
+                for (BidirectionalAltRouter router : new BidirectionalAltRouter[]{alt, bidirectional}) {
+                    int[] nodes = router.findPath(src, dst);
+                    assertNotNull(nodes);
+                    assertEquals(src, nodes[0]);
+                    assertEquals(dst, nodes[nodes.length - 1]);
+                    assertEquals(expected[dst], router.lastDistance(), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getShortestPath_returnsContiguousEdgesBetweenAnyNodes() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        BidirectionalAltRouter router = new BidirectionalAltRouter(graph, Landmarks.compute(graph, 4));
+        Random random = new Random(13);
+        for (int i = 0; i < 200; i++) {
+            Coordinate src = graph.coordinate(random.nextInt(graph.nodeCount()));
+            Coordinate dst = graph.coordinate(random.nextInt(graph.nodeCount()));
+            ArrayList<Edge<Double, Coordinate>> path = router.getShortestPath(src, dst);
+            assertNotNull(path);
+            if (src.equals(dst)) {
+                assertTrue(path.isEmpty());
+                continue;
+            }
+            assertEquals(src, path.get(0).getSrc().getName());
+            assertEquals(dst, path.get(path.size() - 1).getDst().getName());
+            for (int j = 1; j < path.size(); j++) {
+                assertEquals(path.get(j - 1).getDst().getName(), path.get(j).getSrc().getName());
+            }
+        }
+    }
+
+    @Test
+    public void findPath_settlesFewerNodesThanAStar() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        Landmarks landmarks = Landmarks.compute(graph, Landmarks.DEFAULT_COUNT);
+        AStarRouter aStar = new AStarRouter(graph);
+        BidirectionalAltRouter bidirectional = new BidirectionalAltRouter(graph, null);
+        BidirectionalAltRouter alt = new BidirectionalAltRouter(graph, landmarks);
+
+        long aStarSettled = 0;
+        long bidirectionalSettled = 0;
+        long altSettled = 0;
+        int pairs = 0;
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                int src = graph.buildingNode(a);
+                int dst = graph.buildingNode(b);
+                aStar.findPath(src, dst);
+                bidirectional.findPath(src, dst);
+                alt.findPath(src, dst);
+                aStarSettled += aStar.lastSettled();
+                bidirectionalSettled += bidirectional.lastSettled();
+                altSettled += alt.lastSettled();
+                pairs++;
+            }
+        }
+        assertTrue(altSettled < aStarSettled);
+    }
+
+    @Test
+    public void reversed_transposesEveryEdge() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        CampusGraph reversed = graph.reversed();
+        assertEquals(graph.nodeCount(), reversed.nodeCount());
+        assertEquals(graph.edgeCount(), reversed.edgeCount());
+        for (int u = 0; u < graph.nodeCount(); u += 7) {
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                int v = graph.target(e);
+                boolean found = false;
+                for (int r = reversed.firstEdge(v); r < reversed.endEdge(v); r++) {
+                    found |= reversed.target(r) == u && reversed.weight(r) == graph.weight(e);
+                }
+                assertTrue(found);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import hw8.CampusBuilding;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests prefix, multi-word and typo-tolerant matching and ranking of BuildingSearchIndex on the
+ * bundled buildings. BuildingSearchBenchmark in the benchmarks module measures type-ahead latency.
+ */
+public class BuildingSearchIndexTest {
+
+    private static List<CampusBuilding> loadBuildings() throws IOException {
+        return AndroidParser.parseBuildingData(
+                new ByteArrayInputStream(AndroidParserTest.read("campus_buildings_new.tsv")));
+    }
+
+    private static String first(BuildingSearchIndex index, String query) {
+        int[] results = index.search(query, 10);
+        assertTrue("no results for " + query, results.length > 0);
+        return index.shortName(results[0]);
+    }
+
+    @Test
+    public void search_ranksExactShortNameFirst() throws IOException {
+        BuildingSearchIndex index = BuildingSearchIndex.build(loadBuildings());
+        assertEquals("CSE", first(index, "cse"));
+        assertEquals("BAG", first(index, "BAG"));
+        assertEquals("BAG (NE)", first(index, "bag (ne)"));
+    }
+
+    @Test
+    public void search_matchesLongNameWordsAndPrefixes() throws IOException {
+        BuildingSearchIndex index = BuildingSearchIndex.build(loadBuildings());
+        assertEquals("CSE", first(index, "allen"));
+        assertEquals("CSE", first(index, "Paul G. Allen Center for Computer Science & Engineering"));
+        assertEquals("CSE", first(index, "comp sci"));
+        assertEquals("BGR", first(index, "by geo"));
+        for (int b : index.search("bagley", 10)) {
+            assertTrue(index.shortName(b).startsWith("BAG"));
+        }
+    }
+
+    @Test
+    public void search_toleratesTypos() throws IOException {
+        BuildingSearchIndex index = BuildingSearchIndex.build(loadBuildings());
+        assertEquals("CSE", first(index, "alen"));
+        assertEquals("CSE", first(index, "compter sceince"));
+        assertTrue(index.shortName(index.search("bagly", 10)[0]).startsWith("BAG"));
+        assertEquals(0, index.search("xyzzy", 10).length);
+    }
+
+    @Test
+    public void search_emptyQueryListsEveryBuildingInOrder() throws IOException {
+        List<CampusBuilding> buildings = loadBuildings();
+        BuildingSearchIndex index = BuildingSearchIndex.build(buildings);
+        int[] all = index.search(" ", 1000);
+        assertEquals(buildings.size(), all.length);
+        for (int i = 0; i < all.length; i++) {
+            assertEquals(i, all[i]);
+        }
+        assertEquals(3, index.search("", 3).length);
+        assertEquals(1, index.search("ba", 1).length);
+    }
+
+    @Test
+    public void prefixEditDistance_comparesAgainstEveryPrefix() {
+        assertEquals(0, BuildingSearchIndex.prefixEditDistance("comp", "computer", 2));
+        assertEquals(1, BuildingSearchIndex.prefixEditDistance("compt", "computer", 2));
+        assertEquals(2, BuildingSearchIndex.prefixEditDistance("sceince", "science", 2));
+        assertEquals(2, BuildingSearchIndex.prefixEditDistance("xyz", "science", 1));
+    }
+
+    @Test
+    public void search_typeAheadFindsTheBuildingFromEveryKeystroke() throws IOException {
+        BuildingSearchIndex index = BuildingSearchIndex.build(loadBuildings());
+        String typed = "Paul G. Allen Center for Computer Science";
+        for (int i = 1; i <= typed.length(); i++) {
+            assertTrue(typed.substring(0, i), index.search(typed.substring(0, i), 100).length > 0);
+        }
+        assertEquals("CSE", first(index, typed));
+    }
+}
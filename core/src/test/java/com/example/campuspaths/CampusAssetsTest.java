@@ -0,0 +1,55 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the assets CampusAssets compiles from the bundled TSVs load as CampusLoader loads them.
+ */
+public class CampusAssetsTest {
+
+    /**
+     * Helper.
+     * Compiles the assets of the bundled TSVs into a new temporary directory.
+     * @return the directory. */
+    static File compileBundledAssets() throws IOException {
+        File dir = Files.createTempDirectory("campus_assets").toFile();
+        File buildings = new File(dir, "buildings.tsv");
+        File paths = new File(dir, "paths.tsv");
+        Files.write(buildings.toPath(), AndroidParserTest.read("campus_buildings_new.tsv"));
+        Files.write(paths.toPath(), AndroidParserTest.read("campus_paths.tsv"));
+        CampusAssets.write(buildings.getPath(), paths.getPath(), dir);
+        return dir;
+    }
+
+    @Test
+    public void main_writesAssetsForTheBundledGraph() throws IOException {
+        File dir = compileBundledAssets();
+        CampusGraph graph = CampusGraphFile.read(new File(dir, CampusAssets.GRAPH), CampusAssets.STAMP);
+        assertEquals(RouteTable.fingerprint(CampusGraphFileTest.loadBundledGraph()), RouteTable.fingerprint(graph));
+
+        InputStream routes = new FileInputStream(new File(dir, CampusAssets.ROUTES));
+        try {
+            RouteTable table = RouteTable.read(routes, graph);
+            assertEquals(RouteTable.compute(graph).distance(0, graph.buildingCount() - 1),
+                    table.distance(0, graph.buildingCount() - 1), 0.0);
+        } finally {
+            routes.close();
+        }
+
+        InputStream hierarchy = new FileInputStream(new File(dir, CampusAssets.HIERARCHY));
+        try {
+            assertEquals(ContractionHierarchy.build(graph).edgeCount(),
+                    ContractionHierarchy.read(hierarchy, graph).edgeCount());
+        } finally {
+            hierarchy.close();
+        }
+    }
+}
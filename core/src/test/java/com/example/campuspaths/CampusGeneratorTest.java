@@ -0,0 +1,104 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that CampusGenerator output parses into the graph it describes. ScaleBenchmark in the benchmarks
+ * module measures load time, allocation and query latency as the generated campus grows.
+ */
+public class CampusGeneratorTest {
+
+    /**
+     * Helper.
+     * @return the graph parsed from the TSVs generator writes. */
+    private static CampusGraph generate(CampusGenerator generator) throws IOException {
+        ByteArrayOutputStream paths = new ByteArrayOutputStream();
+        ByteArrayOutputStream buildings = new ByteArrayOutputStream();
+        generator.writePaths(paths);
+        generator.writeBuildings(buildings);
+        return CampusGraph.build(
+                AndroidParser.parseBuildingData(new ByteArrayInputStream(buildings.toByteArray())),
+                AndroidParser.parsePathData(new ByteArrayInputStream(paths.toByteArray())));
+    }
+
+    @Test
+    public void generate_gridHasExpectedShape() throws IOException {
+        // 10 nodes on a 4-wide grid: rows of 4, 4 and 2.
+        CampusGenerator generator = new CampusGenerator(10, 1L);
+        generator.setTopology(CampusGenerator.Topology.GRID);
+        generator.setBuildingDensity(1.0);
+        CampusGraph graph = generate(generator);
+        assertEquals(10, graph.nodeCount());
+        assertEquals(10, graph.buildingCount());
+        // 3 + 3 + 1 horizontal and 4 + 2 vertical paths, each in both directions.
+        assertEquals(2 * 13, graph.edgeCount());
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            assertEquals(40.0, graph.weight(e), 1e-6);
+        }
+    }
+
+    @Test
+    public void generate_planarIsConnectedAndReproducible() throws IOException {
+        CampusGenerator generator = new CampusGenerator(5000, 7L);
+        generator.setBuildingDensity(0.05);
+        CampusGraph graph = generate(generator);
+        assertEquals(5000, graph.nodeCount());
+        assertTrue(graph.buildingCount() > 0);
+        for (int b = 0; b < graph.buildingCount(); b++) {
+            assertEquals(graph.buildingNode(b), graph.buildingIndex("B" + b) >= 0
+                    ? graph.buildingNode(graph.buildingIndex("B" + b)) : -1);
+        }
+        double[] dist = AStarRouterTest.dijkstra(graph, graph.buildingNode(0));
+        for (double d : dist) {
+            assertTrue(d != Double.POSITIVE_INFINITY);
+        }
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        generator.writePaths(first);
+        generator.writePaths(second);
+        assertTrue(Arrays.equals(first.toByteArray(), second.toByteArray()));
+    }
+
+    @Test
+    public void generate_largeSpacingKeepsCoordinatesPlainAndPositive() throws IOException {
+        // At this spacing the jitter used to move nodes below 0, which appendFixed wrote as e.g. "-220.-7160".
+        CampusGenerator generator = new CampusGenerator(9, 3L);
+        generator.setSpacing(1000);
+        generator.setBuildingDensity(1.0);
+        ByteArrayOutputStream buildings = new ByteArrayOutputStream();
+        generator.writeBuildings(buildings);
+        String[] lines = new String(buildings.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(10, lines.length);
+        for (int i = 1; i < lines.length; i++) {
+            assertTrue(lines[i], lines[i].split("\t")[2].matches("\\d+\\.\\d{4},\\d+\\.\\d{4}"));
+        }
+
+        CampusGraph graph = generate(generator);
+        assertEquals(9, graph.nodeCount());
+        assertEquals(9, graph.buildingCount());
+        for (int i = 0; i < graph.nodeCount(); i++) {
+            assertTrue(graph.x(i) > 0);
+            assertTrue(graph.y(i) > 0);
+        }
+    }
+
+    @Test
+    public void appendFixed_writesTheSignOnce() {
+        StringBuilder line = new StringBuilder();
+        CampusGenerator.appendFixed(line, -220.716, 4);
+        line.append(',');
+        CampusGenerator.appendFixed(line, -0.5, 2);
+        line.append(',');
+        CampusGenerator.appendFixed(line, 12.00004, 4);
+        assertEquals("-220.7160,-0.50,12.0000", line.toString());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import hw8.CampusBuilding;
+import hw8.CampusPath;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round-trip and validation tests for the binary campus graph format, on the bundled TSVs.
+ */
+public class CampusGraphFileTest {
+
+    static CampusGraph loadBundledGraph() throws IOException {
+        List<CampusBuilding> buildings = AndroidParser.parseBuildingData(
+                new ByteArrayInputStream(AndroidParserTest.read("campus_buildings_new.tsv")));
+        List<CampusPath> paths = AndroidParser.parsePathData(
+                new ByteArrayInputStream(AndroidParserTest.read("campus_paths.tsv")));
+        return CampusGraph.build(buildings, paths);
+    }
+
+    @Test
+    public void build_indexesEveryEdgeAndBuilding() throws IOException {
+        CampusGraph graph = loadBundledGraph();
+        assertEquals(5546, graph.edgeCount());
+        assertEquals(51, graph.buildingCount());
+        int cse = graph.buildingIndex("CSE");
+        assertEquals("Paul G. Allen Center for Computer Science & Engineering", graph.longName(cse));
+        assertEquals(graph.buildingNode(cse), graph.nodeAt(2259.7112, 1715.5273));
+    }
+
+    @Test
+    public void writeThenRead_roundTrips() throws IOException {
+        CampusGraph graph = loadBundledGraph();
+        File file = File.createTempFile("campus_graph", ".bin");
+        try {
+            CampusGraphFile.write(graph, file, 42L);
+            CampusGraph read = CampusGraphFile.read(file, 42L);
+
+            assertEquals(graph.nodeCount(), read.nodeCount());
+            assertEquals(graph.edgeCount(), read.edgeCount());
+            assertEquals(graph.buildingCount(), read.buildingCount());
+            for (int u = 0; u < graph.nodeCount(); u++) {
+                assertEquals(graph.x(u), read.x(u), 0.0);
+                assertEquals(graph.y(u), read.y(u), 0.0);
+                assertEquals(graph.firstEdge(u), read.firstEdge(u));
+            }
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                assertEquals(graph.target(e), read.target(e));
+                assertEquals(graph.weight(e), read.weight(e), 0.0);
+            }
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                assertEquals(graph.shortName(b), read.shortName(b));
+                assertEquals(graph.longName(b), read.longName(b));
+                assertEquals(graph.buildingNode(b), read.buildingNode(b));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void writeThenRead_keepsAttributes() throws IOException {
+        CampusGraph graph = CostProfileTest.loadAttributedGraph();
+        File file = File.createTempFile("campus_graph", ".bin");
+        try {
+            CampusGraphFile.write(graph, file, 7L);
+            CampusGraph read = CampusGraphFile.read(file, 7L);
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                assertEquals(graph.attributes().seconds(e), read.attributes().seconds(e), 0.0);
+                assertEquals(graph.attributes().slope(e), read.attributes().slope(e), 0.0);
+                assertEquals(graph.attributes().hasStairs(e), read.attributes().hasStairs(e));
+            }
+            assertEquals(graph.buildingCount(), read.buildingCount());
+            assertEquals(graph.longName(0), read.longName(0));
+
+            CampusGraphFile.write(loadBundledGraph(), file, 7L);
+            assertNull(CampusGraphFile.read(file, 7L).attributes());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void read_rejectsStaleOrCorruptFiles() throws IOException {
+        CampusGraph graph = loadBundledGraph();
+        File file = File.createTempFile("campus_graph", ".bin");
+        try {
+            CampusGraphFile.write(graph, file, 1L);
+            assertRejected(file, 2L);
+
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.seek(raf.length() - 1);
+                int last = raf.read();
+                raf.seek(raf.length() - 1);
+                raf.write(last ^ 0xFF);
+            } finally {
+                raf.close();
+            }
+            assertRejected(file, 1L);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void assertRejected(File file, long stamp) {
+        try {
+            CampusGraphFile.read(file, stamp);
+            fail("expected IOException");
+        } catch (IOException expected) {
+            // Expected.
+        }
+    }
+}
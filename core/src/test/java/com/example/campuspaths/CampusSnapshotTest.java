@@ -0,0 +1,102 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks CampusSnapshot against Dijkstra from many threads at once. Query throughput across thread counts
+ * is measured by SnapshotBenchmark in the benchmarks module.
+ */
+public class CampusSnapshotTest {
+    /**
+     * Runs body on the given number of threads, released together, and waits for all of them. */
+    private static void runConcurrently(int threads, final Body body) throws InterruptedException {
+        final CountDownLatch ready = new CountDownLatch(threads);
+        final CountDownLatch go = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ready.countDown();
+                    try {
+                        go.await();
+                        body.run(index);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        ready.await();
+        go.countDown();
+        done.await();
+    }
+
+    private interface Body {
+        void run(int thread);
+    }
+
+    @Test
+    public void findRoute_matchesDijkstraFromManyThreads() throws Exception {
+        final CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        final CampusSnapshot snapshot = new CampusSnapshot(graph);
+        final int buildings = graph.buildingCount();
+        final double[][] expected = new double[buildings][];
+        for (int a = 0; a < buildings; a++) {
+            double[] dist = AStarRouterTest.dijkstra(graph, graph.buildingNode(a));
+            expected[a] = new double[buildings];
+            for (int b = 0; b < buildings; b++) {
+                expected[a][b] = dist[graph.buildingNode(b)];
+            }
+        }
+
+        final AtomicInteger mismatches = new AtomicInteger();
+        runConcurrently(8, new Body() {
+            @Override
+            public void run(int thread) {
+                Random random = new Random(thread);
+                for (int i = 0; i < 5000; i++) {
+                    int a = random.nextInt(buildings);
+                    int b = random.nextInt(buildings);
+                    CampusSnapshot.Route route = snapshot.findRoute(graph.buildingNode(a), graph.buildingNode(b));
+                    if (route == null || route.distance() != expected[a][b]
+                            || route.node(0) != graph.buildingNode(a)
+                            || route.node(route.nodeCount() - 1) != graph.buildingNode(b)) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            }
+        });
+        assertEquals(0, mismatches.get());
+    }
+
+    @Test
+    public void getShortestPath_returnsContiguousEdges() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        CampusSnapshot snapshot = new CampusSnapshot(graph);
+        Coordinate src = graph.coordinate(graph.buildingNode(graph.buildingIndex("CSE")));
+        Coordinate dst = graph.coordinate(graph.buildingNode(graph.buildingIndex("BAG")));
+        ArrayList<Edge<Double, Coordinate>> path = snapshot.getShortestPath(src, dst);
+        assertNotNull(path);
+        assertEquals(src, path.get(0).getSrc().getName());
+        assertEquals(dst, path.get(path.size() - 1).getDst().getName());
+        for (int i = 1; i < path.size(); i++) {
+            assertEquals(path.get(i - 1).getDst().getName(), path.get(i).getSrc().getName());
+        }
+        assertEquals(0, snapshot.getShortestPath(src, src).size());
+    }
+}
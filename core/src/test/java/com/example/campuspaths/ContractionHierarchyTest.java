@@ -0,0 +1,146 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks ContractionHierarchyRouter distances and paths against Dijkstra on the bundled data, and the
+ * serialization of ContractionHierarchy.
+ */
+public class ContractionHierarchyTest {
+
+    /**
+     * Returns the length of the given node path, summed in path order over the shortest edge between each
+     * pair of consecutive nodes.
+     */
+    private static double pathLength(CampusGraph graph, int[] nodes) {
+        double length = 0.0;
+        for (int i = 1; i < nodes.length; i++) {
+            double shortest = Double.POSITIVE_INFINITY;
+            for (int e = graph.firstEdge(nodes[i - 1]); e < graph.endEdge(nodes[i - 1]); e++) {
+                if (graph.target(e) == nodes[i]) {
+                    shortest = Math.min(shortest, graph.weight(e));
+                }
+            }
+            assertTrue("not an edge", shortest != Double.POSITIVE_INFINITY);
+            length += shortest;
+        }
+        return length;
+    }
+
+    @Test
+    public void findPath_matchesDijkstraForAllBuildingPairs() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        ContractionHierarchyRouter router = new ContractionHierarchyRouter(hierarchy);
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            int src = graph.buildingNode(a);
+            double[] expected = AStarRouterTest.dijkstra(graph, src);
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                int dst = graph.buildingNode(b);
+                int[] nodes = router.findPath(src, dst);
+                assertNotNull(nodes);
+                assertEquals(src, nodes[0]);
+                assertEquals(dst, nodes[nodes.length - 1]);
+                assertEquals(expected[dst], router.lastDistance(), 0.0);
+                assertEquals(pathLength(graph, nodes), router.lastDistance(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void findPath_matchesDijkstraForRandomNodePairs() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        ContractionHierarchyRouter router = new ContractionHierarchyRouter(ContractionHierarchy.build(graph));
+        Random random = new Random(14);
+        for (int i = 0; i < 50; i++) {
+            int src = random.nextInt(graph.nodeCount());
+            double[] expected = AStarRouterTest.dijkstra(graph, src);
+            for (int j = 0; j < 20; j++) {
+                int dst = random.nextInt(graph.nodeCount());
+                int[] nodes = router.findPath(src, dst);
+                if (expected[dst] == Double.POSITIVE_INFINITY) {
+                    assertNull(nodes);
+                    continue;
+                }
+                assertNotNull(nodes);
+                assertEquals(expected[dst], router.lastDistance(), 0.0);
+                assertEquals(pathLength(graph, nodes), router.lastDistance(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void getShortestPath_unpacksToContiguousOriginalEdges() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        ContractionHierarchyRouter router = new ContractionHierarchyRouter(ContractionHierarchy.build(graph));
+        Coordinate src = graph.coordinate(graph.buildingNode(graph.buildingIndex("CSE")));
+        Coordinate dst = graph.coordinate(graph.buildingNode(graph.buildingIndex("BAG")));
+
+        ArrayList<Edge<Double, Coordinate>> path = router.getShortestPath(src, dst);
+        assertNotNull(path);
+        assertEquals(src, path.get(0).getSrc().getName());
+        assertEquals(dst, path.get(path.size() - 1).getDst().getName());
+        for (int i = 1; i < path.size(); i++) {
+            assertEquals(path.get(i - 1).getDst().getName(), path.get(i).getSrc().getName());
+        }
+        assertEquals(0, router.getShortestPath(src, src).size());
+    }
+
+    @Test
+    public void findPath_settlesFewerNodesThanAStar() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        ContractionHierarchyRouter router = new ContractionHierarchyRouter(ContractionHierarchy.build(graph));
+        AStarRouter aStar = new AStarRouter(graph);
+        long settled = 0;
+        long aStarSettled = 0;
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                router.findPath(graph.buildingNode(a), graph.buildingNode(b));
+                aStar.findPath(graph.buildingNode(a), graph.buildingNode(b));
+                settled += router.lastSettled();
+                aStarSettled += aStar.lastSettled();
+            }
+        }
+        assertTrue(settled < aStarSettled);
+    }
+
+    @Test
+    public void writeThenRead_roundTrips() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        hierarchy.write(out);
+        byte[] bytes = out.toByteArray();
+
+        ContractionHierarchyRouter built = new ContractionHierarchyRouter(hierarchy);
+        ContractionHierarchyRouter read = new ContractionHierarchyRouter(
+                ContractionHierarchy.read(new ByteArrayInputStream(bytes), graph));
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                int src = graph.buildingNode(a);
+                int dst = graph.buildingNode(b);
+                assertArrayEquals(built.findPath(src, dst), read.findPath(src, dst));
+                assertEquals(built.lastDistance(), read.lastDistance(), 0.0);
+            }
+        }
+
+        bytes[bytes.length / 2] ^= 0x01;
+        try {
+            ContractionHierarchy.read(new ByteArrayInputStream(bytes), graph);
+            fail("expected IOException");
+        } catch (IOException expected) {
+            // Expected.
+        }
+    }
+}
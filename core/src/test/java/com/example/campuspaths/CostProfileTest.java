@@ -0,0 +1,248 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import hw8.CampusBuilding;
+import hw8.CampusPath;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the optional attribute columns of the paths TSV, cost profiles over them, and the per-profile
+ * cache, on the bundled campus with synthetic attributes.
+ */
+public class CostProfileTest {
+
+    /**
+     * Helper.
+     * @return the bundled paths TSV with seconds, slope and stairs columns added: every third row has an
+     *     unknown time, grades run from -10% to 10%, and every 17th row has steps. */
+    static byte[] attributedPaths() throws IOException {
+        String[] lines = new String(AndroidParserTest.read("campus_paths.tsv"), StandardCharsets.UTF_8)
+                .split("\r?\n");
+        StringBuilder tsv = new StringBuilder(lines.length * 80);
+        tsv.append(lines[0]).append("\tseconds\tslope\tstairs\n");
+        for (int i = 1; i < lines.length; i++) {
+            String[] fields = lines[i].split("\t");
+            double distance = Double.parseDouble(fields[2]);
+            tsv.append(lines[i]).append('\t');
+            if (i % 3 != 0) {
+                tsv.append(distance / 4.0);
+            }
+            tsv.append('\t').append(((i * 37) % 21 - 10) / 100.0)
+                    .append('\t').append(i % 17 == 0 ? 1 : 0).append('\n');
+        }
+        return tsv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Helper.
+     * @return the bundled campus graph with the attributes of attributedPaths(). */
+    static CampusGraph loadAttributedGraph() throws IOException {
+        List<CampusBuilding> buildings = AndroidParser.parseBuildingData(
+                new ByteArrayInputStream(AndroidParserTest.read("campus_buildings_new.tsv")));
+        EdgeAttributes.Builder attributes = new EdgeAttributes.Builder();
+        List<CampusPath> paths = AndroidParser.parsePathData(new ByteArrayInputStream(attributedPaths()),
+                attributes);
+        return CampusGraph.build(buildings, paths, attributes.build());
+    }
+
+    @Test
+    public void parsePathData_readsAttributeColumnsByName() throws IOException {
+        String tsv = "origin\tdestination\tdistance\tstairs\tnote\tslope\tSECONDS\r\n"
+                + "1,2\t3,4\t5\t1\tsteps\t0.25\t9.5\r\n"
+                + "3,4\t1,2\t5\t\t\t-0.25\t\r\n"
+                + "1,2\t5,6\t7\n";
+        EdgeAttributes.Builder builder = new EdgeAttributes.Builder();
+        List<CampusPath> paths = AndroidParser.parsePathData(
+                new ByteArrayInputStream(tsv.getBytes(StandardCharsets.UTF_8)), builder);
+        assertEquals(3, paths.size());
+        assertEquals(7.0, paths.get(2).getDistance(), 0.0);
+        EdgeAttributes attributes = builder.build();
+        assertEquals(3, attributes.size());
+        assertTrue(attributes.hasStairs(0));
+        assertEquals(0.25, attributes.slope(0), 0.0);
+        assertEquals(9.5, attributes.seconds(0), 0.0);
+        assertFalse(attributes.hasStairs(1));
+        assertEquals(-0.25, attributes.slope(1), 0.0);
+        assertTrue(Double.isNaN(attributes.seconds(1)));
+        assertEquals(0.0, attributes.slope(2), 0.0);
+        assertTrue(Double.isNaN(attributes.seconds(2)));
+
+        // Without attribute columns nothing is collected, and without a builder the columns are ignored.
+        EdgeAttributes.Builder none = new EdgeAttributes.Builder();
+        AndroidParser.parsePathData(new ByteArrayInputStream(AndroidParserTest.read("campus_paths.tsv")), none);
+        assertNull(none.build());
+        List<CampusPath> plain = AndroidParser.parsePathData(new ByteArrayInputStream(attributedPaths()));
+        List<CampusPath> bundled = AndroidParser.parsePathData(
+                new ByteArrayInputStream(AndroidParserTest.read("campus_paths.tsv")));
+        assertEquals(bundled.size(), plain.size());
+        for (int i = 0; i < bundled.size(); i++) {
+            assertEquals(bundled.get(i).getDistance(), plain.get(i).getDistance(), 0.0);
+        }
+    }
+
+    @Test
+    public void build_keepsAttributesWithTheirEdges() throws IOException {
+        CampusGraph graph = loadAttributedGraph();
+        CampusGraph reversed = graph.reversed();
+        List<CampusPath> paths = AndroidParser.parsePathData(new ByteArrayInputStream(attributedPaths()));
+        EdgeAttributes.Builder builder = new EdgeAttributes.Builder();
+        AndroidParser.parsePathData(new ByteArrayInputStream(attributedPaths()), builder);
+        EdgeAttributes rows = builder.build();
+        for (int i = 0; i < paths.size(); i++) {
+            int u = graph.nodeAt(paths.get(i).getOrigin());
+            int v = graph.nodeAt(paths.get(i).getDestination());
+            boolean found = false;
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u) && !found; e++) {
+                found = graph.target(e) == v && graph.weight(e) == paths.get(i).getDistance()
+                        && graph.attributes().slope(e) == rows.slope(i)
+                        && graph.attributes().hasStairs(e) == rows.hasStairs(i);
+            }
+            assertTrue(found);
+            found = false;
+            for (int e = reversed.firstEdge(v); e < reversed.endEdge(v) && !found; e++) {
+                found = reversed.target(e) == u && reversed.attributes().slope(e) == rows.slope(i);
+            }
+            assertTrue(found);
+        }
+    }
+
+    @Test
+    public void apply_weighsEveryEdgeByTheProfile() throws IOException {
+        CampusGraph graph = loadAttributedGraph();
+        EdgeAttributes attributes = graph.attributes();
+        assertSame(graph, CostProfile.SHORTEST.apply(graph));
+
+        CampusGraph fastest = CostProfile.FASTEST.apply(graph);
+        CampusGraph stepFree = CostProfile.STEP_FREE.apply(graph);
+        assertSame(graph.offsets, fastest.offsets);
+        assertSame(attributes, stepFree.attributes());
+        int closed = 0;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            double seconds = attributes.seconds(e);
+            double slope = attributes.slope(e);
+            double expected = Double.isNaN(seconds) ? CostProfile.walkingSeconds(graph.weight(e), slope) : seconds;
+            assertEquals(expected, fastest.weight(e), 1e-9);
+            if (attributes.hasStairs(e) || Math.abs(slope) > CostProfile.RAMP_SLOPE) {
+                assertEquals(WeightOverlay.CLOSED, stepFree.weight(e), 0.0);
+                closed++;
+            }
+            else {
+                assertEquals(graph.weight(e) * (1 + 10 * Math.max(0, slope)), stepFree.weight(e), 1e-9);
+            }
+        }
+        assertTrue(closed > 0);
+        assertEquals(1.0, CostProfile.walkingSeconds(CostProfile.WALKING_SPEED, 0.0), 1e-12);
+        assertTrue(CostProfile.walkingSeconds(100, 0.1) > CostProfile.walkingSeconds(100, -0.05));
+
+        // Without attributes every edge is flat, step-free and of estimated time.
+        CampusGraph plain = CampusGraphFileTest.loadBundledGraph();
+        CampusGraph plainStepFree = CostProfile.STEP_FREE.apply(plain);
+        for (int e = 0; e < plain.edgeCount(); e++) {
+            assertEquals(plain.weight(e), plainStepFree.weight(e), 0.0);
+        }
+        try {
+            new CostProfile("bad", -1.0, 0.0, 0.0, 0.0, 1.0);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void fastest_neverTakesLongerThanShortest() throws IOException {
+        CampusGraph graph = loadAttributedGraph();
+        RouteTable shortest = RouteTable.compute(graph);
+        CampusGraph fastestGraph = CostProfile.FASTEST.apply(graph);
+        RouteTable fastest = RouteTable.compute(fastestGraph);
+        int b = graph.buildingCount();
+        for (int a = 0; a < b; a++) {
+            for (int c = 0; c < b; c++) {
+                int[] nodes = shortest.path(a, c);
+                double seconds = 0.0;
+                for (int i = 0; i + 1 < nodes.length; i++) {
+                    seconds += cheapest(fastestGraph, nodes[i], nodes[i + 1]);
+                }
+                assertTrue(fastest.distance(a, c) <= seconds + 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void profileTables_cachesAndUpdatesPerProfile() throws IOException {
+        CampusGraph graph = loadAttributedGraph();
+        ProfileTables tables = new ProfileTables(true);
+        assertNull(tables.cached(CostProfile.STEP_FREE, graph));
+
+        Metrics.reset();
+        Metrics.setEnabled(true);
+        ProfileTables.Entry stepFree;
+        try {
+            stepFree = tables.get(CostProfile.STEP_FREE, graph);
+            assertSame(stepFree, tables.get(CostProfile.STEP_FREE, graph));
+            assertEquals(1, Metrics.PROFILE.histogram().count());
+        } finally {
+            Metrics.setEnabled(false);
+            Metrics.reset();
+        }
+        assertSame(stepFree, tables.cached(CostProfile.STEP_FREE, graph));
+        assertSame(graph, stepFree.base());
+        assertMatches(RouteTable.compute(CostProfile.STEP_FREE.apply(graph)), stepFree.table());
+        assertEquals(CostProfile.FASTEST, tables.get(CostProfile.FASTEST, graph).profile());
+        assertSame(stepFree, tables.cached(CostProfile.STEP_FREE, graph));
+
+        // A closure on the loaded graph is carried into the profile graph, updating only the affected rows.
+        RouteTable table = stepFree.table();
+        int farthest = 0;
+        for (int c = 0; c < graph.buildingCount(); c++) {
+            double distance = table.distance(0, c);
+            if (distance != Double.POSITIVE_INFINITY && distance > table.distance(0, farthest)) {
+                farthest = c;
+            }
+        }
+        int e = table.tree(0)[graph.buildingNode(farthest)];
+        int u = RouteTable.edgeSources(graph)[e];
+        WeightOverlay overlay = new WeightOverlay(graph);
+        overlay.disable(graph.coordinate(u), graph.coordinate(graph.target(e)));
+        CampusGraph closed = overlay.commit().graph();
+        assertNull(tables.cached(CostProfile.STEP_FREE, closed));
+        ProfileTables.Entry updated = tables.get(CostProfile.STEP_FREE, closed);
+        assertEquals(WeightOverlay.CLOSED, updated.graph().weight(e), 0.0);
+        assertMatches(RouteTable.compute(CostProfile.STEP_FREE.apply(closed)), updated.table());
+
+        ProfileTables untabled = new ProfileTables(false);
+        assertNull(untabled.get(CostProfile.FASTEST, graph).table());
+        assertNotNull(untabled.get(CostProfile.FASTEST, graph).router());
+    }
+
+    /**
+     * Helper.
+     * @return the cost of the cheapest edge from u to v. */
+    private static double cheapest(CampusGraph graph, int u, int v) {
+        double cost = Double.POSITIVE_INFINITY;
+        for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+            if (graph.target(e) == v) {
+                cost = Math.min(cost, graph.weight(e));
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Helper.
+     * Checks that two tables over graphs with the same buildings have the same distances. */
+    private static void assertMatches(RouteTable expected, RouteTable actual) {
+        int b = expected.graph().buildingCount();
+        for (int a = 0; a < b; a++) {
+            for (int c = 0; c < b; c++) {
+                assertEquals(expected.distance(a, c), actual.distance(a, c), 1e-9);
+            }
+        }
+    }
+}
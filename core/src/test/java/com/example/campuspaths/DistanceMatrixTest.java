@@ -0,0 +1,142 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import hw5.Edge;
+import hw8.CampusBuilding;
+import hw8.Coordinate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks DistanceMatrix against RouteTable and against one search per pair on the bundled data.
+ * DistanceMatrixBenchmark in the benchmarks module compares their speed.
+ */
+public class DistanceMatrixTest {
+
+    @Test
+    public void compute_matchesRouteTableForAllBuildingPairs() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        List<CampusBuilding> buildings = graph.toBuildings();
+        DistanceMatrix matrix = DistanceMatrix.compute(graph, buildings, buildings, true);
+        RouteTable table = RouteTable.compute(graph);
+        assertEquals(buildings.size(), matrix.sourceCount());
+        assertEquals(buildings.size(), matrix.destinationCount());
+        double[][] rows = matrix.toArray();
+        double[] flat = matrix.toFlatArray();
+        for (int a = 0; a < buildings.size(); a++) {
+            for (int b = 0; b < buildings.size(); b++) {
+                assertEquals(table.distance(a, b), matrix.distance(a, b), 0.0);
+                assertEquals(matrix.distance(a, b), rows[a][b], 0.0);
+                assertEquals(matrix.distance(a, b), flat[a * buildings.size() + b], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void edges_areContiguousAndSumToDistance() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        List<CampusBuilding> buildings = graph.toBuildings();
+        List<CampusBuilding> sources = buildings.subList(0, 10);
+        List<CampusBuilding> destinations = buildings.subList(buildings.size() - 10, buildings.size());
+        DistanceMatrix matrix = DistanceMatrix.compute(graph, sources, destinations, true);
+        for (int i = 0; i < sources.size(); i++) {
+            for (int j = 0; j < destinations.size(); j++) {
+                ArrayList<Edge<Double, Coordinate>> path = matrix.edges(i, j);
+                assertNotNull(path);
+                if (path.isEmpty()) {
+                    assertEquals(0.0, matrix.distance(i, j), 0.0);
+                    continue;
+                }
+                assertEquals(sources.get(i).getLocation(), path.get(0).getSrc().getName());
+                assertEquals(destinations.get(j).getLocation(), path.get(path.size() - 1).getDst().getName());
+                for (int k = 1; k < path.size(); k++) {
+                    assertEquals(path.get(k - 1).getDst().getName(), path.get(k).getSrc().getName());
+                }
+                int[] nodes = matrix.path(i, j);
+                double length = 0.0;
+                for (int k = 1; k < nodes.length; k++) {
+                    double shortest = Double.POSITIVE_INFINITY;
+                    for (int e = graph.firstEdge(nodes[k - 1]); e < graph.endEdge(nodes[k - 1]); e++) {
+                        if (graph.target(e) == nodes[k]) {
+                            shortest = Math.min(shortest, graph.weight(e));
+                        }
+                    }
+                    length += shortest;
+                }
+                assertEquals(matrix.distance(i, j), length, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void path_withoutPathsThrows() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        List<CampusBuilding> buildings = graph.toBuildings();
+        DistanceMatrix matrix = DistanceMatrix.compute(graph, buildings, buildings, false);
+        assertFalse(matrix.hasPaths());
+        try {
+            matrix.path(0, 1);
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void compute_unknownBuildingThrows() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        CampusBuilding unknown = new CampusBuilding();
+        unknown.setShortName("NOPE");
+        unknown.setLongName("Nowhere");
+        unknown.setLocation(new Coordinate(-1.0, -1.0));
+        try {
+            DistanceMatrix.compute(graph, graph.toBuildings(), Arrays.asList(unknown), false);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void stream_deliversEveryRow() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        final List<CampusBuilding> buildings = graph.toBuildings();
+        final DistanceMatrix matrix = DistanceMatrix.compute(graph, buildings, buildings, false);
+        final double[][] streamed = new double[buildings.size()][];
+        DistanceMatrix.stream(graph, buildings, buildings, ForkJoinPool.commonPool(),
+                new DistanceMatrix.RowConsumer() {
+                    @Override
+                    public void onRow(int source, double[] distances) {
+                        synchronized (streamed) {
+                            assertNull(streamed[source]);
+                            streamed[source] = distances.clone();
+                        }
+                    }
+                });
+        double[][] rows = matrix.toArray();
+        for (int a = 0; a < rows.length; a++) {
+            assertArrayEquals(rows[a], streamed[a], 0.0);
+        }
+    }
+
+    @Test
+    public void compute_matchesOneSearchPerPair() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        List<CampusBuilding> buildings = graph.toBuildings();
+        CampusSnapshot snapshot = new CampusSnapshot(graph);
+        DistanceMatrix matrix = DistanceMatrix.compute(graph, buildings, buildings, false);
+        for (int a = 0; a < buildings.size(); a++) {
+            for (int b = 0; b < buildings.size(); b++) {
+                CampusSnapshot.Route route = snapshot.findRoute(graph.buildingNode(a), graph.buildingNode(b));
+                assertEquals(matrix.distance(a, b), route.distance(), 1e-9);
+            }
+        }
+    }
+}
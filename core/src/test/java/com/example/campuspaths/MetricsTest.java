@@ -0,0 +1,96 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests Histogram accuracy and Metrics gating and export. MetricsBenchmark in the benchmarks module
+ * measures what recording costs when metrics are disabled and enabled.
+ */
+public class MetricsTest {
+    @Test
+    public void histogram_bucketsCoverEveryValueWithinResolution() {
+        long[] values = {0, 1, 63, 64, 65, 1000, 123456789L, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            int i = Histogram.bucketIndex(value);
+            long low = Histogram.lowestEquivalent(i);
+            assertTrue(low <= value);
+            assertTrue(value - low < Histogram.bucketWidth(i));
+            assertTrue(Histogram.bucketWidth(i) <= Math.max(1, value / 32));
+        }
+        for (long value = 0; value < 5000; value++) {
+            int i = Histogram.bucketIndex(value);
+            assertEquals(i, Histogram.bucketIndex(Histogram.lowestEquivalent(i)));
+        }
+    }
+
+    @Test
+    public void histogram_percentilesMatchSortedValues() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.valueAtPercentile(50));
+        Random random = new Random(1);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal, like latencies: mostly around 1 ms with a long tail.
+            values[i] = (long) (1e6 * Math.exp(random.nextGaussian()));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, histogram.count());
+        assertEquals(values[0], histogram.min());
+        assertEquals(values[values.length - 1], histogram.max());
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long reported = histogram.valueAtPercentile(percentile);
+            assertTrue(reported >= exact);
+            assertTrue(reported <= exact + exact / 32 + 1);
+        }
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.max());
+    }
+
+    @Test
+    public void recorder_recordsOnlyWhileEnabled() throws IOException {
+        Metrics.reset();
+        Metrics.PARSE_PATHS.record(5);
+        Metrics.ROUTE_CACHE_HITS.increment();
+        assertEquals(0, Metrics.PARSE_PATHS.histogram().count());
+        assertEquals(0, Metrics.ROUTE_CACHE_HITS.get());
+        // A timer started while disabled is not recorded even if metrics are enabled before it stops.
+        long start = Metrics.start();
+        Metrics.setEnabled(true);
+        try {
+            Metrics.PARSE_PATHS.recordSince(start);
+            assertEquals(0, Metrics.PARSE_PATHS.histogram().count());
+
+            Metrics.PARSE_PATHS.recordSince(Metrics.start());
+            Metrics.ROUTE_SETTLED.record(54);
+            Metrics.ROUTE_CACHE_HITS.increment();
+            assertEquals(1, Metrics.PARSE_PATHS.histogram().count());
+            assertEquals(54, Metrics.ROUTE_SETTLED.histogram().max());
+            assertEquals(1, Metrics.ROUTE_CACHE_HITS.get());
+
+            StringWriter out = new StringWriter();
+            Metrics.write(out);
+            String[] lines = out.toString().split("\n");
+            assertEquals(1 + Metrics.recorders().size() + Metrics.counters().size(), lines.length);
+            assertTrue(out.toString().contains("route.settled\tcount\t1\t54.0\t54\t54\t54\t54\t54\t54\n"));
+            assertTrue(out.toString().contains("route.cache.hits\tcount\t1\n"));
+            for (String line : Metrics.summary()) {
+                assertTrue(line.startsWith("parse.paths") || line.startsWith("route.settled")
+                        || line.startsWith("route.cache.hits"));
+            }
+            assertEquals(3, Metrics.summary().size());
+        } finally {
+            Metrics.setEnabled(false);
+            Metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import hw5.Edge;
+import hw5.Node;
+import hw8.Coordinate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the LRU policy, point budget and counters of RouteCache.
+ */
+public class RouteCacheTest {
+
+    private static ArrayList<Edge<Double, Coordinate>> path(int edges) {
+        ArrayList<Edge<Double, Coordinate>> path = new ArrayList<>();
+        for (int i = 0; i < edges; i++) {
+            path.add(new Edge<>(new Node<>(new Coordinate(i, 0)), new Node<>(new Coordinate(i + 1, 0)), 1.0));
+        }
+        return path;
+    }
+
+    @Test
+    public void put_buildsScaledPolyline() {
+        RouteCache cache = new RouteCache(100, 0.5f);
+        RouteCache.Route route = cache.put(CostProfile.SHORTEST, "A", "B", path(2));
+        assertArrayEquals(new float[]{0f, 0f, 0.5f, 0f, 0.5f, 0f, 1f, 0f}, route.polyline.toSegments(), 0f);
+        assertEquals(3, route.points());
+        assertSame(route, cache.get(CostProfile.SHORTEST, "A", "B"));
+        assertNull(cache.get(CostProfile.SHORTEST, "B", "A"));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void get_keepsEachProfileApart() {
+        RouteCache cache = new RouteCache(100, 1f);
+        RouteCache.Route shortest = cache.put(CostProfile.SHORTEST, "A", "B", path(2));
+        assertNull(cache.get(CostProfile.FASTEST, "A", "B"));
+        RouteCache.Route fastest = cache.put(CostProfile.FASTEST, "A", "B", path(3));
+        assertSame(shortest, cache.get(CostProfile.SHORTEST, "A", "B"));
+        assertSame(fastest, cache.get(CostProfile.FASTEST, "A", "B"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void get_countsHitsAndMissesInMetrics() {
+        RouteCache cache = new RouteCache(100, 1f);
+        cache.put(CostProfile.SHORTEST, "A", "B", path(2));
+        Metrics.reset();
+        Metrics.setEnabled(true);
+        try {
+            cache.get(CostProfile.SHORTEST, "A", "B");
+            cache.get(CostProfile.SHORTEST, "B", "A");
+            cache.get(CostProfile.SHORTEST, "B", "A");
+            assertEquals(1, Metrics.ROUTE_CACHE_HITS.get());
+            assertEquals(2, Metrics.ROUTE_CACHE_MISSES.get());
+            assertEquals(1, cache.hits());
+            assertEquals(2, cache.misses());
+        } finally {
+            Metrics.setEnabled(false);
+            Metrics.reset();
+        }
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsedByPoints() {
+        // Each 2-edge route holds 3 points.
+        RouteCache cache = new RouteCache(8, 1f);
+        cache.put(CostProfile.SHORTEST, "A", "B", path(2));
+        cache.put(CostProfile.SHORTEST, "B", "C", path(2));
+        cache.get(CostProfile.SHORTEST, "A", "B");
+        cache.put(CostProfile.SHORTEST, "C", "D", path(2));
+
+        assertNotNull(cache.get(CostProfile.SHORTEST, "A", "B"));
+        assertNull(cache.get(CostProfile.SHORTEST, "B", "C"));
+        assertNotNull(cache.get(CostProfile.SHORTEST, "C", "D"));
+        assertEquals(1, cache.evictions());
+        assertEquals(6, cache.points());
+
+        // A route over budget is returned but not cached.
+        cache.put(CostProfile.SHORTEST, "D", "E", path(8));
+        assertNull(cache.get(CostProfile.SHORTEST, "D", "E"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void put_overBudgetRemovesOlderRouteForSameKey() {
+        RouteCache cache = new RouteCache(8, 1f);
+        cache.put(CostProfile.SHORTEST, "A", "B", path(2));
+        cache.put(CostProfile.SHORTEST, "B", "C", path(2));
+
+        cache.put(CostProfile.SHORTEST, "A", "B", path(8));
+        assertNull(cache.get(CostProfile.SHORTEST, "A", "B"));
+        assertNotNull(cache.get(CostProfile.SHORTEST, "B", "C"));
+        assertEquals(1, cache.size());
+        assertEquals(3, cache.points());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import hw5.Edge;
+import hw5.Node;
+import hw8.Coordinate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests RoutePolyline construction, Douglas-Peucker simplification and the per-scale cache, and reports
+ * the vertex counts drawn at each zoom for the longest route on campus.
+ */
+public class RoutePolylineTest {
+
+    private static ArrayList<Edge<Double, Coordinate>> path(double[] xy) {
+        ArrayList<Edge<Double, Coordinate>> path = new ArrayList<>();
+        for (int i = 2; i + 1 < xy.length; i += 2) {
+            path.add(new Edge<>(new Node<>(new Coordinate(xy[i - 2], xy[i - 1])),
+                    new Node<>(new Coordinate(xy[i], xy[i + 1])), 1.0));
+        }
+        return path;
+    }
+
+    /**
+     * Helper.
+     * @return the largest distance from a vertex of original to the simplified polyline, per part. */
+    private static double maxDeviation(RoutePolyline original, RoutePolyline simplified) {
+        double max = 0.0;
+        for (int part = 0; part < original.partCount(); part++) {
+            for (int v = original.partStart(part); v < original.partEnd(part); v++) {
+                double nearest = Double.POSITIVE_INFINITY;
+                for (int s = simplified.partStart(part) + 1; s < simplified.partEnd(part); s++) {
+                    nearest = Math.min(nearest, segmentDistance(original.x(v), original.y(v),
+                            simplified.x(s - 1), simplified.y(s - 1), simplified.x(s), simplified.y(s)));
+                }
+                max = Math.max(max, nearest);
+            }
+        }
+        return max;
+    }
+
+    private static double segmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double length2 = dx * dx + dy * dy;
+        double t = length2 > 0 ? Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / length2)) : 0;
+        return Math.hypot(px - ax - t * dx, py - ay - t * dy);
+    }
+
+    @Test
+    public void polyline_sharesInteriorVertices() {
+        RoutePolyline polyline = RouteGeometry.polyline(path(new double[]{0, 0, 2, 0, 2, 2, 4, 2}), 0.5f);
+        assertEquals(4, polyline.vertexCount());
+        assertEquals(1, polyline.partCount());
+        assertEquals(2f, polyline.x(3), 0f);
+        assertEquals(1f, polyline.y(3), 0f);
+        assertArrayEquals(RouteGeometry.segments(path(new double[]{0, 0, 2, 0, 2, 2, 4, 2}), 0.5f),
+                polyline.toSegments(), 0f);
+        assertEquals(0, RouteGeometry.polyline(new ArrayList<Edge<Double, Coordinate>>(), 1f).vertexCount());
+    }
+
+    @Test
+    public void polyline_splitsPartsAtBreaks() {
+        ArrayList<Edge<Double, Coordinate>> path = path(new double[]{0, 0, 1, 0, 2, 0});
+        path.addAll(path(new double[]{5, 5, 6, 5}));
+        RoutePolyline polyline = RouteGeometry.polyline(path, 1f);
+        assertEquals(5, polyline.vertexCount());
+        assertEquals(2, polyline.partCount());
+        assertEquals(3, polyline.partStart(1));
+        float[] segments = RouteGeometry.segments(path, 1f);
+        assertArrayEquals(segments, polyline.toSegments(), 0f);
+        assertArrayEquals(segments, RoutePolyline.fromSegments(segments).toSegments(), 0f);
+    }
+
+    @Test
+    public void simplify_dropsCollinearVerticesAndKeepsEnds() {
+        RoutePolyline polyline = RouteGeometry.polyline(path(new double[]{0, 0, 1, 0, 2, 0, 3, 0, 3, 1, 3, 2}), 1f);
+        RoutePolyline simplified = polyline.simplify(0.01f);
+        assertEquals(3, simplified.vertexCount());
+        assertEquals(0f, simplified.x(0), 0f);
+        assertEquals(3f, simplified.x(1), 0f);
+        assertEquals(0f, simplified.y(1), 0f);
+        assertEquals(2f, simplified.y(2), 0f);
+        assertSame(simplified, simplified.simplify(0.01f));
+    }
+
+    @Test
+    public void forScale_staysWithinToleranceAndIsCached() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        RouteTable table = RouteTable.compute(graph);
+        int longestSource = 0;
+        int longestDestination = 0;
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                if (table.distance(a, b) > table.distance(longestSource, longestDestination)) {
+                    longestSource = a;
+                    longestDestination = b;
+                }
+            }
+        }
+        RoutePolyline polyline = RouteGeometry.polyline(table.edges(longestSource, longestDestination), 0.25f);
+
+        assertSame(polyline, polyline.forScale(RoutePolyline.FULL_FIDELITY_SCALE));
+        assertSame(polyline, polyline.forScale(4f));
+        for (float scale = 0.5f; scale < RoutePolyline.FULL_FIDELITY_SCALE; scale += 0.25f) {
+            RoutePolyline visible = polyline.forScale(scale);
+            assertSame(visible, polyline.forScale(scale));
+            assertTrue(visible.vertexCount() <= polyline.vertexCount());
+            assertTrue(maxDeviation(polyline, visible) * scale <= RoutePolyline.TOLERANCE_PX + 1e-4);
+        }
+        // Shared vertices store each point once, where segments repeat every interior one.
+        assertTrue(2 * polyline.vertexCount()
+                < RouteGeometry.segments(table.edges(longestSource, longestDestination), 0.25f).length);
+    }
+}
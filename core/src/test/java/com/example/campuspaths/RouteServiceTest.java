@@ -0,0 +1,103 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that RouteService only ever delivers the latest request.
+ */
+public class RouteServiceTest {
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void request_supersedesInFlightSearch() throws InterruptedException {
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirst = new CountDownLatch(1);
+        final Coordinate slow = new Coordinate(0, 0);
+        RouteService service = new RouteService(new RouteService.Router() {
+            @Override
+            public ArrayList<Edge<Double, Coordinate>> getShortestPath(Coordinate src, Coordinate dst) {
+                if (src == slow) {
+                    firstStarted.countDown();
+                    // Not interruptible, like hw8.model.Campus.
+                    while (true) {
+                        try {
+                            releaseFirst.await();
+                            break;
+                        } catch (InterruptedException e) {
+                            // Keep going.
+                        }
+                    }
+                }
+                return new ArrayList<>();
+            }
+        }, DIRECT);
+
+        final List<Coordinate> delivered = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        service.request(slow, slow, new RouteService.Callback() {
+            @Override
+            public void onRouteFound(ArrayList<Edge<Double, Coordinate>> path, long latencyNanos) {
+                delivered.add(slow);
+            }
+        });
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+
+        final Coordinate fast = new Coordinate(1, 1);
+        service.request(fast, fast, new RouteService.Callback() {
+            @Override
+            public void onRouteFound(ArrayList<Edge<Double, Coordinate>> path, long latencyNanos) {
+                assertTrue(latencyNanos >= 0);
+                delivered.add(fast);
+                done.countDown();
+            }
+        });
+        releaseFirst.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        service.shutdown();
+        assertEquals(1, delivered.size());
+        assertSame(fast, delivered.get(0));
+    }
+
+    @Test
+    public void request_deliversNullWhenRouterThrows() throws InterruptedException {
+        RouteService service = new RouteService(new RouteService.Router() {
+            @Override
+            public ArrayList<Edge<Double, Coordinate>> getShortestPath(Coordinate src, Coordinate dst) {
+                throw new IllegalStateException("broken router");
+            }
+        }, DIRECT);
+
+        final List<ArrayList<Edge<Double, Coordinate>>> delivered = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        Coordinate c = new Coordinate(0, 0);
+        service.request(c, c, new RouteService.Callback() {
+            @Override
+            public void onRouteFound(ArrayList<Edge<Double, Coordinate>> path, long latencyNanos) {
+                delivered.add(path);
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        service.shutdown();
+        assertEquals(1, delivered.size());
+        assertNull(delivered.get(0));
+    }
+}
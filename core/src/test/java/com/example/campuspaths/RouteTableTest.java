@@ -0,0 +1,58 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the precomputed RouteTable against AStarRouter, and its serialization, on the bundled data.
+ */
+public class RouteTableTest {
+
+    @Test
+    public void compute_matchesAStarForAllBuildingPairs() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        RouteTable table = RouteTable.compute(graph);
+        AStarRouter router = new AStarRouter(graph);
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                router.findPath(graph.buildingNode(a), graph.buildingNode(b));
+                assertEquals(router.lastDistance(), table.distance(a, b), 1e-9);
+
+                int[] nodes = table.path(a, b);
+                assertEquals(graph.buildingNode(a), nodes[0]);
+                assertEquals(graph.buildingNode(b), nodes[nodes.length - 1]);
+                assertEquals(nodes.length - 1, table.edges(a, b).size());
+            }
+        }
+    }
+
+    @Test
+    public void writeThenRead_roundTrips() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        RouteTable table = RouteTable.compute(graph);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.write(out);
+        byte[] bytes = out.toByteArray();
+
+        RouteTable read = RouteTable.read(new ByteArrayInputStream(bytes), graph);
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                assertEquals(table.distance(a, b), read.distance(a, b), 0.0);
+                assertArrayEquals(table.path(a, b), read.path(a, b));
+            }
+        }
+
+        bytes[bytes.length / 2] ^= 0x01;
+        try {
+            RouteTable.read(new ByteArrayInputStream(bytes), graph);
+            fail("expected IOException");
+        } catch (IOException expected) {
+            // Expected.
+        }
+    }
+}
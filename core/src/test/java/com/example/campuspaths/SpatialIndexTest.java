@@ -0,0 +1,141 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks SpatialIndex against a linear scan over the bundled path nodes and buildings.
+ * SpatialIndexBenchmark in the benchmarks module compares the time per query of the two.
+ */
+public class SpatialIndexTest {
+    private static final int QUERIES = 2000;
+
+    @Test
+    public void nearest_matchesLinearScan() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        SpatialIndex index = SpatialIndex.forNodes(graph);
+        double[][] queries = queries(graph, new Random(331));
+        for (double[] q : queries) {
+            assertEquals(linearNearest(graph.xs, graph.ys, q[0], q[1]), index.nearest(q[0], q[1]));
+        }
+    }
+
+    @Test
+    public void nearest_findsEveryNodeAndBuildingAtItsOwnLocation() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        SpatialIndex nodes = SpatialIndex.forNodes(graph);
+        for (int i = 0; i < graph.nodeCount(); i++) {
+            assertEquals(i, nodes.nearest(graph.x(i), graph.y(i)));
+        }
+        SpatialIndex buildings = SpatialIndex.forBuildings(graph);
+        for (int b = 0; b < graph.buildingCount(); b++) {
+            int node = graph.buildingNode(b);
+            assertEquals(b, buildings.nearest(graph.x(node), graph.y(node)));
+        }
+    }
+
+    @Test
+    public void nearest_respectsMaxDistance() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        SpatialIndex buildings = SpatialIndex.forBuildings(graph);
+        double[] xs = new double[graph.buildingCount()];
+        double[] ys = new double[graph.buildingCount()];
+        for (int b = 0; b < xs.length; b++) {
+            xs[b] = graph.x(graph.buildingNode(b));
+            ys[b] = graph.y(graph.buildingNode(b));
+        }
+        Random random = new Random(334);
+        for (double[] q : queries(graph, random)) {
+            double maxDistance = random.nextDouble() * 200;
+            int expected = linearNearest(xs, ys, q[0], q[1]);
+            if (Math.hypot(xs[expected] - q[0], ys[expected] - q[1]) > maxDistance) {
+                expected = -1;
+            }
+            assertEquals(expected, buildings.nearest(q[0], q[1], maxDistance));
+        }
+        assertEquals(-1, new SpatialIndex(new double[0], new double[0]).nearest(0, 0));
+    }
+
+    @Test
+    public void nearestK_matchesLinearScan() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        SpatialIndex index = SpatialIndex.forNodes(graph);
+        double[][] queries = queries(graph, new Random(332));
+        for (int k : new int[]{1, 5, 32}) {
+            for (double[] q : queries) {
+                int[] actual = index.nearestK(q[0], q[1], k);
+                assertArrayEquals(linearNearestK(graph.xs, graph.ys, q[0], q[1], k), distances(graph, q, actual), 0.0);
+            }
+        }
+        SpatialIndex buildings = SpatialIndex.forBuildings(graph);
+        assertEquals(graph.buildingCount(), buildings.nearestK(0, 0, 1000).length);
+    }
+
+    /**
+     * Returns QUERIES random points over the graph's bounding box, padded by a tenth on each side.
+     */
+    private static double[][] queries(CampusGraph graph, Random random) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < graph.nodeCount(); i++) {
+            minX = Math.min(minX, graph.x(i));
+            minY = Math.min(minY, graph.y(i));
+            maxX = Math.max(maxX, graph.x(i));
+            maxY = Math.max(maxY, graph.y(i));
+        }
+        double padX = (maxX - minX) / 10;
+        double padY = (maxY - minY) / 10;
+        double[][] queries = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = new double[]{
+                    minX - padX + random.nextDouble() * (maxX - minX + 2 * padX),
+                    minY - padY + random.nextDouble() * (maxY - minY + 2 * padY)};
+        }
+        return queries;
+    }
+
+    private static int linearNearest(double[] xs, double[] ys, double x, double y) {
+        int best = -1;
+        double bestSq = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < xs.length; i++) {
+            double dx = xs[i] - x;
+            double dy = ys[i] - y;
+            double dSq = dx * dx + dy * dy;
+            if (dSq < bestSq) {
+                bestSq = dSq;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the k smallest squared distances from (x, y), ascending. Compared by distance since ties
+     * may be broken either way.
+     */
+    private static double[] linearNearestK(double[] xs, double[] ys, double x, double y, int k) {
+        double[] all = new double[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            double dx = xs[i] - x;
+            double dy = ys[i] - y;
+            all[i] = dx * dx + dy * dy;
+        }
+        Arrays.sort(all);
+        return Arrays.copyOf(all, Math.min(k, all.length));
+    }
+
+    private static double[] distances(CampusGraph graph, double[] q, int[] ids) {
+        double[] distances = new double[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            double dx = graph.x(ids[i]) - q[0];
+            double dy = graph.y(ids[i]) - q[1];
+            distances[i] = dx * dx + dy * dy;
+        }
+        return distances;
+    }
+}
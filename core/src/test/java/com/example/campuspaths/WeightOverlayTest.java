@@ -0,0 +1,295 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Random;
+
+import hw5.Edge;
+import hw8.Coordinate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that closures and length changes made through WeightOverlay give the same routes as rebuilding
+ * from scratch, and that RouteTable, Landmarks and RouteCache only redo what a change affects.
+ */
+public class WeightOverlayTest {
+
+    /**
+     * Helper.
+     * @return the index of the first edge on the route between the two buildings farthest apart. */
+    private static int edgeOnLongestRoute(CampusGraph graph, RouteTable table) {
+        int longestSource = 0;
+        int longestDestination = 0;
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            for (int b = 0; b < graph.buildingCount(); b++) {
+                if (table.distance(a, b) > table.distance(longestSource, longestDestination)) {
+                    longestSource = a;
+                    longestDestination = b;
+                }
+            }
+        }
+        int[] nodes = table.path(longestSource, longestDestination);
+        int middle = nodes.length / 2;
+        return table.tree(longestSource)[nodes[middle]];
+    }
+
+    /**
+     * Helper.
+     * @return the node the edge leaves. */
+    private static int source(CampusGraph graph, int edge) {
+        return RouteTable.edgeSources(graph)[edge];
+    }
+
+    /**
+     * Helper.
+     * Checks table against a table computed from scratch on its graph. */
+    private static void assertMatchesCompute(RouteTable table) {
+        RouteTable expected = RouteTable.compute(table.graph());
+        int b = table.graph().buildingCount();
+        for (int a = 0; a < b; a++) {
+            for (int c = 0; c < b; c++) {
+                assertEquals(expected.distance(a, c), table.distance(a, c), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void commit_sharesEverythingButWeights() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        WeightOverlay overlay = new WeightOverlay(graph);
+        int e = graph.firstEdge(0);
+        Coordinate origin = graph.coordinate(0);
+        Coordinate destination = graph.coordinate(graph.target(e));
+
+        assertEquals(0, overlay.commit().size());
+        assertSame(graph, overlay.graph());
+
+        assertEquals(1, overlay.disable(origin, destination));
+        WeightOverlay.Change change = overlay.commit();
+        assertEquals(1, change.size());
+        assertEquals(e, change.edge(0));
+        assertEquals(graph.weight(e), change.oldWeight(0), 0.0);
+        assertEquals(WeightOverlay.CLOSED, change.newWeight(0), 0.0);
+        assertTrue(change.increasesOnly());
+        CampusGraph closed = change.graph();
+        assertSame(closed, overlay.graph());
+        assertSame(graph.offsets, closed.offsets);
+        assertSame(graph.xs, closed.xs);
+        assertEquals(graph.nodeAt(destination), closed.nodeAt(destination));
+        assertEquals(WeightOverlay.CLOSED, closed.weight(e), 0.0);
+        assertEquals(graph.weight(e), graph.weight(e), 0.0);
+
+        overlay.reweight(origin, destination, 1.0);
+        change = overlay.commit();
+        assertFalse(change.increasesOnly());
+        assertEquals(1.0, overlay.graph().weight(e), 0.0);
+
+        overlay.enable(origin, destination);
+        assertEquals(graph.weight(e), overlay.commit().graph().weight(e), 0.0);
+    }
+
+    @Test
+    public void disable_unknownEdgeThrows() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        WeightOverlay overlay = new WeightOverlay(graph);
+        try {
+            overlay.disable(new Coordinate(-1.0, -1.0), graph.coordinate(0));
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected.
+        }
+        try {
+            overlay.reweight(graph.coordinate(0), graph.coordinate(graph.target(graph.firstEdge(0))), -1.0);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void load_appliesDeltaRowsAtomically() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        int closedEdge = graph.firstEdge(0);
+        int u = 1;
+        int longerEdge = graph.firstEdge(u);
+        String delta = "origin\tdestination\tdistance\n"
+                + graph.x(0) + "," + graph.y(0) + "\t"
+                + graph.x(graph.target(closedEdge)) + "," + graph.y(graph.target(closedEdge)) + "\t-1\n"
+                + graph.x(u) + "," + graph.y(u) + "\t"
+                + graph.x(graph.target(longerEdge)) + "," + graph.y(graph.target(longerEdge)) + "\t1234.5\n";
+        WeightOverlay overlay = new WeightOverlay(graph);
+        assertEquals(2, overlay.load(new ByteArrayInputStream(delta.getBytes(StandardCharsets.UTF_8))));
+        CampusGraph updated = overlay.commit().graph();
+        assertEquals(WeightOverlay.CLOSED, updated.weight(closedEdge), 0.0);
+        assertEquals(1234.5, updated.weight(longerEdge), 0.0);
+
+        String bad = delta + "-1,-1\t" + graph.x(0) + "," + graph.y(0) + "\t5\n";
+        overlay.reset();
+        try {
+            overlay.load(new ByteArrayInputStream(bad.getBytes(StandardCharsets.UTF_8)));
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected.
+        }
+        // The bad delta staged nothing, so the commit only undoes the first delta.
+        WeightOverlay.Change reopened = overlay.commit();
+        assertEquals(graph.weight(closedEdge), reopened.graph().weight(closedEdge), 0.0);
+        assertEquals(graph.weight(longerEdge), reopened.graph().weight(longerEdge), 0.0);
+    }
+
+    @Test
+    public void update_matchesRecomputingFromScratch() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        RouteTable table = RouteTable.compute(graph);
+        Landmarks landmarks = Landmarks.compute(graph, Landmarks.DEFAULT_COUNT);
+        WeightOverlay overlay = new WeightOverlay(graph);
+        Random random = new Random(21);
+        for (int round = 0; round < 6; round++) {
+            CampusGraph current = overlay.graph();
+            for (int k = 0; k < 3; k++) {
+                int e = round % 2 == 0 ? edgeOnLongestRoute(current, table) : random.nextInt(current.edgeCount());
+                Coordinate origin = current.coordinate(source(current, e));
+                Coordinate destination = current.coordinate(current.target(e));
+                switch ((round + k) % 3) {
+                    case 0:
+                        overlay.disable(origin, destination);
+                        break;
+                    case 1:
+                        overlay.reweight(origin, destination, graph.weight(e) * 3);
+                        break;
+                    default:
+                        overlay.reweight(origin, destination, graph.weight(e) / 4);
+                        break;
+                }
+            }
+            WeightOverlay.Change change = overlay.commit();
+            table = table.update(change);
+            landmarks = landmarks.update(change);
+            assertSame(change.graph(), table.graph());
+            assertSame(change.graph(), landmarks.graph());
+            assertMatchesCompute(table);
+
+            CampusGraph updated = change.graph();
+            ContractionHierarchyRouter hierarchy = new ContractionHierarchyRouter(ContractionHierarchy.build(updated));
+            BidirectionalAltRouter alt = new BidirectionalAltRouter(updated, landmarks);
+            for (int a = 0; a < updated.buildingCount(); a += 5) {
+                for (int c = 0; c < updated.buildingCount(); c += 3) {
+                    int s = updated.buildingNode(a);
+                    int t = updated.buildingNode(c);
+                    double expected = table.distance(a, c);
+                    assertTrue(landmarks.lowerBound(s, t) <= expected + 1e-9);
+                    if (hierarchy.findPath(s, t) != null) {
+                        assertEquals(expected, hierarchy.lastDistance(), 1e-9);
+                    }
+                    else {
+                        assertEquals(Double.POSITIVE_INFINITY, expected, 0.0);
+                    }
+                    if (alt.findPath(s, t) != null) {
+                        assertEquals(expected, alt.lastDistance(), 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void update_recomputesOnlyAffectedTrees() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        RouteTable table = RouteTable.compute(graph);
+        int e = edgeOnLongestRoute(graph, table);
+        WeightOverlay overlay = new WeightOverlay(graph);
+        overlay.disable(graph.coordinate(source(graph, e)), graph.coordinate(graph.target(e)));
+
+        WeightOverlay.Change change = overlay.commit();
+        RouteTable updated = table.update(change);
+
+        int shared = 0;
+        for (int a = 0; a < graph.buildingCount(); a++) {
+            if (updated.tree(a) == table.tree(a)) {
+                shared++;
+                assertTrue(table.tree(a)[graph.target(e)] != e);
+            }
+            else {
+                assertEquals(e, table.tree(a)[graph.target(e)]);
+            }
+        }
+        assertTrue(shared > 0);
+        assertMatchesCompute(updated);
+    }
+
+    @Test
+    public void invalidate_dropsOnlyRoutesTheChangeAffects() throws IOException {
+        CampusGraph graph = CampusGraphFileTest.loadBundledGraph();
+        RouteTable table = RouteTable.compute(graph);
+        RouteCache cache = new RouteCache(1 << 20, 1.0f);
+        int b = graph.buildingCount();
+        for (int a = 0; a < b; a++) {
+            for (int c = 0; c < b; c++) {
+                cache.put(CostProfile.SHORTEST, graph.shortName(a), graph.shortName(c), table.edges(a, c));
+            }
+        }
+        // A route by another profile is dropped on any change, whatever edges it uses.
+        cache.put(CostProfile.FASTEST, graph.shortName(0), graph.shortName(0), table.edges(0, 0));
+        int e = edgeOnLongestRoute(graph, table);
+        WeightOverlay overlay = new WeightOverlay(graph);
+        Coordinate origin = graph.coordinate(source(graph, e));
+        Coordinate destination = graph.coordinate(graph.target(e));
+
+        // Closing the edge drops exactly the routes through it.
+        overlay.disable(origin, destination);
+        WeightOverlay.Change change = overlay.commit();
+        int through = 1;
+        for (int a = 0; a < b; a++) {
+            for (int c = 0; c < b; c++) {
+                if (uses(table.edges(a, c), origin, destination)) {
+                    through++;
+                }
+            }
+        }
+        assertEquals(through, cache.invalidate(change));
+        assertEquals(b * b + 1 - through, cache.size());
+
+        // Reopening it may only drop routes it makes shorter, and every route kept is still shortest.
+        table = table.update(change);
+        for (int a = 0; a < b; a++) {
+            for (int c = 0; c < b; c++) {
+                if (cache.get(CostProfile.SHORTEST, graph.shortName(a), graph.shortName(c)) == null) {
+                    cache.put(CostProfile.SHORTEST, graph.shortName(a), graph.shortName(c), table.edges(a, c));
+                }
+            }
+        }
+        overlay.enable(origin, destination);
+        change = overlay.commit();
+        int removed = cache.invalidate(change);
+        RouteTable reopened = table.update(change);
+        int shorter = 0;
+        for (int a = 0; a < b; a++) {
+            for (int c = 0; c < b; c++) {
+                boolean isShorter = reopened.distance(a, c) < table.distance(a, c) - 1e-9;
+                shorter += isShorter ? 1 : 0;
+                if (isShorter) {
+                    assertNull(cache.get(CostProfile.SHORTEST, graph.shortName(a), graph.shortName(c)));
+                }
+            }
+        }
+        assertTrue(removed >= shorter);
+        assertTrue(removed < b * b);
+    }
+
+    /**
+     * Helper.
+     * @return whether path traverses the edge from origin to destination. */
+    private static boolean uses(ArrayList<Edge<Double, Coordinate>> path, Coordinate origin, Coordinate destination) {
+        for (Edge<Double, Coordinate> edge : path) {
+            if (edge.getSrc().getName().equals(origin) && edge.getDst().getName().equals(destination)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
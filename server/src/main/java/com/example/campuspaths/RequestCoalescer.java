@@ -0,0 +1,80 @@
+package com.example.campuspaths;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Coalesces identical concurrent requests: while a request for a key is being computed, every other
+ * request for the same key waits for that computation and shares its result instead of starting its own.
+ *
+ * Nothing is kept once a computation finishes, so this is not a cache: a request arriving after the
+ * result was delivered computes it afresh. All methods are thread-safe.
+ *
+ * @param <K> type of the request keys, which must have value equality.
+ * @param <V> type of the results.
+ */
+public final class RequestCoalescer<K, V> {
+    private final ConcurrentHashMap<K, FutureTask<V>> inFlight = new ConcurrentHashMap<>();
+    private final Metrics.Counter coalesced;
+
+    // Abstraction Function:
+    //  inFlight.get(k) is the computation every request for k currently waits on, if any.
+    //
+    // Representation Invariant:
+    //  Every FutureTask in inFlight is being run by the request that added it.
+
+    /**
+     * Constructor.
+     * @param coalesced Metrics.Counter counting the requests that shared another's result, or null. */
+    public RequestCoalescer(Metrics.Counter coalesced) {
+        this.coalesced = coalesced;
+    }
+
+    /**
+     * Computes the result for key on the calling thread, or waits for the computation already running for it.
+     * @param key K identifying the request.
+     * @param computation Callable computing the result for key.
+     * @throws Exception what the computation threw, whichever request ran it.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     * @return the result of the computation for key. */
+    public V execute(K key, Callable<V> computation) throws Exception {
+        FutureTask<V> task = new FutureTask<>(computation);
+        FutureTask<V> running = inFlight.putIfAbsent(key, task);
+        if (running != null) {
+            if (coalesced != null) {
+                coalesced.increment();
+            }
+            return result(running);
+        }
+        try {
+            task.run();
+        } finally {
+            inFlight.remove(key, task);
+        }
+        return result(task);
+    }
+
+    /**
+     * Getter.
+     * @return the number of keys being computed right now. */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Helper.
+     * @return the result of task, rethrowing what it threw. */
+    private static <V> V result(FutureTask<V> task) throws Exception {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+}
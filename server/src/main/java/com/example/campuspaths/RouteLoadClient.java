@@ -0,0 +1,221 @@
+package com.example.campuspaths;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hw8.CampusBuilding;
+
+/**
+ * Load client for a RouteServer: a number of client threads each send requests back to back for random
+ * pairs of buildings, and the latencies seen by the clients are reported as percentiles.
+ *
+ * Requests are drawn from a fixed set of pairs, so fewer pairs means more identical requests in flight
+ * at once, and more of them coalesced by the server.
+ */
+public final class RouteLoadClient {
+    private final String base;
+    private final List<String> names;
+
+    // Abstraction Function:
+    //  A client sending /route requests to the server at base, between the buildings named in names.
+    //
+    // Representation Invariant:
+    //  base does not end in '/'; names.size() >= 1.
+
+    /**
+     * Results of a run. Immutable once run returns.
+     */
+    public static final class Result {
+        /** Latency of each request as seen by the client, in nanoseconds. */
+        public final Histogram latency = new Histogram();
+        final AtomicInteger ok = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        long wallNanos;
+
+        /**
+         * Getter.
+         * @return the number of requests answered with 200. */
+        public int ok() {
+            return ok.get();
+        }
+
+        /**
+         * Getter.
+         * @return the number of requests answered with any other status, or not answered. */
+        public int failed() {
+            return failed.get();
+        }
+
+        /**
+         * Getter.
+         * @return requests answered per second over the whole run. */
+        public double throughput() {
+            return wallNanos == 0 ? 0.0 : (ok() + failed()) * 1e9 / wallNanos;
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param base String URL of the server, e.g. "http://localhost:8080".
+     * @param names List of building short names to request routes between.
+     * @spec.requires base and names are not null, names is not empty. */
+    public RouteLoadClient(String base, List<String> names) {
+        this.base = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        this.names = new ArrayList<>(names);
+    }
+
+    /**
+     * Runs a load test.
+     * @param clients int number of client threads.
+     * @param requests int number of requests each client sends.
+     * @param pairs int number of distinct (src, dst) pairs requested.
+     * @throws InterruptedException if interrupted while waiting for the clients.
+     * @spec.requires clients, requests, pairs &gt; 0.
+     * @return the latencies and outcomes of all requests. */
+    public Result run(int clients, final int requests, int pairs) throws InterruptedException {
+        Random random = new Random(0);
+        final String[] paths = new String[pairs];
+        for (int i = 0; i < pairs; i++) {
+            paths[i] = "/route?src=" + encode(names.get(random.nextInt(names.size())))
+                    + "&dst=" + encode(names.get(random.nextInt(names.size())));
+        }
+
+        final Result result = new Result();
+        final CountDownLatch go = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++) {
+            final Random choices = new Random(c + 1);
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        go.await();
+                        for (int i = 0; i < requests; i++) {
+                            long start = System.nanoTime();
+                            int status = status(paths[choices.nextInt(paths.length)]);
+                            result.latency.record(System.nanoTime() - start);
+                            (status == 200 ? result.ok : result.failed).incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "RouteLoadClient-" + c).start();
+        }
+        long start = System.nanoTime();
+        go.countDown();
+        done.await();
+        result.wallNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Query.
+     * @param path String path and query to GET.
+     * @return the status of the response, reading its body fully so the connection can be reused, or -1
+     *     if there was no response. */
+    private int status(String path) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(base + path).openConnection();
+            int status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (in != null) {
+                drain(in);
+            }
+            return status;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Query.
+     * @return the body of GET path, as text.
+     * @throws IOException if the server does not answer with 200. */
+    public String get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(base + path).openConnection();
+        if (connection.getResponseCode() != 200) {
+            throw new IOException("GET " + path + ": " + connection.getResponseCode());
+        }
+        return new String(drain(connection.getInputStream()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Helper.
+     * @return everything left in in, which is then closed. */
+    private static byte[] drain(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        try {
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Helper.
+     * @return value encoded for a query string. */
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Load tests a running RouteServer.
+     * Usage: RouteLoadClient host:port buildings.tsv [clients] [requests] [pairs]
+     * Prints throughput and client-side latency percentiles, then the server's own /metrics.
+     * @param args String[] as above.
+     * @throws Exception if the buildings cannot be read or the run is interrupted. */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: RouteLoadClient <host:port> <buildings.tsv> [clients] [requests] [pairs]");
+            System.exit(2);
+        }
+        List<CampusBuilding> buildings;
+        InputStream in = new FileInputStream(args[1]);
+        try {
+            buildings = AndroidParser.parseBuildingData(in);
+        } finally {
+            in.close();
+        }
+        List<String> names = new ArrayList<>();
+        for (CampusBuilding building : buildings) {
+            names.add(building.getShortName());
+        }
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        int pairs = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+
+        RouteLoadClient client = new RouteLoadClient("http://" + args[0], names);
+        Result result = client.run(clients, requests, pairs);
+        System.out.printf("%8s %8s %8s %8s %10s %10s %10s %10s%n",
+                "clients", "pairs", "ok", "failed", "req/s", "p50 us", "p99 us", "max us");
+        System.out.printf("%8d %8d %8d %8d %10.0f %10.1f %10.1f %10.1f%n",
+                clients, pairs, result.ok(), result.failed(), result.throughput(),
+                result.latency.valueAtPercentile(50) / 1e3, result.latency.valueAtPercentile(99) / 1e3,
+                result.latency.max() / 1e3);
+        System.out.println();
+        System.out.print(client.get("/metrics"));
+    }
+}
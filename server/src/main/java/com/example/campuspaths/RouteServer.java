@@ -0,0 +1,414 @@
+package com.example.campuspaths;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import hw5.Edge;
+import hw8.CampusBuilding;
+import hw8.CampusPath;
+import hw8.Coordinate;
+import hw8.model.Campus;
+
+/**
+ * Embedded HTTP server answering campus route requests from kiosks and web clients.
+ *
+ * Endpoints:
+ * <pre>
+ *   GET /route?src=CSE&amp;dst=BAG   {"src":"CSE","dst":"BAG","length":1234.5,"polyline":[[x,y],...]}
+ *                                  with the length in feet and the polyline in raw map units; 400 if a
+ *                                  parameter is missing, 404 if a building is unknown or there is no route
+ *   GET /metrics                   the Metrics TSV, with count, p50, p99 and max request latency
+ * </pre>
+ * Buildings are looked up with Campus.getBuildingByShortName, one lookup at a time, and routes are found
+ * by a RouteService.Router, by default Campus.getShortestPath itself under the same lock.
+ *
+ * The JDK HttpServer accepts and parses requests on its NIO selector thread and hands each exchange to
+ * an executor, which is a virtual thread per request on a JVM that has them (Java 21 and up), and a
+ * fixed pool of platform threads otherwise. Identical requests that arrive while one is being computed
+ * are coalesced through a RequestCoalescer, so a burst of kiosks asking for the same route costs one search.
+ */
+public final class RouteServer {
+    /** Latency of every /route request, including time spent waiting on a coalesced one. */
+    public static final Metrics.Recorder REQUEST = Metrics.recorder("server.request", Metrics.Unit.NANOSECONDS);
+    /** /route requests answered. */
+    public static final Metrics.Counter REQUESTS = Metrics.counter("server.requests");
+    /** /route requests that shared the result of an identical one in flight. */
+    public static final Metrics.Counter COALESCED = Metrics.counter("server.coalesced");
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 256;
+    private static final Method VIRTUAL_THREADS = virtualThreads();
+
+    private final Campus campus;
+    // Held for every call into campus, which hw8 makes no promise about calling concurrently.
+    private final ReentrantLock campusLock = new ReentrantLock();
+    private final RouteService.Router router;
+    private final RequestCoalescer<List<String>, Response> coalescer = new RequestCoalescer<>(COALESCED);
+    private HttpServer server;
+    private ExecutorService executor;
+
+    // Abstraction Function:
+    //  A server for the buildings of campus, routing with router, listening iff server is not null.
+    //
+    // Representation Invariant:
+    //  server and executor are both null or both not null.
+
+    /**
+     * A status code and JSON body. Immutable.
+     */
+    static final class Response {
+        final int status;
+        final byte[] body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Constructor.
+     * Routes through campus.getShortestPath, one query at a time.
+     * @param campus Campus whose buildings can be requested and routed between.
+     * @spec.requires campus is not null. */
+    public RouteServer(Campus campus) {
+        this.campus = campus;
+        this.router = campusRouter(campus, campusLock);
+    }
+
+    /**
+     * Constructor.
+     * @param campus Campus whose buildings can be requested.
+     * @param router RouteService.Router to find routes with. It is called from many threads at once.
+     * @spec.requires campus and router are not null. */
+    public RouteServer(Campus campus, RouteService.Router router) {
+        this.campus = campus;
+        this.router = router;
+    }
+
+    /**
+     * Factory.
+     * @param campus Campus to route on.
+     * @param lock ReentrantLock held for every call into campus. Unlike a monitor, it does not pin a waiting
+     *     virtual thread to its carrier thread.
+     * @spec.requires campus and lock are not null.
+     * @return a Router calling campus.getShortestPath under lock. */
+    private static RouteService.Router campusRouter(final Campus campus, final ReentrantLock lock) {
+        return new RouteService.Router() {
+            @Override
+            public ArrayList<Edge<Double, Coordinate>> getShortestPath(Coordinate src, Coordinate dst) {
+                lock.lock();
+                try {
+                    return campus.getShortestPath(src, dst);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        };
+    }
+
+    /**
+     * Starts listening.
+     * @param port int port to listen on, or 0 for any free port.
+     * @param threads int number of platform threads to serve with if virtual threads are unavailable.
+     * @throws IOException if the port cannot be bound.
+     * @spec.requires the server is not already listening, threads &gt; 0.
+     * @return the port listened on. */
+    public synchronized int start(int port, int threads) throws IOException {
+        // The JDK server writes the headers and body of a response separately; without TCP_NODELAY the
+        // body waits on the client's delayed ACK, adding ~40 ms to every request. Read once, on first use.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        executor = newExecutor(threads);
+        server.setExecutor(executor);
+        server.createContext("/route", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                handleRoute(exchange);
+            }
+        });
+        server.createContext("/metrics", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                StringWriter out = new StringWriter();
+                Metrics.write(out);
+                send(exchange, 200, "text/tab-separated-values", out.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Getter.
+     * @spec.requires the server is listening.
+     * @return the port listened on. */
+    public synchronized int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops listening.
+     * @spec.effects Waits up to a second for requests being answered, then closes every connection. */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * Router.
+     * Answers one /route request, coalesced with any identical request in flight.
+     * @param exchange HttpExchange of the request. */
+    private void handleRoute(HttpExchange exchange) throws IOException {
+        long start = Metrics.start();
+        Response response;
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            response = error(405, "only GET is supported");
+        }
+        else {
+            String query = exchange.getRequestURI().getRawQuery();
+            final String src = parameter(query, "src");
+            final String dst = parameter(query, "dst");
+            if (src == null || dst == null) {
+                response = error(400, "expected /route?src=...&dst=...");
+            }
+            else {
+                try {
+                    response = coalescer.execute(Arrays.asList(src, dst), new Callable<Response>() {
+                        @Override
+                        public Response call() {
+                            return route(src, dst);
+                        }
+                    });
+                } catch (Exception e) {
+                    response = error(500, String.valueOf(e));
+                }
+            }
+        }
+        send(exchange, response.status, "application/json", response.body);
+        REQUESTS.increment();
+        REQUEST.recordSince(start);
+    }
+
+    /**
+     * Router.
+     * @param src String short name of the building to start from.
+     * @param dst String short name of the building to end at.
+     * @return the response for the route from src to dst. */
+    Response route(String src, String dst) {
+        CampusBuilding source;
+        CampusBuilding destination;
+        campusLock.lock();
+        try {
+            source = campus.getBuildingByShortName(src);
+            destination = campus.getBuildingByShortName(dst);
+        } finally {
+            campusLock.unlock();
+        }
+        if (source == null || destination == null) {
+            return error(404, "unknown building " + (source == null ? src : dst));
+        }
+        long start = Metrics.start();
+        ArrayList<Edge<Double, Coordinate>> path = router.getShortestPath(source.getLocation(),
+                destination.getLocation());
+        Metrics.ROUTE.recordSince(start);
+        if (path == null) {
+            return error(404, "no route from " + src + " to " + dst);
+        }
+        return new Response(200, routeJson(src, dst, path));
+    }
+
+    /**
+     * Converter.
+     * @return the JSON body for a route: the buildings, its length in feet and the vertices of its polyline in
+     *     map units. */
+    static String routeJson(String srcName, String dstName, ArrayList<Edge<Double, Coordinate>> path) {
+        double length = 0.0;
+        for (Edge<Double, Coordinate> edge : path) {
+            length += edge.getLabel();
+        }
+        RoutePolyline polyline = RouteGeometry.polyline(path, 1.0f);
+        StringBuilder json = new StringBuilder(64 + polyline.vertexCount() * 24);
+        json.append("{\"src\":");
+        appendString(json, srcName);
+        json.append(",\"dst\":");
+        appendString(json, dstName);
+        json.append(",\"length\":").append(length).append(",\"polyline\":[");
+        for (int i = 0; i < polyline.vertexCount(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('[').append(polyline.x(i)).append(',').append(polyline.y(i)).append(']');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Factory.
+     * @return a response with the given status and an {"error": message} body. */
+    private static Response error(int status, String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        appendString(json, message);
+        return new Response(status, json.append('}').toString());
+    }
+
+    /**
+     * Helper.
+     * Appends value as a JSON string literal. */
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            }
+            else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Helper.
+     * @return the decoded value of the first name parameter in the raw query string, or null if there is none. */
+    static String parameter(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            if (key.equals(name)) {
+                try {
+                    return URLDecoder.decode(equals < 0 ? "" : pair.substring(equals + 1), "UTF-8");
+                } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writer.
+     * Sends a complete response and closes the exchange. */
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        OutputStream out = exchange.getResponseBody();
+        try {
+            out.write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Factory.
+     * @return an executor running each task on a new virtual thread if the JVM supports them, otherwise a
+     *     fixed pool of that many platform threads. */
+    static ExecutorService newExecutor(int threads) {
+        if (VIRTUAL_THREADS != null) {
+            try {
+                return (ExecutorService) VIRTUAL_THREADS.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Fall back to platform threads.
+            }
+        }
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Helper.
+     * @return Executors.newVirtualThreadPerTaskExecutor, or null on a JVM older than Java 21. It is looked up
+     *     reflectively so the server still builds for and runs on Java 8. */
+    private static Method virtualThreads() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Serves the campus described by a buildings TSV and a paths TSV.
+     * Usage: RouteServer buildings.tsv paths.tsv [port] [campus|snapshot]
+     * The campus router answers through Campus.getShortestPath, one query at a time; the snapshot router
+     * answers concurrently through a CampusSnapshot of the same paths.
+     * @param args String[] as above.
+     * @throws IOException if a TSV cannot be read or the port cannot be bound. */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: RouteServer <buildings.tsv> <paths.tsv> [port] [campus|snapshot]");
+            System.exit(2);
+        }
+        List<CampusBuilding> buildings;
+        List<CampusPath> paths;
+        InputStream buildingsIn = new FileInputStream(args[0]);
+        InputStream pathsIn = new FileInputStream(args[1]);
+        try {
+            buildings = AndroidParser.parseBuildingData(buildingsIn);
+            paths = AndroidParser.parsePathData(pathsIn);
+        } finally {
+            buildingsIn.close();
+            pathsIn.close();
+        }
+        Campus campus = new Campus(buildings, paths);
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PORT;
+        boolean snapshot = args.length > 3 && args[3].equals("snapshot");
+
+        Metrics.setEnabled(true);
+        final RouteServer server = snapshot
+                ? new RouteServer(campus, new CampusSnapshot(CampusGraph.build(buildings, paths)))
+                : new RouteServer(campus);
+        port = server.start(port, Runtime.getRuntime().availableProcessors());
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                server.stop();
+            }
+        }));
+        System.out.printf("RouteServer: listening" +
+                "\n\tport: '%d'" +
+                "\n\tbuildings: '%d'" +
+                "\n\trouter: '%s'" +
+                "\n\tvirtual threads: '%s'\n",
+                port, buildings.size(), snapshot ? "snapshot" : "campus", VIRTUAL_THREADS != null);
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.campuspaths;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hw5.Edge;
+import hw5.Node;
+import hw8.CampusBuilding;
+import hw8.CampusPath;
+import hw8.Coordinate;
+import hw8.model.Campus;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the /route and /metrics endpoints of a RouteServer serving the bundled campus, that
+ * RequestCoalescer runs identical concurrent requests once, and that the server answers every request
+ * under load across client counts and numbers of distinct pairs. The :server:loadTest task reports
+ * throughput and latency.
+ */
+public class RouteServerTest {
+    // The bundled TSVs, from the shared campus data directory on the test classpath.
+    private static final String RAW_DIR = "raw/";
+
+    private static List<CampusBuilding> buildings;
+
+    /**
+     * Starts a server for the bundled campus on a free port, routing through Campus.getShortestPath.
+     * @return the server, which the caller must stop. */
+    private static RouteServer startServer() throws IOException {
+        ClassLoader loader = RouteServerTest.class.getClassLoader();
+        InputStream buildingsIn = loader.getResourceAsStream(RAW_DIR + "campus_buildings_new.tsv");
+        InputStream pathsIn = loader.getResourceAsStream(RAW_DIR + "campus_paths.tsv");
+        if (buildingsIn == null || pathsIn == null) {
+            throw new IOException("Missing test resources in " + RAW_DIR);
+        }
+        List<CampusPath> paths;
+        try {
+            buildings = AndroidParser.parseBuildingData(buildingsIn);
+            paths = AndroidParser.parsePathData(pathsIn);
+        } finally {
+            buildingsIn.close();
+            pathsIn.close();
+        }
+        Campus campus = new Campus(buildings, paths);
+        RouteServer server = new RouteServer(campus);
+        server.start(0, 8);
+        return server;
+    }
+
+    private static int status(String base, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(base + path).openConnection();
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static List<String> names() {
+        List<String> names = new ArrayList<>();
+        for (CampusBuilding building : buildings) {
+            names.add(building.getShortName());
+        }
+        return names;
+    }
+
+    @Test
+    public void route_returnsPolylineBetweenBuildings() throws IOException {
+        RouteServer server = startServer();
+        String base = "http://localhost:" + server.port();
+        try {
+            CampusBuilding src = buildings.get(0);
+            CampusBuilding dst = buildings.get(buildings.size() - 1);
+            String json = new RouteLoadClient(base, names()).get(
+                    "/route?src=" + src.getShortName() + "&dst=" + dst.getShortName());
+            assertTrue(json, json.startsWith("{\"src\":\"" + src.getShortName() + "\",\"dst\":\""
+                    + dst.getShortName() + "\",\"length\":"));
+            assertTrue(json, json.contains("\"polyline\":[["));
+            assertTrue(json, json.contains("[" + (float) src.getLocation().getX() + ","
+                    + (float) src.getLocation().getY() + "]"));
+            assertTrue(json, json.endsWith("]]}"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void route_rejectsBadRequests() throws IOException {
+        RouteServer server = startServer();
+        String base = "http://localhost:" + server.port();
+        try {
+            String name = buildings.get(0).getShortName();
+            assertEquals(400, status(base, "/route?src=" + name));
+            assertEquals(400, status(base, "/route"));
+            assertEquals(404, status(base, "/route?src=" + name + "&dst=NOPE"));
+            assertEquals(404, status(base, "/route?src=NOPE&dst=" + name));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void metrics_reportsRequestLatency() throws IOException {
+        RouteServer server = startServer();
+        String base = "http://localhost:" + server.port();
+        boolean enabled = Metrics.isEnabled();
+        Metrics.setEnabled(true);
+        try {
+            String name = buildings.get(0).getShortName();
+            assertEquals(200, status(base, "/route?src=" + name + "&dst=" + name));
+            String tsv = new RouteLoadClient(base, names()).get("/metrics");
+            assertTrue(tsv, tsv.contains("server.request\t"));
+            assertTrue(tsv, tsv.contains("p99"));
+        } finally {
+            Metrics.setEnabled(enabled);
+            server.stop();
+        }
+    }
+
+    @Test
+    public void routeJson_reportsLengthInFeetFromEdgeLabels() {
+        ArrayList<Edge<Double, Coordinate>> path = new ArrayList<>();
+        path.add(new Edge<>(new Node<>(new Coordinate(0, 0)), new Node<>(new Coordinate(3, 4)), 51.5));
+        path.add(new Edge<>(new Node<>(new Coordinate(3, 4)), new Node<>(new Coordinate(3, 10)), 24.25));
+        String json = RouteServer.routeJson("A", "B", path);
+        assertTrue(json, json.contains("\"length\":75.75,"));
+    }
+
+    @Test
+    public void parameter_decodesQueryValues() {
+        assertEquals("CSE", RouteServer.parameter("src=CSE&dst=BAG", "src"));
+        assertEquals("BAG", RouteServer.parameter("src=CSE&dst=BAG", "dst"));
+        assertEquals("A B&C", RouteServer.parameter("src=A+B%26C", "src"));
+        assertEquals("", RouteServer.parameter("src=&dst=BAG", "src"));
+        assertNull(RouteServer.parameter("source=CSE", "src"));
+        assertNull(RouteServer.parameter(null, "src"));
+    }
+
+    @Test
+    public void execute_runsIdenticalConcurrentRequestsOnce() throws Exception {
+        final int threads = 8;
+        final RequestCoalescer<String, Integer> coalescer = new RequestCoalescer<>(null);
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger waiting = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final int[] results = new int[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        waiting.incrementAndGet();
+                        results[index] = coalescer.execute("key", new Callable<Integer>() {
+                            @Override
+                            public Integer call() throws InterruptedException {
+                                release.await();
+                                return calls.incrementAndGet();
+                            }
+                        });
+                    } catch (Exception e) {
+                        results[index] = -1;
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        while (waiting.get() < threads || coalescer.inFlight() == 0) {
+            Thread.sleep(1);
+        }
+        // Give the last threads time to find the running computation before it finishes.
+        Thread.sleep(100);
+        release.countDown();
+        done.await();
+
+        assertEquals(0, coalescer.inFlight());
+        assertEquals(1, calls.get());
+        for (int result : results) {
+            assertEquals(1, result);
+        }
+        // Nothing is kept once the computation finishes.
+        assertEquals(Integer.valueOf(2), coalescer.execute("key", new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return calls.incrementAndGet();
+            }
+        }));
+    }
+
+    @Test
+    public void execute_rethrowsToEveryWaiter() throws Exception {
+        RequestCoalescer<String, Integer> coalescer = new RequestCoalescer<>(null);
+        try {
+            coalescer.execute("key", new Callable<Integer>() {
+                @Override
+                public Integer call() throws IOException {
+                    throw new IOException("no route");
+                }
+            });
+            fail("expected IOException");
+        } catch (IOException expected) {
+            // Expected.
+        }
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    public void loadTest_answersEveryRequest() throws IOException, InterruptedException {
+        RouteServer server = startServer();
+        String base = "http://localhost:" + server.port();
+        RouteLoadClient client = new RouteLoadClient(base, names());
+        boolean enabled = Metrics.isEnabled();
+        Metrics.setEnabled(true);
+        try {
+            for (int clients : new int[] {1, 8, 32}) {
+                for (int pairs : new int[] {4, 256}) {
+                    RouteLoadClient.Result result = client.run(clients, 200, pairs);
+                    assertEquals(0, result.failed());
+                    assertEquals(clients * 200, result.ok());
+                }
+            }
+        } finally {
+            Metrics.setEnabled(enabled);
+            server.stop();
+        }
+    }
+}